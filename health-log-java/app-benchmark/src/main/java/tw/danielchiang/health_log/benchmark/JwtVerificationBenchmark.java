@@ -0,0 +1,95 @@
+package tw.danielchiang.health_log.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.jsonwebtoken.Claims;
+import tw.danielchiang.health_log.service.JwtTokenUtil;
+
+/**
+ * JWT 驗證吞吐量
+ * uncached* 為未快取時的行為（每次驗證簽章並解析 JSON），cached* 為使用 Claims 快取
+ * request* 模擬一個請求內的 Token 使用方式：
+ * 修改前過濾器與 SecurityUtil 共解析 4 次，修改後解析一次並存放在請求中
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jmh-only-minimum-256-bits-long";
+
+    private JwtTokenUtil uncached;
+    private JwtTokenUtil cached;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        uncached = newJwtTokenUtil(false);
+        cached = newJwtTokenUtil(true);
+        token = cached.generateAccessToken(1L, "user@example.com", "USER");
+    }
+
+    @Benchmark
+    public Claims uncachedVerify() {
+        return uncached.getAllClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public Claims cachedVerify() {
+        return cached.getAllClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public void requestBefore(Blackhole blackhole) {
+        // getUsernameFromToken + validateToken（再解析兩次）+ getUserIdFromToken
+        blackhole.consume(uncached.getUsernameFromToken(token));
+        blackhole.consume(uncached.getUsernameFromToken(token));
+        blackhole.consume(uncached.getExpirationDateFromToken(token));
+        blackhole.consume(uncached.getUserIdFromToken(token));
+    }
+
+    @Benchmark
+    public void requestAfter(Blackhole blackhole) {
+        Claims claims = cached.getAllClaimsFromToken(token);
+        blackhole.consume(cached.getPrincipalFromClaims(claims));
+        blackhole.consume(cached.getUserIdFromClaims(claims));
+    }
+
+    /**
+     * 不啟動 Spring，直接設定 @Value 欄位並初始化
+     */
+    private static JwtTokenUtil newJwtTokenUtil(boolean claimsCacheEnabled) throws Exception {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+        setField(jwtTokenUtil, "secret", SECRET);
+        setField(jwtTokenUtil, "accessTokenExpiration", TimeUnit.HOURS.toMillis(1));
+        setField(jwtTokenUtil, "claimsCacheEnabled", claimsCacheEnabled);
+        setField(jwtTokenUtil, "claimsCacheMaximumSize", 10000L);
+        Method init = JwtTokenUtil.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(jwtTokenUtil);
+        return jwtTokenUtil;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
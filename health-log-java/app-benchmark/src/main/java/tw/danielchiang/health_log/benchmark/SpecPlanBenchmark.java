@@ -0,0 +1,90 @@
+package tw.danielchiang.health_log.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import tw.danielchiang.health_log.model.entity.DailyRecord;
+import tw.danielchiang.health_log.model.obj.SpecObj;
+import tw.danielchiang.health_log.model.obj.SpecPlan;
+import tw.danielchiang.health_log.model.obj.WhereObj;
+import tw.danielchiang.health_log.service.cache.SpecPlanCache;
+
+/**
+ * 查詢條件準備成本（每個請求）
+ * 以儀表板常見的條件測量：最近 N 天（日期區間）、單一日期、數個指定日期（OR）
+ * 每次呼叫使用不同日期，模擬不同使用者以相同形狀查詢
+ * compileEachRequest 為每次重新驗證與編譯，cachedPlan 為依形狀取用已編譯的計畫，只綁定數值
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpecPlanBenchmark {
+
+    private static final LocalDate BASE_DATE = LocalDate.of(2024, 1, 1);
+
+    @Param({"lastDays", "singleDate", "selectedDates"})
+    public String filter;
+
+    private SpecPlanCache specPlanCache;
+
+    @Setup
+    public void setUp() throws Exception {
+        specPlanCache = new SpecPlanCache(null);
+        Field maximumSize = SpecPlanCache.class.getDeclaredField("maximumSize");
+        maximumSize.setAccessible(true);
+        maximumSize.set(specPlanCache, 1000L);
+        Method init = SpecPlanCache.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(specPlanCache);
+    }
+
+    @Benchmark
+    public Specification<DailyRecord> compileEachRequest() {
+        SpecObj specObj = nextFilter();
+        return SpecPlan.compile(DailyRecord.class, specObj).bind(specObj);
+    }
+
+    @Benchmark
+    public Specification<DailyRecord> cachedPlan() {
+        return specPlanCache.toSpecification(DailyRecord.class, nextFilter());
+    }
+
+    private SpecObj nextFilter() {
+        LocalDate date = BASE_DATE.plusDays(ThreadLocalRandom.current().nextInt(365));
+        return switch (filter) {
+            case "lastDays" -> new SpecObj(true, null, List.of(
+                where("recordDate", WhereObj.Operator.GTE, date.minusDays(30).toString(), null),
+                where("recordDate", WhereObj.Operator.LTE, date.toString(), WhereObj.Logic.AND)));
+            case "singleDate" -> new SpecObj(true, null, List.of(
+                where("recordDate", WhereObj.Operator.EQ, date.toString(), null)));
+            default -> new SpecObj(true, null, List.of(
+                where("recordDate", WhereObj.Operator.EQ, date.toString(), null),
+                where("recordDate", WhereObj.Operator.EQ, date.minusDays(7).toString(), WhereObj.Logic.OR),
+                where("recordDate", WhereObj.Operator.EQ, date.minusDays(14).toString(), WhereObj.Logic.OR)));
+        };
+    }
+
+    private static WhereObj where(String column, WhereObj.Operator operator, String value, WhereObj.Logic logic) {
+        return WhereObj.builder().isWhere(true).column(column).operator(operator).value(value).logic(logic).build();
+    }
+}
@@ -0,0 +1,87 @@
+package tw.danielchiang.health_log.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import tw.danielchiang.health_log.service.stats.RunningStatistics;
+
+/**
+ * NUMBER 統計計算時間
+ * bigDecimalStreams 為原本的做法：每個數值建立 BigDecimal，分別串流計算 sum/max/min/variance，複製並排序求中位數
+ * runningStatistics 為單次掃描（Welford）加 quickselect 中位數
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class StatisticsKernelBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private double[] values;
+    private String[] texts;
+    private double[] scratch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        values = new double[size];
+        texts = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = Math.round((60 + random.nextGaussian() * 8) * 10) / 10.0;
+            texts[i] = Double.toString(values[i]);
+        }
+        scratch = new double[size];
+    }
+
+    @Benchmark
+    public void bigDecimalStreams(Blackhole blackhole) {
+        List<BigDecimal> list = new ArrayList<>(size);
+        for (String text : texts) {
+            list.add(new BigDecimal(text));
+        }
+        BigDecimal sum = list.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal average = sum.divide(BigDecimal.valueOf(list.size()), 2, RoundingMode.HALF_UP);
+        blackhole.consume(list.stream().max(BigDecimal::compareTo).orElse(null));
+        blackhole.consume(list.stream().min(BigDecimal::compareTo).orElse(null));
+        BigDecimal variance = list.stream()
+                .map(v -> v.subtract(average).pow(2))
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .divide(BigDecimal.valueOf(list.size()), 2, RoundingMode.HALF_UP);
+        blackhole.consume(Math.sqrt(variance.doubleValue()));
+        List<BigDecimal> sorted = new ArrayList<>(list);
+        sorted.sort(BigDecimal::compareTo);
+        blackhole.consume(sorted.get(sorted.size() / 2));
+    }
+
+    @Benchmark
+    public void runningStatistics(Blackhole blackhole) {
+        RunningStatistics statistics = RunningStatistics.of(values);
+        blackhole.consume(statistics.getMean());
+        blackhole.consume(statistics.getStandardDeviation());
+        blackhole.consume(statistics.getMin());
+        blackhole.consume(statistics.getMax());
+        System.arraycopy(values, 0, scratch, 0, size);
+        blackhole.consume(RunningStatistics.median(scratch, size));
+    }
+}
@@ -0,0 +1,111 @@
+package tw.danielchiang.health_log.benchmark;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tw.danielchiang.health_log.service.text.SpaceSaving;
+import tw.danielchiang.health_log.service.text.TextTokenizer;
+import tw.danielchiang.health_log.service.text.TokenFrequencies;
+import tw.danielchiang.health_log.service.text.Vocabulary;
+
+/**
+ * TEXT 欄位關鍵字頻率的計算時間
+ * regex 為原本的 replaceAll + split 寫法；tokenizer 為 TextTokenizer + TokenFrequencies；
+ * spaceSaving 為 TextTokenizer + SpaceSaving（只監看固定數量的詞彙）
+ * 語料為以常見日記句子隨機組合的中英夾雜文字（每篇 1~4 句）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextTokenizerBenchmark {
+
+    private static final List<String> SENTENCES = List.of(
+            "今天早上起床頭有點痛，吃了一顆普拿疼。",
+            "晚上去公園慢跑三十分鐘，流了很多汗，心情變得比較好。",
+            "午餐吃了雞胸肉便當和青菜，沒有喝含糖飲料。",
+            "昨晚睡不好，半夜醒來兩次，白天一直很睏。",
+            "Morning run 5km in 28 minutes, felt great.",
+            "血壓量起來 128/82，比上週高一點，要少吃鹹的東西。",
+            "下午開會壓力很大，肩膀和脖子都很緊繃。",
+            "做了 20 分鐘的 yoga，伸展之後背比較不痠了。",
+            "醫生說膽固醇偏高，建議每週運動至少三次。",
+            "今天喝了 2000ml 的水，上廁所的次數變多。",
+            "Skipped the gym again, too tired after work.",
+            "週末和朋友去爬山，走了一萬五千步，腳很痠。",
+            "感冒還沒好，喉嚨痛又有點咳嗽，早點睡覺吧。",
+            "體重 71.2kg，比上個月少了將近一公斤。");
+
+    @Param({"365", "3650"})
+    public int entries;
+
+    private String[] corpus;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        corpus = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            StringBuilder entry = new StringBuilder();
+            int sentenceCount = 1 + random.nextInt(4);
+            for (int j = 0; j < sentenceCount; j++) {
+                entry.append(SENTENCES.get(random.nextInt(SENTENCES.size())));
+            }
+            corpus[i] = entry.toString();
+        }
+    }
+
+    @Benchmark
+    public Map<String, Long> regex() {
+        Map<String, Long> keywordFrequency = new HashMap<>();
+        for (String text : corpus) {
+            String[] words = text.toLowerCase()
+                    .replaceAll("[^\\u4e00-\\u9fa5a-zA-Z0-9\\s]", " ")
+                    .split("\\s+");
+            for (String word : words) {
+                if (word.length() > 1) {
+                    keywordFrequency.put(word, keywordFrequency.getOrDefault(word, 0L) + 1);
+                }
+            }
+        }
+        return keywordFrequency;
+    }
+
+    @Benchmark
+    public Map<String, Long> tokenizer() {
+        Vocabulary vocabulary = new Vocabulary();
+        TextTokenizer tokenizer = new TextTokenizer(vocabulary);
+        TokenFrequencies frequencies = new TokenFrequencies(vocabulary);
+        for (String text : corpus) {
+            tokenizer.tokenize(text, frequencies);
+        }
+        return frequencies.toMap();
+    }
+
+    @Benchmark
+    public Map<String, Long> spaceSaving() {
+        TextTokenizer tokenizer = new TextTokenizer();
+        SpaceSaving heavyHitters = new SpaceSaving(1000);
+        for (String text : corpus) {
+            tokenizer.tokenize(text, heavyHitters);
+        }
+        return heavyHitters.top(100);
+    }
+}
@@ -0,0 +1,93 @@
+package tw.danielchiang.health_log.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import tw.danielchiang.health_log.model.dto.reponse.TrendDataPointDTO;
+import tw.danielchiang.health_log.service.stats.Downsampling;
+
+/**
+ * 趨勢回應的序列化時間與大小
+ * fullSeries 為每日一點全部序列化；downsampled 先以 LTTB 降採樣至 maxPoints 再序列化（含解析數值與挑選的時間）
+ * 兩者皆回傳 JSON 位元組數，大小見 setUp 輸出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrendDownsamplingBenchmark {
+
+    /**
+     * 1826 為五年的每日數據
+     */
+    @Param({"1826", "36500"})
+    public int days;
+
+    @Param({"300"})
+    public int maxPoints;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private List<TrendDataPointDTO> trendData;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        trendData = new ArrayList<>(days);
+        double value = 70;
+        for (int i = 0; i < days; i++) {
+            value += random.nextGaussian() * 0.3;
+            trendData.add(new TrendDataPointDTO(start.plusDays(i), String.format("%.1f", value)));
+        }
+        System.out.printf("%nfull: %d bytes, downsampled: %d bytes%n",
+                objectMapper.writeValueAsBytes(trendData).length,
+                objectMapper.writeValueAsBytes(downsample()).length);
+    }
+
+    @Benchmark
+    public int fullSeries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(trendData).length;
+    }
+
+    @Benchmark
+    public int downsampled() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(downsample()).length;
+    }
+
+    private List<TrendDataPointDTO> downsample() {
+        double[] x = new double[days];
+        double[] y = new double[days];
+        for (int i = 0; i < days; i++) {
+            TrendDataPointDTO point = trendData.get(i);
+            x[i] = point.getDate().toEpochDay();
+            y[i] = Double.parseDouble(point.getValue());
+        }
+        int[] selected = Downsampling.lttb(x, y, maxPoints);
+        List<TrendDataPointDTO> result = new ArrayList<>(selected.length);
+        for (int index : selected) {
+            result.add(trendData.get(index));
+        }
+        return result;
+    }
+}
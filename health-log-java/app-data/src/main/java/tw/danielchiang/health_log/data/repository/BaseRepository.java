@@ -1,12 +1,18 @@
 package tw.danielchiang.health_log.data.repository;
 
+import java.util.List;
+
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import jakarta.persistence.criteria.JoinType;
 import tw.danielchiang.health_log.model.obj.SearchObj;
 
 @NoRepositoryBean
@@ -23,5 +29,73 @@ public interface BaseRepository<T, ID> extends JpaRepository<T, ID>, JpaSpecific
 
         return findAll(specification, pageable);
     }
+
+    /**
+     * 分頁查詢並依 fetch plan 載入該頁實體的關聯集合
+     * 先分頁查詢主實體，再對每個集合以一次 JOIN FETCH 查詢載入整頁的集合（填入持久化上下文中的同一批實體），
+     * 查詢數固定，不隨頁面筆數增加；不直接在分頁查詢中 JOIN FETCH 集合，避免 Hibernate 在記憶體中分頁
+     * @param searchObj 查詢條件
+     * @param fetchAttributes 要載入的集合屬性名稱
+     * @return 分頁結果，集合已初始化
+     */
+    default Page<T> search(SearchObj<T> searchObj, String... fetchAttributes) {
+        Page<T> page = search(searchObj);
+        fetchCollections(page.getContent(), fetchAttributes);
+        return page;
+    }
+
+    /**
+     * 分頁查詢但不查詢總筆數（多取一筆判斷是否有下一頁）
+     * @param searchObj 查詢條件
+     * @param fetchAttributes 要載入的集合屬性名稱
+     * @return 分頁結果，集合已初始化
+     */
+    default Slice<T> searchSlice(SearchObj<T> searchObj, String... fetchAttributes) {
+        Pageable pageable = searchObj.getPageable();
+        if (pageable == null) {
+            throw new IllegalArgumentException("Pageable is required");
+        }
+
+        Slice<T> slice = findBy(searchObj.getSpecification(), query -> query.slice(pageable));
+        fetchCollections(slice.getContent(), fetchAttributes);
+        return slice;
+    }
+
+    /**
+     * keyset 分頁查詢：以 WHERE 條件從上一頁最後一筆的排序鍵值接續，不使用 OFFSET，也不查詢總筆數
+     * 排序（searchObj 的 pageable）必須以唯一鍵結尾，查詢成本不隨頁數增加
+     * @param searchObj 查詢條件（使用 pageable 的 size 與排序）
+     * @param position 上一頁最後一筆的排序鍵值，第一頁為 ScrollPosition.keyset()
+     * @param fetchAttributes 要載入的集合屬性名稱
+     * @return 該頁結果，集合已初始化
+     */
+    default Window<T> scroll(SearchObj<T> searchObj, KeysetScrollPosition position, String... fetchAttributes) {
+        Pageable pageable = searchObj.getPageable();
+        if (pageable == null) {
+            throw new IllegalArgumentException("Pageable is required");
+        }
+
+        Window<T> window = findBy(searchObj.getSpecification(), query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(position));
+        fetchCollections(window.getContent(), fetchAttributes);
+        return window;
+    }
+
+    /**
+     * 對每個集合以一次 JOIN FETCH 查詢載入所有實體的集合
+     */
+    private void fetchCollections(List<T> content, String... fetchAttributes) {
+        if (content.isEmpty()) {
+            return;
+        }
+        for (String attribute : fetchAttributes) {
+            findAll((root, query, criteriaBuilder) -> {
+                root.fetch(attribute, JoinType.LEFT);
+                return root.in(content);
+            });
+        }
+    }
     
 }
@@ -1,9 +1,11 @@
 package tw.danielchiang.health_log.data.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -25,6 +27,17 @@ public interface DailyRecordRepository extends BaseRepository<DailyRecord, Long>
     @Query("SELECT dr FROM DailyRecord dr WHERE dr.user.id = :userId AND dr.recordDate = :recordDate")
     Optional<DailyRecord> findByUserIdAndRecordDate(@Param("userId") Long userId, @Param("recordDate") LocalDate recordDate);
 
+    /**
+     * 查詢使用者多個日期的記錄，並一併載入記錄數值
+     * @param userId 使用者 ID
+     * @param recordDates 記錄日期集合
+     * @return 每日記錄列表（已載入 recordDataList）
+     */
+    @Query("SELECT DISTINCT dr FROM DailyRecord dr LEFT JOIN FETCH dr.recordDataList "
+            + "WHERE dr.user.id = :userId AND dr.recordDate IN :recordDates")
+    List<DailyRecord> findWithDataByUserIdAndRecordDateIn(@Param("userId") Long userId,
+            @Param("recordDates") Collection<LocalDate> recordDates);
+
     /**
      * 檢查使用者是否在指定日期已有記錄
      * @param userId 使用者 ID
@@ -35,11 +48,18 @@ public interface DailyRecordRepository extends BaseRepository<DailyRecord, Long>
     boolean existsByUserIdAndRecordDate(@Param("userId") Long userId, @Param("recordDate") LocalDate recordDate);
 
     /**
-     * 根據使用者 ID 查詢所有記錄
+     * 根據使用者 ID 查詢所有記錄（同時載入記錄數值）
      * @param userId 使用者 ID
      * @return 記錄列表
      */
     @Deprecated
+    @EntityGraph(attributePaths = "recordDataList")
     List<DailyRecord> findByUserIdOrderByRecordDateDesc(Long userId);
-}
 
+    /**
+     * 查詢所有擁有記錄的使用者 ID
+     * @return 使用者 ID 列表
+     */
+    @Query("SELECT DISTINCT dr.user.id FROM DailyRecord dr")
+    List<Long> findDistinctUserIds();
+}
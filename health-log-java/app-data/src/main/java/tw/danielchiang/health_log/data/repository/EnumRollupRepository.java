@@ -0,0 +1,51 @@
+package tw.danielchiang.health_log.data.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import tw.danielchiang.health_log.model.entity.EnumRollup;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+
+/**
+ * ENUM 欄位彙總 Repository
+ */
+@Repository
+public interface EnumRollupRepository extends BaseRepository<EnumRollup, Long> {
+
+    /**
+     * 查詢單一週期內多個欄位所有選項的彙總
+     * @param userId 使用者 ID
+     * @param granularity 彙總週期
+     * @param periodStart 週期起始日
+     * @param settingIds 欄位設定 ID 集合
+     * @return 彙總列表
+     */
+    List<EnumRollup> findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(
+            Long userId, RollupGranularity granularity, LocalDate periodStart, Collection<Integer> settingIds);
+
+    /**
+     * 查詢週期起始日在區間內的所有彙總
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param granularity 彙總週期
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return 彙總列表，按週期升序
+     */
+    List<EnumRollup> findByUserIdAndSettingIdAndGranularityAndPeriodStartBetweenOrderByPeriodStartAsc(
+            Long userId, Integer settingId, RollupGranularity granularity, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 刪除使用者的所有彙總
+     * @param userId 使用者 ID
+     */
+    @Modifying
+    @Query("DELETE FROM EnumRollup r WHERE r.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,48 @@
+package tw.danielchiang.health_log.data.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import tw.danielchiang.health_log.model.entity.NumberSketch;
+
+/**
+ * NUMBER 欄位分位數草圖 Repository
+ */
+@Repository
+public interface NumberSketchRepository extends BaseRepository<NumberSketch, Long> {
+
+    /**
+     * 查詢單一月份內多個欄位的草圖
+     * @param userId 使用者 ID
+     * @param periodStart 月份第一天
+     * @param settingIds 欄位設定 ID 集合
+     * @return 草圖列表
+     */
+    List<NumberSketch> findByUserIdAndPeriodStartAndSettingIdIn(Long userId, LocalDate periodStart,
+            Collection<Integer> settingIds);
+
+    /**
+     * 查詢月份在區間內的所有草圖
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return 草圖列表，按月份升序
+     */
+    List<NumberSketch> findByUserIdAndSettingIdAndPeriodStartBetweenOrderByPeriodStartAsc(
+            Long userId, Integer settingId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 刪除使用者的所有草圖
+     * @param userId 使用者 ID
+     */
+    @Modifying
+    @Query("DELETE FROM NumberSketch s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
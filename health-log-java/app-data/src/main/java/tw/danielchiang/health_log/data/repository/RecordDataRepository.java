@@ -1,20 +1,31 @@
 package tw.danielchiang.health_log.data.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import tw.danielchiang.health_log.model.entity.RecordData;
+import tw.danielchiang.health_log.model.obj.FieldValueObj;
+import tw.danielchiang.health_log.model.obj.RecordExportRowObj;
+import tw.danielchiang.health_log.model.obj.RecordValueObj;
 
 /**
  * 記錄數值 Repository
  */
 @Repository
-public interface RecordDataRepository extends BaseRepository<RecordData, Long> {
+public interface RecordDataRepository extends BaseRepository<RecordData, Long>, RecordDataRepositoryCustom {
 
     /**
      * 根據記錄 ID 查詢所有記錄數值
@@ -39,5 +50,284 @@ public interface RecordDataRepository extends BaseRepository<RecordData, Long> {
      */
     @Query("SELECT rd FROM RecordData rd WHERE rd.fieldSetting.settingId = :settingId AND rd.dailyRecord.recordId = :recordId")
     Optional<RecordData> findBySettingIdAndRecordId(@Param("settingId") Integer settingId, @Param("recordId") Long recordId);
-}
 
+    /**
+     * 查詢使用者某欄位在日期區間內的所有數值（單一查詢）
+     * 走 uk_user_record_date 與 idx_record_data_setting_record 索引
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return (recordDate, valueText) 列表，按日期升序
+     */
+    @Query("SELECT new tw.danielchiang.health_log.model.obj.RecordValueObj(dr.recordDate, rd.valueText) "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr "
+            + "WHERE dr.user.id = :userId AND rd.fieldSetting.settingId = :settingId "
+            + "AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "ORDER BY dr.recordDate ASC")
+    List<RecordValueObj> findValuesInRange(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查詢欄位在日期區間內非空數值的筆數與長度統計（不讀取文字內容）
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return 長度統計（沒有數值時 count 為 0，其餘為 null）
+     */
+    @Query("SELECT COUNT(rd) AS count, AVG(LENGTH(rd.valueText)) AS averageLength, "
+            + "MAX(LENGTH(rd.valueText)) AS maxLength, MIN(LENGTH(rd.valueText)) AS minLength "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr "
+            + "WHERE dr.user.id = :userId AND rd.fieldSetting.settingId = :settingId "
+            + "AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "AND rd.valueText IS NOT NULL AND rd.valueText <> ''")
+    TextLengthStatistics aggregateTextLengthsInRange(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查詢欄位在日期區間內非空的數值，由新到舊（供分頁的時間序列使用）
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @param limit 筆數上限
+     * @return (recordDate, valueText) 列表，按日期降序
+     */
+    @Query("SELECT new tw.danielchiang.health_log.model.obj.RecordValueObj(dr.recordDate, rd.valueText) "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr "
+            + "WHERE dr.user.id = :userId AND rd.fieldSetting.settingId = :settingId "
+            + "AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "AND rd.valueText IS NOT NULL AND rd.valueText <> '' "
+            + "ORDER BY dr.recordDate DESC")
+    List<RecordValueObj> findTextTimeline(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate, Limit limit);
+
+    /**
+     * 查詢使用者在日期區間內的每一筆記錄及某欄位的數值（單一查詢，沒有數值時 valueText 為 null）
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return (recordDate, valueText) 列表，按日期升序
+     */
+    @Query("SELECT new tw.danielchiang.health_log.model.obj.RecordValueObj(dr.recordDate, rd.valueText) "
+            + "FROM DailyRecord dr LEFT JOIN dr.recordDataList rd ON rd.fieldSetting.settingId = :settingId "
+            + "WHERE dr.user.id = :userId "
+            + "AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "ORDER BY dr.recordDate ASC")
+    List<RecordValueObj> findValuesInRangeWithNulls(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查詢使用者某 NUMBER 欄位在日期區間內的所有數值（不含 value_numeric 為 null 者）
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return 數值列表（不排序）
+     */
+    @Query("SELECT rd.valueNumeric FROM RecordData rd JOIN rd.dailyRecord dr "
+            + "WHERE dr.user.id = :userId AND rd.fieldSetting.settingId = :settingId "
+            + "AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "AND rd.valueNumeric IS NOT NULL")
+    List<BigDecimal> findNumericValuesInRange(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 以單一 SQL 聚合計算使用者某 NUMBER 欄位在日期區間內的統計值
+     * 只統計 value_numeric 不為 null 的數值
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return 聚合結果（沒有數值時 count 為 0，其餘為 null）
+     */
+    @Query(value = "SELECT COUNT(rd.value_numeric) AS count, "
+            + "SUM(rd.value_numeric) AS sum, "
+            + "AVG(rd.value_numeric) AS average, "
+            + "MIN(rd.value_numeric) AS min, "
+            + "MAX(rd.value_numeric) AS max, "
+            + "STDDEV_POP(rd.value_numeric) AS standardDeviation, "
+            + "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY rd.value_numeric) AS median "
+            + "FROM record_data rd JOIN daily_records dr ON dr.record_id = rd.record_id "
+            + "WHERE dr.user_id = :userId AND rd.setting_id = :settingId "
+            + "AND dr.record_date BETWEEN :startDate AND :endDate "
+            + "AND rd.value_numeric IS NOT NULL", nativeQuery = true)
+    NumberAggregate aggregateNumericValues(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 計算使用者多個 NUMBER 欄位在日期區間內的最小值與最大值（單一查詢，依欄位分組）
+     * @param userId 使用者 ID
+     * @param settingIds 欄位設定 ID 集合
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return 各欄位的範圍，沒有數值的欄位不列出
+     */
+    @Query("SELECT rd.fieldSetting.settingId AS settingId, MIN(rd.valueNumeric) AS min, MAX(rd.valueNumeric) AS max "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr "
+            + "WHERE dr.user.id = :userId AND rd.fieldSetting.settingId IN :settingIds "
+            + "AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "AND rd.valueNumeric IS NOT NULL "
+            + "GROUP BY rd.fieldSetting.settingId")
+    List<NumberRange> findNumericRanges(@Param("userId") Long userId, @Param("settingIds") Collection<Integer> settingIds,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 以 GROUP BY 計算 ENUM 欄位在日期區間內各選項的出現次數（空值與空字串不計）
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return 各選項的次數，沒有出現的選項不列出
+     */
+    @Query("SELECT rd.valueText AS optionValue, COUNT(rd) AS count "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr "
+            + "WHERE dr.user.id = :userId AND rd.fieldSetting.settingId = :settingId "
+            + "AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "AND rd.valueText IS NOT NULL AND rd.valueText <> '' "
+            + "GROUP BY rd.valueText")
+    List<OptionCount> countOptionsInRange(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 以 GROUP BY 計算 ENUM 欄位在日期區間內每日各選項的出現次數（空值與空字串不計）
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return (recordDate, optionValue, count) 列表，按日期升序
+     */
+    @Query("SELECT dr.recordDate AS recordDate, rd.valueText AS optionValue, COUNT(rd) AS count "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr "
+            + "WHERE dr.user.id = :userId AND rd.fieldSetting.settingId = :settingId "
+            + "AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "AND rd.valueText IS NOT NULL AND rd.valueText <> '' "
+            + "GROUP BY dr.recordDate, rd.valueText "
+            + "ORDER BY dr.recordDate ASC")
+    List<DailyOptionCount> countOptionsByDateInRange(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查詢使用者所有 NUMBER 與 ENUM 欄位的數值，供重建彙總使用
+     * @param userId 使用者 ID
+     * @return 記錄數值列表（已載入 dailyRecord 與 fieldSetting）
+     */
+    @Query("SELECT rd FROM RecordData rd JOIN FETCH rd.dailyRecord dr JOIN FETCH rd.fieldSetting fs "
+            + "WHERE dr.user.id = :userId AND fs.dataType IN ('NUMBER', 'ENUM')")
+    List<RecordData> findRollupSourceByUserId(@Param("userId") Long userId);
+
+    /**
+     * 以唯讀游標串流使用者所有 TEXT 欄位的數值，供重建詞彙索引使用；必須在交易中使用並關閉串流
+     * @param userId 使用者 ID
+     * @return (settingId, recordDate, valueText, valueNumeric) 串流，順序不固定
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new tw.danielchiang.health_log.model.obj.FieldValueObj("
+            + "fs.settingId, dr.recordDate, rd.valueText, rd.valueNumeric) "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr JOIN rd.fieldSetting fs "
+            + "WHERE dr.user.id = :userId AND fs.dataType = 'TEXT'")
+    Stream<FieldValueObj> streamTextValuesByUserId(@Param("userId") Long userId);
+
+    /**
+     * 以唯讀的 forward-only 游標串流使用者的所有欄位數值，供匯出使用
+     * 每次向資料庫取 500 筆，記憶體用量與資料量無關；必須在交易中使用並關閉串流
+     * @param userId 使用者 ID
+     * @return (recordDate, fieldName, valueText) 串流，按日期、欄位升序
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new tw.danielchiang.health_log.model.obj.RecordExportRowObj(dr.recordDate, fs.fieldName, rd.valueText) "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr JOIN rd.fieldSetting fs "
+            + "WHERE dr.user.id = :userId "
+            + "ORDER BY dr.recordDate ASC, fs.settingId ASC")
+    Stream<RecordExportRowObj> streamExportRows(@Param("userId") Long userId);
+
+    /**
+     * 以串流逐筆讀取使用者在日期區間內的所有數值（非同步報表工作逐週期匯出）
+     * 每次向資料庫取 500 筆；必須在交易中使用並關閉串流
+     * @param userId 使用者 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return (recordDate, fieldName, valueText) 串流，按日期、欄位升序
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new tw.danielchiang.health_log.model.obj.RecordExportRowObj(dr.recordDate, fs.fieldName, rd.valueText) "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr JOIN rd.fieldSetting fs "
+            + "WHERE dr.user.id = :userId AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "ORDER BY dr.recordDate ASC, fs.settingId ASC")
+    Stream<RecordExportRowObj> streamExportRowsInRange(@Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * NUMBER 欄位聚合結果投影
+     */
+    interface NumberAggregate {
+        Long getCount();
+
+        BigDecimal getSum();
+
+        BigDecimal getAverage();
+
+        BigDecimal getMin();
+
+        BigDecimal getMax();
+
+        Double getStandardDeviation();
+
+        Double getMedian();
+    }
+
+    /**
+     * TEXT 長度統計投影
+     */
+    interface TextLengthStatistics {
+        Long getCount();
+
+        Double getAverageLength();
+
+        Integer getMaxLength();
+
+        Integer getMinLength();
+    }
+
+    /**
+     * ENUM 選項次數投影
+     */
+    interface OptionCount {
+        String getOptionValue();
+
+        Long getCount();
+    }
+
+    /**
+     * ENUM 每日選項次數投影
+     */
+    interface DailyOptionCount {
+        LocalDate getRecordDate();
+
+        String getOptionValue();
+
+        Long getCount();
+    }
+
+    /**
+     * NUMBER 欄位範圍投影
+     */
+    interface NumberRange {
+        Integer getSettingId();
+
+        BigDecimal getMin();
+
+        BigDecimal getMax();
+    }
+}
@@ -0,0 +1,25 @@
+package tw.danielchiang.health_log.data.repository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import tw.danielchiang.health_log.model.obj.FieldValueObj;
+
+/**
+ * 記錄數值 Repository 的自訂查詢（需要依呼叫設定查詢提示的查詢）
+ */
+public interface RecordDataRepositoryCustom {
+
+    /**
+     * 查詢使用者所有欄位在日期區間內的數值（單一區間掃描，供儀表板一次取得所有欄位）
+     * 以 JDBC 查詢逾時（整秒）限制查詢時間，超過時由資料庫取消查詢
+     * @param userId 使用者 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @param timeout 查詢逾時（無條件進位到整秒）
+     * @return (settingId, recordDate, valueText, valueNumeric) 列表，按日期升序
+     * @throws org.springframework.dao.QueryTimeoutException 如果查詢超過逾時，或逾時已不大於 0
+     */
+    List<FieldValueObj> findAllFieldValuesInRange(Long userId, LocalDate startDate, LocalDate endDate, Duration timeout);
+}
@@ -0,0 +1,49 @@
+package tw.danielchiang.health_log.data.repository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.dao.QueryTimeoutException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import tw.danielchiang.health_log.model.obj.FieldValueObj;
+
+/**
+ * RecordDataRepositoryCustom 實作（由 Spring Data 依命名規則併入 RecordDataRepository）
+ */
+class RecordDataRepositoryCustomImpl implements RecordDataRepositoryCustom {
+
+    private static final String FIELD_VALUES_IN_RANGE = "SELECT new tw.danielchiang.health_log.model.obj.FieldValueObj("
+            + "rd.fieldSetting.settingId, dr.recordDate, rd.valueText, rd.valueNumeric) "
+            + "FROM RecordData rd JOIN rd.dailyRecord dr "
+            + "WHERE dr.user.id = :userId AND dr.recordDate BETWEEN :startDate AND :endDate "
+            + "ORDER BY dr.recordDate ASC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FieldValueObj> findAllFieldValuesInRange(Long userId, LocalDate startDate, LocalDate endDate,
+            Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new QueryTimeoutException("Query deadline already passed: timeout=" + timeout);
+        }
+        return entityManager.createQuery(FIELD_VALUES_IN_RANGE, FieldValueObj.class)
+                .setParameter("userId", userId)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .setHint(HibernateHints.HINT_TIMEOUT, toTimeoutSeconds(timeout))
+                .getResultList();
+    }
+
+    /**
+     * JDBC 查詢逾時以秒為單位且 0 表示不限時，剩餘時間無條件進位到整秒，至少 1 秒
+     */
+    static int toTimeoutSeconds(Duration timeout) {
+        long seconds = timeout.toSeconds() + (timeout.toNanosPart() > 0 ? 1 : 0);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, seconds));
+    }
+}
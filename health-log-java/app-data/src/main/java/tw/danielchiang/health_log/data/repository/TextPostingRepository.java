@@ -0,0 +1,89 @@
+package tw.danielchiang.health_log.data.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import tw.danielchiang.health_log.model.entity.TextPosting;
+
+/**
+ * TEXT 欄位詞彙索引 Repository
+ */
+@Repository
+public interface TextPostingRepository extends BaseRepository<TextPosting, Long> {
+
+    /**
+     * 查詢單一日期內多個欄位的詞彙索引
+     * @param userId 使用者 ID
+     * @param recordDate 記錄日期
+     * @param settingIds 欄位設定 ID 集合
+     * @return 詞彙索引列表
+     */
+    List<TextPosting> findByUserIdAndRecordDateAndSettingIdIn(Long userId, LocalDate recordDate,
+            Collection<Integer> settingIds);
+
+    /**
+     * 以唯讀游標串流日期區間內各詞彙的出現次數，必須在交易中使用並關閉串流
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return (term, count) 串流，順序不固定
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.term AS term, SUM(p.count) AS count FROM TextPosting p "
+            + "WHERE p.userId = :userId AND p.settingId = :settingId "
+            + "AND p.recordDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY p.term")
+    Stream<TermCount> streamTermCountsInRange(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查詢日期區間內同時包含所有詞彙的日期（各詞彙 posting list 的交集）
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param terms 詞彙集合（不可重複）
+     * @param termCount 詞彙數
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @return 日期列表，按日期降序
+     */
+    @Query("SELECT p.recordDate FROM TextPosting p "
+            + "WHERE p.userId = :userId AND p.settingId = :settingId AND p.term IN :terms "
+            + "AND p.recordDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY p.recordDate "
+            + "HAVING COUNT(p) = :termCount "
+            + "ORDER BY p.recordDate DESC")
+    List<LocalDate> findDatesContainingAll(@Param("userId") Long userId, @Param("settingId") Integer settingId,
+            @Param("terms") Collection<String> terms, @Param("termCount") long termCount,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 刪除使用者的所有詞彙索引
+     * @param userId 使用者 ID
+     */
+    @Modifying
+    @Query("DELETE FROM TextPosting p WHERE p.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * 詞彙出現次數投影
+     */
+    interface TermCount {
+        String getTerm();
+
+        Long getCount();
+    }
+}
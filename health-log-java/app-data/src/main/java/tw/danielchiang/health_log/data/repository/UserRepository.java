@@ -2,8 +2,12 @@ package tw.danielchiang.health_log.data.repository;
 
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
 import tw.danielchiang.health_log.model.entity.User;
 
 /**
@@ -48,5 +52,15 @@ public interface UserRepository extends BaseRepository<User, Long> {
      * @return 使用者實體
      */
     Optional<User> findByOauth2ProviderAndOauth2Id(String oauth2Provider, String oauth2Id);
-}
 
+    /**
+     * 查詢並鎖定使用者（SELECT ... FOR UPDATE，直到交易結束）
+     * 用於序列化同一使用者會更新彙總的交易；須在交易中第一個寫入前呼叫，
+     * 避免與子表外鍵檢查取得的共享鎖互相等待
+     * @param id 使用者 ID
+     * @return 使用者實體
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,79 @@
+package tw.danielchiang.health_log.data.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+import tw.danielchiang.health_log.data.config.TestApplication;
+import tw.danielchiang.health_log.model.entity.NumberRollup;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+
+/**
+ * NumberRollupRepository 測試
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ContextConfiguration(classes = TestApplication.class)
+class NumberRollupRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NumberRollupRepository numberRollupRepository;
+
+    @Test
+    void testFindByPeriodStartBetween() {
+        // Given: 三個月的月彙總與一筆週彙總
+        persistRollup(1L, RollupGranularity.MONTHLY, LocalDate.of(2024, 1, 1), "10");
+        persistRollup(1L, RollupGranularity.MONTHLY, LocalDate.of(2024, 2, 1), "20");
+        persistRollup(1L, RollupGranularity.MONTHLY, LocalDate.of(2024, 3, 1), "30");
+        persistRollup(1L, RollupGranularity.WEEKLY, LocalDate.of(2024, 1, 1), "10");
+
+        // When
+        List<NumberRollup> rollups = numberRollupRepository
+            .findByUserIdAndSettingIdAndGranularityAndPeriodStartBetweenOrderByPeriodStartAsc(
+                1L, 1, RollupGranularity.MONTHLY, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+
+        // Then
+        assertThat(rollups).extracting(NumberRollup::getPeriodStart)
+            .containsExactly(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1));
+    }
+
+    @Test
+    void testDeleteByUserId() {
+        // Given
+        persistRollup(1L, RollupGranularity.DAILY, LocalDate.of(2024, 1, 1), "10");
+        persistRollup(2L, RollupGranularity.DAILY, LocalDate.of(2024, 1, 1), "10");
+
+        // When
+        numberRollupRepository.deleteByUserId(1L);
+
+        // Then: 只刪除指定使用者的彙總
+        assertThat(numberRollupRepository.findAll()).extracting(NumberRollup::getUserId)
+            .containsExactly(2L);
+    }
+
+    private NumberRollup persistRollup(Long userId, RollupGranularity granularity, LocalDate periodStart, String value) {
+        BigDecimal number = new BigDecimal(value);
+        NumberRollup rollup = new NumberRollup();
+        rollup.setUserId(userId);
+        rollup.setSettingId(1);
+        rollup.setGranularity(granularity);
+        rollup.setPeriodStart(periodStart);
+        rollup.setCount(1L);
+        rollup.setSum(number);
+        rollup.setSumOfSquares(number.multiply(number));
+        rollup.setMin(number);
+        rollup.setMax(number);
+        return entityManager.persistAndFlush(rollup);
+    }
+}
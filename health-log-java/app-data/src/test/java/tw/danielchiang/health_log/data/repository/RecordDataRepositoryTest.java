@@ -1,28 +1,42 @@
 package tw.danielchiang.health_log.data.repository;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Assertions.tuple;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ContextConfiguration;
 
 import tw.danielchiang.health_log.data.config.TestApplication;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.NumberAggregate;
 import tw.danielchiang.health_log.model.entity.DailyRecord;
 import tw.danielchiang.health_log.model.entity.FieldSetting;
 import tw.danielchiang.health_log.model.entity.RecordData;
 import tw.danielchiang.health_log.model.entity.Role;
 import tw.danielchiang.health_log.model.entity.User;
+import tw.danielchiang.health_log.model.obj.FieldValueObj;
+import tw.danielchiang.health_log.model.obj.RecordExportRowObj;
+import tw.danielchiang.health_log.model.obj.RecordValueObj;
 
 /**
  * RecordDataRepository 測試
  */
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
 @ContextConfiguration(classes = TestApplication.class)
 class RecordDataRepositoryTest {
@@ -36,6 +50,7 @@ class RecordDataRepositoryTest {
     @Autowired
     private DailyRecordRepository dailyRecordRepository;
 
+    private User testUser;
     private DailyRecord testRecord;
     private FieldSetting testFieldSetting;
 
@@ -46,7 +61,7 @@ class RecordDataRepositoryTest {
         userRole.setRoleName("USER");
         entityManager.persistAndFlush(userRole);
 
-        User testUser = new User();
+        testUser = new User();
         testUser.setEmail("test@example.com");
         testUser.setPasswordHash("hashed_password");
         testUser.setRole(userRole);
@@ -187,5 +202,300 @@ class RecordDataRepositoryTest {
         var found = recordDataRepository.findById(dataId);
         assertThat(found).isEmpty();
     }
-}
 
+    @Test
+    void testFindValuesInRange() {
+        // Given: 三天的記錄，其中一天沒有該欄位的數值
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, testFieldSetting, "100");
+        persistValue(persistRecord(today.minusDays(1)), testFieldSetting, "99");
+        persistRecord(today.minusDays(2));
+        persistValue(persistRecord(today.minusDays(30)), testFieldSetting, "90");
+
+        // When: 查詢最近三天
+        List<RecordValueObj> values = recordDataRepository.findValuesInRange(
+            testUser.getId(), testFieldSetting.getSettingId(), today.minusDays(2), today);
+
+        // Then: 只回傳區間內有數值的日期，按日期升序
+        assertThat(values).extracting(RecordValueObj::getRecordDate)
+            .containsExactly(today.minusDays(1), today);
+        assertThat(values).extracting(RecordValueObj::getValueText)
+            .containsExactly("99", "100");
+    }
+
+    @Test
+    void testFindAllFieldValuesInRange() {
+        // Given: 兩個欄位，其中一筆在區間外
+        FieldSetting moodSetting = new FieldSetting();
+        moodSetting.setFieldName("Mood");
+        moodSetting.setDataType("ENUM");
+        entityManager.persistAndFlush(moodSetting);
+
+        LocalDate today = testRecord.getRecordDate();
+        DailyRecord yesterday = persistRecord(today.minusDays(1));
+        persistValue(testRecord, testFieldSetting, "100");
+        persistValue(testRecord, moodSetting, "good");
+        persistValue(yesterday, testFieldSetting, "99");
+        persistValue(persistRecord(today.minusDays(30)), testFieldSetting, "90");
+
+        // When
+        List<FieldValueObj> values = recordDataRepository.findAllFieldValuesInRange(
+            testUser.getId(), today.minusDays(1), today, Duration.ofSeconds(5));
+
+        // Then: 一次取得所有欄位，按日期升序，NUMBER 帶有 valueNumeric
+        assertThat(values).hasSize(3);
+        assertThat(values.get(0).getRecordDate()).isEqualTo(today.minusDays(1));
+        assertThat(values.get(0).getValueNumeric()).isEqualByComparingTo("99");
+        assertThat(values).extracting(FieldValueObj::getSettingId)
+            .containsOnly(testFieldSetting.getSettingId(), moodSetting.getSettingId());
+        assertThat(values).filteredOn(value -> value.getSettingId().equals(moodSetting.getSettingId()))
+            .extracting(FieldValueObj::getValueText).containsExactly("good");
+    }
+
+    @Test
+    void testFindAllFieldValuesInRange_NearlyExpiredDeadline() {
+        // Given
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, testFieldSetting, "100");
+
+        // When: 只剩 1 毫秒時仍以 1 秒的逾時查詢（不可進位成 0 而變成不限時）
+        List<FieldValueObj> values = recordDataRepository.findAllFieldValuesInRange(
+            testUser.getId(), today, today, Duration.ofMillis(1));
+
+        // Then
+        assertThat(values).hasSize(1);
+        assertThatThrownBy(() -> recordDataRepository.findAllFieldValuesInRange(
+            testUser.getId(), today, today, Duration.ofMillis(-1)))
+            .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void testToTimeoutSeconds_RoundsUpToWholeSeconds() {
+        // When / Then: 不足一秒的部分無條件進位，至少 1 秒
+        assertThat(RecordDataRepositoryCustomImpl.toTimeoutSeconds(Duration.ofMillis(1))).isEqualTo(1);
+        assertThat(RecordDataRepositoryCustomImpl.toTimeoutSeconds(Duration.ofMillis(499))).isEqualTo(1);
+        assertThat(RecordDataRepositoryCustomImpl.toTimeoutSeconds(Duration.ofSeconds(1))).isEqualTo(1);
+        assertThat(RecordDataRepositoryCustomImpl.toTimeoutSeconds(Duration.ofMillis(1001))).isEqualTo(2);
+        assertThat(RecordDataRepositoryCustomImpl.toTimeoutSeconds(Duration.ofMillis(1500))).isEqualTo(2);
+    }
+
+    @Test
+    void testCountOptionsInRange_GroupedByValue() {
+        // Given: ENUM 欄位三天的數值，其中一天為空字串
+        FieldSetting moodSetting = new FieldSetting();
+        moodSetting.setFieldName("Mood");
+        moodSetting.setDataType("ENUM");
+        entityManager.persistAndFlush(moodSetting);
+
+        LocalDate today = testRecord.getRecordDate();
+        DailyRecord yesterday = persistRecord(today.minusDays(1));
+        persistValue(testRecord, moodSetting, "good");
+        persistValue(yesterday, moodSetting, "good");
+        persistValue(persistRecord(today.minusDays(2)), moodSetting, "");
+        persistValue(persistRecord(today.minusDays(3)), moodSetting, "bad");
+
+        // When
+        List<RecordDataRepository.OptionCount> counts = recordDataRepository.countOptionsInRange(
+            testUser.getId(), moodSetting.getSettingId(), today.minusDays(3), today);
+        List<RecordDataRepository.DailyOptionCount> dailyCounts = recordDataRepository.countOptionsByDateInRange(
+            testUser.getId(), moodSetting.getSettingId(), today.minusDays(3), today);
+
+        // Then: 空字串不計，每日次數按日期升序
+        assertThat(counts).extracting(RecordDataRepository.OptionCount::getOptionValue, RecordDataRepository.OptionCount::getCount)
+            .containsExactlyInAnyOrder(tuple("good", 2L), tuple("bad", 1L));
+        assertThat(dailyCounts).extracting(RecordDataRepository.DailyOptionCount::getRecordDate)
+            .containsExactly(today.minusDays(3), today.minusDays(1), today);
+    }
+
+    @Test
+    void testAggregateTextLengthsInRange() {
+        // Given: 空字串不列入統計
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, testFieldSetting, "頭痛");
+        persistValue(persistRecord(today.minusDays(1)), testFieldSetting, "慢跑三十分鐘");
+        persistValue(persistRecord(today.minusDays(2)), testFieldSetting, "");
+
+        // When
+        RecordDataRepository.TextLengthStatistics statistics = recordDataRepository.aggregateTextLengthsInRange(
+            testUser.getId(), testFieldSetting.getSettingId(), today.minusDays(2), today);
+
+        // Then
+        assertThat(statistics.getCount()).isEqualTo(2L);
+        assertThat(statistics.getAverageLength()).isCloseTo(4.0, offset(0.001));
+        assertThat(statistics.getMaxLength()).isEqualTo(6);
+        assertThat(statistics.getMinLength()).isEqualTo(2);
+    }
+
+    @Test
+    void testFindTextTimeline_NewestFirstWithLimit() {
+        // Given
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, testFieldSetting, "今天");
+        persistValue(persistRecord(today.minusDays(1)), testFieldSetting, "");
+        persistValue(persistRecord(today.minusDays(2)), testFieldSetting, "前天");
+        persistValue(persistRecord(today.minusDays(3)), testFieldSetting, "大前天");
+
+        // When
+        List<RecordValueObj> page = recordDataRepository.findTextTimeline(
+            testUser.getId(), testFieldSetting.getSettingId(), today.minusDays(3), today, Limit.of(2));
+
+        // Then: 略過空字串，由新到舊
+        assertThat(page).extracting(RecordValueObj::getRecordDate)
+            .containsExactly(today, today.minusDays(2));
+    }
+
+    @Test
+    void testFindValuesInRangeWithNulls() {
+        // Given
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, testFieldSetting, "100");
+        persistRecord(today.minusDays(1));
+
+        // When
+        List<RecordValueObj> values = recordDataRepository.findValuesInRangeWithNulls(
+            testUser.getId(), testFieldSetting.getSettingId(), today.minusDays(1), today);
+
+        // Then: 沒有數值的記錄也會回傳，valueText 為 null
+        assertThat(values).hasSize(2);
+        assertThat(values.get(0).getRecordDate()).isEqualTo(today.minusDays(1));
+        assertThat(values.get(0).getValueText()).isNull();
+        assertThat(values.get(1).getValueText()).isEqualTo("100");
+    }
+
+    @Test
+    void testFindValuesInRange_StatementCountIndependentOfRange() {
+        // Given: 一年的每日數值
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, testFieldSetting, "0");
+        for (int i = 1; i < 365; i++) {
+            persistValue(persistRecord(today.minusDays(i)), testFieldSetting, String.valueOf(i));
+        }
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+
+        // When: 分別查詢一週與一年
+        statistics.clear();
+        List<RecordValueObj> week = recordDataRepository.findValuesInRange(
+            testUser.getId(), testFieldSetting.getSettingId(), today.minusDays(6), today);
+        long weekStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<RecordValueObj> year = recordDataRepository.findValuesInRange(
+            testUser.getId(), testFieldSetting.getSettingId(), today.minusDays(364), today);
+        long yearStatements = statistics.getPrepareStatementCount();
+
+        // Then: 查詢次數不隨區間長度增加
+        assertThat(week).hasSize(7);
+        assertThat(year).hasSize(365);
+        assertThat(weekStatements).isEqualTo(1);
+        assertThat(yearStatements).isEqualTo(1);
+    }
+
+    @Test
+    void testAggregateNumericValues() {
+        // Given: 四筆數值及一筆無法解析的值（value_numeric 為 null）
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, testFieldSetting, "40");
+        persistValue(persistRecord(today.minusDays(1)), testFieldSetting, "10");
+        persistValue(persistRecord(today.minusDays(2)), testFieldSetting, "30");
+        persistValue(persistRecord(today.minusDays(3)), testFieldSetting, "20");
+        persistValue(persistRecord(today.minusDays(4)), testFieldSetting, "N/A");
+        persistValue(persistRecord(today.minusDays(30)), testFieldSetting, "1000");
+
+        // When
+        NumberAggregate aggregate = recordDataRepository.aggregateNumericValues(
+            testUser.getId(), testFieldSetting.getSettingId(), today.minusDays(6), today);
+
+        // Then: 只統計區間內的有效數值
+        assertThat(aggregate.getCount()).isEqualTo(4L);
+        assertThat(aggregate.getSum()).isEqualByComparingTo("100");
+        assertThat(aggregate.getAverage()).isEqualByComparingTo("25");
+        assertThat(aggregate.getMin()).isEqualByComparingTo("10");
+        assertThat(aggregate.getMax()).isEqualByComparingTo("40");
+        assertThat(aggregate.getStandardDeviation()).isCloseTo(Math.sqrt(125), offset(1e-9));
+        assertThat(aggregate.getMedian()).isEqualTo(25.0);
+    }
+
+    @Test
+    void testAggregateNumericValues_WhenNoValues() {
+        // When
+        NumberAggregate aggregate = recordDataRepository.aggregateNumericValues(
+            testUser.getId(), testFieldSetting.getSettingId(), LocalDate.now().minusDays(6), LocalDate.now());
+
+        // Then
+        assertThat(aggregate.getCount()).isZero();
+        assertThat(aggregate.getAverage()).isNull();
+        assertThat(aggregate.getMedian()).isNull();
+    }
+
+    @Test
+    void testStreamExportRows() {
+        // Given: 兩天的記錄，其中一天有兩個欄位
+        FieldSetting noteSetting = new FieldSetting();
+        noteSetting.setFieldName("Note");
+        noteSetting.setDataType("TEXT");
+        entityManager.persistAndFlush(noteSetting);
+
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, noteSetting, "ok");
+        persistValue(testRecord, testFieldSetting, "100");
+        persistValue(persistRecord(today.minusDays(1)), testFieldSetting, "99");
+        entityManager.clear();
+
+        // When
+        List<RecordExportRowObj> rows;
+        try (Stream<RecordExportRowObj> stream = recordDataRepository.streamExportRows(testUser.getId())) {
+            rows = stream.toList();
+        }
+
+        // Then: 按日期、欄位升序
+        assertThat(rows).extracting(RecordExportRowObj::getRecordDate)
+            .containsExactly(today.minusDays(1), today, today);
+        assertThat(rows).extracting(RecordExportRowObj::getFieldName)
+            .containsExactly("Test Field", "Test Field", "Note");
+        assertThat(rows).extracting(RecordExportRowObj::getValueText)
+            .containsExactly("99", "100", "ok");
+    }
+
+    @Test
+    void testStreamExportRowsInRange() {
+        // Given: 連續三天的記錄
+        LocalDate today = testRecord.getRecordDate();
+        persistValue(testRecord, testFieldSetting, "100");
+        persistValue(persistRecord(today.minusDays(1)), testFieldSetting, "99");
+        persistValue(persistRecord(today.minusDays(2)), testFieldSetting, "98");
+        entityManager.clear();
+
+        // When: 只查詢前兩天
+        List<RecordExportRowObj> rows;
+        try (Stream<RecordExportRowObj> stream = recordDataRepository.streamExportRowsInRange(
+                testUser.getId(), today.minusDays(2), today.minusDays(1))) {
+            rows = stream.toList();
+        }
+
+        // Then
+        assertThat(rows).extracting(RecordExportRowObj::getValueText).containsExactly("98", "99");
+    }
+
+    private DailyRecord persistRecord(LocalDate recordDate) {
+        DailyRecord record = new DailyRecord();
+        record.setUser(testUser);
+        record.setRecordDate(recordDate);
+        return entityManager.persistAndFlush(record);
+    }
+
+    private RecordData persistValue(DailyRecord record, FieldSetting fieldSetting, String value) {
+        RecordData data = new RecordData();
+        data.setDailyRecord(record);
+        data.setFieldSetting(fieldSetting);
+        data.setValueText(value);
+        try {
+            data.setValueNumeric(new BigDecimal(value));
+        } catch (NumberFormatException e) {
+            data.setValueNumeric(null);
+        }
+        return entityManager.persistAndFlush(data);
+    }
+}
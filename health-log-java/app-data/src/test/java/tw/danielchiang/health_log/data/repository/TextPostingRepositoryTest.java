@@ -0,0 +1,86 @@
+package tw.danielchiang.health_log.data.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+import tw.danielchiang.health_log.data.config.TestApplication;
+import tw.danielchiang.health_log.data.repository.TextPostingRepository.TermCount;
+import tw.danielchiang.health_log.model.entity.TextPosting;
+
+/**
+ * TextPostingRepository 測試
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ContextConfiguration(classes = TestApplication.class)
+class TextPostingRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TextPostingRepository textPostingRepository;
+
+    @Test
+    void testFindDatesContainingAll_IntersectsPostingLists() {
+        // Given: 「頭痛」出現在 1/1、1/3、1/5，「吃藥」出現在 1/3、1/5、1/7
+        persistPosting(1L, "頭痛", LocalDate.of(2024, 1, 1), 1);
+        persistPosting(1L, "頭痛", LocalDate.of(2024, 1, 3), 2);
+        persistPosting(1L, "頭痛", LocalDate.of(2024, 1, 5), 1);
+        persistPosting(1L, "吃藥", LocalDate.of(2024, 1, 3), 1);
+        persistPosting(1L, "吃藥", LocalDate.of(2024, 1, 5), 1);
+        persistPosting(1L, "吃藥", LocalDate.of(2024, 1, 7), 1);
+        persistPosting(2L, "頭痛", LocalDate.of(2024, 1, 3), 1);
+
+        // When
+        List<LocalDate> single = textPostingRepository.findDatesContainingAll(1L, 1, List.of("頭痛"), 1,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        List<LocalDate> both = textPostingRepository.findDatesContainingAll(1L, 1, List.of("頭痛", "吃藥"), 2,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 4));
+
+        // Then: 日期降序，多個詞彙時取交集並限制在區間內
+        assertThat(single).containsExactly(
+            LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 1));
+        assertThat(both).containsExactly(LocalDate.of(2024, 1, 3));
+    }
+
+    @Test
+    void testStreamTermCountsInRange() {
+        // Given
+        persistPosting(1L, "頭痛", LocalDate.of(2024, 1, 1), 1);
+        persistPosting(1L, "頭痛", LocalDate.of(2024, 1, 3), 2);
+        persistPosting(1L, "慢跑", LocalDate.of(2024, 1, 3), 1);
+        persistPosting(1L, "慢跑", LocalDate.of(2024, 2, 1), 1);
+
+        // When
+        Map<String, Long> counts;
+        try (Stream<TermCount> stream = textPostingRepository.streamTermCountsInRange(1L, 1,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))) {
+            counts = stream.collect(Collectors.toMap(TermCount::getTerm, TermCount::getCount));
+        }
+
+        // Then
+        assertThat(counts).containsExactlyInAnyOrderEntriesOf(Map.of("頭痛", 3L, "慢跑", 1L));
+    }
+
+    private TextPosting persistPosting(Long userId, String term, LocalDate recordDate, int count) {
+        TextPosting posting = new TextPosting();
+        posting.setUserId(userId);
+        posting.setSettingId(1);
+        posting.setTerm(term);
+        posting.setRecordDate(recordDate);
+        posting.setCount(count);
+        return entityManager.persistAndFlush(posting);
+    }
+}
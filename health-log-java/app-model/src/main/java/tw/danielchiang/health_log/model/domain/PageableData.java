@@ -3,6 +3,7 @@ package tw.danielchiang.health_log.model.domain;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import lombok.Builder;
 import lombok.Value;
@@ -11,13 +12,20 @@ import lombok.Value;
 @Builder
 public class PageableData<T> implements Data<T> {
     private final List<T> content;
-    private final long totalElements;
-    private final int totalPages;
+    /**
+     * 總筆數與總頁數，略過總筆數查詢時為 null
+     */
+    private final Long totalElements;
+    private final Integer totalPages;
     private final int number;
     private final int size;
     private final boolean first;
     private final boolean last;
     private final int numberOfElements;
+    /**
+     * keyset 分頁的下一頁游標，沒有下一頁或非 keyset 分頁時為 null
+     */
+    private final String nextCursor;
 
     public static <T> PageableData<T> of(Page<T> page) {
         return new PageableData<>(
@@ -28,6 +36,24 @@ public class PageableData<T> implements Data<T> {
             page.getSize(), 
             page.isFirst(), 
             page.isLast(), 
-            page.getNumberOfElements());
+            page.getNumberOfElements(),
+            null);
+    }
+
+    public static <T> PageableData<T> of(Slice<T> slice) {
+        return of(slice, null);
+    }
+
+    public static <T> PageableData<T> of(Slice<T> slice, String nextCursor) {
+        return new PageableData<>(
+            slice.getContent(), 
+            null, 
+            null, 
+            slice.getNumber(), 
+            slice.getSize(), 
+            slice.isFirst(), 
+            slice.isLast(), 
+            slice.getNumberOfElements(),
+            nextCursor);
     }
 }
@@ -0,0 +1,31 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 儀表板 DTO
+ * 使用者所有啟用欄位在日期區間內的摘要
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDTO {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    /**
+     * 各欄位摘要（依欄位設定順序）
+     */
+    private List<DashboardFieldDTO> fields;
+
+    /**
+     * 超過期限仍未完成計算的欄位名稱
+     */
+    private List<String> timedOutFields;
+}
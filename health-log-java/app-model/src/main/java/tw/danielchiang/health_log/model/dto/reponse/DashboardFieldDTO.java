@@ -0,0 +1,21 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 儀表板中單一欄位的摘要 DTO
+ * 依 dataType 只有對應的摘要有值（NUMBER: numberStatistics、ENUM: enumDistribution、TEXT: textAnalysis）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardFieldDTO {
+
+    private String fieldName;
+    private String dataType;
+    private NumberStatisticsDTO numberStatistics;
+    private EnumDistributionDTO enumDistribution;
+    private TextAnalysisDTO textAnalysis;
+}
@@ -0,0 +1,33 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ENUM 類型時間序列趨勢 DTO（欄式格式）
+ * counts.get(i)[j] 為 options.get(i) 在 dates.get(j) 的出現次數，沒有出現時為 0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnumTrendColumnsDTO {
+
+    /**
+     * 有數值的日期（升序）
+     */
+    private List<LocalDate> dates;
+
+    /**
+     * 選項（依欄位設定順序）
+     */
+    private List<String> options;
+
+    /**
+     * 每個選項一個次數向量，與 dates 對齊
+     */
+    private List<long[]> counts;
+}
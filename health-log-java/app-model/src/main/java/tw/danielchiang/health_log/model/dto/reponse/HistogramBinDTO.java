@@ -0,0 +1,31 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 直方圖區間 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistogramBinDTO {
+
+    /**
+     * 區間下界（含）
+     */
+    private BigDecimal lowerBound;
+
+    /**
+     * 區間上界（最後一個區間含上界）
+     */
+    private BigDecimal upperBound;
+
+    /**
+     * 區間內的數值個數
+     */
+    private Long count;
+}
@@ -0,0 +1,34 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * NUMBER 類型分佈 DTO（分位數與直方圖）
+ * 由分位數草圖估計，數值的相對誤差不超過 1%
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NumberDistributionDTO {
+
+    /**
+     * 記錄數量
+     */
+    private Long count;
+
+    /**
+     * 分位數（p5, p25, p50, p75, p95），沒有數值時為空
+     */
+    private Map<String, BigDecimal> percentiles;
+
+    /**
+     * 直方圖（等寬區間，按數值升序）
+     */
+    private List<HistogramBinDTO> histogram;
+}
@@ -0,0 +1,24 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 匯入資料列錯誤 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordImportErrorDTO {
+
+    /**
+     * 行號（從 1 開始）
+     */
+    private Long lineNumber;
+
+    /**
+     * 錯誤訊息
+     */
+    private String message;
+}
@@ -0,0 +1,60 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 記錄匯入結果 DTO
+ */
+@Data
+@NoArgsConstructor
+public class RecordImportResultDTO {
+
+    /**
+     * 讀取的資料列數（不含空白行與標題列）
+     */
+    private long totalRows;
+
+    /**
+     * 新增的數值筆數
+     */
+    private long insertedCount;
+
+    /**
+     * 更新的數值筆數
+     */
+    private long updatedCount;
+
+    /**
+     * 與現有數值相同而未寫入的筆數
+     */
+    private long unchangedCount;
+
+    /**
+     * 驗證或寫入失敗的資料列數
+     */
+    private long failedCount;
+
+    /**
+     * 新建立的每日記錄數
+     */
+    private long createdRecordCount;
+
+    /**
+     * 匯入耗時（毫秒）
+     */
+    private long elapsedMillis;
+
+    /**
+     * 每秒處理的資料列數
+     */
+    private long rowsPerSecond;
+
+    /**
+     * 資料列錯誤（最多回報前 N 筆，完整數量見 failedCount）
+     */
+    private List<RecordImportErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,56 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import java.time.OffsetDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tw.danielchiang.health_log.model.obj.ReportJobStatus;
+import tw.danielchiang.health_log.model.obj.ReportJobType;
+
+/**
+ * 非同步報表工作狀態 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+
+    private String jobId;
+    private ReportJobType type;
+    private ReportJobStatus status;
+
+    /**
+     * 已完成的週期數
+     */
+    private Integer completedPeriods;
+
+    /**
+     * 總週期數
+     */
+    private Integer totalPeriods;
+
+    private OffsetDateTime createdAt;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+
+    /**
+     * 結果保留期限，之後刪除
+     */
+    private OffsetDateTime expiresAt;
+
+    /**
+     * 結果檔大小（gzip 壓縮後的 bytes），完成前為 null
+     */
+    private Long resultSize;
+
+    /**
+     * 下載時的檔名（gzip 壓縮的 NDJSON 或 CSV）
+     */
+    private String resultFileName;
+
+    /**
+     * 失敗原因
+     */
+    private String error;
+}
@@ -0,0 +1,35 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 單一欄位最近 N 天（截至今天）的摘要 DTO
+ * 依 dataType 只有對應的摘要有值（NUMBER: numberStatistics、ENUM: enumDistribution、TEXT: textAnalysis）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollingWindowDTO {
+
+    private String fieldName;
+    private String dataType;
+
+    /**
+     * 視窗天數（7 / 30 / 90）
+     */
+    private Integer days;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private NumberStatisticsDTO numberStatistics;
+    private EnumDistributionDTO enumDistribution;
+
+    /**
+     * TEXT 摘要（不含時間序列）
+     */
+    private TextAnalysisDTO textAnalysis;
+}
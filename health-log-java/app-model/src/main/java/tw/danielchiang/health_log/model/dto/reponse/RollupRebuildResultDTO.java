@@ -0,0 +1,29 @@
+package tw.danielchiang.health_log.model.dto.reponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 彙總重建結果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResultDTO {
+
+    /**
+     * 重建的使用者數量
+     */
+    private Integer userCount;
+
+    /**
+     * 重建後的彙總筆數
+     */
+    private Long rollupCount;
+
+    /**
+     * 重建失敗的使用者數量
+     */
+    private Integer failedUserCount;
+}
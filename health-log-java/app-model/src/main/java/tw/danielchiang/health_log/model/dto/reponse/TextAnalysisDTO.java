@@ -1,5 +1,6 @@
 package tw.danielchiang.health_log.model.dto.reponse;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 import lombok.AllArgsConstructor;
@@ -16,7 +17,7 @@ import lombok.NoArgsConstructor;
 public class TextAnalysisDTO {
 
     /**
-     * 關鍵字頻率統計（關鍵字 -> 出現次數）
+     * 關鍵字頻率統計（關鍵字 -> 出現次數，依次數降序）
      */
     private Map<String, Long> keywordFrequency;
 
@@ -41,7 +42,12 @@ public class TextAnalysisDTO {
     private Integer minLength;
 
     /**
-     * 時間序列數據（日期 -> 文字內容）
+     * 時間序列數據（日期 -> 文字內容，由新到舊；不包含時為空）
      */
     private Map<String, String> timelineData;
+
+    /**
+     * 時間序列下一頁的 timelineBefore（本頁最早的日期），沒有下一頁時為 null
+     */
+    private LocalDate timelineNextBefore;
 }
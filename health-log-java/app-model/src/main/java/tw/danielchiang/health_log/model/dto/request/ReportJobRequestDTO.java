@@ -0,0 +1,45 @@
+package tw.danielchiang.health_log.model.dto.request;
+
+import java.time.LocalDate;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
+import tw.danielchiang.health_log.model.obj.ReportJobType;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+
+/**
+ * 非同步報表工作請求 DTO
+ * 日期區間依 period 切分為多段，每段完成後保存進度，重新啟動時從下一段繼續
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobRequestDTO {
+
+    @NotNull(message = "工作類型不能為空")
+    private ReportJobType type;
+
+    /**
+     * 欄位名稱（RECORD_EXPORT 以外必填）
+     */
+    private String fieldName;
+
+    @NotNull(message = "開始日期不能為空")
+    private LocalDate startDate;
+
+    @NotNull(message = "結束日期不能為空")
+    private LocalDate endDate;
+
+    /**
+     * 切分週期（報表每段一行），預設 MONTHLY
+     */
+    private RollupGranularity period;
+
+    /**
+     * RECORD_EXPORT 的檔案格式，預設 NDJSON
+     */
+    private RecordFileFormat format;
+}
@@ -13,29 +13,25 @@ public class SearchRequestDTO<T> {
     private final SpecObj specObj;
     private final PageObj pageObj;
 
-    public SearchObj<T> toSearchObj() {
+    /**
+     * 以已編譯的查詢條件建立 SearchObj
+     * @param specification 由 specObj 編譯的查詢條件（例如 SpecPlan 綁定後的結果）
+     * @return SearchObj
+     */
+    public SearchObj<T> toSearchObj(Specification<T> specification) {
 
-        SearchObj<T> searchObj;
-        
         if (pageObj == null) {
             throw new IllegalArgumentException("Page object is required");
         }
-        
-        if (specObj == null) {
-            searchObj = SearchObj.<T>builder()
-                    .isSpec(false)
-                    .specification(Specification.allOf())
-                    .isPaged(pageObj.isPaged())
-                    .pageable(pageObj.toPageable())
-                    .build();
-        } else {
-            searchObj = SearchObj.<T>builder()
-                    .isSpec(specObj.isSpec())
-                    .specification(specObj.toSpec())
-                    .isPaged(pageObj.isPaged())
-                    .pageable(pageObj.toPageable())
-                    .build();
-        }
-        return searchObj;
+
+        return SearchObj.<T>builder()
+                .isSpec(specObj != null && specObj.isSpec())
+                .specification(specification)
+                .isPaged(pageObj.isPaged())
+                .pageable(pageObj.toPageable())
+                .isKeyset(pageObj.isKeyset())
+                .cursor(pageObj.getCursor())
+                .isCountSkipped(pageObj.isCountSkipped())
+                .build();
     }
 }
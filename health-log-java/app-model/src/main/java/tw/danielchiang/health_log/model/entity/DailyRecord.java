@@ -18,6 +18,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
@@ -39,7 +40,8 @@ import lombok.NoArgsConstructor;
 public class DailyRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_records_seq")
+    @SequenceGenerator(name = "daily_records_seq", sequenceName = "daily_records_record_id_seq", allocationSize = 50)
     @Column(name = "record_id")
     private Long recordId;
 
@@ -0,0 +1,60 @@
+package tw.danielchiang.health_log.model.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+
+/**
+ * ENUM 欄位彙總實體
+ * 對應資料表: enum_rollups
+ * 以 (使用者, 欄位, 週期, 選項) 為單位儲存出現次數
+ */
+@Entity
+@Table(name = "enum_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_enum_rollup_period_option",
+            columnNames = {"user_id", "setting_id", "granularity", "period_start", "option_value"})
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnumRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enum_rollups_seq")
+    @SequenceGenerator(name = "enum_rollups_seq", sequenceName = "enum_rollups_rollup_id_seq", allocationSize = 50)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "setting_id", nullable = false)
+    private Integer settingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "option_value", nullable = false, columnDefinition = "TEXT")
+    private String optionValue;
+
+    @Column(name = "option_count", nullable = false)
+    private Long count = 0L;
+}
@@ -0,0 +1,70 @@
+package tw.danielchiang.health_log.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+
+/**
+ * NUMBER 欄位彙總實體
+ * 對應資料表: number_rollups
+ * 以 (使用者, 欄位, 週期) 為單位儲存 count/sum/sum of squares/min/max
+ */
+@Entity
+@Table(name = "number_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_number_rollup_period",
+            columnNames = {"user_id", "setting_id", "granularity", "period_start"})
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NumberRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "number_rollups_seq")
+    @SequenceGenerator(name = "number_rollups_seq", sequenceName = "number_rollups_rollup_id_seq", allocationSize = 50)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "setting_id", nullable = false)
+    private Integer settingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "value_count", nullable = false)
+    private Long count = 0L;
+
+    @Column(name = "value_sum", nullable = false, columnDefinition = "NUMERIC")
+    private BigDecimal sum = BigDecimal.ZERO;
+
+    @Column(name = "value_sum_squares", nullable = false, columnDefinition = "NUMERIC")
+    private BigDecimal sumOfSquares = BigDecimal.ZERO;
+
+    @Column(name = "value_min", columnDefinition = "NUMERIC")
+    private BigDecimal min;
+
+    @Column(name = "value_max", columnDefinition = "NUMERIC")
+    private BigDecimal max;
+}
@@ -0,0 +1,52 @@
+package tw.danielchiang.health_log.model.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * NUMBER 欄位分位數草圖實體
+ * 對應資料表: number_sketches
+ * 以 (使用者, 欄位, 月份) 為單位儲存序列化的分位數草圖，任意月份範圍可由各月草圖合併得出
+ */
+@Entity
+@Table(name = "number_sketches",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_number_sketch_period", columnNames = {"user_id", "setting_id", "period_start"})
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NumberSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "number_sketches_seq")
+    @SequenceGenerator(name = "number_sketches_seq", sequenceName = "number_sketches_sketch_id_seq", allocationSize = 50)
+    @Column(name = "sketch_id")
+    private Long sketchId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "setting_id", nullable = false)
+    private Integer settingId;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart; // 月份第一天
+
+    @Column(name = "value_count", nullable = false)
+    private Long count = 0L;
+
+    @Column(name = "sketch", nullable = false, columnDefinition = "BYTEA")
+    private byte[] sketch;
+}
@@ -1,5 +1,7 @@
 package tw.danielchiang.health_log.model.entity;
 
+import java.math.BigDecimal;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.Column;
@@ -11,6 +13,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
@@ -35,7 +38,8 @@ import lombok.NoArgsConstructor;
 public class RecordData {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "record_data_seq")
+    @SequenceGenerator(name = "record_data_seq", sequenceName = "record_data_data_id_seq", allocationSize = 50)
     @Column(name = "data_id")
     private Long dataId;
 
@@ -44,12 +48,16 @@ public class RecordData {
     @JsonBackReference("dailyRecord")
     private DailyRecord dailyRecord;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // 欄位設定由記憶體快照（FieldSettingRegistry）依 settingId 解析，不隨數值一併查詢
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "setting_id", nullable = false)
     @JsonBackReference("fieldSetting")
     private FieldSetting fieldSetting;
 
     @Column(name = "value_text", nullable = false, columnDefinition = "TEXT")
     private String valueText; // 所有類型暫存為 TEXT
+
+    @Column(name = "value_numeric", columnDefinition = "NUMERIC")
+    private BigDecimal valueNumeric; // NUMBER 類型的數值，供 SQL 聚合使用
 }
 
@@ -0,0 +1,62 @@
+package tw.danielchiang.health_log.model.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * TEXT 欄位詞彙索引（倒排索引）實體
+ * 對應資料表: text_postings
+ * 以 (使用者, 欄位, 詞彙, 日期) 為單位儲存詞彙在當日數值中的出現次數
+ * 同一 (使用者, 欄位, 詞彙) 的所有列即為該詞彙的 posting list
+ */
+@Entity
+@Table(name = "text_postings",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_text_posting_term_date", columnNames = {"user_id", "setting_id", "term", "record_date"})
+    },
+    indexes = {
+        @Index(name = "idx_text_postings_date", columnList = "user_id, setting_id, record_date")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextPosting {
+
+    /**
+     * 詞彙長度上限，超過的詞彙不建立索引
+     */
+    public static final int MAX_TERM_LENGTH = 64;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "text_postings_seq")
+    @SequenceGenerator(name = "text_postings_seq", sequenceName = "text_postings_posting_id_seq", allocationSize = 50)
+    @Column(name = "posting_id")
+    private Long postingId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "setting_id", nullable = false)
+    private Integer settingId;
+
+    @Column(name = "term", nullable = false, length = MAX_TERM_LENGTH)
+    private String term;
+
+    @Column(name = "record_date", nullable = false)
+    private LocalDate recordDate;
+
+    @Column(name = "term_count", nullable = false)
+    private Integer count = 0;
+}
@@ -0,0 +1,18 @@
+package tw.danielchiang.health_log.model.obj;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.Value;
+
+/**
+ * 某日某欄位的數值（settingId, recordDate, valueText, valueNumeric）
+ * 用於一次查詢使用者所有欄位在日期區間內的數值，直接由 JPQL constructor expression 建立
+ */
+@Value
+public class FieldValueObj {
+    private final Integer settingId;
+    private final LocalDate recordDate;
+    private final String valueText;
+    private final BigDecimal valueNumeric;
+}
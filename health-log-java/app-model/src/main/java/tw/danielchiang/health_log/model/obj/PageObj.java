@@ -19,10 +19,27 @@ public class PageObj {
     private final boolean isSorted;
     private final List<OrderObj> orders;
 
+    /**
+     * 是否使用 keyset 分頁（以 cursor 接續上一頁的最後一筆，忽略 page，不查詢總筆數）
+     */
+    private final boolean isKeyset;
+    /**
+     * keyset 分頁的游標（上一頁回傳的 nextCursor），第一頁為 null
+     */
+    private final String cursor;
+
+    /**
+     * 是否略過總筆數查詢（只回傳是否有下一頁）
+     */
+    private final boolean isCountSkipped;
+
     public Pageable toPageable() {
+        Sort sort = orders != null
+            ? Sort.by(orders.stream().map(OrderObj::toOrder).toList())
+            : Sort.unsorted();
         return PageRequest.of(
-            page, 
+            isKeyset || page == null ? 0 : page, 
             size, 
-            Sort.by(orders.stream().map(OrderObj::toOrder).toList()));
+            sort);
     }
 }
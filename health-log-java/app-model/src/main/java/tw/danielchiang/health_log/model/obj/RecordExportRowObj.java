@@ -0,0 +1,16 @@
+package tw.danielchiang.health_log.model.obj;
+
+import java.time.LocalDate;
+
+import lombok.Value;
+
+/**
+ * 匯出的一筆欄位數值（recordDate, fieldName, valueText）
+ * 直接由 JPQL constructor expression 建立，不經過實體，串流時不會累積在持久化上下文中
+ */
+@Value
+public class RecordExportRowObj {
+    private final LocalDate recordDate;
+    private final String fieldName;
+    private final String valueText;
+}
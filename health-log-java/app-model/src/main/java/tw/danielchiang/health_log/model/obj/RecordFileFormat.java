@@ -0,0 +1,10 @@
+package tw.danielchiang.health_log.model.obj;
+
+/**
+ * 記錄匯入 / 匯出檔案格式
+ * CSV: 每行 date,field,value（可有標題列）, NDJSON: 每行一個 {"date","field","value"} 物件
+ */
+public enum RecordFileFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,17 @@
+package tw.danielchiang.health_log.model.obj;
+
+import java.time.LocalDate;
+
+import lombok.Value;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+
+/**
+ * 通過驗證的匯入資料列（某日某欄位的數值）
+ */
+@Value
+public class RecordImportRowObj {
+    private final long lineNumber;
+    private final LocalDate recordDate;
+    private final FieldSetting fieldSetting;
+    private final String valueText;
+}
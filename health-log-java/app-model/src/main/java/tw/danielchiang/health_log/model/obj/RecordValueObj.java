@@ -0,0 +1,15 @@
+package tw.danielchiang.health_log.model.obj;
+
+import java.time.LocalDate;
+
+import lombok.Value;
+
+/**
+ * 單一欄位在某日的數值（recordDate, valueText）
+ * 用於報表的區間查詢，直接由 JPQL constructor expression 建立
+ */
+@Value
+public class RecordValueObj {
+    private final LocalDate recordDate;
+    private final String valueText;
+}
@@ -0,0 +1,30 @@
+package tw.danielchiang.health_log.model.obj;
+
+import java.time.OffsetDateTime;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tw.danielchiang.health_log.model.dto.request.ReportJobRequestDTO;
+
+/**
+ * 非同步報表工作的狀態與進度（以 JSON 保存在工作目錄，重新啟動時據以繼續）
+ * checkpointBytes 為最後一個完成週期結束時結果暫存檔的長度，繼續時先截斷到此位置
+ */
+@Data
+@NoArgsConstructor
+public class ReportJobObj {
+
+    private String jobId;
+    private Long userId;
+    private ReportJobRequestDTO request;
+    private ReportJobStatus status;
+    private int totalPeriods;
+    private int completedPeriods;
+    private long checkpointBytes;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+    private OffsetDateTime expiresAt;
+    private Long resultSize;
+    private String error;
+}
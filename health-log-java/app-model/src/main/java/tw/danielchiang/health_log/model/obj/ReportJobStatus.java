@@ -0,0 +1,18 @@
+package tw.danielchiang.health_log.model.obj;
+
+/**
+ * 非同步報表工作狀態
+ */
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    /**
+     * @return 是否已結束（不會再變更）
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -0,0 +1,12 @@
+package tw.danielchiang.health_log.model.obj;
+
+/**
+ * 非同步報表工作類型
+ * RECORD_EXPORT 輸出與 /api/records/export 相同格式的記錄；其餘依週期逐段輸出 ReportService 的報表（每行一個週期）
+ */
+public enum ReportJobType {
+    RECORD_EXPORT,
+    NUMBER_REPORT,
+    ENUM_DISTRIBUTION,
+    TEXT_ANALYSIS
+}
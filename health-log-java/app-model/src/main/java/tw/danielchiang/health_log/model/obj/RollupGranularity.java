@@ -0,0 +1,47 @@
+package tw.danielchiang.health_log.model.obj;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * 彙總週期
+ * DAILY: 每日, WEEKLY: 每週（週一開始）, MONTHLY: 每月
+ */
+public enum RollupGranularity {
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /**
+     * 計算日期所在週期的起始日
+     * @param date 日期
+     * @return 週期起始日
+     */
+    public LocalDate periodStart(LocalDate date) {
+        switch (this) {
+            case WEEKLY:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * 計算日期所在週期的結束日（含）
+     * @param date 日期
+     * @return 週期結束日
+     */
+    public LocalDate periodEnd(LocalDate date) {
+        switch (this) {
+            case WEEKLY:
+                return periodStart(date).plusDays(6);
+            case MONTHLY:
+                return date.with(TemporalAdjusters.lastDayOfMonth());
+            default:
+                return date;
+        }
+    }
+}
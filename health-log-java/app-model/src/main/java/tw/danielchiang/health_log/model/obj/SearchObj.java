@@ -7,7 +7,7 @@ import lombok.Builder;
 import lombok.Value;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class SearchObj<T> {
 
     /**
@@ -26,6 +26,16 @@ public class SearchObj<T> {
     private final boolean isSorted;
     private final Pageable pageable;
 
+    /**
+     * 是否使用 keyset 分頁
+     */
+    private final boolean isKeyset;
+    private final String cursor;
+    /**
+     * 是否略過總筆數查詢
+     */
+    private final boolean isCountSkipped;
+
     public SearchObj<T> addSpecification(Specification<T> specification, WhereObj.Logic logic) {
         Specification<T> baseSpec = Specification.allOf(this.specification);
         Specification<T> combinedSpec = switch (logic) {
@@ -34,12 +44,8 @@ public class SearchObj<T> {
             default -> baseSpec;
         };
 
-        return SearchObj.<T>builder()
-            .isSpec(this.isSpec)
+        return this.toBuilder()
             .specification(combinedSpec)
-            .isPaged(this.isPaged)
-            .isSorted(this.isSorted)
-            .pageable(this.pageable)
             .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,383 @@
+package tw.danielchiang.health_log.model.obj;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Transient;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import lombok.Getter;
+import tw.danielchiang.health_log.model.entity.DailyRecord;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.entity.RecordData;
+
+/**
+ * 已編譯的查詢條件計畫
+ * 由 SpecObj 的形狀（JOIN、欄位、運算子、邏輯，不含數值）編譯：欄位在編譯時依實體類別驗證，
+ * 並預先決定欄位型別與數值轉換方式；數值在執行時才轉換並綁定為查詢參數，
+ * 同一形狀的條件共用同一個計畫，產生相同的 SQL
+ * 條件依序合併，第一個條件的 logic 不使用
+ * EAV 欄位條件（WhereObj.field，僅 DailyRecord）編譯為關聯的 EXISTS 子查詢：
+ * 以 (setting_id, record_id) 比對 record_data，NUMBER 欄位比較 value_numeric，其他類型比較 value_text；
+ * 表示「當日有該欄位且數值符合」，沒有該欄位數值的記錄不符合（包含 NE）
+ */
+public class SpecPlan<T> {
+
+    /**
+     * 單一查詢最多的 EAV 欄位條件數（每個條件為一次索引查找）
+     */
+    public static final int MAX_FIELD_CONDITIONS = 8;
+
+    @Getter
+    private final String shape;
+    private final List<String> joins;
+    private final List<Condition> conditions;
+
+    private SpecPlan(String shape, List<String> joins, List<Condition> conditions) {
+        this.shape = shape;
+        this.joins = joins;
+        this.conditions = conditions;
+    }
+
+    /**
+     * 查詢條件的正規化形狀，作為計畫快取的鍵
+     * 只包含啟用的 JOIN 與條件，不包含數值
+     * @param entityClass 實體類別
+     * @param specObj 查詢條件
+     * @return 形狀字串
+     */
+    public static String shapeOf(Class<?> entityClass, SpecObj specObj) {
+        StringBuilder shape = new StringBuilder(entityClass.getName());
+        for (JoinObj join : activeJoins(specObj)) {
+            shape.append("|J:").append(join.getJoin());
+        }
+        for (WhereObj where : activeWheres(specObj)) {
+            shape.append(where.getField() != null ? "|F:" + where.getField() : "|W:" + where.getColumn())
+                .append(':').append(where.getOperator())
+                .append(':').append(where.getLogic());
+        }
+        return shape.toString();
+    }
+
+    /**
+     * 編譯查詢條件（不支援 EAV 欄位條件）
+     * @param entityClass 實體類別
+     * @param specObj 查詢條件（只使用形狀）
+     * @return 查詢計畫
+     * @throws IllegalArgumentException 如果欄位不存在、不可查詢，或運算子不適用於欄位型別
+     */
+    public static <T> SpecPlan<T> compile(Class<T> entityClass, SpecObj specObj) {
+        return compile(entityClass, specObj, fieldName -> null);
+    }
+
+    /**
+     * 編譯查詢條件
+     * @param entityClass 實體類別
+     * @param specObj 查詢條件（只使用形狀）
+     * @param fieldSettings 依欄位名稱解析 EAV 欄位設定，不存在時返回 null
+     * @return 查詢計畫
+     * @throws IllegalArgumentException 如果欄位不存在、不可查詢，或運算子不適用於欄位型別
+     */
+    public static <T> SpecPlan<T> compile(Class<T> entityClass, SpecObj specObj,
+            Function<String, FieldSetting> fieldSettings) {
+        List<String> joins = new ArrayList<>();
+        for (JoinObj join : activeJoins(specObj)) {
+            Field field = findField(entityClass, join.getJoin());
+            if (!isAssociation(field)) {
+                throw new IllegalArgumentException("JOIN 欄位不是關聯: " + join.getJoin());
+            }
+            joins.add(join.getJoin());
+        }
+
+        List<Condition> conditions = new ArrayList<>();
+        for (WhereObj where : activeWheres(specObj)) {
+            if (where.getOperator() == null) {
+                throw new IllegalArgumentException("缺少運算子: column=" + where.getColumn());
+            }
+            if (!conditions.isEmpty() && where.getLogic() == null) {
+                throw new IllegalArgumentException("缺少邏輯運算 (AND/OR): column=" + where.getColumn());
+            }
+            if (where.getField() != null) {
+                conditions.add(compileFieldCondition(entityClass, where, fieldSettings, conditions));
+                continue;
+            }
+            Field field = findField(entityClass, where.getColumn());
+            if (isAssociation(field)) {
+                throw new IllegalArgumentException("欄位不可作為查詢條件: " + where.getColumn());
+            }
+            Class<?> type = boxed(field.getType());
+            if (where.getOperator() == WhereObj.Operator.LIKE && type != String.class) {
+                throw new IllegalArgumentException("LIKE 只能用於文字欄位: " + where.getColumn());
+            }
+            if (isRange(where.getOperator()) && !Comparable.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException("欄位不支援大小比較: " + where.getColumn());
+            }
+            conditions.add(new Condition(where.getColumn(), null, where.getOperator(), where.getLogic(),
+                    converterOf(type)));
+        }
+        return new SpecPlan<>(shapeOf(entityClass, specObj), List.copyOf(joins), List.copyOf(conditions));
+    }
+
+    /**
+     * 編譯時解析的 EAV 欄位設定是否仍為目前的設定
+     * @param fieldSettings 依欄位名稱解析 EAV 欄位設定
+     * @return 所有欄位設定皆為同一個實例時返回 true
+     */
+    public boolean isCurrent(Function<String, FieldSetting> fieldSettings) {
+        for (Condition condition : conditions) {
+            if (condition.fieldSetting != null
+                    && fieldSettings.apply(condition.fieldSetting.getFieldName()) != condition.fieldSetting) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Condition compileFieldCondition(Class<?> entityClass, WhereObj where,
+            Function<String, FieldSetting> fieldSettings, List<Condition> compiled) {
+        if (entityClass != DailyRecord.class) {
+            throw new IllegalArgumentException("欄位數值條件只適用於記錄查詢: " + where.getField());
+        }
+        if (where.getColumn() != null) {
+            throw new IllegalArgumentException("條件不可同時指定 column 與 field: " + where.getField());
+        }
+        if (compiled.stream().filter(condition -> condition.fieldSetting != null).count() >= MAX_FIELD_CONDITIONS) {
+            throw new IllegalArgumentException("欄位數值條件最多 " + MAX_FIELD_CONDITIONS + " 個");
+        }
+        FieldSetting fieldSetting = fieldSettings.apply(where.getField());
+        if (fieldSetting == null) {
+            throw new IllegalArgumentException("欄位不存在: " + where.getField());
+        }
+        boolean numeric = "NUMBER".equals(fieldSetting.getDataType());
+        if (numeric && where.getOperator() == WhereObj.Operator.LIKE) {
+            throw new IllegalArgumentException("LIKE 只能用於文字欄位: " + where.getField());
+        }
+        if (!numeric && isRange(where.getOperator())) {
+            throw new IllegalArgumentException("欄位不支援大小比較: " + where.getField());
+        }
+        return new Condition(numeric ? "valueNumeric" : "valueText", fieldSetting, where.getOperator(),
+                where.getLogic(), converterOf(numeric ? BigDecimal.class : String.class));
+    }
+
+    /**
+     * 綁定數值並建立 Specification
+     * @param specObj 與編譯時形狀相同的查詢條件
+     * @return Specification
+     * @throws IllegalArgumentException 如果數值無法轉換為欄位型別
+     */
+    public Specification<T> bind(SpecObj specObj) {
+        List<WhereObj> wheres = activeWheres(specObj);
+        if (wheres.size() != conditions.size()) {
+            throw new IllegalArgumentException("查詢條件與計畫形狀不符");
+        }
+        Object[] values = new Object[conditions.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = conditions.get(i).convert(wheres.get(i).getValue());
+        }
+
+        return (root, query, criteriaBuilder) -> {
+            for (String join : joins) {
+                root.join(join);
+            }
+            Predicate finalPredicate = null;
+            for (int i = 0; i < conditions.size(); i++) {
+                Condition condition = conditions.get(i);
+                Predicate predicate = condition.fieldSetting != null
+                        ? condition.toExists(root, query, criteriaBuilder, values[i])
+                        : condition.toPredicate(criteriaBuilder, root.get(condition.column), values[i]);
+                if (finalPredicate == null) {
+                    finalPredicate = predicate;
+                } else if (condition.logic == WhereObj.Logic.OR) {
+                    finalPredicate = criteriaBuilder.or(finalPredicate, predicate);
+                } else {
+                    finalPredicate = criteriaBuilder.and(finalPredicate, predicate);
+                }
+            }
+            return finalPredicate != null ? finalPredicate : criteriaBuilder.and();
+        };
+    }
+
+    private static List<JoinObj> activeJoins(SpecObj specObj) {
+        if (specObj == null || specObj.getJoins() == null) {
+            return List.of();
+        }
+        return specObj.getJoins().stream().filter(JoinObj::isJoin).toList();
+    }
+
+    private static List<WhereObj> activeWheres(SpecObj specObj) {
+        if (specObj == null || specObj.getWheres() == null) {
+            return List.of();
+        }
+        return specObj.getWheres().stream().filter(WhereObj::isWhere).toList();
+    }
+
+    /**
+     * 依名稱尋找實體的持久化欄位（包含父類別）
+     */
+    private static Field findField(Class<?> entityClass, String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("缺少欄位名稱");
+        }
+        for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                if (!field.isAnnotationPresent(Transient.class)
+                        && !Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+                break;
+            } catch (NoSuchFieldException e) {
+                // 繼續尋找父類別
+            }
+        }
+        throw new IllegalArgumentException("欄位不存在: " + entityClass.getSimpleName() + "." + name);
+    }
+
+    private static boolean isAssociation(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class)
+                || field.isAnnotationPresent(OneToOne.class)
+                || field.isAnnotationPresent(OneToMany.class)
+                || field.isAnnotationPresent(ManyToMany.class)
+                || field.isAnnotationPresent(ElementCollection.class)
+                || Collection.class.isAssignableFrom(field.getType());
+    }
+
+    private static boolean isRange(WhereObj.Operator operator) {
+        return operator == WhereObj.Operator.GT || operator == WhereObj.Operator.GTE
+                || operator == WhereObj.Operator.LT || operator == WhereObj.Operator.LTE;
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        }
+        if (type == long.class) {
+            return Long.class;
+        }
+        if (type == boolean.class) {
+            return Boolean.class;
+        }
+        if (type == double.class) {
+            return Double.class;
+        }
+        throw new IllegalArgumentException("不支援的欄位型別: " + type);
+    }
+
+    /**
+     * 文字數值轉換為欄位型別的方式（編譯時決定）
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, Object> converterOf(Class<?> type) {
+        if (type == String.class) {
+            return value -> value;
+        }
+        if (type == Long.class) {
+            return Long::valueOf;
+        }
+        if (type == Integer.class) {
+            return Integer::valueOf;
+        }
+        if (type == Double.class) {
+            return Double::valueOf;
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal::new;
+        }
+        if (type == Boolean.class) {
+            return Boolean::valueOf;
+        }
+        if (type == LocalDate.class) {
+            return LocalDate::parse;
+        }
+        if (type == OffsetDateTime.class) {
+            return OffsetDateTime::parse;
+        }
+        if (type.isEnum()) {
+            return value -> Enum.valueOf((Class<? extends Enum>) type, value);
+        }
+        throw new IllegalArgumentException("不支援的欄位型別: " + type.getSimpleName());
+    }
+
+    /**
+     * 已驗證的單一條件
+     * fieldSetting 不為 null 時為 EAV 欄位條件，column 為 RecordData 的數值欄位
+     */
+    private static class Condition {
+        private final String column;
+        private final FieldSetting fieldSetting;
+        private final WhereObj.Operator operator;
+        private final WhereObj.Logic logic;
+        private final Function<String, Object> converter;
+
+        Condition(String column, FieldSetting fieldSetting, WhereObj.Operator operator, WhereObj.Logic logic,
+                Function<String, Object> converter) {
+            this.column = column;
+            this.fieldSetting = fieldSetting;
+            this.operator = operator;
+            this.logic = logic;
+            this.converter = converter;
+        }
+
+        Object convert(String value) {
+            String name = fieldSetting != null ? fieldSetting.getFieldName() : column;
+            if (value == null) {
+                throw new IllegalArgumentException("缺少條件值: column=" + name);
+            }
+            try {
+                return converter.apply(value.trim());
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("條件值格式錯誤: column=" + name + ", value=" + value);
+            }
+        }
+
+        /**
+         * EXISTS (SELECT 1 FROM record_data d WHERE d.record_id = r.record_id AND d.setting_id = ? AND d.value ...)
+         */
+        Predicate toExists(Root<?> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder, Object value) {
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<RecordData> data = subquery.from(RecordData.class);
+            subquery.select(criteriaBuilder.literal(1)).where(
+                    criteriaBuilder.equal(data.get("dailyRecord"), root),
+                    criteriaBuilder.equal(data.get("fieldSetting").get("settingId"), fieldSetting.getSettingId()),
+                    toPredicate(criteriaBuilder, data.get(column), value));
+            return criteriaBuilder.exists(subquery);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Predicate toPredicate(CriteriaBuilder criteriaBuilder, Path<?> path, Object value) {
+            Path<Comparable> comparablePath = (Path<Comparable>) path;
+            Comparable comparable = value instanceof Comparable ? (Comparable) value : null;
+            return switch (operator) {
+                case EQ -> criteriaBuilder.equal(path, value);
+                case NE -> criteriaBuilder.notEqual(path, value);
+                case GT -> criteriaBuilder.greaterThan(comparablePath, comparable);
+                case GTE -> criteriaBuilder.greaterThanOrEqualTo(comparablePath, comparable);
+                case LT -> criteriaBuilder.lessThan(comparablePath, comparable);
+                case LTE -> criteriaBuilder.lessThanOrEqualTo(comparablePath, comparable);
+                case LIKE -> criteriaBuilder.like((Path<String>) path, (String) value);
+            };
+        }
+    }
+}
@@ -3,11 +3,17 @@ package tw.danielchiang.health_log.model.obj;
 import lombok.Builder;
 import lombok.Value;
 
+/**
+ * 查詢條件
+ * column 為實體欄位；field 為 EAV 欄位名稱（field_settings.field_name），
+ * 設定 field 時條件比對該欄位當日的數值（NUMBER 以數值比較，其他類型以文字比較）
+ */
 @Value
 @Builder
 public class WhereObj {
     private final boolean isWhere;
     private final String column;
+    private final String field;
     private final Operator operator;
     private final String value;
     private final Logic logic;
@@ -5,6 +5,7 @@ import java.time.OffsetDateTime;
 import java.util.Base64;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -21,6 +22,7 @@ import tw.danielchiang.health_log.model.dto.reponse.AuthResponseDTO;
 import tw.danielchiang.health_log.model.dto.request.LoginRequestDTO;
 import tw.danielchiang.health_log.model.dto.request.RegisterRequestDTO;
 import tw.danielchiang.health_log.model.dto.request.VerifyEmailRequestDTO;
+import tw.danielchiang.health_log.service.event.UserActiveChangedEvent;
 
 /**
  * 認證服務
@@ -37,6 +39,7 @@ public class AuthService implements UserDetailsService {
     private final RefreshTokenService refreshTokenService;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
     private static final SecureRandom secureRandom = new SecureRandom();
 
     /**
@@ -225,6 +228,39 @@ public class AuthService implements UserDetailsService {
         log.info("Email verified successfully: userId={}, email={}", user.getId(), user.getEmail());
     }
 
+    /**
+     * 停用使用者
+     * 已核發的 Access Token 在提交後透過撤銷清單立即失效，Refresh Token 在刷新時因帳號未啟用而被拒絕
+     * @param userId 使用者 ID
+     * @throws IllegalArgumentException 如果使用者不存在
+     */
+    @Transactional
+    public void deactivateUser(Long userId) {
+        tw.danielchiang.health_log.model.entity.User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("使用者不存在: userId=" + userId));
+
+        user.setIsActive(false);
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserActiveChangedEvent(userId, false));
+        log.info("User deactivated: userId={}, email={}", userId, user.getEmail());
+    }
+
+    /**
+     * 重新啟用使用者（提交後從撤銷清單移除）
+     * @param userId 使用者 ID
+     * @throws IllegalArgumentException 如果使用者不存在
+     */
+    @Transactional
+    public void activateUser(Long userId) {
+        tw.danielchiang.health_log.model.entity.User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("使用者不存在: userId=" + userId));
+
+        user.setIsActive(true);
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserActiveChangedEvent(userId, true));
+        log.info("User activated: userId={}, email={}", userId, user.getEmail());
+    }
+
     /**
      * 生成安全的驗證 Token
      * @return 驗證 Token（Base64 編碼）
@@ -1,31 +1,56 @@
 package tw.danielchiang.health_log.service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import tw.danielchiang.health_log.data.repository.DailyRecordRepository;
-import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
 import tw.danielchiang.health_log.data.repository.RecordDataRepository;
 import tw.danielchiang.health_log.data.repository.UserRepository;
+import tw.danielchiang.health_log.model.domain.PageableData;
 import tw.danielchiang.health_log.model.dto.reponse.DailyRecordDetailDTO;
+import tw.danielchiang.health_log.model.dto.reponse.RecordImportResultDTO;
 import tw.danielchiang.health_log.model.dto.request.RecordRequestDTO;
 import tw.danielchiang.health_log.model.dto.request.SearchRequestDTO;
 import tw.danielchiang.health_log.model.entity.DailyRecord;
 import tw.danielchiang.health_log.model.entity.FieldSetting;
 import tw.danielchiang.health_log.model.entity.RecordData;
 import tw.danielchiang.health_log.model.entity.User;
+import tw.danielchiang.health_log.model.obj.RecordImportRowObj;
 import tw.danielchiang.health_log.model.obj.SearchObj;
 import tw.danielchiang.health_log.model.obj.WhereObj;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.cache.SpecPlanCache;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent.FieldValueChange;
 
 /**
  * 每日記錄服務
@@ -37,22 +62,28 @@ import tw.danielchiang.health_log.model.obj.WhereObj;
 @Transactional
 public class DailyRecordService {
 
+    private static final String CURSOR_SEPARATOR = ",";
+
     private final DailyRecordRepository dailyRecordRepository;
     private final RecordDataRepository recordDataRepository;
-    private final FieldSettingRepository fieldSettingRepository;
+    private final FieldSettingRegistry fieldSettingRegistry;
+    private final SpecPlanCache specPlanCache;
     private final UserRepository userRepository;
+    private final RollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 創建或更新每日記錄
      * 將扁平化的 DTO 拆解為 EAV 格式儲存
+     * 與現有數值比對後只新增、更新或刪除有變更的 RecordData，未變更的數值不會寫入
      * @param userId 使用者 ID
      * @param request 記錄請求 DTO
      * @return 記錄詳情 DTO
      * @throws IllegalArgumentException 如果使用者不存在、欄位設定不存在或驗證失敗
      */
     public DailyRecordDetailDTO saveRecord(Long userId, RecordRequestDTO request) {
-        // 驗證使用者存在
-        User user = userRepository.findById(userId)
+        // 驗證使用者存在，並鎖定至交易結束：同一使用者的寫入依序更新彙總
+        User user = userRepository.findByIdForUpdate(userId)
                 .orElseThrow(() -> new IllegalArgumentException("使用者不存在: userId=" + userId));
 
         // 查詢或創建 DailyRecord
@@ -65,24 +96,25 @@ public class DailyRecordService {
                     return dailyRecordRepository.save(newRecord);
                 });
 
-        // 獲取所有啟用的欄位設定
-        List<FieldSetting> activeSettings = fieldSettingRepository.findByIsActiveTrue();
-        Map<String, FieldSetting> settingMap = activeSettings.stream()
-                .collect(Collectors.toMap(FieldSetting::getFieldName, fs -> fs));
-
         // 驗證並處理欄位值
         if (request.getFieldValues() != null) {
-            // 刪除現有的 RecordData（如果存在）
-            List<RecordData> existingData = recordDataRepository.findByDailyRecordRecordId(dailyRecord.getRecordId());
-            recordDataRepository.deleteAll(existingData);
-            recordDataRepository.flush();
+            // 現有數值，依 settingId 索引
+            Map<Integer, RecordData> existingDataMap = new HashMap<>();
+            for (RecordData data : dailyRecord.getRecordDataList()) {
+                existingDataMap.put(data.getFieldSetting().getSettingId(), data);
+            }
+
+            // 變更前後的數值，供彙總與快取失效使用（未變更的欄位不列入）
+            List<RecordData> oldDataList = new ArrayList<>();
+            List<RecordData> newDataList = new ArrayList<>();
+            Set<Integer> requestedSettingIds = new HashSet<>();
 
-            // 創建新的 RecordData
             for (Map.Entry<String, String> entry : request.getFieldValues().entrySet()) {
                 String fieldName = entry.getKey();
                 String value = entry.getValue();
 
-                FieldSetting fieldSetting = settingMap.get(fieldName);
+                // 從記憶體快照取得啟用的欄位設定
+                FieldSetting fieldSetting = fieldSettingRegistry.findActiveByFieldName(fieldName).orElse(null);
                 if (fieldSetting == null) {
                     log.warn("欄位設定不存在，跳過: fieldName={}", fieldName);
                     continue;
@@ -93,22 +125,128 @@ public class DailyRecordService {
                     throw new IllegalArgumentException("必填欄位不能為空: fieldName=" + fieldName);
                 }
 
-                // 創建 RecordData
+                String valueText = value != null ? value : "";
+                requestedSettingIds.add(fieldSetting.getSettingId());
+                RecordData existing = existingDataMap.get(fieldSetting.getSettingId());
+
+                if (existing == null) {
+                    // 新增
+                    RecordData recordData = new RecordData();
+                    recordData.setDailyRecord(dailyRecord);
+                    recordData.setFieldSetting(fieldSetting);
+                    recordData.setValueText(valueText);
+                    recordData.setValueNumeric(toNumericValue(fieldSetting, value));
+                    recordDataRepository.save(recordData);
+                    dailyRecord.getRecordDataList().add(recordData);
+                    newDataList.add(recordData);
+                } else if (!valueText.equals(existing.getValueText())) {
+                    // 更新：保留變更前的數值供彙總扣除
+                    oldDataList.add(copyOf(existing));
+                    existing.setValueText(valueText);
+                    existing.setValueNumeric(toNumericValue(fieldSetting, value));
+                    recordDataRepository.save(existing);
+                    newDataList.add(existing);
+                }
+            }
+
+            // 刪除請求中沒有的欄位
+            for (RecordData existing : existingDataMap.values()) {
+                if (!requestedSettingIds.contains(existing.getFieldSetting().getSettingId())) {
+                    dailyRecord.getRecordDataList().remove(existing);
+                    recordDataRepository.delete(existing);
+                    oldDataList.add(existing);
+                }
+            }
+
+            if (!oldDataList.isEmpty() || !newDataList.isEmpty()) {
+                rollupService.applyChanges(userId, request.getRecordDate(), oldDataList, newDataList);
+
+                // 提交後失效相關報表快取
+                eventPublisher.publishEvent(new RecordChangedEvent(userId, request.getRecordDate(),
+                        fieldNamesOf(oldDataList, newDataList), valueChangesOf(oldDataList, newDataList)));
+            }
+        }
+
+        log.info("Record saved: userId={}, recordDate={}, recordId={}", userId, request.getRecordDate(), dailyRecord.getRecordId());
+        return convertToDetailDTO(dailyRecord);
+    }
+
+    /**
+     * 匯入一批已驗證的資料列（由 RecordImportJob 呼叫，每批一個交易）
+     * 以合併方式寫入：不存在的數值新增、不同的數值更新，檔案中沒有的欄位保持不變
+     * 彙總在同一交易中依每個日期的變更增量更新（與 saveRecord 相同路徑），報表快取由呼叫端在匯入完成後一次失效
+     * @param userId 使用者 ID
+     * @param rows 資料列（同一日期同一欄位重複時以最後一筆為準）
+     * @return 本批的匯入筆數（只含數量欄位）
+     */
+    public RecordImportResultDTO importRows(Long userId, List<RecordImportRowObj> rows) {
+        // 鎖定使用者至交易結束：與 saveRecord / deleteRecord 依序更新彙總
+        User user = userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new IllegalArgumentException("使用者不存在: userId=" + userId));
+        RecordImportResultDTO result = new RecordImportResultDTO();
+
+        Set<LocalDate> recordDates = new HashSet<>();
+        rows.forEach(row -> recordDates.add(row.getRecordDate()));
+        Map<LocalDate, DailyRecord> dailyRecords = new HashMap<>();
+        for (DailyRecord dailyRecord : dailyRecordRepository.findWithDataByUserIdAndRecordDateIn(userId, recordDates)) {
+            dailyRecords.put(dailyRecord.getRecordDate(), dailyRecord);
+        }
+
+        // 每日記錄的現有數值，依 settingId 索引
+        Map<LocalDate, Map<Integer, RecordData>> existingData = new HashMap<>();
+        // 每日變更前後的數值，供彙總使用（同一欄位多次變更時，變更前保留第一次的數值）
+        Map<LocalDate, Map<Integer, RecordData>> oldDataByDate = new LinkedHashMap<>();
+        Map<LocalDate, Map<Integer, RecordData>> newDataByDate = new LinkedHashMap<>();
+        for (RecordImportRowObj row : rows) {
+            DailyRecord dailyRecord = dailyRecords.computeIfAbsent(row.getRecordDate(), recordDate -> {
+                DailyRecord newRecord = new DailyRecord();
+                newRecord.setUser(user);
+                newRecord.setRecordDate(recordDate);
+                result.setCreatedRecordCount(result.getCreatedRecordCount() + 1);
+                return dailyRecordRepository.save(newRecord);
+            });
+            Map<Integer, RecordData> dataMap = existingData.computeIfAbsent(row.getRecordDate(), recordDate -> {
+                Map<Integer, RecordData> map = new HashMap<>();
+                dailyRecord.getRecordDataList().forEach(data -> map.put(data.getFieldSetting().getSettingId(), data));
+                return map;
+            });
+
+            FieldSetting fieldSetting = row.getFieldSetting();
+            RecordData existing = dataMap.get(fieldSetting.getSettingId());
+            Map<Integer, RecordData> newData = newDataByDate.computeIfAbsent(row.getRecordDate(), recordDate -> new HashMap<>());
+            if (existing == null) {
                 RecordData recordData = new RecordData();
                 recordData.setDailyRecord(dailyRecord);
                 recordData.setFieldSetting(fieldSetting);
-                recordData.setValueText(value != null ? value : "");
+                recordData.setValueText(row.getValueText());
+                recordData.setValueNumeric(toNumericValue(fieldSetting, row.getValueText()));
                 recordDataRepository.save(recordData);
                 dailyRecord.getRecordDataList().add(recordData);
+                dataMap.put(fieldSetting.getSettingId(), recordData);
+                newData.put(fieldSetting.getSettingId(), recordData);
+                result.setInsertedCount(result.getInsertedCount() + 1);
+            } else if (!row.getValueText().equals(existing.getValueText())) {
+                if (!newData.containsKey(fieldSetting.getSettingId())) {
+                    oldDataByDate.computeIfAbsent(row.getRecordDate(), recordDate -> new HashMap<>())
+                            .put(fieldSetting.getSettingId(), copyOf(existing));
+                }
+                newData.put(fieldSetting.getSettingId(), existing);
+                existing.setValueText(row.getValueText());
+                existing.setValueNumeric(toNumericValue(fieldSetting, row.getValueText()));
+                result.setUpdatedCount(result.getUpdatedCount() + 1);
+            } else {
+                result.setUnchangedCount(result.getUnchangedCount() + 1);
             }
         }
 
-        // 重新載入以獲取最新的 RecordData
-        dailyRecord = dailyRecordRepository.findById(dailyRecord.getRecordId())
-                .orElseThrow(() -> new IllegalStateException("記錄儲存後無法查詢"));
-
-        log.info("Record saved: userId={}, recordDate={}, recordId={}", userId, request.getRecordDate(), dailyRecord.getRecordId());
-        return convertToDetailDTO(dailyRecord);
+        // 增量更新彙總
+        for (Map.Entry<LocalDate, Map<Integer, RecordData>> entry : newDataByDate.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                rollupService.applyChanges(userId, entry.getKey(),
+                        oldDataByDate.getOrDefault(entry.getKey(), Map.of()).values(), entry.getValue().values());
+            }
+        }
+        return result;
     }
 
     /**
@@ -145,14 +283,51 @@ public class DailyRecordService {
                 .collect(Collectors.toList());
     }
 
-    public Page<DailyRecordDetailDTO> getRecordsByUserId(Long userId, SearchRequestDTO<DailyRecord> request) {
-        SearchObj<DailyRecord> searchObj = request.toSearchObj();
+    /**
+     * 分頁查詢使用者的記錄
+     * 該頁所有記錄的數值以一次查詢載入，欄位名稱由記憶體快照解析
+     * keyset 分頁依 (recordDate, recordId) 排序（方向取第一個排序條件，預設降序），
+     * 以 WHERE 條件接續游標位置，走 uk_user_record_date 索引，不查詢總筆數
+     * 查詢條件依形狀取用已編譯的計畫（SpecPlanCache），數值以參數綁定
+     * @param userId 使用者 ID
+     * @param request 查詢條件
+     * @return 記錄詳情 DTO 分頁
+     * @throws IllegalArgumentException 如果游標格式錯誤，或查詢條件的欄位、數值不合法
+     */
+    @Transactional(readOnly = true)
+    public PageableData<DailyRecordDetailDTO> getRecordsByUserId(Long userId, SearchRequestDTO<DailyRecord> request) {
+        SearchObj<DailyRecord> searchObj = request.toSearchObj(
+            specPlanCache.toSpecification(DailyRecord.class, request.getSpecObj()));
 
         SearchObj<DailyRecord> updatedSearchObj = searchObj.addSpecification(
             (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("user").get("id"), userId), WhereObj.Logic.AND);
-        
-        Page<DailyRecord> dailyRecords = dailyRecordRepository.search(updatedSearchObj);
-        return dailyRecords.map(this::convertToDetailDTO);
+
+        if (updatedSearchObj.isKeyset()) {
+            Pageable pageable = updatedSearchObj.getPageable();
+            Sort.Order firstOrder = pageable.getSort().stream().findFirst().orElse(null);
+            Sort.Direction direction = firstOrder != null ? firstOrder.getDirection() : Sort.Direction.DESC;
+            SearchObj<DailyRecord> keysetSearchObj = updatedSearchObj.toBuilder()
+                .pageable(PageRequest.of(0, pageable.getPageSize(), Sort.by(direction, "recordDate", "recordId")))
+                .build();
+
+            Window<DailyRecord> window = dailyRecordRepository.scroll(keysetSearchObj,
+                    decodeCursor(updatedSearchObj.getCursor()), "recordDataList");
+            List<DailyRecordDetailDTO> content = window.getContent().stream()
+                    .map(this::convertToDetailDTO)
+                    .toList();
+            String nextCursor = window.hasNext() && !window.isEmpty()
+                    ? encodeCursor(window.getContent().get(window.size() - 1))
+                    : null;
+            return PageableData.of(new SliceImpl<>(content, keysetSearchObj.getPageable(), window.hasNext()), nextCursor);
+        }
+
+        if (updatedSearchObj.isCountSkipped()) {
+            Slice<DailyRecord> dailyRecords = dailyRecordRepository.searchSlice(updatedSearchObj, "recordDataList");
+            return PageableData.of(dailyRecords.map(this::convertToDetailDTO));
+        }
+
+        Page<DailyRecord> dailyRecords = dailyRecordRepository.search(updatedSearchObj, "recordDataList");
+        return PageableData.of(dailyRecords.map(this::convertToDetailDTO));
     }
 
     /**
@@ -162,14 +337,119 @@ public class DailyRecordService {
      * @throws IllegalArgumentException 如果記錄不存在或不屬於該使用者
      */
     public void deleteRecord(Long userId, LocalDate recordDate) {
+        // 鎖定使用者至交易結束：同一使用者的寫入依序更新彙總
+        userRepository.findByIdForUpdate(userId);
         DailyRecord dailyRecord = dailyRecordRepository
                 .findByUserIdAndRecordDate(userId, recordDate)
                 .orElseThrow(() -> new IllegalArgumentException("記錄不存在: userId=" + userId + ", recordDate=" + recordDate));
 
+        List<RecordData> existingData = List.copyOf(dailyRecord.getRecordDataList());
         dailyRecordRepository.delete(dailyRecord);
+        dailyRecordRepository.flush();
+
+        // 增量更新彙總
+        rollupService.applyChanges(userId, recordDate, existingData, List.of());
+        eventPublisher.publishEvent(new RecordChangedEvent(userId, recordDate, fieldNamesOf(existingData, List.of()),
+                valueChangesOf(existingData, List.of())));
         log.info("Record deleted: userId={}, recordDate={}, recordId={}", userId, recordDate, dailyRecord.getRecordId());
     }
 
+    /**
+     * 複製 RecordData 的數值（不受後續修改影響）
+     */
+    private RecordData copyOf(RecordData source) {
+        RecordData copy = new RecordData();
+        copy.setDailyRecord(source.getDailyRecord());
+        copy.setFieldSetting(source.getFieldSetting());
+        copy.setValueText(source.getValueText());
+        copy.setValueNumeric(source.getValueNumeric());
+        return copy;
+    }
+
+    /**
+     * 收集變更前後所有數值的欄位名稱
+     */
+    private Set<String> fieldNamesOf(Collection<RecordData> oldData, Collection<RecordData> newData) {
+        Set<String> fieldNames = new HashSet<>();
+        oldData.forEach(data -> fieldNames.add(fieldSettingOf(data).getFieldName()));
+        newData.forEach(data -> fieldNames.add(fieldSettingOf(data).getFieldName()));
+        return fieldNames;
+    }
+
+    /**
+     * 依欄位配對變更前後的數值
+     */
+    private List<FieldValueChange> valueChangesOf(Collection<RecordData> oldData, Collection<RecordData> newData) {
+        Map<Integer, String> oldValues = new LinkedHashMap<>();
+        Map<Integer, String> newValues = new LinkedHashMap<>();
+        oldData.forEach(data -> oldValues.put(data.getFieldSetting().getSettingId(), data.getValueText()));
+        newData.forEach(data -> newValues.put(data.getFieldSetting().getSettingId(), data.getValueText()));
+
+        Set<Integer> settingIds = new LinkedHashSet<>(oldValues.keySet());
+        settingIds.addAll(newValues.keySet());
+        List<FieldValueChange> changes = new ArrayList<>(settingIds.size());
+        for (Integer settingId : settingIds) {
+            changes.add(new FieldValueChange(settingId, oldValues.get(settingId), newValues.get(settingId)));
+        }
+        return changes;
+    }
+
+    /**
+     * 將記錄的 (recordDate, recordId) 編碼為不透明的 keyset 游標
+     */
+    private String encodeCursor(DailyRecord dailyRecord) {
+        String key = dailyRecord.getRecordDate() + CURSOR_SEPARATOR + dailyRecord.getRecordId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析 keyset 游標，沒有游標時從第一筆開始
+     */
+    private KeysetScrollPosition decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(CURSOR_SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("無效的分頁游標: " + cursor);
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("recordDate", LocalDate.parse(parts[0]));
+            keys.put("recordId", Long.valueOf(parts[1]));
+            return ScrollPosition.forward(keys);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("無效的分頁游標: " + cursor, e);
+        }
+    }
+
+    /**
+     * 從記憶體快照解析數值的欄位設定，不初始化延遲載入的關聯（快照中沒有時才查詢）
+     */
+    private FieldSetting fieldSettingOf(RecordData data) {
+        return fieldSettingRegistry.findById(data.getFieldSetting().getSettingId())
+                .orElseGet(data::getFieldSetting);
+    }
+
+    /**
+     * 將 NUMBER 類型欄位的值轉換為數值，供 value_numeric 欄位使用
+     * @param fieldSetting 欄位設定
+     * @param value 原始文字值
+     * @return 數值，非 NUMBER 類型、空值或無法解析時返回 null
+     */
+    private BigDecimal toNumericValue(FieldSetting fieldSetting, String value) {
+        if (!"NUMBER".equals(fieldSetting.getDataType()) || value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("NUMBER 欄位值無法解析為數值: fieldName={}, value={}", fieldSetting.getFieldName(), value);
+            return null;
+        }
+    }
+
     /**
      * 將 DailyRecord 實體轉換為 DailyRecordDetailDTO
      * 執行 EAV -> 扁平化的轉換
@@ -184,7 +464,7 @@ public class DailyRecordService {
         Map<String, String> fieldValues = new HashMap<>();
         if (dailyRecord.getRecordDataList() != null) {
             for (RecordData recordData : dailyRecord.getRecordDataList()) {
-                String fieldName = recordData.getFieldSetting().getFieldName();
+                String fieldName = fieldSettingOf(recordData).getFieldName();
                 String value = recordData.getValueText();
                 fieldValues.put(fieldName, value);
             }
@@ -0,0 +1,186 @@
+package tw.danielchiang.health_log.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.model.dto.reponse.DashboardDTO;
+import tw.danielchiang.health_log.model.dto.reponse.DashboardFieldDTO;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.FieldValueObj;
+import tw.danielchiang.health_log.model.obj.RecordValueObj;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+
+/**
+ * 儀表板服務
+ * 以一次區間查詢取得使用者所有欄位的數值，依欄位分組後在虛擬執行緒上平行計算各欄位摘要
+ * 欄位設定由 FieldSettingRegistry 取得（不查詢資料庫），摘要的計算方式與 ReportService 的單一欄位報表相同
+ * 整體計算有期限（report.dashboard.timeout）：區間查詢以剩餘期限（進位到整秒）作為查詢逾時，逾時或期限已過時整個請求失敗；
+ * 查詢之後剩餘的時間用於計算摘要，逾時的欄位列於 timedOutFields 並中斷計算，不影響其他欄位
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardService {
+
+    private final RecordDataRepository recordDataRepository;
+    private final FieldSettingRegistry fieldSettingRegistry;
+
+    @Value("${report.dashboard.timeout:3s}")
+    private Duration timeout;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 查詢使用者所有啟用欄位在日期區間內的摘要
+     * @param userId 使用者 ID
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @return 儀表板 DTO
+     * @throws IllegalArgumentException 如果開始日期晚於結束日期
+     * @throws QueryTimeoutException 如果區間查詢超過期限
+     */
+    public DashboardDTO getDashboard(Long userId, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("開始日期不可晚於結束日期: " + startDate + " > " + endDate);
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        List<FieldSetting> fieldSettings = fieldSettingRegistry.getActive();
+        Map<Integer, List<FieldValueObj>> valuesBySetting = new HashMap<>();
+        List<FieldValueObj> allValues;
+        try {
+            allValues = recordDataRepository.findAllFieldValuesInRange(userId, startDate, endDate,
+                    Duration.ofNanos(deadline - System.nanoTime()));
+        } catch (QueryTimeoutException e) {
+            log.warn("Dashboard query exceeded deadline: userId={}, timeout={}", userId, timeout);
+            throw e;
+        }
+        for (FieldValueObj value : allValues) {
+            valuesBySetting.computeIfAbsent(value.getSettingId(), k -> new ArrayList<>()).add(value);
+        }
+
+        List<Callable<DashboardFieldDTO>> tasks = new ArrayList<>(fieldSettings.size());
+        for (FieldSetting fieldSetting : fieldSettings) {
+            List<FieldValueObj> values = valuesBySetting.getOrDefault(fieldSetting.getSettingId(), List.of());
+            tasks.add(() -> summarize(fieldSetting, values));
+        }
+
+        List<Future<DashboardFieldDTO>> futures;
+        try {
+            // 期限包含查詢時間，逾時未完成的工作會被取消
+            futures = executor.invokeAll(tasks, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures = List.of();
+        }
+
+        List<DashboardFieldDTO> fields = new ArrayList<>(fieldSettings.size());
+        List<String> timedOutFields = new ArrayList<>();
+        for (int i = 0; i < fieldSettings.size(); i++) {
+            Future<DashboardFieldDTO> future = i < futures.size() ? futures.get(i) : null;
+            if (future == null || future.state() == Future.State.CANCELLED) {
+                timedOutFields.add(fieldSettings.get(i).getFieldName());
+            } else if (future.state() == Future.State.FAILED) {
+                throw asRuntimeException(future.exceptionNow());
+            } else {
+                fields.add(future.resultNow());
+            }
+        }
+
+        if (!timedOutFields.isEmpty()) {
+            log.warn("Dashboard deadline exceeded: userId={}, timeout={}, timedOutFields={}", userId, timeout, timedOutFields);
+        }
+        return new DashboardDTO(startDate, endDate, fields, timedOutFields);
+    }
+
+    /**
+     * 依欄位類型計算摘要
+     */
+    private DashboardFieldDTO summarize(FieldSetting fieldSetting, List<FieldValueObj> values) {
+        DashboardFieldDTO field = new DashboardFieldDTO();
+        field.setFieldName(fieldSetting.getFieldName());
+        field.setDataType(fieldSetting.getDataType());
+
+        switch (String.valueOf(fieldSetting.getDataType())) {
+            case "NUMBER" -> {
+                List<BigDecimal> numbers = new ArrayList<>(values.size());
+                for (FieldValueObj value : values) {
+                    checkInterrupted();
+                    if (value.getValueNumeric() != null) {
+                        numbers.add(value.getValueNumeric());
+                    }
+                }
+                field.setNumberStatistics(ReportService.toNumberStatistics(numbers));
+            }
+            case "ENUM" -> field.setEnumDistribution(ReportService.toEnumDistribution(toRecordValues(values), fieldSetting.getOptions()));
+            case "TEXT" -> field.setTextAnalysis(ReportService.toTextAnalysis(toRecordValues(values)));
+            default -> log.debug("Unsupported data type for dashboard: fieldName={}, dataType={}",
+                    fieldSetting.getFieldName(), fieldSetting.getDataType());
+        }
+        return field;
+    }
+
+    /**
+     * 以 RecordValueObj 檢視欄位數值（不複製），逐筆讀取時檢查中斷，逾時取消的摘要計算隨即停止
+     */
+    private static List<RecordValueObj> toRecordValues(List<FieldValueObj> values) {
+        return new AbstractList<>() {
+            @Override
+            public RecordValueObj get(int index) {
+                checkInterrupted();
+                FieldValueObj value = values.get(index);
+                return new RecordValueObj(value.getRecordDate(), value.getValueText());
+            }
+
+            @Override
+            public int size() {
+                return values.size();
+            }
+        };
+    }
+
+    /**
+     * 工作已被取消（逾時）時停止計算，結果不會被使用
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Dashboard deadline exceeded");
+        }
+    }
+
+    private RuntimeException asRuntimeException(Throwable throwable) {
+        if (throwable instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (throwable instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(throwable);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
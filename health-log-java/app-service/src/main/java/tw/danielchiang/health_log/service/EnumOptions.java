@@ -0,0 +1,74 @@
+package tw.danielchiang.health_log.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ENUM 欄位的選項順序
+ * FieldSetting.options 可為 JSON 陣列（字串或 {value, label} 物件）或逗號分隔字串，與前端的解析方式相同
+ */
+final class EnumOptions {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private EnumOptions() {
+    }
+
+    /**
+     * 解析欄位設定的選項列表
+     * @param options FieldSetting.options
+     * @return 選項（依設定順序，不重複），未設定時為空列表
+     */
+    static List<String> parse(String options) {
+        if (options == null || options.isBlank()) {
+            return List.of();
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        String trimmed = options.trim();
+        if (trimmed.startsWith("[")) {
+            try {
+                for (JsonNode option : OBJECT_MAPPER.readTree(trimmed)) {
+                    JsonNode value = option.isObject() ? option.get("value") : option;
+                    if (value != null && !value.asText().isEmpty()) {
+                        parsed.add(value.asText());
+                    }
+                }
+                return new ArrayList<>(parsed);
+            } catch (JsonProcessingException e) {
+                // 不是 JSON，改以逗號分隔解析
+            }
+        }
+        for (String option : trimmed.split(",")) {
+            if (!option.isBlank()) {
+                parsed.add(option.trim());
+            }
+        }
+        return new ArrayList<>(parsed);
+    }
+
+    /**
+     * 排列實際出現的選項：先依設定順序，未設定的選項依字典順序排在後面
+     * @param options FieldSetting.options
+     * @param observed 實際出現的選項
+     * @return 排序後的選項（只包含 observed 中的選項）
+     */
+    static List<String> order(String options, Collection<String> observed) {
+        Set<String> remaining = new TreeSet<>(observed);
+        List<String> ordered = new ArrayList<>(remaining.size());
+        for (String option : parse(options)) {
+            if (remaining.remove(option)) {
+                ordered.add(option);
+            }
+        }
+        ordered.addAll(remaining);
+        return ordered;
+    }
+}
@@ -2,18 +2,24 @@ package tw.danielchiang.health_log.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
 import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.event.FieldSettingChangedEvent;
 
 /**
  * 欄位設定服務
  * 管理記錄欄位的 CRUD 業務邏輯
+ * 查詢由 FieldSettingRegistry 的記憶體快照提供，寫入提交後快照隨事件重建
  */
 @Service
 @RequiredArgsConstructor
@@ -22,23 +28,25 @@ import tw.danielchiang.health_log.model.entity.FieldSetting;
 public class FieldSettingService {
 
     private final FieldSettingRepository fieldSettingRepository;
+    private final FieldSettingRegistry fieldSettingRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 查詢所有啟用的欄位設定，按 setting_id 升序排序
      * @return 啟用的欄位設定列表
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<FieldSetting> getAllActiveFieldSettings() {
-        return fieldSettingRepository.findByIsActiveTrueOrderBySettingIdAsc();
+        return fieldSettingRegistry.getActive();
     }
 
     /**
      * 查詢所有欄位設定（包含未啟用的），按 setting_id 升序排序
      * @return 所有欄位設定列表
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<FieldSetting> getAllFieldSettings() {
-        return fieldSettingRepository.findAllByOrderBySettingIdAsc();
+        return fieldSettingRegistry.getAll();
     }
 
     /**
@@ -46,9 +54,9 @@ public class FieldSettingService {
      * @param settingId 欄位設定 ID
      * @return 欄位設定
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<FieldSetting> getFieldSettingById(Integer settingId) {
-        return fieldSettingRepository.findById(settingId);
+        return fieldSettingRegistry.findById(settingId);
     }
 
     /**
@@ -56,9 +64,9 @@ public class FieldSettingService {
      * @param fieldName 欄位名稱
      * @return 欄位設定
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<FieldSetting> getFieldSettingByFieldName(String fieldName) {
-        return fieldSettingRepository.findByFieldName(fieldName);
+        return fieldSettingRegistry.findByFieldName(fieldName);
     }
 
     /**
@@ -82,6 +90,7 @@ public class FieldSettingService {
         }
 
         FieldSetting saved = fieldSettingRepository.save(fieldSetting);
+        eventPublisher.publishEvent(new FieldSettingChangedEvent(saved.getSettingId(), Set.of(saved.getFieldName())));
         log.info("Field setting created: settingId={}, fieldName={}", saved.getSettingId(), saved.getFieldName());
         return saved;
     }
@@ -104,6 +113,8 @@ public class FieldSettingService {
             }
         }
 
+        String oldFieldName = existing.getFieldName();
+
         // 更新欄位
         existing.setFieldName(fieldSetting.getFieldName());
         existing.setDataType(fieldSetting.getDataType());
@@ -113,6 +124,8 @@ public class FieldSettingService {
         existing.setIsActive(fieldSetting.getIsActive());
 
         FieldSetting updated = fieldSettingRepository.save(existing);
+        eventPublisher.publishEvent(new FieldSettingChangedEvent(updated.getSettingId(),
+                Set.copyOf(List.of(oldFieldName, updated.getFieldName()))));
         log.info("Field setting updated: settingId={}, fieldName={}", updated.getSettingId(), updated.getFieldName());
         return updated;
     }
@@ -129,6 +142,7 @@ public class FieldSettingService {
         // 軟刪除：設定為未啟用
         fieldSetting.setIsActive(false);
         fieldSettingRepository.save(fieldSetting);
+        eventPublisher.publishEvent(new FieldSettingChangedEvent(settingId, Set.of(fieldSetting.getFieldName())));
         log.info("Field setting deactivated: settingId={}, fieldName={}", fieldSetting.getSettingId(), fieldSetting.getFieldName());
     }
 
@@ -143,6 +157,8 @@ public class FieldSettingService {
         }
 
         fieldSettingRepository.deleteById(settingId);
+        // 不查詢欄位名稱，失效所有欄位的報表（硬刪除很少發生）
+        eventPublisher.publishEvent(new FieldSettingChangedEvent(settingId, Set.of()));
         log.info("Field setting hard deleted: settingId={}", settingId);
     }
 }
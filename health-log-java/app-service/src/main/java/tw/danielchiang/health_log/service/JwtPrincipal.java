@@ -0,0 +1,25 @@
+package tw.danielchiang.health_log.service;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import lombok.Value;
+
+/**
+ * 由 Access Token Claims 建立的登入使用者
+ * 不需查詢資料庫即可取得使用者 ID、Email 與角色
+ */
+@Value
+public class JwtPrincipal implements AuthenticatedPrincipal {
+
+    Long userId;
+    String email;
+    String role;
+
+    /**
+     * 使用者名稱（email），與 UserDetails 的 username 一致
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+}
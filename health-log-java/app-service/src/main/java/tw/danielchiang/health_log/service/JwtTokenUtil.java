@@ -1,8 +1,13 @@
 package tw.danielchiang.health_log.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
@@ -11,13 +16,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 /**
  * JWT Token 工具類
  * 負責生成和驗證 JWT Access Token
+ * 驗證通過的 Claims 以 Token 的 SHA-256 摘要為鍵快取到 Token 過期為止，重複使用同一 Token 時不再驗證簽章與解析 JSON
  */
 @Component
 public class JwtTokenUtil {
@@ -28,22 +40,51 @@ public class JwtTokenUtil {
     @Value("${jwt.access-token.expiration}")
     private Long accessTokenExpiration;
 
+    @Value("${jwt.claims-cache.enabled:true}")
+    private boolean claimsCacheEnabled;
+
+    @Value("${jwt.claims-cache.maximum-size:10000}")
+    private long claimsCacheMaximumSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> claimsCache;
+
     /**
-     * 獲取 JWT Secret Key
+     * 建立簽章金鑰、解析器與 Claims 快取（只建立一次）
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaximumSize)
+                .expireAfter(new ClaimsExpiry())
+                .build();
     }
 
     /**
      * 從 Token 中獲取所有 Claims
+     * 驗證過的 Token 直接從快取返回；驗證失敗的 Token 不快取，每次都會拋出例外
      */
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (!claimsCacheEnabled) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+
+        String digest = digest(token);
+        Claims cached = claimsCache.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            claimsCache.put(digest, claims);
+        }
+        return claims;
     }
 
     /**
@@ -65,7 +106,27 @@ public class JwtTokenUtil {
      * 從 Token 中獲取用戶 ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = getAllClaimsFromToken(token);
+        return getUserIdFromClaims(getAllClaimsFromToken(token));
+    }
+
+    /**
+     * 從 Claims 建立登入使用者，不查詢資料庫
+     * @param claims 已驗證簽章的 Claims
+     * @return 登入使用者，缺少 userId 或 role 時返回 null
+     */
+    public JwtPrincipal getPrincipalFromClaims(Claims claims) {
+        Long userId = getUserIdFromClaims(claims);
+        String role = claims.get("role", String.class);
+        if (userId == null || role == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new JwtPrincipal(userId, claims.getSubject(), role);
+    }
+
+    /**
+     * 從已解析的 Claims 中獲取用戶 ID
+     */
+    public Long getUserIdFromClaims(Claims claims) {
         Object userId = claims.get("userId");
         if (userId instanceof Integer) {
             return ((Integer) userId).longValue();
@@ -116,7 +177,7 @@ public class JwtTokenUtil {
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expirationDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -131,6 +192,17 @@ public class JwtTokenUtil {
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
+    /**
+     * 驗證已解析的 Claims（不再次解析 Token）
+     * @param claims 已驗證簽章的 Claims
+     * @param userDetails 使用者詳情
+     * @return 是否有效
+     */
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject())
+                && claims.getExpiration() != null && claims.getExpiration().after(new Date());
+    }
+
     /**
      * 驗證 Token（僅檢查過期時間）
      * @param token JWT Token
@@ -151,5 +223,38 @@ public class JwtTokenUtil {
     public Long getAccessTokenExpiration() {
         return accessTokenExpiration;
     }
-}
 
+    /**
+     * Token 的 SHA-256 摘要，快取中不保存原始 Token
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Claims 快取項目在 Token 過期時失效
+     */
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
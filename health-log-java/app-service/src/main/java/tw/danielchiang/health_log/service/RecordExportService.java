@@ -0,0 +1,135 @@
+package tw.danielchiang.health_log.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.model.obj.RecordExportRowObj;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
+
+/**
+ * 記錄匯出服務
+ * 以資料庫游標逐筆讀取並直接寫入輸出串流，不將使用者的歷史記錄載入記憶體
+ * 輸出格式與匯入相同（每行為某日某欄位的數值），匯出的檔案可直接重新匯入
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecordExportService {
+
+    private static final String CSV_HEADER = "date,field,value";
+
+    private final RecordDataRepository recordDataRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 匯出使用者的所有記錄
+     * 寫入失敗（例如客戶端中斷連線）時立即停止並關閉游標
+     * @param userId 使用者 ID
+     * @param format 檔案格式
+     * @param output 輸出串流（不會被關閉）
+     * @return 匯出的資料列數
+     * @throws IOException 如果寫入失敗
+     */
+    @Transactional(readOnly = true)
+    public long exportRecords(Long userId, RecordFileFormat format, OutputStream output) throws IOException {
+        try (Stream<RecordExportRowObj> rows = recordDataRepository.streamExportRows(userId)) {
+            return writeRows(userId, format, output, rows, true);
+        }
+    }
+
+    /**
+     * 匯出使用者在日期區間內的記錄（非同步報表工作逐週期呼叫，只有第一段需要 CSV 標題）
+     * @param userId 使用者 ID
+     * @param format 檔案格式
+     * @param output 輸出串流（不會被關閉）
+     * @param startDate 開始日期（含）
+     * @param endDate 結束日期（含）
+     * @param includeHeader CSV 是否輸出標題列
+     * @return 匯出的資料列數
+     * @throws IOException 如果寫入失敗
+     */
+    @Transactional(readOnly = true)
+    public long exportRecords(Long userId, RecordFileFormat format, OutputStream output,
+            LocalDate startDate, LocalDate endDate, boolean includeHeader) throws IOException {
+        try (Stream<RecordExportRowObj> rows = recordDataRepository.streamExportRowsInRange(userId, startDate, endDate)) {
+            return writeRows(userId, format, output, rows, includeHeader);
+        }
+    }
+
+    private long writeRows(Long userId, RecordFileFormat format, OutputStream output,
+            Stream<RecordExportRowObj> rows, boolean includeHeader) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long rowCount = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+
+        try {
+            if (format == RecordFileFormat.CSV && includeHeader) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            for (RecordExportRowObj row : (Iterable<RecordExportRowObj>) rows::iterator) {
+                if (format == RecordFileFormat.CSV) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writeJsonRow(json, row);
+                }
+                rowCount++;
+            }
+            json.flush();
+            writer.flush();
+        } catch (IOException e) {
+            log.info("Record export aborted: userId={}, rowsWritten={}, reason={}", userId, rowCount, e.getMessage());
+            throw e;
+        }
+
+        log.info("Records exported: userId={}, format={}, rows={}, elapsedMillis={}",
+                userId, format, rowCount, System.currentTimeMillis() - startTime);
+        return rowCount;
+    }
+
+    private void writeCsvRow(Writer writer, RecordExportRowObj row) throws IOException {
+        writer.write(row.getRecordDate().toString());
+        writer.write(',');
+        writer.write(escapeCsv(row.getFieldName()));
+        writer.write(',');
+        writer.write(escapeCsv(row.getValueText()));
+        writer.write('\n');
+    }
+
+    private void writeJsonRow(JsonGenerator json, RecordExportRowObj row) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("date", row.getRecordDate().toString());
+        json.writeStringField("field", row.getFieldName());
+        json.writeStringField("value", row.getValueText());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    /**
+     * 含逗號、引號或換行的值以雙引號包住（"" 表示引號）
+     */
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,352 @@
+package tw.danielchiang.health_log.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.data.repository.UserRepository;
+import tw.danielchiang.health_log.model.dto.reponse.RecordImportErrorDTO;
+import tw.danielchiang.health_log.model.dto.reponse.RecordImportResultDTO;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
+import tw.danielchiang.health_log.model.obj.RecordImportRowObj;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+
+/**
+ * 記錄批次匯入工作
+ * 逐筆讀取 CSV / NDJSON（不將整個檔案載入記憶體），以欄位設定快照驗證後分批寫入，每批使用獨立交易
+ * 驗證或寫入失敗的資料列記錄在結果中，不影響其他資料列；彙總隨每批在同一交易中增量更新，匯入完成後失效報表快取
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecordImportJob {
+
+    private final DailyRecordService dailyRecordService;
+    private final FieldSettingRegistry fieldSettingRegistry;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${record.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${record.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Value("${record.import.max-row-length:65536}")
+    private int maxRowLength;
+
+    /**
+     * 匯入記錄
+     * CSV 每行為 date,field,value（第一行可為標題列，值含逗號、引號或換行時以雙引號包住，依 RFC 4180）
+     * NDJSON 每行為 {"date":"2024-01-15","field":"體重","value":"70.5"}
+     * @param userId 使用者 ID
+     * @param input 檔案內容（UTF-8）
+     * @param format 檔案格式
+     * @return 匯入結果
+     * @throws IllegalArgumentException 如果使用者不存在
+     * @throws IOException 如果讀取失敗
+     */
+    public RecordImportResultDTO importRecords(Long userId, InputStream input, RecordFileFormat format) throws IOException {
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("使用者不存在: userId=" + userId);
+        }
+
+        long startTime = System.currentTimeMillis();
+        RecordImportResultDTO result = new RecordImportResultDTO();
+        ImportScope scope = new ImportScope();
+        List<RecordImportRowObj> chunk = new ArrayList<>(chunkSize);
+        // JSON 數字保留原始寫法（例如 70.50），與 CSV 的文字值一致
+        ObjectReader jsonReader = objectMapper.reader()
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .without(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES);
+
+        RowReader reader = new RowReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)),
+                format == RecordFileFormat.CSV, maxRowLength);
+        while (true) {
+            String line;
+            try {
+                line = reader.readRow();
+            } catch (IllegalArgumentException e) {
+                // 無法再分辨資料列的邊界，停止讀取，已讀取的資料列照常寫入
+                result.setTotalRows(result.getTotalRows() + 1);
+                result.setFailedCount(result.getFailedCount() + 1);
+                addError(result, reader.getLineNumber(), e.getMessage());
+                break;
+            }
+            if (line == null) {
+                break;
+            }
+            long lineNumber = reader.getLineNumber();
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank() || lineNumber == 1 && format == RecordFileFormat.CSV && isCsvHeader(line)) {
+                continue;
+            }
+
+            result.setTotalRows(result.getTotalRows() + 1);
+            try {
+                chunk.add(format == RecordFileFormat.CSV
+                        ? parseCsvRow(lineNumber, line)
+                        : parseJsonRow(jsonReader, lineNumber, line));
+            } catch (IllegalArgumentException e) {
+                result.setFailedCount(result.getFailedCount() + 1);
+                addError(result, lineNumber, e.getMessage());
+                continue;
+            }
+
+            if (chunk.size() >= chunkSize) {
+                writeChunk(userId, chunk, result, scope);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(userId, chunk, result, scope);
+        }
+
+        if (!scope.fieldNames.isEmpty()) {
+            eventPublisher.publishEvent(new RecordChangedEvent(userId, scope.startDate, scope.endDate, scope.fieldNames));
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - startTime);
+        result.setRowsPerSecond(result.getTotalRows() * 1000 / Math.max(result.getElapsedMillis(), 1));
+        log.info("Records imported: userId={}, format={}, rows={}, inserted={}, updated={}, failed={}, elapsedMillis={}",
+                userId, format, result.getTotalRows(), result.getInsertedCount(), result.getUpdatedCount(),
+                result.getFailedCount(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 寫入一批資料列，失敗時整批回滾並記錄錯誤
+     */
+    private void writeChunk(Long userId, List<RecordImportRowObj> chunk, RecordImportResultDTO result, ImportScope scope) {
+        long firstLine = chunk.get(0).getLineNumber();
+        long lastLine = chunk.get(chunk.size() - 1).getLineNumber();
+        try {
+            RecordImportResultDTO written = dailyRecordService.importRows(userId, chunk);
+            result.setInsertedCount(result.getInsertedCount() + written.getInsertedCount());
+            result.setUpdatedCount(result.getUpdatedCount() + written.getUpdatedCount());
+            result.setUnchangedCount(result.getUnchangedCount() + written.getUnchangedCount());
+            result.setCreatedRecordCount(result.getCreatedRecordCount() + written.getCreatedRecordCount());
+            if (written.getInsertedCount() + written.getUpdatedCount() > 0) {
+                chunk.forEach(scope::include);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to import records: userId={}, lines={}-{}", userId, firstLine, lastLine, e);
+            result.setFailedCount(result.getFailedCount() + chunk.size());
+            addError(result, firstLine, "第 " + firstLine + "-" + lastLine + " 行寫入失敗: " + e.getMessage());
+        }
+    }
+
+    private void addError(RecordImportResultDTO result, long lineNumber, String message) {
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new RecordImportErrorDTO(lineNumber, message));
+        }
+    }
+
+    private boolean isCsvHeader(String line) {
+        return line.trim().toLowerCase().startsWith("date,");
+    }
+
+    private RecordImportRowObj parseCsvRow(long lineNumber, String line) {
+        List<String> columns = splitCsvLine(line);
+        if (columns.size() != 3) {
+            throw new IllegalArgumentException("欄位數必須為 3 (date,field,value): " + columns.size());
+        }
+        return toRow(lineNumber, columns.get(0), columns.get(1), columns.get(2));
+    }
+
+    private RecordImportRowObj parseJsonRow(ObjectReader jsonReader, long lineNumber, String line) {
+        JsonNode node;
+        try {
+            node = jsonReader.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON 格式錯誤: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("每行必須為 JSON 物件");
+        }
+        return toRow(lineNumber, textOf(node, "date"), textOf(node, "field"), textOf(node, "value"));
+    }
+
+    private String textOf(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * 依欄位設定快照驗證資料列
+     */
+    private RecordImportRowObj toRow(long lineNumber, String date, String fieldName, String value) {
+        if (date == null || date.isBlank()) {
+            throw new IllegalArgumentException("缺少日期");
+        }
+        LocalDate recordDate;
+        try {
+            recordDate = LocalDate.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期格式錯誤 (yyyy-MM-dd): " + date);
+        }
+        if (fieldName == null || fieldName.isBlank()) {
+            throw new IllegalArgumentException("缺少欄位名稱");
+        }
+
+        FieldSetting fieldSetting = fieldSettingRegistry.findActiveByFieldName(fieldName.trim())
+                .orElseThrow(() -> new IllegalArgumentException("欄位設定不存在或未啟用: " + fieldName));
+        String valueText = value != null ? value : "";
+        if (Boolean.TRUE.equals(fieldSetting.getIsRequired()) && valueText.trim().isEmpty()) {
+            throw new IllegalArgumentException("必填欄位不能為空: " + fieldName);
+        }
+        if ("NUMBER".equals(fieldSetting.getDataType()) && !valueText.trim().isEmpty()) {
+            try {
+                new BigDecimal(valueText.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("NUMBER 欄位值無法解析為數值: " + value);
+            }
+        }
+        return new RecordImportRowObj(lineNumber, recordDate, fieldSetting, valueText);
+    }
+
+    /**
+     * 拆解 CSV 行，支援以雙引號包住的值（"" 表示引號）
+     */
+    private List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>(3);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("引號未結束");
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    /**
+     * 逐筆讀取資料列
+     * CSV 在雙引號內的換行屬於值的一部分（原樣保留），資料列可跨越多個實體行；NDJSON 每行一筆
+     */
+    private static class RowReader {
+        private final BufferedReader reader;
+        private final boolean csv;
+        private final int maxRowLength;
+        private final StringBuilder row = new StringBuilder();
+        // 目前資料列的起始行號，與下一筆資料列的起始行號
+        private long lineNumber;
+        private long nextLineNumber = 1;
+
+        RowReader(BufferedReader reader, boolean csv, int maxRowLength) {
+            this.reader = reader;
+            this.csv = csv;
+            this.maxRowLength = maxRowLength;
+        }
+
+        /**
+         * @return 下一筆資料列（不含行尾），檔案結束時為 null
+         * @throws IllegalArgumentException 如果資料列超過長度上限（通常是引號未結束）
+         */
+        String readRow() throws IOException {
+            lineNumber = nextLineNumber;
+            if (!csv) {
+                nextLineNumber++;
+                return reader.readLine();
+            }
+
+            row.setLength(0);
+            boolean quoted = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '"') {
+                    // "" 切換兩次，狀態不變
+                    quoted = !quoted;
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        } else if (quoted) {
+                            row.append('\r');
+                            c = '\n';
+                        }
+                    }
+                    nextLineNumber++;
+                    if (!quoted) {
+                        return row.toString();
+                    }
+                }
+                row.append((char) c);
+                if (row.length() > maxRowLength) {
+                    throw new IllegalArgumentException("資料列超過 " + maxRowLength + " 字元，可能是引號未結束");
+                }
+            }
+            return row.isEmpty() ? null : row.toString();
+        }
+
+        long getLineNumber() {
+            return lineNumber;
+        }
+    }
+
+    /**
+     * 已寫入資料的日期範圍與欄位，供匯入後失效報表快取
+     */
+    private static class ImportScope {
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private final Set<String> fieldNames = new HashSet<>();
+
+        void include(RecordImportRowObj row) {
+            if (startDate == null || row.getRecordDate().isBefore(startDate)) {
+                startDate = row.getRecordDate();
+            }
+            if (endDate == null || row.getRecordDate().isAfter(endDate)) {
+                endDate = row.getRecordDate();
+            }
+            fieldNames.add(row.getFieldSetting().getFieldName());
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package tw.danielchiang.health_log.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.model.dto.reponse.ReportJobDTO;
+import tw.danielchiang.health_log.model.dto.request.ReportJobRequestDTO;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
+import tw.danielchiang.health_log.model.obj.ReportJobObj;
+import tw.danielchiang.health_log.model.obj.ReportJobStatus;
+import tw.danielchiang.health_log.model.obj.ReportJobType;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+
+/**
+ * 非同步報表工作（長日期區間的報表與匯出）
+ * 請求依週期切分為多段，由固定大小的執行緒池依序計算（報表直接計算不經過 ReportCache，匯出沿用 RecordExportService），
+ * 每段寫入結果暫存檔；每完成 checkpoint-periods 段或經過 checkpoint-interval 時 fsync 並保存進度（已完成段數與檔案長度）
+ * 到工作目錄的 job.json
+ * 應用程式重新啟動時載入工作目錄，未完成的工作截斷暫存檔到最後保存的長度後從下一段繼續（重算保存點之後的段）
+ * 完成後以 gzip 壓縮保存，保留 ttl 時間後刪除
+ * 工作只保存在本機磁碟，多節點部署時只能在提交的節點查詢
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobService {
+
+    static final String JOB_FILE = "job.json";
+    static final String PART_FILE = "result.part";
+    static final String RESULT_FILE = "result.gz";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReportService reportService;
+    private final RecordExportService recordExportService;
+    private final FieldSettingRegistry fieldSettingRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${report.job.directory:${java.io.tmpdir}/health-log/report-jobs}")
+    private Path directory;
+
+    @Value("${report.job.threads:2}")
+    private int threads;
+
+    @Value("${report.job.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${report.job.per-user-limit:2}")
+    private int perUserLimit;
+
+    @Value("${report.job.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${report.job.cleanup-interval:10m}")
+    private Duration cleanupInterval;
+
+    @Value("${report.job.checkpoint-periods:10}")
+    private int checkpointPeriods;
+
+    @Value("${report.job.checkpoint-interval:5s}")
+    private Duration checkpointInterval;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private final Map<String, ReportJobObj> jobs = new ConcurrentHashMap<>();
+
+    // 未完成工作的完成通知，結束時完成（保留到工作刪除，避免查詢與完成之間的競爭）
+    private final Map<String, CompletableFuture<ReportJobDTO>> completions = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService cleaner;
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("report-job-", 0).daemon().factory());
+        cleaner = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("report-job-cleaner").daemon().factory());
+    }
+
+    /**
+     * 應用程式啟動完成後載入工作目錄：刪除過期的結果，未完成的工作重新排入佇列，並開始定期清除
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        try (Stream<Path> jobDirectories = Files.list(directory)) {
+            for (Path jobDirectory : (Iterable<Path>) jobDirectories::iterator) {
+                Path jobFile = jobDirectory.resolve(JOB_FILE);
+                if (!Files.isRegularFile(jobFile)) {
+                    continue;
+                }
+                try {
+                    ReportJobObj job = objectMapper.readValue(jobFile.toFile(), ReportJobObj.class);
+                    jobs.put(job.getJobId(), job);
+                } catch (IOException e) {
+                    log.warn("Invalid report job file, ignored: path={}, error={}", jobFile, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list report job directory: directory={}, error={}", directory, e.getMessage());
+        }
+        cleanup();
+
+        List<ReportJobObj> unfinished = jobs.values().stream()
+                .filter(job -> !job.getStatus().isFinished())
+                .sorted(Comparator.comparing(ReportJobObj::getCreatedAt))
+                .toList();
+        for (ReportJobObj job : unfinished) {
+            try {
+                enqueue(job);
+                log.info("Report job resumed: jobId={}, completedPeriods={}/{}",
+                        job.getJobId(), job.getCompletedPeriods(), job.getTotalPeriods());
+            } catch (RejectedExecutionException e) {
+                finish(job, ReportJobStatus.FAILED, null, "工作佇列已滿，無法繼續");
+                notifyCompletion(job);
+            }
+        }
+        cleaner.scheduleWithFixedDelay(this::cleanup, cleanupInterval.toMillis(), cleanupInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交報表工作
+     * @param userId 使用者 ID
+     * @param request 工作請求
+     * @return 工作狀態（QUEUED）
+     * @throws IllegalArgumentException 如果日期區間無效、欄位設定不存在或類型不符
+     * @throws RejectedExecutionException 如果使用者未完成的工作數已達上限或佇列已滿
+     * @throws IOException 如果無法寫入工作目錄
+     */
+    public ReportJobDTO submit(Long userId, ReportJobRequestDTO request) throws IOException {
+        ReportJobRequestDTO normalized = normalize(request);
+        ReportJobObj job = new ReportJobObj();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setUserId(userId);
+        job.setRequest(normalized);
+        job.setStatus(ReportJobStatus.QUEUED);
+        job.setTotalPeriods(periods(normalized).size());
+        job.setCreatedAt(OffsetDateTime.now(clock));
+
+        synchronized (this) {
+            long active = jobs.values().stream()
+                    .filter(existing -> existing.getUserId().equals(userId) && !statusOf(existing).isFinished())
+                    .count();
+            if (active >= perUserLimit) {
+                throw new RejectedExecutionException("未完成的報表工作已達上限: " + perUserLimit);
+            }
+            save(job);
+            jobs.put(job.getJobId(), job);
+            try {
+                enqueue(job);
+            } catch (RejectedExecutionException e) {
+                delete(job.getJobId());
+                throw new RejectedExecutionException("報表工作佇列已滿", e);
+            }
+        }
+        log.info("Report job submitted: jobId={}, userId={}, type={}, periods={}",
+                job.getJobId(), userId, normalized.getType(), job.getTotalPeriods());
+        return toDTO(job);
+    }
+
+    /**
+     * 查詢工作狀態
+     * @param userId 使用者 ID
+     * @param jobId 工作 ID
+     * @return 工作狀態，工作不存在或不屬於該使用者時為 empty
+     */
+    public Optional<ReportJobDTO> getJob(Long userId, String jobId) {
+        return findJob(userId, jobId).map(this::toDTO);
+    }
+
+    /**
+     * 查詢使用者的所有工作（含保留期限內已結束的工作）
+     * @param userId 使用者 ID
+     * @return 工作狀態列表，依建立時間降序
+     */
+    public List<ReportJobDTO> listJobs(Long userId) {
+        return jobs.values().stream()
+                .filter(job -> job.getUserId().equals(userId))
+                .sorted(Comparator.comparing(ReportJobObj::getCreatedAt).reversed())
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * 等待工作結束
+     * @param userId 使用者 ID
+     * @param jobId 工作 ID
+     * @return 工作結束時完成的 future（已結束的工作立即完成），工作不存在或不屬於該使用者時為 empty
+     */
+    public Optional<CompletableFuture<ReportJobDTO>> awaitCompletion(Long userId, String jobId) {
+        return findJob(userId, jobId).map(job -> {
+            CompletableFuture<ReportJobDTO> completion = completions.get(jobId);
+            if (completion == null || statusOf(job).isFinished()) {
+                return CompletableFuture.completedFuture(toDTO(job));
+            }
+            // 呼叫端可能設定逾時，不共用同一個 future
+            return completion.copy();
+        });
+    }
+
+    /**
+     * 取得已完成工作的結果檔（gzip 壓縮）
+     * @param userId 使用者 ID
+     * @param jobId 工作 ID
+     * @return 結果檔路徑，工作不存在、不屬於該使用者或尚未完成時為 empty
+     */
+    public Optional<Path> getResult(Long userId, String jobId) {
+        return findJob(userId, jobId)
+                .filter(job -> statusOf(job) == ReportJobStatus.COMPLETED)
+                .map(job -> jobDirectory(jobId).resolve(RESULT_FILE))
+                .filter(Files::isRegularFile);
+    }
+
+    /**
+     * 刪除過期的工作與結果
+     */
+    void cleanup() {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        for (ReportJobObj job : jobs.values()) {
+            OffsetDateTime expiresAt;
+            synchronized (job) {
+                expiresAt = job.getExpiresAt();
+            }
+            if (expiresAt != null && expiresAt.isBefore(now)) {
+                delete(job.getJobId());
+                log.info("Report job expired: jobId={}", job.getJobId());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // 佇列中與執行中的工作保留進度，下次啟動時繼續
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void enqueue(ReportJobObj job) {
+        completions.putIfAbsent(job.getJobId(), new CompletableFuture<>());
+        executor.execute(() -> run(job));
+    }
+
+    /**
+     * 從最後保存的進度開始計算剩餘的週期
+     */
+    private void run(ReportJobObj job) {
+        List<Period> periods = periods(job.getRequest());
+        Path jobDirectory = jobDirectory(job.getJobId());
+        Path part = jobDirectory.resolve(PART_FILE);
+        try {
+            synchronized (job) {
+                job.setStatus(ReportJobStatus.RUNNING);
+                if (job.getStartedAt() == null) {
+                    job.setStartedAt(OffsetDateTime.now(clock));
+                }
+            }
+            save(job);
+
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // 捨棄最後一個保存點之後寫入的部分結果
+                channel.truncate(job.getCheckpointBytes());
+                channel.position(job.getCheckpointBytes());
+                OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                long lastCheckpointAt = clock.millis();
+                for (int index = job.getCompletedPeriods(); index < periods.size(); index++) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        log.info("Report job interrupted, will resume: jobId={}, completedPeriods={}",
+                                job.getJobId(), job.getCompletedPeriods());
+                        return;
+                    }
+                    writePeriod(job, periods.get(index), index == 0, output);
+
+                    // 最後一段必定保存，壓縮前暫存檔已完整寫入
+                    int completedPeriods = index + 1;
+                    if (completedPeriods < periods.size()
+                            && completedPeriods - job.getCompletedPeriods() < checkpointPeriods
+                            && clock.millis() - lastCheckpointAt < checkpointInterval.toMillis()) {
+                        continue;
+                    }
+                    output.flush();
+                    channel.force(false);
+                    lastCheckpointAt = clock.millis();
+                    long checkpointBytes = channel.position();
+                    synchronized (job) {
+                        job.setCompletedPeriods(completedPeriods);
+                        job.setCheckpointBytes(checkpointBytes);
+                    }
+                    save(job);
+                }
+            }
+
+            Path result = jobDirectory.resolve(RESULT_FILE);
+            compress(part, result);
+            finish(job, ReportJobStatus.COMPLETED, Files.size(result), null);
+            // 完成狀態保存後才刪除暫存檔，中途停止時重新壓縮即可；刪除後才通知，通知後工作目錄可能被清除
+            Files.deleteIfExists(part);
+            notifyCompletion(job);
+            log.info("Report job completed: jobId={}, periods={}, resultSize={}",
+                    job.getJobId(), periods.size(), job.getResultSize());
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof ClosedByInterruptException || executor.isShutdown()) {
+                // 關閉應用程式時中斷，保留進度
+                log.info("Report job stopped by shutdown, will resume: jobId={}", job.getJobId());
+                return;
+            }
+            log.warn("Report job failed: jobId={}, error={}", job.getJobId(), e.getMessage());
+            finish(job, ReportJobStatus.FAILED, null, e.getMessage());
+            notifyCompletion(job);
+        }
+    }
+
+    private void writePeriod(ReportJobObj job, Period period, boolean first, OutputStream output) throws IOException {
+        ReportJobRequestDTO request = job.getRequest();
+        Long userId = job.getUserId();
+        String fieldName = request.getFieldName();
+        switch (request.getType()) {
+            case RECORD_EXPORT -> recordExportService.exportRecords(userId, request.getFormat(), output,
+                    period.start(), period.end(), first);
+            case NUMBER_REPORT -> writeReport(output, period,
+                    reportService.computeNumberReport(userId, fieldName, period.start(), period.end()));
+            case ENUM_DISTRIBUTION -> writeReport(output, period,
+                    reportService.computeEnumDistribution(userId, fieldName, period.start(), period.end()));
+            case TEXT_ANALYSIS -> writeReport(output, period,
+                    reportService.computeTextAnalysis(userId, fieldName, period.start(), period.end()));
+        }
+    }
+
+    /**
+     * 每個週期一行 JSON：{"periodStart", "periodEnd", "report"}
+     */
+    private void writeReport(OutputStream output, Period period, Object report) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("periodStart", period.start().toString());
+        line.put("periodEnd", period.end().toString());
+        line.put("report", report);
+        output.write(objectMapper.writeValueAsBytes(line));
+        output.write('\n');
+    }
+
+    private void compress(Path source, Path target) throws IOException {
+        try (InputStream input = Files.newInputStream(source);
+                OutputStream output = new GZIPOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            input.transferTo(output);
+        }
+    }
+
+    private void finish(ReportJobObj job, ReportJobStatus status, Long resultSize, String error) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        synchronized (job) {
+            job.setStatus(status);
+            job.setFinishedAt(now);
+            job.setExpiresAt(now.plus(ttl));
+            job.setResultSize(resultSize);
+            job.setError(error);
+        }
+        try {
+            save(job);
+        } catch (IOException e) {
+            log.warn("Failed to save report job: jobId={}, error={}", job.getJobId(), e.getMessage());
+        }
+    }
+
+    private void notifyCompletion(ReportJobObj job) {
+        CompletableFuture<ReportJobDTO> completion = completions.get(job.getJobId());
+        if (completion != null) {
+            completion.complete(toDTO(job));
+        }
+    }
+
+    /**
+     * 以暫存檔寫入後原子替換，讀取時不會看到寫到一半的 job.json
+     */
+    private void save(ReportJobObj job) throws IOException {
+        Path jobDirectory = jobDirectory(job.getJobId());
+        Files.createDirectories(jobDirectory);
+        byte[] json;
+        synchronized (job) {
+            json = objectMapper.writeValueAsBytes(job);
+        }
+        Path temp = jobDirectory.resolve(JOB_FILE + ".tmp");
+        Files.write(temp, json);
+        Files.move(temp, jobDirectory.resolve(JOB_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void delete(String jobId) {
+        jobs.remove(jobId);
+        completions.remove(jobId);
+        try {
+            FileSystemUtils.deleteRecursively(jobDirectory(jobId));
+        } catch (IOException e) {
+            log.warn("Failed to delete report job directory: jobId={}, error={}", jobId, e.getMessage());
+        }
+    }
+
+    private ReportJobRequestDTO normalize(ReportJobRequestDTO request) {
+        if (request.getType() == null || request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("工作類型、開始日期與結束日期不能為空");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("開始日期不能晚於結束日期");
+        }
+        String fieldName = null;
+        if (request.getType() != ReportJobType.RECORD_EXPORT) {
+            if (request.getFieldName() == null || request.getFieldName().isBlank()) {
+                throw new IllegalArgumentException("欄位名稱不能為空: type=" + request.getType());
+            }
+            FieldSetting fieldSetting = fieldSettingRegistry.findByFieldName(request.getFieldName())
+                    .orElseThrow(() -> new IllegalArgumentException("欄位設定不存在: fieldName=" + request.getFieldName()));
+            String expectedType = switch (request.getType()) {
+                case NUMBER_REPORT -> "NUMBER";
+                case ENUM_DISTRIBUTION -> "ENUM";
+                default -> "TEXT";
+            };
+            if (!expectedType.equals(fieldSetting.getDataType())) {
+                throw new IllegalArgumentException("欄位類型不符: fieldName=" + request.getFieldName()
+                        + ", dataType=" + fieldSetting.getDataType() + ", type=" + request.getType());
+            }
+            fieldName = fieldSetting.getFieldName();
+        }
+        return new ReportJobRequestDTO(request.getType(), fieldName, request.getStartDate(), request.getEndDate(),
+                request.getPeriod() != null ? request.getPeriod() : RollupGranularity.MONTHLY,
+                request.getFormat() != null ? request.getFormat() : RecordFileFormat.NDJSON);
+    }
+
+    /**
+     * 依週期切分日期區間，首尾週期截至請求的區間
+     */
+    private static List<Period> periods(ReportJobRequestDTO request) {
+        List<Period> periods = new ArrayList<>();
+        LocalDate start = request.getStartDate();
+        while (!start.isAfter(request.getEndDate())) {
+            LocalDate end = request.getPeriod().periodEnd(start);
+            if (end.isAfter(request.getEndDate())) {
+                end = request.getEndDate();
+            }
+            periods.add(new Period(start, end));
+            start = end.plusDays(1);
+        }
+        return periods;
+    }
+
+    private Optional<ReportJobObj> findJob(Long userId, String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).filter(job -> job.getUserId().equals(userId));
+    }
+
+    private Path jobDirectory(String jobId) {
+        return directory.resolve(jobId);
+    }
+
+    private static ReportJobStatus statusOf(ReportJobObj job) {
+        synchronized (job) {
+            return job.getStatus();
+        }
+    }
+
+    private ReportJobDTO toDTO(ReportJobObj job) {
+        synchronized (job) {
+            ReportJobRequestDTO request = job.getRequest();
+            String extension = request.getType() == ReportJobType.RECORD_EXPORT && request.getFormat() == RecordFileFormat.CSV
+                    ? "csv" : "ndjson";
+            return new ReportJobDTO(job.getJobId(), request.getType(), job.getStatus(), job.getCompletedPeriods(),
+                    job.getTotalPeriods(), job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(),
+                    job.getExpiresAt(), job.getResultSize(),
+                    "report-" + job.getJobId() + "." + extension + ".gz", job.getError());
+        }
+    }
+
+    /**
+     * 週期（起訖日皆含）
+     */
+    private record Period(LocalDate start, LocalDate end) {
+    }
+}
@@ -1,47 +1,95 @@
 package tw.danielchiang.health_log.service;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.type.TypeReference;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import tw.danielchiang.health_log.data.repository.DailyRecordRepository;
-import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
+import tw.danielchiang.health_log.data.repository.EnumRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberSketchRepository;
 import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.DailyOptionCount;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.NumberAggregate;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.OptionCount;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.TextLengthStatistics;
 import tw.danielchiang.health_log.model.dto.reponse.EnumDistributionDTO;
+import tw.danielchiang.health_log.model.dto.reponse.EnumTrendColumnsDTO;
 import tw.danielchiang.health_log.model.dto.reponse.EnumTrendDTO;
+import tw.danielchiang.health_log.model.dto.reponse.HistogramBinDTO;
+import tw.danielchiang.health_log.model.dto.reponse.NumberDistributionDTO;
 import tw.danielchiang.health_log.model.dto.reponse.NumberReportDTO;
 import tw.danielchiang.health_log.model.dto.reponse.NumberStatisticsDTO;
 import tw.danielchiang.health_log.model.dto.reponse.TextAnalysisDTO;
 import tw.danielchiang.health_log.model.dto.reponse.TrendDataPointDTO;
-import tw.danielchiang.health_log.model.entity.DailyRecord;
+import tw.danielchiang.health_log.model.entity.EnumRollup;
 import tw.danielchiang.health_log.model.entity.FieldSetting;
-import tw.danielchiang.health_log.model.entity.RecordData;
+import tw.danielchiang.health_log.model.entity.NumberRollup;
+import tw.danielchiang.health_log.model.entity.NumberSketch;
+import tw.danielchiang.health_log.model.obj.RecordValueObj;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.cache.ReportCache;
+import tw.danielchiang.health_log.service.cache.ReportCacheKey;
+import tw.danielchiang.health_log.service.cache.ReportKind;
+import tw.danielchiang.health_log.service.stats.Downsampling;
+import tw.danielchiang.health_log.service.stats.QuantileSketch;
+import tw.danielchiang.health_log.service.stats.RunningStatistics;
+import tw.danielchiang.health_log.service.text.SpaceSaving;
+import tw.danielchiang.health_log.service.text.TextTokenizer;
 
 /**
  * 報告服務
  * 負責執行複雜的趨勢數據查詢
  * 支援 NUMBER, ENUM, TEXT 三種類型的報表
+ * 所有公開查詢都經過 ReportCache（compute* 除外，供非同步報表工作逐段計算，不佔用快取）；
+ * 不開啟交易，快取命中時不佔用資料庫連線
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional(readOnly = true)
 public class ReportService {
 
-    private final DailyRecordRepository dailyRecordRepository;
     private final RecordDataRepository recordDataRepository;
-    private final FieldSettingRepository fieldSettingRepository;
+    private final FieldSettingRegistry fieldSettingRegistry;
+    private final NumberRollupRepository numberRollupRepository;
+    private final NumberSketchRepository numberSketchRepository;
+    private final EnumRollupRepository enumRollupRepository;
+    private final ReportCache reportCache;
+    private final TextIndexService textIndexService;
+
+    /**
+     * 文字分析回傳的關鍵字數上限
+     */
+    public static final int MAX_KEYWORDS = 100;
+
+    /**
+     * 在記憶體中估計關鍵字頻率時監看的詞彙數（誤差不超過總詞數 / 此值）
+     */
+    private static final int KEYWORD_SKETCH_CAPACITY = MAX_KEYWORDS * 10;
+
+    private static final TypeReference<NumberReportDTO> NUMBER_REPORT_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<TrendDataPointDTO>> TREND_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<QuantileSketch.Bucket>> SKETCH_BUCKETS_TYPE = new TypeReference<>() {};
+    private static final TypeReference<EnumDistributionDTO> ENUM_DISTRIBUTION_TYPE = new TypeReference<>() {};
+    private static final TypeReference<EnumTrendDTO> ENUM_TREND_TYPE = new TypeReference<>() {};
+    private static final TypeReference<TextAnalysisDTO> TEXT_ANALYSIS_TYPE = new TypeReference<>() {};
 
     // ==================== 共享基礎方法 ====================
 
@@ -52,35 +100,52 @@ public class ReportService {
      * @throws IllegalArgumentException 如果欄位設定不存在
      */
     protected FieldSetting validateAndGetFieldSetting(String fieldName) {
-        return fieldSettingRepository.findByFieldName(fieldName)
+        return fieldSettingRegistry.findByFieldName(fieldName)
                 .orElseThrow(() -> new IllegalArgumentException("欄位設定不存在: fieldName=" + fieldName));
     }
 
     /**
-     * 獲取指定日期範圍內的記錄
+     * 以單一查詢取得指定欄位在日期範圍內的所有數值
      * @param userId 使用者 ID
+     * @param fieldSetting 欄位設定
      * @param startDate 開始日期
      * @param endDate 結束日期
-     * @return 記錄列表（按日期降序）
+     * @return (recordDate, valueText) 列表（按日期升序）
      */
-    protected List<DailyRecord> getRecordsInDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
-        return dailyRecordRepository.findByUserIdOrderByRecordDateDesc(userId)
-                .stream()
-                .filter(record -> !record.getRecordDate().isBefore(startDate) 
-                        && !record.getRecordDate().isAfter(endDate))
-                .collect(Collectors.toList());
+    protected List<RecordValueObj> getFieldValuesInRange(Long userId, FieldSetting fieldSetting, LocalDate startDate, LocalDate endDate) {
+        return recordDataRepository.findValuesInRange(userId, fieldSetting.getSettingId(), startDate, endDate);
     }
 
     /**
-     * 獲取記錄的欄位值
+     * 驗證欄位類型
      * @param fieldSetting 欄位設定
-     * @param record 記錄
-     * @return 欄位值（如果存在）
+     * @param dataType 預期的欄位類型
+     * @throws IllegalArgumentException 如果欄位類型不符
      */
-    protected Optional<String> getFieldValue(FieldSetting fieldSetting, DailyRecord record) {
-        Optional<RecordData> recordDataOpt = recordDataRepository
-                .findBySettingIdAndRecordId(fieldSetting.getSettingId(), record.getRecordId());
-        return recordDataOpt.map(RecordData::getValueText);
+    protected void validateDataType(FieldSetting fieldSetting, String dataType) {
+        if (!dataType.equals(fieldSetting.getDataType())) {
+            throw new IllegalArgumentException("欄位類型不是 " + dataType + ": " + fieldSetting.getDataType());
+        }
+    }
+
+    /**
+     * 查詢 NUMBER 欄位在日期範圍內的彙總（涵蓋 startDate 與 endDate 所在的完整週期）
+     */
+    protected List<NumberRollup> getNumberRollups(Long userId, FieldSetting fieldSetting, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        return numberRollupRepository.findByUserIdAndSettingIdAndGranularityAndPeriodStartBetweenOrderByPeriodStartAsc(
+                userId, fieldSetting.getSettingId(), granularity,
+                granularity.periodStart(startDate), granularity.periodStart(endDate));
+    }
+
+    /**
+     * 查詢 ENUM 欄位在日期範圍內的彙總（涵蓋 startDate 與 endDate 所在的完整週期）
+     */
+    protected List<EnumRollup> getEnumRollups(Long userId, FieldSetting fieldSetting, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        return enumRollupRepository.findByUserIdAndSettingIdAndGranularityAndPeriodStartBetweenOrderByPeriodStartAsc(
+                userId, fieldSetting.getSettingId(), granularity,
+                granularity.periodStart(startDate), granularity.periodStart(endDate));
     }
 
     // ==================== NUMBER 類型報表 ====================
@@ -92,20 +157,67 @@ public class ReportService {
      * @param startDate 開始日期
      * @param endDate 結束日期
      * @return NUMBER 報表 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
      */
     public NumberReportDTO getNumberReport(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
+        return getNumberReport(userId, fieldName, startDate, endDate, null);
+    }
+
+    /**
+     * 查詢 NUMBER 類型欄位的完整報表（包含趨勢和統計），指定 granularity 時從彙總查詢
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param granularity 彙總週期，null 時從原始數據計算
+     * @return NUMBER 報表 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
+     */
+    public NumberReportDTO getNumberReport(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        ReportCacheKey key = new ReportCacheKey(userId, ReportKind.NUMBER_REPORT, fieldName, startDate, endDate, granularity);
+        return reportCache.get(key, NUMBER_REPORT_TYPE, () -> granularity == null
+                ? computeNumberReport(userId, fieldName, startDate, endDate)
+                : computeNumberReportFromRollups(userId, fieldName, startDate, endDate, granularity));
+    }
+
+    /**
+     * 從原始數據計算 NUMBER 報表（不經過快取）
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @return NUMBER 報表 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
+     */
+    public NumberReportDTO computeNumberReport(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
         FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
         
         if (!"NUMBER".equals(fieldSetting.getDataType())) {
             throw new IllegalArgumentException("欄位類型不是 NUMBER: " + fieldSetting.getDataType());
         }
 
-        List<TrendDataPointDTO> trendData = getTrendData(userId, fieldName, startDate, endDate);
-        NumberStatisticsDTO statistics = calculateNumberStatistics(trendData);
+        List<TrendDataPointDTO> trendData = getFieldValuesInRange(userId, fieldSetting, startDate, endDate).stream()
+                .map(value -> new TrendDataPointDTO(value.getRecordDate(), value.getValueText()))
+                .collect(Collectors.toList());
+        NumberStatisticsDTO statistics = calculateNumberStatistics(userId, fieldSetting, startDate, endDate);
 
         return new NumberReportDTO(trendData, statistics);
     }
 
+    /**
+     * 從彙總計算 NUMBER 報表
+     * 趨勢為每個週期的平均值；彙總無法得出中位數，median 為 null
+     */
+    private NumberReportDTO computeNumberReportFromRollups(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
+        validateDataType(fieldSetting, "NUMBER");
+
+        List<NumberRollup> rollups = getNumberRollups(userId, fieldSetting, startDate, endDate, granularity);
+        return new NumberReportDTO(toTrendData(rollups), combineNumberRollups(rollups));
+    }
+
     /**
      * 查詢特定欄位在一段時間內的趨勢數據（NUMBER 類型）
      * @param userId 使用者 ID
@@ -113,24 +225,101 @@ public class ReportService {
      * @param startDate 開始日期
      * @param endDate 結束日期
      * @return 趨勢數據點列表（按日期升序）
-     * @throws IllegalArgumentException 如果欄位設定不存在
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
      */
     public List<TrendDataPointDTO> getTrendData(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
+        return getTrendData(userId, fieldName, startDate, endDate, null);
+    }
+
+    /**
+     * 查詢特定欄位在一段時間內的趨勢數據（NUMBER 類型），指定 granularity 時從彙總查詢
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param granularity 彙總週期，null 時從原始數據計算
+     * @return 趨勢數據點列表（按日期升序）
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
+     */
+    public List<TrendDataPointDTO> getTrendData(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        ReportCacheKey key = new ReportCacheKey(userId, ReportKind.TREND, fieldName, startDate, endDate, granularity);
+        return reportCache.get(key, TREND_TYPE, () -> granularity == null
+                ? computeTrendData(userId, fieldName, startDate, endDate)
+                : computeTrendDataFromRollups(userId, fieldName, startDate, endDate, granularity));
+    }
+
+    /**
+     * 查詢趨勢數據並降採樣至最多 maxPoints 個點（LTTB，保留原始數據點）
+     * 降採樣在快取之後進行，完整序列的快取可供不同 maxPoints 共用
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param granularity 彙總週期，null 時從原始數據計算
+     * @param maxPoints 最多回傳的點數，null 時不降採樣
+     * @return 趨勢數據點列表（按日期升序）
+     * @throws IllegalArgumentException 如果欄位設定不存在、類型不符或 maxPoints 小於 3
+     */
+    public List<TrendDataPointDTO> getTrendData(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity, Integer maxPoints) {
+        if (maxPoints != null && maxPoints < Downsampling.MIN_THRESHOLD) {
+            throw new IllegalArgumentException("maxPoints 至少為 " + Downsampling.MIN_THRESHOLD + ": " + maxPoints);
+        }
+        List<TrendDataPointDTO> trendData = getTrendData(userId, fieldName, startDate, endDate, granularity);
+        if (maxPoints == null || trendData.size() <= maxPoints) {
+            return trendData;
+        }
+        return downsample(trendData, maxPoints);
+    }
+
+    /**
+     * 以日期（epoch day）為橫軸、數值為縱軸挑選保留的點
+     */
+    private List<TrendDataPointDTO> downsample(List<TrendDataPointDTO> trendData, int maxPoints) {
+        int size = trendData.size();
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            TrendDataPointDTO point = trendData.get(i);
+            x[i] = point.getDate().toEpochDay();
+            try {
+                y[i] = Double.parseDouble(point.getValue());
+            } catch (NullPointerException | NumberFormatException e) {
+                throw new IllegalArgumentException("僅數值趨勢可降採樣: " + point.getValue());
+            }
+        }
+
+        int[] selected = Downsampling.lttb(x, y, maxPoints);
+        List<TrendDataPointDTO> result = new ArrayList<>(selected.length);
+        for (int index : selected) {
+            result.add(trendData.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * 從原始數據查詢趨勢數據
+     */
+    private List<TrendDataPointDTO> computeTrendData(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
         FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
-        List<DailyRecord> dailyRecords = getRecordsInDateRange(userId, startDate, endDate);
-
-        // 查詢每個記錄對應的欄位值
-        return dailyRecords.stream()
-                .map(record -> {
-                    Optional<String> valueOpt = getFieldValue(fieldSetting, record);
-                    return valueOpt.map(value -> new TrendDataPointDTO(record.getRecordDate(), value))
-                            .orElse(null);
-                })
-                .filter(dto -> dto != null) // 過濾掉沒有值的記錄
-                .sorted((a, b) -> a.getDate().compareTo(b.getDate())) // 按日期升序排序
+
+        return getFieldValuesInRange(userId, fieldSetting, startDate, endDate).stream()
+                .map(value -> new TrendDataPointDTO(value.getRecordDate(), value.getValueText()))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 從彙總查詢趨勢數據（每個週期的平均值，日期為週期起始日）
+     */
+    private List<TrendDataPointDTO> computeTrendDataFromRollups(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
+        validateDataType(fieldSetting, "NUMBER");
+
+        return toTrendData(getNumberRollups(userId, fieldSetting, startDate, endDate, granularity));
+    }
+
     /**
      * 查詢特定欄位在指定日期範圍內的所有數據點（包含空值）
      * @param userId 使用者 ID
@@ -141,164 +330,487 @@ public class ReportService {
      * @throws IllegalArgumentException 如果欄位設定不存在
      */
     public List<TrendDataPointDTO> getTrendDataWithNulls(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
+        ReportCacheKey key = new ReportCacheKey(userId, ReportKind.TREND_WITH_NULLS, fieldName, startDate, endDate, null);
+        return reportCache.get(key, TREND_TYPE, () -> computeTrendDataWithNulls(userId, fieldName, startDate, endDate));
+    }
+
+    private List<TrendDataPointDTO> computeTrendDataWithNulls(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
         FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
-        List<DailyRecord> dailyRecords = getRecordsInDateRange(userId, startDate, endDate);
-
-        // 查詢每個記錄對應的欄位值
-        return dailyRecords.stream()
-                .map(record -> {
-                    Optional<String> valueOpt = getFieldValue(fieldSetting, record);
-                    String value = valueOpt.orElse("");
-                    return new TrendDataPointDTO(record.getRecordDate(), value);
-                })
-                .sorted((a, b) -> a.getDate().compareTo(b.getDate())) // 按日期升序排序
+
+        // 沒有該欄位數值的記錄以空字串表示
+        return recordDataRepository
+                .findValuesInRangeWithNulls(userId, fieldSetting.getSettingId(), startDate, endDate).stream()
+                .map(value -> new TrendDataPointDTO(value.getRecordDate(),
+                        value.getValueText() != null ? value.getValueText() : ""))
                 .collect(Collectors.toList());
     }
 
     /**
-     * 計算 NUMBER 類型的統計摘要
-     * @param trendData 趨勢數據
+     * 以單一 SQL 聚合計算 NUMBER 類型的統計摘要
+     * @param userId 使用者 ID
+     * @param fieldSetting 欄位設定
+     * @param startDate 開始日期
+     * @param endDate 結束日期
      * @return 統計摘要
      */
-    private NumberStatisticsDTO calculateNumberStatistics(List<TrendDataPointDTO> trendData) {
-        if (trendData == null || trendData.isEmpty()) {
+    private NumberStatisticsDTO calculateNumberStatistics(Long userId, FieldSetting fieldSetting, LocalDate startDate, LocalDate endDate) {
+        NumberAggregate aggregate = recordDataRepository
+                .aggregateNumericValues(userId, fieldSetting.getSettingId(), startDate, endDate);
+
+        if (aggregate == null || aggregate.getCount() == null || aggregate.getCount() == 0) {
             return new NumberStatisticsDTO(null, null, null, null, 0L, null, null);
         }
 
-        List<BigDecimal> values = trendData.stream()
-                .map(dto -> {
-                    try {
-                        return new BigDecimal(dto.getValue());
-                    } catch (NumberFormatException e) {
-                        return null;
-                    }
-                })
-                .filter(v -> v != null)
+        return new NumberStatisticsDTO(
+                scale(aggregate.getAverage()),
+                aggregate.getMax(),
+                aggregate.getMin(),
+                aggregate.getSum(),
+                aggregate.getCount(),
+                scale(aggregate.getStandardDeviation()),
+                scale(aggregate.getMedian()));
+    }
+
+    /**
+     * 由已載入的數值計算統計摘要（與 SQL 聚合相同：母體標準差、中位數為中間兩值的平均）
+     * sum / min / max 以 BigDecimal 精確計算，平均、標準差與中位數以 RunningStatistics 計算
+     * @param values NUMBER 數值（不含 null）
+     * @return 統計摘要
+     */
+    static NumberStatisticsDTO toNumberStatistics(List<BigDecimal> values) {
+        int size = values.size();
+        if (size == 0) {
+            return new NumberStatisticsDTO(null, null, null, null, 0L, null, null);
+        }
+
+        BigDecimal sum = BigDecimal.ZERO;
+        BigDecimal min = values.get(0);
+        BigDecimal max = values.get(0);
+        double[] doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+            BigDecimal value = values.get(i);
+            sum = sum.add(value);
+            if (value.compareTo(min) < 0) {
+                min = value;
+            }
+            if (value.compareTo(max) > 0) {
+                max = value;
+            }
+            doubles[i] = value.doubleValue();
+        }
+        RunningStatistics statistics = RunningStatistics.of(doubles);
+
+        return new NumberStatisticsDTO(
+                sum.divide(BigDecimal.valueOf(size), 2, RoundingMode.HALF_UP),
+                max,
+                min,
+                sum,
+                (long) size,
+                scale(statistics.getStandardDeviation()),
+                scale(RunningStatistics.median(doubles, size)));
+    }
+
+    /**
+     * 四捨五入至小數點後兩位
+     */
+    private static BigDecimal scale(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : null;
+    }
+
+    static BigDecimal scale(Double value) {
+        return value != null ? scale(BigDecimal.valueOf(value)) : null;
+    }
+
+    /**
+     * 將彙總轉為趨勢數據點（週期起始日, 平均值）
+     */
+    private List<TrendDataPointDTO> toTrendData(List<NumberRollup> rollups) {
+        return rollups.stream()
+                .map(rollup -> new TrendDataPointDTO(rollup.getPeriodStart(),
+                        rollup.getSum().divide(BigDecimal.valueOf(rollup.getCount()), 2, RoundingMode.HALF_UP).toPlainString()))
                 .collect(Collectors.toList());
+    }
+
+    /**
+     * 合併多個週期的彙總為統計摘要
+     * 各週期的 count、sum、sum of squares 轉為部分統計後以 RunningStatistics 合併，計算母體標準差
+     */
+    private NumberStatisticsDTO combineNumberRollups(List<NumberRollup> rollups) {
+        RunningStatistics statistics = new RunningStatistics();
+        BigDecimal sum = BigDecimal.ZERO;
+        BigDecimal min = null;
+        BigDecimal max = null;
+
+        for (NumberRollup rollup : rollups) {
+            statistics.merge(RunningStatistics.ofMoments(rollup.getCount(), rollup.getSum().doubleValue(),
+                    rollup.getSumOfSquares().doubleValue(), rollup.getMin().doubleValue(), rollup.getMax().doubleValue()));
+            sum = sum.add(rollup.getSum());
+            min = min == null || rollup.getMin().compareTo(min) < 0 ? rollup.getMin() : min;
+            max = max == null || rollup.getMax().compareTo(max) > 0 ? rollup.getMax() : max;
+        }
 
-        if (values.isEmpty()) {
+        long count = statistics.getCount();
+        if (count == 0) {
             return new NumberStatisticsDTO(null, null, null, null, 0L, null, null);
         }
 
-        BigDecimal sum = values.stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal average = sum.divide(BigDecimal.valueOf(values.size()), 2, RoundingMode.HALF_UP);
-        BigDecimal max = values.stream().max(BigDecimal::compareTo).orElse(null);
-        BigDecimal min = values.stream().min(BigDecimal::compareTo).orElse(null);
-        Long count = (long) values.size();
+        BigDecimal mean = sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+        return new NumberStatisticsDTO(scale(mean), max, min, sum, count, scale(statistics.getStandardDeviation()), null);
+    }
+
+    // ==================== NUMBER 類型分佈 ====================
 
-        // 計算標準差
-        BigDecimal variance = values.stream()
-                .map(v -> v.subtract(average).pow(2))
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(values.size()), 2, RoundingMode.HALF_UP);
-        BigDecimal standardDeviation = new BigDecimal(Math.sqrt(variance.doubleValue()))
-                .setScale(2, RoundingMode.HALF_UP);
+    /**
+     * 分佈報表回傳的百分位數
+     */
+    private static final int[] PERCENTILES = {5, 25, 50, 75, 95};
+
+    /**
+     * 直方圖最多的區間數
+     */
+    public static final int MAX_HISTOGRAM_BINS = 100;
 
-        // 計算中位數
-        List<BigDecimal> sortedValues = new ArrayList<>(values);
-        sortedValues.sort(BigDecimal::compareTo);
-        BigDecimal median;
-        int size = sortedValues.size();
-        if (size % 2 == 0) {
-            median = sortedValues.get(size / 2 - 1)
-                    .add(sortedValues.get(size / 2))
-                    .divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP);
-        } else {
-            median = sortedValues.get(size / 2);
+    /**
+     * 查詢 NUMBER 類型欄位的分佈（分位數與直方圖）
+     * 完整月份合併已儲存的每月草圖，只有開始與結束所在的不完整月份讀取原始數據
+     * 快取的是合併後的草圖桶（與區間數無關）
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param bins 直方圖區間數（1 ~ MAX_HISTOGRAM_BINS）
+     * @return NUMBER 分佈 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在、類型不符或區間數超出範圍
+     */
+    public NumberDistributionDTO getNumberDistribution(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            int bins) {
+        if (bins < 1 || bins > MAX_HISTOGRAM_BINS) {
+            throw new IllegalArgumentException("直方圖區間數必須介於 1 與 " + MAX_HISTOGRAM_BINS + " 之間: " + bins);
         }
+        ReportCacheKey key = new ReportCacheKey(userId, ReportKind.NUMBER_DISTRIBUTION, fieldName, startDate, endDate, null);
+        List<QuantileSketch.Bucket> buckets = reportCache.get(key, SKETCH_BUCKETS_TYPE,
+                () -> computeNumberSketch(userId, fieldName, startDate, endDate).buckets());
+        return toNumberDistribution(buckets, bins);
+    }
 
-        return new NumberStatisticsDTO(average, max, min, sum, count, standardDeviation, median);
+    /**
+     * 合併日期範圍內的草圖
+     */
+    private QuantileSketch computeNumberSketch(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
+        FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
+        validateDataType(fieldSetting, "NUMBER");
+        Integer settingId = fieldSetting.getSettingId();
+
+        // [fullStart, fullEnd) 為範圍內的完整月份
+        LocalDate fullStart = startDate.equals(RollupGranularity.MONTHLY.periodStart(startDate))
+                ? startDate : RollupGranularity.MONTHLY.periodStart(startDate).plusMonths(1);
+        LocalDate fullEnd = endDate.equals(RollupGranularity.MONTHLY.periodEnd(endDate))
+                ? endDate.plusDays(1) : RollupGranularity.MONTHLY.periodStart(endDate);
+
+        QuantileSketch sketch = new QuantileSketch();
+        if (!fullStart.isBefore(fullEnd)) {
+            addRawValues(sketch, userId, settingId, startDate, endDate);
+            return sketch;
+        }
+        for (NumberSketch numberSketch : numberSketchRepository
+                .findByUserIdAndSettingIdAndPeriodStartBetweenOrderByPeriodStartAsc(
+                        userId, settingId, fullStart, fullEnd.minusMonths(1))) {
+            sketch.merge(QuantileSketch.fromBytes(numberSketch.getSketch()));
+        }
+        if (startDate.isBefore(fullStart)) {
+            addRawValues(sketch, userId, settingId, startDate, fullStart.minusDays(1));
+        }
+        if (!fullEnd.isAfter(endDate)) {
+            addRawValues(sketch, userId, settingId, fullEnd, endDate);
+        }
+        return sketch;
+    }
+
+    private void addRawValues(QuantileSketch sketch, Long userId, Integer settingId, LocalDate startDate, LocalDate endDate) {
+        for (BigDecimal value : recordDataRepository.findNumericValuesInRange(userId, settingId, startDate, endDate)) {
+            sketch.add(value.doubleValue());
+        }
+    }
+
+    /**
+     * 由草圖桶計算分位數與等寬直方圖（各桶以代表值歸入區間）
+     */
+    private NumberDistributionDTO toNumberDistribution(List<QuantileSketch.Bucket> buckets, int bins) {
+        long count = buckets.stream().mapToLong(QuantileSketch.Bucket::count).sum();
+        if (count == 0) {
+            return new NumberDistributionDTO(0L, Map.of(), List.of());
+        }
+
+        Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+        for (int percentile : PERCENTILES) {
+            percentiles.put("p" + percentile, scale(QuantileSketch.quantile(buckets, percentile / 100.0)));
+        }
+
+        double lower = buckets.get(0).value();
+        double upper = buckets.get(buckets.size() - 1).value();
+        int binCount = upper > lower ? bins : 1;
+        double width = (upper - lower) / binCount;
+        long[] counts = new long[binCount];
+        for (QuantileSketch.Bucket bucket : buckets) {
+            int index = width > 0 ? (int) ((bucket.value() - lower) / width) : 0;
+            counts[Math.min(index, binCount - 1)] += bucket.count();
+        }
+        List<HistogramBinDTO> histogram = new ArrayList<>(binCount);
+        for (int i = 0; i < binCount; i++) {
+            double binUpper = i == binCount - 1 ? upper : lower + width * (i + 1);
+            histogram.add(new HistogramBinDTO(scale(lower + width * i), scale(binUpper), counts[i]));
+        }
+        return new NumberDistributionDTO(count, percentiles, histogram);
     }
 
     // ==================== ENUM 類型報表 ====================
 
     /**
-     * 獲取 ENUM 類型欄位的分佈統計
+     * 查詢 ENUM 類型欄位的分佈統計
      * @param userId 使用者 ID
      * @param fieldName 欄位名稱
      * @param startDate 開始日期
      * @param endDate 結束日期
      * @return ENUM 分佈統計 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
      */
     public EnumDistributionDTO getEnumDistribution(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
+        return getEnumDistribution(userId, fieldName, startDate, endDate, null);
+    }
+
+    /**
+     * 查詢 ENUM 類型欄位的分佈統計，指定 granularity 時從彙總查詢
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param granularity 彙總週期，null 時從原始數據計算
+     * @return ENUM 分佈統計 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
+     */
+    public EnumDistributionDTO getEnumDistribution(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        ReportCacheKey key = new ReportCacheKey(userId, ReportKind.ENUM_DISTRIBUTION, fieldName, startDate, endDate, granularity);
+        return reportCache.get(key, ENUM_DISTRIBUTION_TYPE, () -> granularity == null
+                ? computeEnumDistribution(userId, fieldName, startDate, endDate)
+                : computeEnumDistributionFromRollups(userId, fieldName, startDate, endDate, granularity));
+    }
+
+    /**
+     * 從原始數據計算 ENUM 分佈統計（不經過快取）
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @return ENUM 分佈統計 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
+     */
+    public EnumDistributionDTO computeEnumDistribution(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
         FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
         
         if (!"ENUM".equals(fieldSetting.getDataType())) {
             throw new IllegalArgumentException("欄位類型不是 ENUM: " + fieldSetting.getDataType());
         }
 
-        List<DailyRecord> dailyRecords = getRecordsInDateRange(userId, startDate, endDate);
-
-        // 統計各選項的出現次數
-        Map<String, Long> distribution = new HashMap<>();
-        long totalCount = 0;
+        // 各選項次數由資料庫 GROUP BY 計算
+        Map<String, Long> counts = new HashMap<>();
+        for (OptionCount optionCount : recordDataRepository.countOptionsInRange(
+                userId, fieldSetting.getSettingId(), startDate, endDate)) {
+            counts.put(optionCount.getOptionValue(), optionCount.getCount());
+        }
+        return toEnumDistribution(fieldSetting.getOptions(), counts);
+    }
 
-        for (DailyRecord record : dailyRecords) {
-            Optional<String> valueOpt = getFieldValue(fieldSetting, record);
-            if (valueOpt.isPresent() && !valueOpt.get().isEmpty()) {
-                String value = valueOpt.get();
-                distribution.put(value, distribution.getOrDefault(value, 0L) + 1);
-                totalCount++;
+    /**
+     * 由已載入的欄位數值統計各選項的分佈（空值不計）
+     * @param values 欄位數值
+     * @param options 欄位設定的選項（決定回傳順序）
+     * @return ENUM 分佈統計 DTO
+     */
+    static EnumDistributionDTO toEnumDistribution(List<RecordValueObj> values, String options) {
+        Map<String, Long> counts = new HashMap<>();
+        for (RecordValueObj recordValue : values) {
+            String value = recordValue.getValueText();
+            if (value != null && !value.isEmpty()) {
+                counts.merge(value, 1L, Long::sum);
             }
         }
+        return toEnumDistribution(options, counts);
+    }
 
-        // 計算百分比
-        Map<String, Double> percentages = new HashMap<>();
+    /**
+     * 依選項順序（設定順序，未設定的依字典順序在後）建立分佈統計
+     */
+    static EnumDistributionDTO toEnumDistribution(String options, Map<String, Long> counts) {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        long totalCount = 0;
+        for (String option : EnumOptions.order(options, counts.keySet())) {
+            long count = counts.get(option);
+            distribution.put(option, count);
+            totalCount += count;
+        }
+        return new EnumDistributionDTO(distribution, totalCount, calculatePercentages(distribution, totalCount));
+    }
+
+    /**
+     * 計算各選項的百分比（取兩位小數）
+     */
+    private static Map<String, Double> calculatePercentages(Map<String, Long> distribution, long totalCount) {
+        Map<String, Double> percentages = new LinkedHashMap<>();
         if (totalCount > 0) {
             for (Map.Entry<String, Long> entry : distribution.entrySet()) {
                 double percentage = (entry.getValue().doubleValue() / totalCount) * 100.0;
                 percentages.put(entry.getKey(), Math.round(percentage * 100.0) / 100.0);
             }
         }
+        return percentages;
+    }
 
-        return new EnumDistributionDTO(distribution, totalCount, percentages);
+    /**
+     * 從彙總計算 ENUM 分佈統計
+     */
+    private EnumDistributionDTO computeEnumDistributionFromRollups(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
+        validateDataType(fieldSetting, "ENUM");
+
+        Map<String, Long> counts = new HashMap<>();
+        for (EnumRollup rollup : getEnumRollups(userId, fieldSetting, startDate, endDate, granularity)) {
+            counts.merge(rollup.getOptionValue(), rollup.getCount(), Long::sum);
+        }
+        return toEnumDistribution(fieldSetting.getOptions(), counts);
     }
 
     /**
-     * 獲取 ENUM 類型欄位的時間序列趨勢
+     * 查詢 ENUM 類型欄位的時間序列趨勢
      * @param userId 使用者 ID
      * @param fieldName 欄位名稱
      * @param startDate 開始日期
      * @param endDate 結束日期
      * @return ENUM 趨勢 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
      */
     public EnumTrendDTO getEnumTrend(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
+        return getEnumTrend(userId, fieldName, startDate, endDate, null);
+    }
+
+    /**
+     * 查詢 ENUM 類型欄位的時間序列趨勢，指定 granularity 時從彙總查詢
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param granularity 彙總週期，null 時從原始數據計算
+     * @return ENUM 趨勢 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
+     */
+    public EnumTrendDTO getEnumTrend(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        ReportCacheKey key = new ReportCacheKey(userId, ReportKind.ENUM_TREND, fieldName, startDate, endDate, granularity);
+        return reportCache.get(key, ENUM_TREND_TYPE, () -> granularity == null
+                ? computeEnumTrend(userId, fieldName, startDate, endDate)
+                : computeEnumTrendFromRollups(userId, fieldName, startDate, endDate, granularity));
+    }
+
+    /**
+     * 從原始數據計算 ENUM 時間序列趨勢
+     */
+    private EnumTrendDTO computeEnumTrend(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
         FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
         
         if (!"ENUM".equals(fieldSetting.getDataType())) {
             throw new IllegalArgumentException("欄位類型不是 ENUM: " + fieldSetting.getDataType());
         }
 
-        List<DailyRecord> dailyRecords = getRecordsInDateRange(userId, startDate, endDate);
-
-        // 按日期分組統計
-        Map<LocalDate, Map<String, Long>> trendData = new HashMap<>();
-        List<String> allOptions = new ArrayList<>();
+        // 每日各選項次數由資料庫 GROUP BY 計算
+        Map<LocalDate, Map<String, Long>> counts = new TreeMap<>();
+        for (DailyOptionCount optionCount : recordDataRepository.countOptionsByDateInRange(
+                userId, fieldSetting.getSettingId(), startDate, endDate)) {
+            counts.computeIfAbsent(optionCount.getRecordDate(), date -> new HashMap<>())
+                    .put(optionCount.getOptionValue(), optionCount.getCount());
+        }
+        return toEnumTrend(fieldSetting.getOptions(), counts);
+    }
 
-        for (DailyRecord record : dailyRecords) {
-            Optional<String> valueOpt = getFieldValue(fieldSetting, record);
-            if (valueOpt.isPresent() && !valueOpt.get().isEmpty()) {
-                String value = valueOpt.get();
-                LocalDate date = record.getRecordDate();
+    /**
+     * 從彙總計算 ENUM 時間序列趨勢（以週期起始日分組）
+     */
+    private EnumTrendDTO computeEnumTrendFromRollups(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
+        validateDataType(fieldSetting, "ENUM");
 
-                trendData.putIfAbsent(date, new HashMap<>());
-                Map<String, Long> dateDistribution = trendData.get(date);
-                dateDistribution.put(value, dateDistribution.getOrDefault(value, 0L) + 1);
+        Map<LocalDate, Map<String, Long>> counts = new TreeMap<>();
+        for (EnumRollup rollup : getEnumRollups(userId, fieldSetting, startDate, endDate, granularity)) {
+            counts.computeIfAbsent(rollup.getPeriodStart(), date -> new HashMap<>())
+                    .merge(rollup.getOptionValue(), rollup.getCount(), Long::sum);
+        }
+        return toEnumTrend(fieldSetting.getOptions(), counts);
+    }
 
-                if (!allOptions.contains(value)) {
-                    allOptions.add(value);
+    /**
+     * 依日期升序、選項順序建立趨勢
+     * @param options 欄位設定的選項
+     * @param counts 日期（升序）-> 選項 -> 次數
+     */
+    private static EnumTrendDTO toEnumTrend(String options, Map<LocalDate, Map<String, Long>> counts) {
+        Set<String> observed = new HashSet<>();
+        counts.values().forEach(dateCounts -> observed.addAll(dateCounts.keySet()));
+        List<String> orderedOptions = EnumOptions.order(options, observed);
+
+        Map<LocalDate, Map<String, Long>> trendData = new LinkedHashMap<>();
+        counts.forEach((date, dateCounts) -> {
+            Map<String, Long> orderedCounts = new LinkedHashMap<>();
+            for (String option : orderedOptions) {
+                Long count = dateCounts.get(option);
+                if (count != null) {
+                    orderedCounts.put(option, count);
                 }
             }
-        }
+            trendData.put(date, orderedCounts);
+        });
+        return new EnumTrendDTO(trendData, orderedOptions);
+    }
+
+    /**
+     * 查詢 ENUM 類型欄位的時間序列趨勢（欄式格式：日期陣列加上每個選項一個次數向量）
+     * 由 getEnumTrend 的結果轉換，共用同一份快取
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param granularity 彙總週期，null 時從原始數據計算
+     * @return ENUM 趨勢欄式 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
+     */
+    public EnumTrendColumnsDTO getEnumTrendColumns(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        return toEnumTrendColumns(getEnumTrend(userId, fieldName, startDate, endDate, granularity));
+    }
 
-        return new EnumTrendDTO(trendData, allOptions);
+    private EnumTrendColumnsDTO toEnumTrendColumns(EnumTrendDTO trend) {
+        List<LocalDate> dates = new ArrayList<>(trend.getTrendData().keySet());
+        dates.sort(null);
+        List<String> options = trend.getOptions();
+
+        Map<String, long[]> vectors = new HashMap<>();
+        List<long[]> counts = new ArrayList<>(options.size());
+        for (String option : options) {
+            long[] vector = new long[dates.size()];
+            vectors.put(option, vector);
+            counts.add(vector);
+        }
+        for (int i = 0; i < dates.size(); i++) {
+            int index = i;
+            trend.getTrendData().get(dates.get(i)).forEach((option, count) -> vectors.get(option)[index] = count);
+        }
+        return new EnumTrendColumnsDTO(dates, options, counts);
     }
 
     // ==================== TEXT 類型報表 ====================
 
     /**
-     * 獲取 TEXT 類型欄位的文字分析報表
+     * 獲取 TEXT 類型欄位的文字分析報表（包含完整的時間序列）
      * @param userId 使用者 ID
      * @param fieldName 欄位名稱
      * @param startDate 開始日期
@@ -306,53 +818,150 @@ public class ReportService {
      * @return TEXT 分析 DTO
      */
     public TextAnalysisDTO getTextAnalysis(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
+        return getTextAnalysis(userId, fieldName, startDate, endDate, null, true, null, null);
+    }
+
+    /**
+     * 獲取 TEXT 類型欄位的文字分析報表
+     * 關鍵字頻率與長度統計不讀取文字內容（詞彙索引與 SQL 彙總），快取後依 topK 截取
+     * 時間序列不快取，每次由新到舊查詢一頁；下一頁以回傳的 timelineNextBefore 作為 timelineBefore
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param topK 關鍵字數，null 時為 MAX_KEYWORDS
+     * @param includeTimeline 是否包含時間序列
+     * @param timelineLimit 時間序列每頁筆數，null 時不分頁
+     * @param timelineBefore 只包含此日期之前的時間序列（不含），null 時從 endDate 開始
+     * @return TEXT 分析 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在、類型不符、topK 不在 1 ~ MAX_KEYWORDS 之間或 timelineLimit 小於 1
+     */
+    public TextAnalysisDTO getTextAnalysis(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            Integer topK, boolean includeTimeline, Integer timelineLimit, LocalDate timelineBefore) {
+        if (topK != null && (topK < 1 || topK > MAX_KEYWORDS)) {
+            throw new IllegalArgumentException("topK 必須介於 1 與 " + MAX_KEYWORDS + " 之間: " + topK);
+        }
+        if (timelineLimit != null && timelineLimit < 1) {
+            throw new IllegalArgumentException("timelineLimit 必須大於 0: " + timelineLimit);
+        }
+        ReportCacheKey key = new ReportCacheKey(userId, ReportKind.TEXT_ANALYSIS, fieldName, startDate, endDate, null);
+        TextAnalysisDTO summary = reportCache.get(key, TEXT_ANALYSIS_TYPE,
+                () -> computeTextAnalysis(userId, fieldName, startDate, endDate));
+
+        Map<String, Long> keywordFrequency = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : summary.getKeywordFrequency().entrySet()) {
+            if (topK != null && keywordFrequency.size() == topK) {
+                break;
+            }
+            keywordFrequency.put(entry.getKey(), entry.getValue());
+        }
+        TextAnalysisDTO analysis = new TextAnalysisDTO(keywordFrequency, summary.getTotalCount(),
+                summary.getAverageLength(), summary.getMaxLength(), summary.getMinLength(), new LinkedHashMap<>(), null);
+
+        if (includeTimeline) {
+            FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
+            LocalDate timelineEnd = timelineBefore != null && !timelineBefore.isAfter(endDate)
+                    ? timelineBefore.minusDays(1)
+                    : endDate;
+            if (!timelineEnd.isBefore(startDate)) {
+                List<RecordValueObj> timeline = recordDataRepository.findTextTimeline(userId, fieldSetting.getSettingId(),
+                        startDate, timelineEnd, timelineLimit != null ? Limit.of(timelineLimit + 1) : Limit.unlimited());
+                // 多查一筆判斷是否有下一頁
+                boolean hasNext = timelineLimit != null && timeline.size() > timelineLimit;
+                if (hasNext) {
+                    timeline = timeline.subList(0, timelineLimit);
+                    analysis.setTimelineNextBefore(timeline.get(timeline.size() - 1).getRecordDate());
+                }
+                for (RecordValueObj recordValue : timeline) {
+                    analysis.getTimelineData().put(recordValue.getRecordDate().toString(), recordValue.getValueText());
+                }
+            }
+        }
+        return analysis;
+    }
+
+    /**
+     * 查詢提及關鍵字的日期
+     * 由詞彙索引直接查詢，不讀取數值（不快取）
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param query 關鍵字（多個詞彙時需全部出現）
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @return 日期列表（按日期降序）
+     * @throws IllegalArgumentException 如果欄位設定不存在、類型不符、日期區間無效或關鍵字沒有可搜尋的詞彙
+     */
+    public List<LocalDate> searchText(Long userId, String fieldName, String query, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("開始日期不可晚於結束日期: " + startDate + " > " + endDate);
+        }
+        FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
+        validateDataType(fieldSetting, "TEXT");
+
+        return textIndexService.search(userId, fieldSetting.getSettingId(), query, startDate, endDate);
+    }
+
+    /**
+     * 計算文字分析摘要（不含時間序列，不經過快取）
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @return TEXT 分析 DTO（最多 MAX_KEYWORDS 個關鍵字）
+     * @throws IllegalArgumentException 如果欄位設定不存在或類型不符
+     */
+    public TextAnalysisDTO computeTextAnalysis(Long userId, String fieldName, LocalDate startDate, LocalDate endDate) {
         FieldSetting fieldSetting = validateAndGetFieldSetting(fieldName);
         
         if (!"TEXT".equals(fieldSetting.getDataType())) {
             throw new IllegalArgumentException("欄位類型不是 TEXT: " + fieldSetting.getDataType());
         }
 
-        List<DailyRecord> dailyRecords = getRecordsInDateRange(userId, startDate, endDate);
+        TextLengthStatistics lengths = recordDataRepository.aggregateTextLengthsInRange(
+                userId, fieldSetting.getSettingId(), startDate, endDate);
+        Map<String, Long> keywordFrequency = textIndexService.getTopTerms(
+                userId, fieldSetting.getSettingId(), startDate, endDate, MAX_KEYWORDS);
+        long totalCount = lengths.getCount() != null ? lengths.getCount() : 0L;
+        return new TextAnalysisDTO(keywordFrequency, totalCount,
+                totalCount == 0 ? 0.0 : lengths.getAverageLength(),
+                totalCount == 0 ? 0 : lengths.getMaxLength(),
+                totalCount == 0 ? 0 : lengths.getMinLength(),
+                new LinkedHashMap<>(), null);
+    }
 
-        Map<String, Long> keywordFrequency = new HashMap<>();
-        Map<String, String> timelineData = new HashMap<>();
-        List<Integer> lengths = new ArrayList<>();
+    /**
+     * 由欄位數值計算文字分析摘要（關鍵字頻率、長度統計，不含時間序列）
+     * 關鍵字由 TextTokenizer 切分：英文與數字以詞為單位，中文以相鄰兩字（bigram）為單位，並過濾停用詞
+     * 以 Space-Saving 估計出現次數最多的 MAX_KEYWORDS 個關鍵字，記憶體用量與文字量無關
+     * @param values 欄位數值
+     * @return TEXT 分析 DTO
+     */
+    static TextAnalysisDTO toTextAnalysis(List<RecordValueObj> values) {
+        TextTokenizer tokenizer = new TextTokenizer();
+        SpaceSaving heavyHitters = new SpaceSaving(KEYWORD_SKETCH_CAPACITY);
         long totalCount = 0;
+        long totalLength = 0;
+        int maxLength = 0;
+        int minLength = Integer.MAX_VALUE;
 
-        for (DailyRecord record : dailyRecords) {
-            Optional<String> valueOpt = getFieldValue(fieldSetting, record);
-            if (valueOpt.isPresent() && !valueOpt.get().isEmpty()) {
-                String text = valueOpt.get();
+        for (RecordValueObj recordValue : values) {
+            String text = recordValue.getValueText();
+            if (text != null && !text.isEmpty()) {
                 totalCount++;
-                
-                // 記錄時間序列
-                timelineData.put(record.getRecordDate().toString(), text);
-                
-                // 記錄長度
-                lengths.add(text.length());
-                
-                // 簡單的關鍵字提取（以空格和標點符號分隔）
-                String[] words = text.toLowerCase()
-                        .replaceAll("[^\\u4e00-\\u9fa5a-zA-Z0-9\\s]", " ")
-                        .split("\\s+");
-                
-                for (String word : words) {
-                    if (word.length() > 1) { // 過濾單字符
-                        keywordFrequency.put(word, keywordFrequency.getOrDefault(word, 0L) + 1);
-                    }
-                }
+                totalLength += text.length();
+                maxLength = Math.max(maxLength, text.length());
+                minLength = Math.min(minLength, text.length());
+                tokenizer.tokenize(text, heavyHitters);
             }
         }
 
         // 計算統計值
-        Double averageLength = lengths.isEmpty() ? 0.0 
-                : lengths.stream().mapToInt(Integer::intValue).average().orElse(0.0);
-        Integer maxLength = lengths.isEmpty() ? 0 
-                : lengths.stream().mapToInt(Integer::intValue).max().orElse(0);
-        Integer minLength = lengths.isEmpty() ? 0 
-                : lengths.stream().mapToInt(Integer::intValue).min().orElse(0);
+        Double averageLength = totalCount == 0 ? 0.0 : (double) totalLength / totalCount;
+        if (totalCount == 0) {
+            minLength = 0;
+        }
 
-        return new TextAnalysisDTO(keywordFrequency, totalCount, averageLength, maxLength, minLength, timelineData);
+        return new TextAnalysisDTO(heavyHitters.top(MAX_KEYWORDS), totalCount, averageLength, maxLength, minLength,
+                new LinkedHashMap<>(), null);
     }
 }
-
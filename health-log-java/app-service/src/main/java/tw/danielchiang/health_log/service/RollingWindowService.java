@@ -0,0 +1,245 @@
+package tw.danielchiang.health_log.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.model.dto.reponse.NumberStatisticsDTO;
+import tw.danielchiang.health_log.model.dto.reponse.RollingWindowDTO;
+import tw.danielchiang.health_log.model.dto.reponse.TextAnalysisDTO;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.RecordValueObj;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.cache.ReportCache;
+import tw.danielchiang.health_log.service.cache.ReportCacheInvalidation;
+import tw.danielchiang.health_log.service.event.FieldSettingChangedEvent;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent.FieldValueChange;
+import tw.danielchiang.health_log.service.window.EnumWindowAggregator;
+import tw.danielchiang.health_log.service.window.NumberWindowAggregator;
+import tw.danielchiang.health_log.service.window.RollingWindows;
+import tw.danielchiang.health_log.service.window.TextWindowAggregator;
+
+/**
+ * 最近 7 / 30 / 90 天（截至今天）的欄位摘要
+ * 每個使用者、欄位的滑動視窗彙總保存在本機 Caffeine，第一次查詢時載入最近 90 天的數值（一次查詢，不掃描歷史資料）；
+ * 之後記錄變更提交時依事件中變更前後的數值增量更新，查詢為 O(1)
+ * 日期改變、批次匯入（事件不帶數值）、欄位設定變更、其他節點的失效通知時捨棄，下次查詢重新載入
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollingWindowService implements MessageListener {
+
+    private final RecordDataRepository recordDataRepository;
+    private final FieldSettingRegistry fieldSettingRegistry;
+    private final ReportCache reportCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${report.rolling.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${report.rolling.ttl:1h}")
+    private Duration ttl;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    // 每次變更遞增，載入期間發生變更時不保留結果，避免漏套用變更（與 ReportCache 相同）
+    private final AtomicLong version = new AtomicLong();
+
+    private Cache<WindowKey, RollingWindows<?, ?>> windows;
+
+    @PostConstruct
+    void init() {
+        windows = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    /**
+     * 查詢欄位最近 days 天（含今天）的摘要
+     * @param userId 使用者 ID
+     * @param fieldName 欄位名稱
+     * @param days 視窗天數（7 / 30 / 90）
+     * @return 摘要 DTO
+     * @throws IllegalArgumentException 如果欄位設定不存在、類型不支援或視窗天數不支援
+     */
+    public RollingWindowDTO getRollingWindow(Long userId, String fieldName, int days) {
+        if (!RollingWindows.WINDOW_DAYS.contains(days)) {
+            throw new IllegalArgumentException("不支援的視窗天數: " + days + "，可用: " + RollingWindows.WINDOW_DAYS);
+        }
+        FieldSetting fieldSetting = fieldSettingRegistry.findByFieldName(fieldName)
+                .orElseThrow(() -> new IllegalArgumentException("欄位設定不存在: fieldName=" + fieldName));
+
+        RollingWindows<?, ?> rollingWindows = getOrLoad(userId, fieldSetting, LocalDate.now(clock));
+        RollingWindowDTO dto = new RollingWindowDTO();
+        dto.setFieldName(fieldSetting.getFieldName());
+        dto.setDataType(fieldSetting.getDataType());
+        dto.setDays(days);
+        dto.setStartDate(rollingWindows.startDate(days));
+        dto.setEndDate(rollingWindows.getAnchor());
+        synchronized (rollingWindows) {
+            switch (rollingWindows.get(days)) {
+                case NumberWindowAggregator number -> dto.setNumberStatistics(toNumberStatistics(number));
+                case EnumWindowAggregator options -> dto.setEnumDistribution(
+                        ReportService.toEnumDistribution(fieldSetting.getOptions(), options.getCounts()));
+                case TextWindowAggregator text -> dto.setTextAnalysis(toTextAnalysis(text));
+                default -> throw new IllegalStateException("未知的彙總類型: " + fieldSetting.getDataType());
+            }
+        }
+        return dto;
+    }
+
+    /**
+     * 記錄變更提交後套用變更前後的數值；事件不帶數值時捨棄該使用者的所有視窗
+     * 尚未載入的視窗不處理（下次查詢時載入的已是提交後的資料）
+     * @param event 記錄變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordChanged(RecordChangedEvent event) {
+        version.incrementAndGet();
+        if (event.getChanges().isEmpty()) {
+            evictUser(event.getUserId());
+            return;
+        }
+        for (FieldValueChange change : event.getChanges()) {
+            WindowKey key = new WindowKey(event.getUserId(), change.getSettingId());
+            RollingWindows<?, ?> rollingWindows = windows.getIfPresent(key);
+            if (rollingWindows == null) {
+                continue;
+            }
+            boolean applied;
+            synchronized (rollingWindows) {
+                applied = rollingWindows.apply(event.getStartDate(), change.getOldValue(), change.getNewValue());
+            }
+            if (!applied) {
+                // 保存的數值與變更前的數值不同，表示漏掉了先前的變更
+                log.warn("Rolling window out of sync, reloading on next read: userId={}, settingId={}",
+                        event.getUserId(), change.getSettingId());
+                windows.asMap().remove(key, rollingWindows);
+            }
+        }
+    }
+
+    /**
+     * 欄位設定變更提交後捨棄所有視窗（類型或選項可能已改變）
+     * @param event 欄位設定變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFieldSettingChanged(FieldSettingChangedEvent event) {
+        version.incrementAndGet();
+        windows.invalidateAll();
+    }
+
+    /**
+     * 接收其他節點的報表快取失效通知，捨棄本機保存的該使用者視窗（本機的變更已由事件套用）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            ReportCacheInvalidation invalidation = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), ReportCacheInvalidation.class);
+            if (reportCache.getNodeId().equals(invalidation.getOrigin())) {
+                return;
+            }
+            version.incrementAndGet();
+            if (invalidation.getUserId() == null) {
+                windows.invalidateAll();
+            } else {
+                evictUser(invalidation.getUserId());
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid report cache invalidation message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 取得今天的視窗，沒有或已過期（日期改變）時載入最近 90 天的數值
+     */
+    private RollingWindows<?, ?> getOrLoad(Long userId, FieldSetting fieldSetting, LocalDate today) {
+        WindowKey key = new WindowKey(userId, fieldSetting.getSettingId());
+        RollingWindows<?, ?> current = windows.getIfPresent(key);
+        if (current != null && current.getAnchor().equals(today)) {
+            return current;
+        }
+
+        long startVersion = version.get();
+        RollingWindows<?, ?> loaded = load(userId, fieldSetting, today);
+        if (startVersion != version.get()) {
+            windows.invalidate(key);
+            return loaded;
+        }
+        windows.put(key, loaded);
+        // 檢查與放入之間提交的變更可能已因找不到視窗而略過，放入後再確認一次
+        if (startVersion != version.get()) {
+            windows.asMap().remove(key, loaded);
+        }
+        return loaded;
+    }
+
+    private RollingWindows<?, ?> load(Long userId, FieldSetting fieldSetting, LocalDate today) {
+        RollingWindows<?, ?> rollingWindows = switch (String.valueOf(fieldSetting.getDataType())) {
+            case "NUMBER" -> new RollingWindows<>(today, NumberWindowAggregator::parse, NumberWindowAggregator::new);
+            case "ENUM" -> new RollingWindows<>(today, EnumWindowAggregator::parse, EnumWindowAggregator::new);
+            case "TEXT" -> new RollingWindows<>(today, TextWindowAggregator::parse, TextWindowAggregator::new);
+            default -> throw new IllegalArgumentException("欄位類型不支援滑動視窗摘要: " + fieldSetting.getDataType());
+        };
+        for (RecordValueObj value : recordDataRepository.findValuesInRange(userId, fieldSetting.getSettingId(),
+                today.minusDays(RollingWindows.MAX_DAYS - 1L), today)) {
+            rollingWindows.load(value.getRecordDate(), value.getValueText());
+        }
+        log.debug("Rolling windows loaded: userId={}, settingId={}, anchor={}", userId, fieldSetting.getSettingId(), today);
+        return rollingWindows;
+    }
+
+    private void evictUser(Long userId) {
+        windows.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+    }
+
+    private static NumberStatisticsDTO toNumberStatistics(NumberWindowAggregator number) {
+        if (number.getCount() == 0) {
+            return new NumberStatisticsDTO(null, null, null, null, 0L, null, null);
+        }
+        return new NumberStatisticsDTO(
+                number.getSum().divide(BigDecimal.valueOf(number.getCount()), 2, RoundingMode.HALF_UP),
+                number.getMax(),
+                number.getMin(),
+                number.getSum(),
+                number.getCount(),
+                ReportService.scale(number.getStandardDeviation()),
+                ReportService.scale(number.getMedian()));
+    }
+
+    private static TextAnalysisDTO toTextAnalysis(TextWindowAggregator text) {
+        return new TextAnalysisDTO(text.top(ReportService.MAX_KEYWORDS), text.getCount(), text.getAverageLength(),
+                text.getMaxLength(), text.getMinLength(), new LinkedHashMap<>(), null);
+    }
+
+    /**
+     * 使用者與欄位
+     */
+    private record WindowKey(Long userId, Integer settingId) {
+    }
+}
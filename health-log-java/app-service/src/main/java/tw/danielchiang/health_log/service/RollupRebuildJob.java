@@ -0,0 +1,55 @@
+package tw.danielchiang.health_log.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.data.repository.DailyRecordRepository;
+import tw.danielchiang.health_log.model.dto.reponse.RollupRebuildResultDTO;
+
+/**
+ * 彙總重建工作
+ * 依使用者逐一重建彙總，每個使用者使用獨立交易
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupRebuildJob {
+
+    private final RollupService rollupService;
+    private final DailyRecordRepository dailyRecordRepository;
+
+    /**
+     * 重建所有使用者的彙總
+     * @return 重建結果
+     */
+    public RollupRebuildResultDTO rebuildAll() {
+        List<Long> userIds = dailyRecordRepository.findDistinctUserIds();
+        long rollupCount = 0;
+        int failedUserCount = 0;
+
+        for (Long userId : userIds) {
+            try {
+                rollupCount += rollupService.rebuildForUser(userId);
+            } catch (RuntimeException e) {
+                failedUserCount++;
+                log.error("Failed to rebuild rollups: userId={}", userId, e);
+            }
+        }
+
+        log.info("Rollup rebuild finished: users={}, rollups={}, failed={}", userIds.size(), rollupCount, failedUserCount);
+        return new RollupRebuildResultDTO(userIds.size(), rollupCount, failedUserCount);
+    }
+
+    /**
+     * 重建單一使用者的彙總
+     * @param userId 使用者 ID
+     * @return 重建結果
+     */
+    public RollupRebuildResultDTO rebuildForUser(Long userId) {
+        long rollupCount = rollupService.rebuildForUser(userId);
+        return new RollupRebuildResultDTO(1, rollupCount, 0);
+    }
+}
@@ -0,0 +1,433 @@
+package tw.danielchiang.health_log.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.data.repository.EnumRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberSketchRepository;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.NumberRange;
+import tw.danielchiang.health_log.data.repository.UserRepository;
+import tw.danielchiang.health_log.model.entity.EnumRollup;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.entity.NumberRollup;
+import tw.danielchiang.health_log.model.entity.NumberSketch;
+import tw.danielchiang.health_log.model.entity.RecordData;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+import tw.danielchiang.health_log.service.stats.QuantileSketch;
+
+/**
+ * 彙總服務
+ * 負責維護 NUMBER / ENUM 欄位的每日、每週、每月彙總，以及 NUMBER 欄位的每月分位數草圖
+ * TEXT 欄位的詞彙索引交由 TextIndexService 在同一交易中更新
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class RollupService {
+
+    private final NumberRollupRepository numberRollupRepository;
+    private final NumberSketchRepository numberSketchRepository;
+    private final EnumRollupRepository enumRollupRepository;
+    private final RecordDataRepository recordDataRepository;
+    private final UserRepository userRepository;
+    private final FieldSettingRegistry fieldSettingRegistry;
+    private final TextIndexService textIndexService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 依單一欄位數值的變更增量更新彙總
+     * 呼叫前新的數值必須已寫入 record_data（min/max 可能需要從原始數據重新計算）
+     * @param userId 使用者 ID
+     * @param recordDate 記錄日期
+     * @param oldData 變更前的數值，新增時為 null
+     * @param newData 變更後的數值，刪除時為 null
+     */
+    public void applyChange(Long userId, LocalDate recordDate, RecordData oldData, RecordData newData) {
+        applyChanges(userId, recordDate,
+                oldData != null ? List.of(oldData) : List.of(),
+                newData != null ? List.of(newData) : List.of());
+    }
+
+    /**
+     * 依同一筆記錄多個欄位數值的變更增量更新彙總
+     * 每個週期只查詢一次涉及欄位的彙總，寫入交由 Hibernate 批次送出
+     * 呼叫前新的數值必須已寫入 record_data（min/max 可能需要從原始數據重新計算）
+     * 彙總以讀取後修改的方式更新，呼叫端必須在交易開始時以 UserRepository.findByIdForUpdate 鎖定使用者，
+     * 否則同一使用者的並行寫入會遺失增量，或同時建立同一週期的彙總而違反唯一鍵
+     * @param userId 使用者 ID
+     * @param recordDate 記錄日期
+     * @param oldDataList 變更前的數值（新增的欄位不列入）
+     * @param newDataList 變更後的數值（刪除的欄位不列入）
+     */
+    public void applyChanges(Long userId, LocalDate recordDate, Collection<RecordData> oldDataList,
+            Collection<RecordData> newDataList) {
+        Map<Integer, RecordData> oldDataMap = new LinkedHashMap<>();
+        Map<Integer, RecordData> newDataMap = new LinkedHashMap<>();
+        Map<Integer, FieldSetting> fieldSettings = new LinkedHashMap<>();
+        for (RecordData data : oldDataList) {
+            oldDataMap.put(data.getFieldSetting().getSettingId(), data);
+            fieldSettings.computeIfAbsent(data.getFieldSetting().getSettingId(), settingId -> fieldSettingOf(data));
+        }
+        for (RecordData data : newDataList) {
+            newDataMap.put(data.getFieldSetting().getSettingId(), data);
+            fieldSettings.computeIfAbsent(data.getFieldSetting().getSettingId(), settingId -> fieldSettingOf(data));
+        }
+
+        Map<Integer, NumberChange> numberChanges = new LinkedHashMap<>();
+        Map<Integer, OptionChange> optionChanges = new LinkedHashMap<>();
+        Map<Integer, String> textChanges = new LinkedHashMap<>();
+        for (FieldSetting fieldSetting : fieldSettings.values()) {
+            RecordData oldData = oldDataMap.get(fieldSetting.getSettingId());
+            RecordData newData = newDataMap.get(fieldSetting.getSettingId());
+            if ("NUMBER".equals(fieldSetting.getDataType())) {
+                BigDecimal oldValue = oldData != null ? oldData.getValueNumeric() : null;
+                BigDecimal newValue = newData != null ? newData.getValueNumeric() : null;
+                boolean changed = oldValue == null ? newValue != null
+                        : newValue == null || oldValue.compareTo(newValue) != 0;
+                if (changed) {
+                    numberChanges.put(fieldSetting.getSettingId(), new NumberChange(oldValue, newValue));
+                }
+            } else if ("ENUM".equals(fieldSetting.getDataType())) {
+                String oldOption = oldData != null ? toOption(oldData.getValueText()) : null;
+                String newOption = newData != null ? toOption(newData.getValueText()) : null;
+                if (!Objects.equals(oldOption, newOption)) {
+                    optionChanges.put(fieldSetting.getSettingId(), new OptionChange(oldOption, newOption));
+                }
+            } else if ("TEXT".equals(fieldSetting.getDataType())) {
+                String oldText = oldData != null ? oldData.getValueText() : null;
+                String newText = newData != null ? newData.getValueText() : null;
+                if (!Objects.equals(oldText, newText)) {
+                    textChanges.put(fieldSetting.getSettingId(), newText);
+                }
+            }
+        }
+
+        if (!numberChanges.isEmpty()) {
+            updateNumbers(userId, recordDate, numberChanges);
+            updateSketches(userId, recordDate, numberChanges);
+        }
+        if (!optionChanges.isEmpty()) {
+            updateEnums(userId, recordDate, optionChanges);
+        }
+        if (!textChanges.isEmpty()) {
+            textIndexService.applyChanges(userId, recordDate, textChanges);
+        }
+    }
+
+    /**
+     * 重建使用者的所有彙總（含 TEXT 欄位的詞彙索引）
+     * 提交後發布不限日期與欄位的記錄變更事件，讓報表快取與滑動視窗捨棄重建前的結果
+     * @param userId 使用者 ID
+     * @return 重建後的彙總筆數（不含詞彙索引）
+     */
+    public int rebuildForUser(Long userId) {
+        // 鎖定使用者至交易結束，避免重建期間的增量更新被覆蓋
+        userRepository.findByIdForUpdate(userId);
+        numberRollupRepository.deleteByUserId(userId);
+        enumRollupRepository.deleteByUserId(userId);
+        numberSketchRepository.deleteByUserId(userId);
+
+        Map<String, NumberRollup> numberRollups = new LinkedHashMap<>();
+        Map<String, EnumRollup> enumRollups = new LinkedHashMap<>();
+        Map<String, QuantileSketch> sketches = new LinkedHashMap<>();
+
+        List<RecordData> source = recordDataRepository.findRollupSourceByUserId(userId);
+        for (RecordData data : source) {
+            FieldSetting fieldSetting = data.getFieldSetting();
+            LocalDate recordDate = data.getDailyRecord().getRecordDate();
+
+            if ("NUMBER".equals(fieldSetting.getDataType()) && data.getValueNumeric() != null) {
+                sketches.computeIfAbsent(fieldSetting.getSettingId() + "|" + RollupGranularity.MONTHLY.periodStart(recordDate),
+                        k -> new QuantileSketch()).add(data.getValueNumeric().doubleValue());
+            }
+
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                LocalDate periodStart = granularity.periodStart(recordDate);
+                String key = fieldSetting.getSettingId() + "|" + granularity + "|" + periodStart;
+
+                if ("NUMBER".equals(fieldSetting.getDataType()) && data.getValueNumeric() != null) {
+                    NumberRollup rollup = numberRollups.computeIfAbsent(key,
+                            k -> newNumberRollup(userId, fieldSetting.getSettingId(), granularity, periodStart));
+                    addNumber(rollup, data.getValueNumeric());
+                } else if ("ENUM".equals(fieldSetting.getDataType()) && toOption(data.getValueText()) != null) {
+                    String option = toOption(data.getValueText());
+                    EnumRollup rollup = enumRollups.computeIfAbsent(key + "|" + option,
+                            k -> newEnumRollup(userId, fieldSetting.getSettingId(), granularity, periodStart, option));
+                    rollup.setCount(rollup.getCount() + 1);
+                }
+            }
+        }
+
+        List<NumberSketch> numberSketches = new ArrayList<>(sketches.size());
+        sketches.forEach((key, sketch) -> {
+            String[] parts = key.split("\\|");
+            NumberSketch numberSketch = newNumberSketch(userId, Integer.valueOf(parts[0]), LocalDate.parse(parts[1]));
+            writeSketch(numberSketch, sketch);
+            numberSketches.add(numberSketch);
+        });
+
+        numberRollupRepository.saveAll(numberRollups.values());
+        enumRollupRepository.saveAll(enumRollups.values());
+        numberSketchRepository.saveAll(numberSketches);
+        textIndexService.rebuildForUser(userId);
+        eventPublisher.publishEvent(RecordChangedEvent.allOf(userId));
+
+        log.info("Rollups rebuilt: userId={}, values={}, numberRollups={}, enumRollups={}, numberSketches={}",
+                userId, source.size(), numberRollups.size(), enumRollups.size(), numberSketches.size());
+        return numberRollups.size() + enumRollups.size();
+    }
+
+    /**
+     * 從記憶體快照解析數值的欄位設定，不初始化延遲載入的關聯（快照中沒有時才查詢）
+     */
+    private FieldSetting fieldSettingOf(RecordData data) {
+        return fieldSettingRegistry.findById(data.getFieldSetting().getSettingId())
+                .orElseGet(data::getFieldSetting);
+    }
+
+    /**
+     * 更新 NUMBER 欄位在各週期的彙總
+     */
+    private void updateNumbers(Long userId, LocalDate recordDate, Map<Integer, NumberChange> changes) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDate periodStart = granularity.periodStart(recordDate);
+            Map<Integer, NumberRollup> existing = new HashMap<>();
+            numberRollupRepository
+                    .findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(userId, granularity, periodStart, changes.keySet())
+                    .forEach(rollup -> existing.put(rollup.getSettingId(), rollup));
+
+            List<NumberRollup> toSave = new ArrayList<>();
+            List<NumberRollup> toDelete = new ArrayList<>();
+            Map<Integer, NumberRollup> toRecompute = new HashMap<>();
+
+            for (Map.Entry<Integer, NumberChange> entry : changes.entrySet()) {
+                Integer settingId = entry.getKey();
+                BigDecimal oldValue = entry.getValue().oldValue();
+                BigDecimal newValue = entry.getValue().newValue();
+                NumberRollup rollup = existing.computeIfAbsent(settingId,
+                        k -> newNumberRollup(userId, settingId, granularity, periodStart));
+
+                // 移除的數值是極值時，min/max 無法增量得出，需從原始數據重新計算
+                boolean recomputeRange = false;
+                if (oldValue != null) {
+                    rollup.setCount(rollup.getCount() - 1);
+                    rollup.setSum(rollup.getSum().subtract(oldValue));
+                    rollup.setSumOfSquares(rollup.getSumOfSquares().subtract(oldValue.multiply(oldValue)));
+                    recomputeRange = isSameValue(oldValue, rollup.getMin()) || isSameValue(oldValue, rollup.getMax());
+                }
+                if (newValue != null) {
+                    addNumber(rollup, newValue);
+                }
+
+                if (rollup.getCount() <= 0) {
+                    if (rollup.getRollupId() != null) {
+                        toDelete.add(rollup);
+                    }
+                    continue;
+                }
+                if (recomputeRange) {
+                    toRecompute.put(settingId, rollup);
+                }
+                toSave.add(rollup);
+            }
+
+            if (!toRecompute.isEmpty()) {
+                recordDataRepository.flush();
+                for (NumberRange range : recordDataRepository.findNumericRanges(
+                        userId, toRecompute.keySet(), periodStart, granularity.periodEnd(recordDate))) {
+                    NumberRollup rollup = toRecompute.get(range.getSettingId());
+                    rollup.setMin(range.getMin());
+                    rollup.setMax(range.getMax());
+                }
+            }
+
+            numberRollupRepository.deleteAll(toDelete);
+            numberRollupRepository.saveAll(toSave);
+        }
+    }
+
+    /**
+     * 更新 NUMBER 欄位所在月份的分位數草圖（移除舊值、加入新值）
+     * 與數量彙總相同，依賴呼叫端持有的使用者鎖：並行寫入若未序列化，會遺失加入的數值，
+     * 之後移除該數值時草圖即與原始數據不一致
+     */
+    private void updateSketches(Long userId, LocalDate recordDate, Map<Integer, NumberChange> changes) {
+        LocalDate periodStart = RollupGranularity.MONTHLY.periodStart(recordDate);
+        Map<Integer, NumberSketch> existing = new HashMap<>();
+        numberSketchRepository.findByUserIdAndPeriodStartAndSettingIdIn(userId, periodStart, changes.keySet())
+                .forEach(numberSketch -> existing.put(numberSketch.getSettingId(), numberSketch));
+
+        List<NumberSketch> toSave = new ArrayList<>();
+        List<NumberSketch> toDelete = new ArrayList<>();
+        for (Map.Entry<Integer, NumberChange> entry : changes.entrySet()) {
+            Integer settingId = entry.getKey();
+            NumberSketch numberSketch = existing.get(settingId);
+            QuantileSketch sketch = numberSketch != null
+                    ? QuantileSketch.fromBytes(numberSketch.getSketch())
+                    : new QuantileSketch();
+
+            BigDecimal oldValue = entry.getValue().oldValue();
+            BigDecimal newValue = entry.getValue().newValue();
+            if (oldValue != null && numberSketch != null) {
+                try {
+                    sketch.remove(oldValue.doubleValue());
+                } catch (IllegalStateException e) {
+                    log.warn("Sketch out of sync, rebuild rollups to repair: userId={}, settingId={}, periodStart={}",
+                            userId, settingId, periodStart);
+                }
+            }
+            if (newValue != null) {
+                sketch.add(newValue.doubleValue());
+            }
+
+            if (sketch.isEmpty()) {
+                if (numberSketch != null) {
+                    toDelete.add(numberSketch);
+                }
+                continue;
+            }
+            if (numberSketch == null) {
+                numberSketch = newNumberSketch(userId, settingId, periodStart);
+            }
+            writeSketch(numberSketch, sketch);
+            toSave.add(numberSketch);
+        }
+
+        numberSketchRepository.deleteAll(toDelete);
+        numberSketchRepository.saveAll(toSave);
+    }
+
+    /**
+     * 更新 ENUM 欄位在各週期的選項次數
+     */
+    private void updateEnums(Long userId, LocalDate recordDate, Map<Integer, OptionChange> changes) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDate periodStart = granularity.periodStart(recordDate);
+            Map<String, EnumRollup> existing = new HashMap<>();
+            enumRollupRepository
+                    .findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(userId, granularity, periodStart, changes.keySet())
+                    .forEach(rollup -> existing.put(optionKey(rollup.getSettingId(), rollup.getOptionValue()), rollup));
+
+            Map<String, EnumRollup> touched = new LinkedHashMap<>();
+            for (Map.Entry<Integer, OptionChange> entry : changes.entrySet()) {
+                Integer settingId = entry.getKey();
+                String oldOption = entry.getValue().oldOption();
+                String newOption = entry.getValue().newOption();
+
+                if (oldOption != null) {
+                    String key = optionKey(settingId, oldOption);
+                    EnumRollup rollup = existing.get(key);
+                    if (rollup != null) {
+                        rollup.setCount(rollup.getCount() - 1);
+                        touched.put(key, rollup);
+                    }
+                }
+                if (newOption != null) {
+                    String key = optionKey(settingId, newOption);
+                    EnumRollup rollup = existing.computeIfAbsent(key,
+                            k -> newEnumRollup(userId, settingId, granularity, periodStart, newOption));
+                    rollup.setCount(rollup.getCount() + 1);
+                    touched.put(key, rollup);
+                }
+            }
+
+            List<EnumRollup> toSave = new ArrayList<>();
+            List<EnumRollup> toDelete = new ArrayList<>();
+            for (EnumRollup rollup : touched.values()) {
+                if (rollup.getCount() > 0) {
+                    toSave.add(rollup);
+                } else if (rollup.getRollupId() != null) {
+                    toDelete.add(rollup);
+                }
+            }
+            enumRollupRepository.deleteAll(toDelete);
+            enumRollupRepository.saveAll(toSave);
+        }
+    }
+
+    private String optionKey(Integer settingId, String option) {
+        return settingId + "|" + option;
+    }
+
+    private void addNumber(NumberRollup rollup, BigDecimal value) {
+        rollup.setCount(rollup.getCount() + 1);
+        rollup.setSum(rollup.getSum().add(value));
+        rollup.setSumOfSquares(rollup.getSumOfSquares().add(value.multiply(value)));
+        rollup.setMin(rollup.getMin() == null ? value : rollup.getMin().min(value));
+        rollup.setMax(rollup.getMax() == null ? value : rollup.getMax().max(value));
+    }
+
+    private boolean isSameValue(BigDecimal value, BigDecimal other) {
+        return other != null && value.compareTo(other) == 0;
+    }
+
+    /**
+     * ENUM 數值轉為選項，空值返回 null
+     */
+    private String toOption(String valueText) {
+        return valueText == null || valueText.isEmpty() ? null : valueText;
+    }
+
+    private NumberRollup newNumberRollup(Long userId, Integer settingId, RollupGranularity granularity, LocalDate periodStart) {
+        NumberRollup rollup = new NumberRollup();
+        rollup.setUserId(userId);
+        rollup.setSettingId(settingId);
+        rollup.setGranularity(granularity);
+        rollup.setPeriodStart(periodStart);
+        return rollup;
+    }
+
+    private NumberSketch newNumberSketch(Long userId, Integer settingId, LocalDate periodStart) {
+        NumberSketch numberSketch = new NumberSketch();
+        numberSketch.setUserId(userId);
+        numberSketch.setSettingId(settingId);
+        numberSketch.setPeriodStart(periodStart);
+        return numberSketch;
+    }
+
+    private void writeSketch(NumberSketch numberSketch, QuantileSketch sketch) {
+        numberSketch.setCount(sketch.getCount());
+        numberSketch.setSketch(sketch.toBytes());
+    }
+
+    private EnumRollup newEnumRollup(Long userId, Integer settingId, RollupGranularity granularity,
+            LocalDate periodStart, String optionValue) {
+        EnumRollup rollup = new EnumRollup();
+        rollup.setUserId(userId);
+        rollup.setSettingId(settingId);
+        rollup.setGranularity(granularity);
+        rollup.setPeriodStart(periodStart);
+        rollup.setOptionValue(optionValue);
+        return rollup;
+    }
+
+    /**
+     * NUMBER 欄位變更前後的數值
+     */
+    private record NumberChange(BigDecimal oldValue, BigDecimal newValue) {
+    }
+
+    /**
+     * ENUM 欄位變更前後的選項
+     */
+    private record OptionChange(String oldOption, String newOption) {
+    }
+}
@@ -0,0 +1,177 @@
+package tw.danielchiang.health_log.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.data.repository.TextPostingRepository;
+import tw.danielchiang.health_log.data.repository.TextPostingRepository.TermCount;
+import tw.danielchiang.health_log.model.entity.TextPosting;
+import tw.danielchiang.health_log.model.obj.FieldValueObj;
+import tw.danielchiang.health_log.service.text.TextTokenizer;
+import tw.danielchiang.health_log.service.text.TokenFrequencies;
+import tw.danielchiang.health_log.service.text.TopTerms;
+import tw.danielchiang.health_log.service.text.Vocabulary;
+
+/**
+ * TEXT 欄位詞彙索引服務
+ * 維護 (使用者, 欄位, 詞彙) → 出現日期的倒排索引，詞彙由 TextTokenizer 切分
+ * 關鍵字頻率與全文搜尋直接查詢索引，不需重新分詞每一篇數值
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class TextIndexService {
+
+    private final TextPostingRepository textPostingRepository;
+    private final RecordDataRepository recordDataRepository;
+
+    /**
+     * 依同一筆記錄 TEXT 欄位數值的變更更新索引
+     * 與現有索引比對後只新增、更新或刪除有變更的詞彙
+     * @param userId 使用者 ID
+     * @param recordDate 記錄日期
+     * @param texts 欄位設定 ID → 變更後的數值（刪除時為 null）
+     */
+    public void applyChanges(Long userId, LocalDate recordDate, Map<Integer, String> texts) {
+        if (texts.isEmpty()) {
+            return;
+        }
+        Map<String, TextPosting> existing = new HashMap<>();
+        textPostingRepository.findByUserIdAndRecordDateAndSettingIdIn(userId, recordDate, texts.keySet())
+                .forEach(posting -> existing.put(postingKey(posting.getSettingId(), posting.getTerm()), posting));
+
+        List<TextPosting> toSave = new ArrayList<>();
+        for (Map.Entry<Integer, String> entry : texts.entrySet()) {
+            Integer settingId = entry.getKey();
+            forEachTerm(entry.getValue(), (term, count) -> {
+                TextPosting posting = existing.remove(postingKey(settingId, term));
+                if (posting == null) {
+                    posting = newTextPosting(userId, settingId, term, recordDate);
+                } else if (posting.getCount() == count) {
+                    return;
+                }
+                posting.setCount(count);
+                toSave.add(posting);
+            });
+        }
+
+        // 剩下的是變更後不再出現的詞彙
+        textPostingRepository.deleteAll(existing.values());
+        textPostingRepository.saveAll(toSave);
+    }
+
+    /**
+     * 重建使用者的詞彙索引
+     * @param userId 使用者 ID
+     * @return 重建後的索引筆數
+     */
+    public int rebuildForUser(Long userId) {
+        textPostingRepository.deleteByUserId(userId);
+
+        List<TextPosting> postings = new ArrayList<>();
+        try (Stream<FieldValueObj> values = recordDataRepository.streamTextValuesByUserId(userId)) {
+            values.forEach(value -> forEachTerm(value.getValueText(), (term, count) -> {
+                TextPosting posting = newTextPosting(userId, value.getSettingId(), term, value.getRecordDate());
+                posting.setCount(count);
+                postings.add(posting);
+            }));
+        }
+        textPostingRepository.saveAll(postings);
+
+        log.info("Text index rebuilt: userId={}, postings={}", userId, postings.size());
+        return postings.size();
+    }
+
+    /**
+     * 查詢日期區間內出現次數最多的詞彙
+     * 各詞彙次數由資料庫加總後以游標串流，只在記憶體保留前 limit 名
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @param limit 詞彙數
+     * @return 詞彙 → 出現次數，依次數降序
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> getTopTerms(Long userId, Integer settingId, LocalDate startDate, LocalDate endDate, int limit) {
+        TopTerms topTerms = new TopTerms(limit);
+        try (Stream<TermCount> termCounts = textPostingRepository.streamTermCountsInRange(userId, settingId, startDate, endDate)) {
+            termCounts.forEach(termCount -> topTerms.offer(termCount.getTerm(), termCount.getCount()));
+        }
+        return topTerms.toMap();
+    }
+
+    /**
+     * 查詢日期區間內提及關鍵字的日期
+     * 關鍵字以與索引相同的方式分詞，日期必須包含所有詞彙（中文為相鄰兩字，因此至少需要兩個字）
+     * @param userId 使用者 ID
+     * @param settingId 欄位設定 ID
+     * @param query 關鍵字
+     * @param startDate 開始日期
+     * @param endDate 結束日期
+     * @return 日期列表，按日期降序
+     * @throws IllegalArgumentException 如果關鍵字無法切分出任何詞彙
+     */
+    @Transactional(readOnly = true)
+    public List<LocalDate> search(Long userId, Integer settingId, String query, LocalDate startDate, LocalDate endDate) {
+        Set<String> terms = new LinkedHashSet<>();
+        Vocabulary vocabulary = new Vocabulary();
+        new TextTokenizer(vocabulary).tokenize(query == null ? "" : query, id -> terms.add(vocabulary.token(id)));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("關鍵字沒有可搜尋的詞彙: " + query);
+        }
+        if (terms.stream().anyMatch(term -> term.length() > TextPosting.MAX_TERM_LENGTH)) {
+            return List.of();
+        }
+        return textPostingRepository.findDatesContainingAll(userId, settingId, terms, terms.size(), startDate, endDate);
+    }
+
+    /**
+     * 分詞並依詞彙回呼出現次數（超過長度上限的詞彙不列入）
+     */
+    private void forEachTerm(String text, TermConsumer consumer) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        Vocabulary vocabulary = new Vocabulary();
+        TokenFrequencies frequencies = new TokenFrequencies(vocabulary);
+        new TextTokenizer(vocabulary).tokenize(text, frequencies);
+        for (int id = 0; id < vocabulary.size(); id++) {
+            String term = vocabulary.token(id);
+            if (frequencies.count(id) > 0 && term.length() <= TextPosting.MAX_TERM_LENGTH) {
+                consumer.accept(term, (int) frequencies.count(id));
+            }
+        }
+    }
+
+    private String postingKey(Integer settingId, String term) {
+        return settingId + "|" + term;
+    }
+
+    private TextPosting newTextPosting(Long userId, Integer settingId, String term, LocalDate recordDate) {
+        TextPosting posting = new TextPosting();
+        posting.setUserId(userId);
+        posting.setSettingId(settingId);
+        posting.setTerm(term);
+        posting.setRecordDate(recordDate);
+        return posting;
+    }
+
+    @FunctionalInterface
+    private interface TermConsumer {
+        void accept(String term, int count);
+    }
+}
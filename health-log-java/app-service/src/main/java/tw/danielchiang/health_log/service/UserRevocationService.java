@@ -0,0 +1,172 @@
+package tw.danielchiang.health_log.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.service.event.UserActiveChangedEvent;
+
+/**
+ * 使用者撤銷清單
+ * 停用的使用者在 Access Token 到期前仍持有有效 Token，以此清單在請求時拒絕
+ * 清單存於 Redis sorted set（member 為 userId，score 為撤銷時間），並在記憶體保留一份鏡像；查詢不存取資料庫，只在同步間隔到期時讀取一次 Redis
+ * 撤銷超過 Access Token 有效期的項目已無有效 Token，會被移除，清單大小只與近期停用的使用者數有關
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserRevocationService implements MessageListener {
+
+    public static final String CHANGED_CHANNEL = "user_revocation:changed";
+
+    private static final String REVOKED_USERS_KEY = "revoked_users";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${jwt.access-token.expiration}")
+    private long accessTokenExpiration;
+
+    @Value("${jwt.revocation.sync-interval:30s}")
+    private Duration syncInterval;
+
+    // userId -> 撤銷時間（毫秒）
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    private volatile long nextSyncAt;
+
+    /**
+     * 檢查使用者是否已被撤銷
+     * 鏡像超過同步間隔時由一個請求執行緒從 Redis 重新載入，補上遺失的 pub/sub 通知
+     * @param userId 使用者 ID
+     * @return 是否已撤銷
+     */
+    public boolean isRevoked(Long userId) {
+        if (System.currentTimeMillis() >= nextSyncAt) {
+            syncFromRedis();
+        }
+        Long revokedAt = revokedUsers.get(userId);
+        return revokedAt != null && revokedAt + accessTokenExpiration > System.currentTimeMillis();
+    }
+
+    /**
+     * 撤銷使用者目前持有的所有 Access Token，並通知其他節點
+     * @param userId 使用者 ID
+     */
+    public void revoke(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedUsers.put(userId, now);
+        try {
+            redisTemplate.opsForZSet().add(REVOKED_USERS_KEY, userId.toString(), now);
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_USERS_KEY, 0, now - accessTokenExpiration);
+            redisTemplate.convertAndSend(CHANGED_CHANNEL, userId.toString());
+        } catch (RuntimeException e) {
+            log.error("Failed to store user revocation in Redis, only this node is aware: userId={}", userId, e);
+        }
+        log.info("User access revoked: userId={}", userId);
+    }
+
+    /**
+     * 取消撤銷（使用者重新啟用時）
+     * @param userId 使用者 ID
+     */
+    public void restore(Long userId) {
+        revokedUsers.remove(userId);
+        try {
+            redisTemplate.opsForZSet().remove(REVOKED_USERS_KEY, userId.toString());
+            redisTemplate.convertAndSend(CHANGED_CHANNEL, userId.toString());
+        } catch (RuntimeException e) {
+            log.error("Failed to remove user revocation from Redis: userId={}", userId, e);
+        }
+        log.info("User access restored: userId={}", userId);
+    }
+
+    /**
+     * 使用者停用或重新啟用提交後撤銷或取消撤銷，交易回滾時不影響其他節點
+     * @param event 使用者啟用狀態變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserActiveChanged(UserActiveChangedEvent event) {
+        if (event.isActive()) {
+            restore(event.getUserId());
+        } else {
+            revoke(event.getUserId());
+        }
+    }
+
+    /**
+     * 啟動時載入撤銷清單
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        syncFromRedis();
+    }
+
+    /**
+     * 接收其他節點的撤銷變更通知，依 Redis 中的狀態更新該使用者
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String member = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            Long userId = Long.parseLong(member);
+            Double revokedAt = redisTemplate.opsForZSet().score(REVOKED_USERS_KEY, member);
+            if (revokedAt != null) {
+                revokedUsers.put(userId, revokedAt.longValue());
+            } else {
+                revokedUsers.remove(userId);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Invalid user revocation message: {}", member);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read user revocation from Redis: userId={}, error={}", member, e.getMessage());
+        }
+    }
+
+    /**
+     * 從 Redis 合併撤銷清單，並移除超過 Access Token 有效期的項目
+     * 同步只會新增撤銷；取消撤銷由通知處理，遺失通知時最多延長到 Token 有效期結束才恢復（失敗時偏向拒絕）
+     * Redis 無法使用時保留目前的鏡像
+     */
+    void syncFromRedis() {
+        if (!syncing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            revokedUsers.values().removeIf(revokedAt -> revokedAt + accessTokenExpiration <= now);
+
+            Set<TypedTuple<String>> entries = redisTemplate.opsForZSet()
+                    .rangeByScoreWithScores(REVOKED_USERS_KEY, now - accessTokenExpiration, Double.MAX_VALUE);
+            if (entries != null) {
+                for (TypedTuple<String> entry : entries) {
+                    if (entry.getValue() != null && entry.getScore() != null) {
+                        revokedUsers.merge(Long.parseLong(entry.getValue()), entry.getScore().longValue(), Math::max);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to sync user revocations from Redis, keeping local copy: {}", e.getMessage());
+        } finally {
+            nextSyncAt = System.currentTimeMillis() + syncInterval.toMillis();
+            syncing.set(false);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package tw.danielchiang.health_log.service.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.service.event.FieldSettingChangedEvent;
+
+/**
+ * 欄位設定快照
+ * 將所有欄位設定載入記憶體，依名稱與 ID 建立索引，查詢不存取資料庫
+ * 欄位設定變更提交後整份重建並以單一參照替換（copy-on-write），並透過 Redis pub/sub 通知其他節點重建
+ * 快照超過重新載入間隔時由一個查詢執行緒從資料庫重建，補上遺失的通知（例如 Redis 中斷或直接修改資料庫）
+ * 快照中的實體為與持久化環境分離的複本，呼叫端不可修改
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FieldSettingRegistry implements MessageListener {
+
+    public static final String CHANGED_CHANNEL = "field_setting:changed";
+
+    private final FieldSettingRepository fieldSettingRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${app.redis.pubsub.enabled:true}")
+    private boolean broadcastEnabled;
+
+    @Value("${field-setting.refresh-interval:60s}")
+    private Duration refreshInterval;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile long nextRefreshAt;
+
+    /**
+     * 查詢所有欄位設定，按 setting_id 升序排序
+     * @return 所有欄位設定列表（唯讀）
+     */
+    public List<FieldSetting> getAll() {
+        return snapshot().all();
+    }
+
+    /**
+     * 查詢所有啟用的欄位設定，按 setting_id 升序排序
+     * @return 啟用的欄位設定列表（唯讀）
+     */
+    public List<FieldSetting> getActive() {
+        return snapshot().active();
+    }
+
+    /**
+     * 根據 ID 查詢欄位設定
+     * @param settingId 欄位設定 ID
+     * @return 欄位設定
+     */
+    public Optional<FieldSetting> findById(Integer settingId) {
+        return Optional.ofNullable(snapshot().byId().get(settingId));
+    }
+
+    /**
+     * 根據欄位名稱查詢欄位設定（包含未啟用的）
+     * @param fieldName 欄位名稱
+     * @return 欄位設定
+     */
+    public Optional<FieldSetting> findByFieldName(String fieldName) {
+        return Optional.ofNullable(snapshot().byName().get(fieldName));
+    }
+
+    /**
+     * 根據欄位名稱查詢啟用的欄位設定
+     * @param fieldName 欄位名稱
+     * @return 欄位設定，未啟用或不存在時為空
+     */
+    public Optional<FieldSetting> findActiveByFieldName(String fieldName) {
+        return findByFieldName(fieldName).filter(fieldSetting -> Boolean.TRUE.equals(fieldSetting.getIsActive()));
+    }
+
+    /**
+     * 欄位設定變更提交後重建快照並通知其他節點
+     * 先於報表快取失效執行，避免失效後的重新計算讀到舊的欄位設定
+     * @param event 欄位設定變更事件
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onFieldSettingChanged(FieldSettingChangedEvent event) {
+        refresh();
+        publish();
+    }
+
+    /**
+     * 接收其他節點的變更通知，重建本機快照
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!nodeId.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            refresh();
+        }
+    }
+
+    /**
+     * 從資料庫重新載入並替換快照
+     */
+    public void refresh() {
+        List<FieldSetting> all = fieldSettingRepository.findAllByOrderBySettingIdAsc().stream()
+                .map(FieldSettingRegistry::detach)
+                .toList();
+        snapshot = new Snapshot(all);
+        nextRefreshAt = System.currentTimeMillis() + refreshInterval.toMillis();
+        log.info("Field setting snapshot refreshed: size={}", all.size());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        } else if (System.currentTimeMillis() >= nextRefreshAt) {
+            refreshIfDue();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * 到期時只由一個執行緒重建，其他執行緒繼續使用目前的快照
+     * 資料庫無法使用時保留目前的快照，下個間隔再試
+     */
+    private void refreshIfDue() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            nextRefreshAt = System.currentTimeMillis() + refreshInterval.toMillis();
+            log.warn("Failed to refresh field setting snapshot, keeping current copy: {}", e.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private void publish() {
+        if (!broadcastEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANGED_CHANNEL, nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast field setting change, other nodes keep stale settings: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 複製欄位設定，不帶關聯的 RecordData
+     */
+    private static FieldSetting detach(FieldSetting source) {
+        return new FieldSetting(source.getSettingId(), source.getFieldName(), source.getDataType(), source.getUnit(),
+                source.getIsRequired(), source.getOptions(), source.getIsActive(), null);
+    }
+
+    private record Snapshot(List<FieldSetting> all, List<FieldSetting> active,
+            Map<Integer, FieldSetting> byId, Map<String, FieldSetting> byName) {
+
+        Snapshot(List<FieldSetting> all) {
+            this(all,
+                    all.stream().filter(fieldSetting -> Boolean.TRUE.equals(fieldSetting.getIsActive())).toList(),
+                    all.stream().collect(Collectors.toUnmodifiableMap(FieldSetting::getSettingId, Function.identity())),
+                    all.stream().collect(Collectors.toUnmodifiableMap(FieldSetting::getFieldName, Function.identity())));
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package tw.danielchiang.health_log.service.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.service.event.FieldSettingChangedEvent;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+
+/**
+ * 報表結果快取
+ * 第一層為本機 Caffeine（W-TinyLFU），第二層為 Redis（JSON）
+ * 記錄或欄位設定變更並提交後，依使用者、欄位與日期範圍失效，並透過 Redis pub/sub 通知其他節點
+ * Redis 無法使用時退回只使用本機快取，此時其他節點的資料最多保留 ttl 時間
+ * 寫入 Redis 前比對載入前讀取的世代計數，載入期間有任何節點失效時不寫入
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "report_cache:invalidation";
+
+    private static final String KEY_PATTERN = "report_cache:*";
+    private static final String USER_INDEX_PREFIX = "report_cache_index:user:";
+    private static final String FIELD_INDEX_PREFIX = "report_cache_index:field:";
+    private static final String USER_GENERATION_PREFIX = "report_cache_generation:user:";
+    // 世代計數在失效時遞增：有使用者時遞增該使用者，否則遞增全域；不設存活時間，避免歸零後與舊值相同
+    private static final String GLOBAL_GENERATION_KEY = "report_cache_generation:all";
+
+    // 世代與載入前相同時才寫入報表與索引；比對與寫入在同一個 script 內，不會與失效交錯
+    // KEYS: 使用者世代、全域世代、報表鍵、使用者索引、欄位索引；ARGV: 兩個預期世代、JSON、ttl 毫秒
+    private static final RedisScript<Long> WRITE_IF_GENERATION_SCRIPT = RedisScript.of("""
+            if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] or (redis.call('GET', KEYS[2]) or '0') ~= ARGV[2] then
+              return 0
+            end
+            redis.call('SET', KEYS[3], ARGV[3], 'PX', ARGV[4])
+            redis.call('SADD', KEYS[4], KEYS[3])
+            redis.call('PEXPIRE', KEYS[4], ARGV[4])
+            redis.call('SADD', KEYS[5], KEYS[3])
+            redis.call('PEXPIRE', KEYS[5], ARGV[4])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${report.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${report.cache.local.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${report.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${report.cache.redis.enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${report.cache.redis.retry-interval:30s}")
+    private Duration redisRetryInterval;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 每次失效遞增，載入期間發生失效時不保留結果，避免舊資料覆蓋
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile long redisRetryAt;
+
+    private AsyncCache<ReportCacheKey, Object> localCache;
+    private Counter redisHits;
+    private Counter redisMisses;
+    private Counter redisErrors;
+    private Counter invalidations;
+
+    @PostConstruct
+    void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        CaffeineCacheMetrics.monitor(registry, localCache.synchronous(), "report.local");
+        redisHits = Counter.builder("cache.gets").tag("cache", "report.redis").tag("result", "hit").register(registry);
+        redisMisses = Counter.builder("cache.gets").tag("cache", "report.redis").tag("result", "miss").register(registry);
+        redisErrors = Counter.builder("report.cache.redis.errors").register(registry);
+        invalidations = Counter.builder("report.cache.invalidations").register(registry);
+    }
+
+    /**
+     * 查詢快取，未命中時執行 loader 並寫入兩層快取
+     * 同一個鍵同時只會執行一次 loader，其他執行緒等待同一個結果
+     * loader 在呼叫端執行緒、Caffeine compute 之外執行，不會阻塞其他鍵
+     * @param key 快取鍵
+     * @param type 報表結果型別（用於 Redis JSON 反序列化）
+     * @param loader 報表計算
+     * @return 報表結果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReportCacheKey key, TypeReference<T> type, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        long startVersion = version.get();
+        // compute 內只放入未完成的 future，由放入者在外部完成
+        CompletableFuture<Object> pending = new CompletableFuture<>();
+        CompletableFuture<Object> future = localCache.get(key, (k, executor) -> pending);
+        if (future != pending) {
+            return (T) join(future);
+        }
+
+        try {
+            Loaded<T> loaded = loadThroughRedis(key, type, loader);
+            pending.complete(loaded.value());
+            // 載入期間發生失效時，結果可能是提交前的資料，不保留在本機快取
+            if (loaded.stale() || startVersion != version.get()) {
+                localCache.asMap().remove(key, pending);
+            }
+            return loaded.value();
+        } catch (RuntimeException | Error e) {
+            // 失敗的 future 由 Caffeine 移除，等待中的執行緒收到相同例外
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return 本節點 ID（失效通知的 origin）
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 記錄變更提交後，失效該使用者涵蓋變更日期且包含受影響欄位的報表
+     * @param event 記錄變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecordChanged(RecordChangedEvent event) {
+        invalidate(new ReportCacheInvalidation(nodeId, event.getUserId(), event.getFieldNames(),
+                event.getStartDate(), event.getEndDate()));
+    }
+
+    /**
+     * 欄位設定變更提交後，失效所有使用者該欄位的報表
+     * @param event 欄位設定變更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFieldSettingChanged(FieldSettingChangedEvent event) {
+        invalidate(new ReportCacheInvalidation(nodeId, null, event.getFieldNames(), null, null));
+    }
+
+    /**
+     * 失效本機與 Redis 中符合範圍的報表，並通知其他節點
+     * @param invalidation 失效範圍
+     */
+    public void invalidate(ReportCacheInvalidation invalidation) {
+        invalidateLocal(invalidation);
+        invalidateRedis(invalidation);
+        publish(invalidation);
+    }
+
+    /**
+     * 接收其他節點的失效通知，只清除本機快取
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            ReportCacheInvalidation invalidation = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), ReportCacheInvalidation.class);
+            if (!nodeId.equals(invalidation.getOrigin())) {
+                invalidateLocal(invalidation);
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid report cache invalidation message: {}", e.getMessage());
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> Loaded<T> loadThroughRedis(ReportCacheKey key, TypeReference<T> type, Supplier<T> loader) {
+        String redisKey = key.toRedisKey();
+        // 世代須在讀取任何資料前取得，之後的失效才會被寫入前的比對發現
+        List<String> generations = readGenerations(key);
+        T cached = readRedis(redisKey, type);
+        if (cached != null) {
+            return new Loaded<>(cached, false);
+        }
+
+        T value = loader.get();
+        if (value == null || generations == null) {
+            return new Loaded<>(value, false);
+        }
+        return new Loaded<>(value, !writeRedis(key, redisKey, value, generations));
+    }
+
+    /**
+     * @return 使用者與全域世代（不存在視為 0）；Redis 無法使用時為 null
+     */
+    private List<String> readGenerations(ReportCacheKey key) {
+        if (!isRedisAvailable()) {
+            return null;
+        }
+        try {
+            List<String> generations = redisTemplate.opsForValue()
+                    .multiGet(List.of(USER_GENERATION_PREFIX + key.getUserId(), GLOBAL_GENERATION_KEY));
+            if (generations == null || generations.size() != 2) {
+                return null;
+            }
+            return generations.stream().map(generation -> generation == null ? "0" : generation).toList();
+        } catch (RuntimeException e) {
+            markRedisFailure(e);
+            return null;
+        }
+    }
+
+    private <T> T readRedis(String redisKey, TypeReference<T> type) {
+        if (!isRedisAvailable()) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(redisKey);
+            if (json == null) {
+                redisMisses.increment();
+                return null;
+            }
+            redisHits.increment();
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid cached report, ignored: key={}, error={}", redisKey, e.getMessage());
+            return null;
+        } catch (RuntimeException e) {
+            markRedisFailure(e);
+            return null;
+        }
+    }
+
+    /**
+     * @return 世代與載入前不同（結果已過期）時為 false
+     */
+    private boolean writeRedis(ReportCacheKey key, String redisKey, Object value, List<String> generations) {
+        if (!isRedisAvailable()) {
+            return true;
+        }
+        try {
+            // 索引讓失效時不需掃描所有鍵，索引的存活時間隨每次寫入延長
+            List<String> keys = List.of(USER_GENERATION_PREFIX + key.getUserId(), GLOBAL_GENERATION_KEY, redisKey,
+                    USER_INDEX_PREFIX + key.getUserId(), FIELD_INDEX_PREFIX + key.getFieldName());
+            Long written = redisTemplate.execute(WRITE_IF_GENERATION_SCRIPT, keys, generations.get(0),
+                    generations.get(1), objectMapper.writeValueAsString(value), String.valueOf(ttl.toMillis()));
+            if (written != null && written == 0) {
+                log.debug("Report cache invalidated during load, not cached: key={}", redisKey);
+                return false;
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize report for cache: key={}, error={}", redisKey, e.getMessage());
+        } catch (RuntimeException e) {
+            markRedisFailure(e);
+        }
+        return true;
+    }
+
+    private void invalidateLocal(ReportCacheInvalidation invalidation) {
+        version.incrementAndGet();
+        localCache.asMap().keySet().removeIf(invalidation::matches);
+        invalidations.increment();
+    }
+
+    private void invalidateRedis(ReportCacheInvalidation invalidation) {
+        if (!isRedisAvailable()) {
+            return;
+        }
+        try {
+            // 先遞增世代，讓載入中的節點放棄寫入，再刪除已寫入的報表
+            redisTemplate.opsForValue().increment(invalidation.getUserId() != null
+                    ? USER_GENERATION_PREFIX + invalidation.getUserId()
+                    : GLOBAL_GENERATION_KEY);
+            Set<String> candidates = findRedisCandidates(invalidation);
+            List<String> matched = candidates.stream()
+                    .filter(redisKey -> matchesRedisKey(invalidation, redisKey))
+                    .toList();
+            if (matched.isEmpty()) {
+                return;
+            }
+
+            redisTemplate.delete(matched);
+            Set<String> indexes = new HashSet<>();
+            for (String redisKey : matched) {
+                indexes.add(FIELD_INDEX_PREFIX + ReportCacheKey.fromRedisKey(redisKey).getFieldName());
+                indexes.add(USER_INDEX_PREFIX + ReportCacheKey.fromRedisKey(redisKey).getUserId());
+            }
+            Object[] members = matched.toArray();
+            for (String index : indexes) {
+                redisTemplate.opsForSet().remove(index, members);
+            }
+            log.debug("Report cache invalidated in Redis: keys={}", matched.size());
+        } catch (RuntimeException e) {
+            markRedisFailure(e);
+        }
+    }
+
+    private Set<String> findRedisCandidates(ReportCacheInvalidation invalidation) {
+        Set<String> candidates = new HashSet<>();
+        if (invalidation.getUserId() != null) {
+            Set<String> members = redisTemplate.opsForSet().members(USER_INDEX_PREFIX + invalidation.getUserId());
+            if (members != null) {
+                candidates.addAll(members);
+            }
+        } else if (invalidation.getFieldNames() != null && !invalidation.getFieldNames().isEmpty()) {
+            for (String fieldName : invalidation.getFieldNames()) {
+                Set<String> members = redisTemplate.opsForSet().members(FIELD_INDEX_PREFIX + fieldName);
+                if (members != null) {
+                    candidates.addAll(members);
+                }
+            }
+        } else {
+            try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(KEY_PATTERN).count(1000).build())) {
+                cursor.forEachRemaining(candidates::add);
+            }
+        }
+        return candidates;
+    }
+
+    private boolean matchesRedisKey(ReportCacheInvalidation invalidation, String redisKey) {
+        try {
+            return invalidation.matches(ReportCacheKey.fromRedisKey(redisKey));
+        } catch (IllegalArgumentException e) {
+            // 無法解析的鍵一併清除
+            return true;
+        }
+    }
+
+    private void publish(ReportCacheInvalidation invalidation) {
+        if (!isRedisAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, objectMapper.writeValueAsString(invalidation));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize report cache invalidation: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            markRedisFailure(e);
+        }
+    }
+
+    private boolean isRedisAvailable() {
+        return redisEnabled && System.currentTimeMillis() >= redisRetryAt;
+    }
+
+    private void markRedisFailure(RuntimeException e) {
+        redisErrors.increment();
+        redisRetryAt = System.currentTimeMillis() + redisRetryInterval.toMillis();
+        log.warn("Redis unavailable for report cache, using local cache only for {}: {}", redisRetryInterval, e.getMessage());
+    }
+
+    /**
+     * @param stale 載入期間已被失效，不保留在本機快取
+     */
+    private record Loaded<T>(T value, boolean stale) {
+    }
+}
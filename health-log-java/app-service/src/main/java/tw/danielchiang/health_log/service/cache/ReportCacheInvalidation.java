@@ -0,0 +1,50 @@
+package tw.danielchiang.health_log.service.cache;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 報表快取失效範圍
+ * 透過 Redis pub/sub 廣播給其他節點以清除本機快取
+ * userId / fieldNames / 日期為 null（或空集合）時表示不限制該條件
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportCacheInvalidation {
+
+    /**
+     * 發出失效訊息的節點 ID
+     */
+    private String origin;
+
+    private Long userId;
+
+    private Set<String> fieldNames;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    /**
+     * 判斷快取鍵是否落在失效範圍內
+     * @param key 快取鍵
+     * @return 是否需要失效
+     */
+    public boolean matches(ReportCacheKey key) {
+        if (userId != null && !userId.equals(key.getUserId())) {
+            return false;
+        }
+        if (fieldNames != null && !fieldNames.isEmpty() && !fieldNames.contains(key.getFieldName())) {
+            return false;
+        }
+        if (startDate != null && key.coveredEnd().isBefore(startDate)) {
+            return false;
+        }
+        return endDate == null || !key.coveredStart().isAfter(endDate);
+    }
+}
@@ -0,0 +1,70 @@
+package tw.danielchiang.health_log.service.cache;
+
+import java.time.LocalDate;
+
+import lombok.Value;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+
+/**
+ * 報表快取鍵
+ * 以 (userId, kind, startDate, endDate, granularity, fieldName) 唯一識別一份報表結果
+ */
+@Value
+public class ReportCacheKey {
+
+    private static final String KEY_PREFIX = "report_cache:";
+    private static final String NO_GRANULARITY = "-";
+
+    private final Long userId;
+    private final ReportKind kind;
+    private final String fieldName;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final RollupGranularity granularity;
+
+    /**
+     * 報表實際涵蓋的開始日期（從彙總查詢時為 startDate 所在週期的起始日）
+     */
+    public LocalDate coveredStart() {
+        return granularity != null ? granularity.periodStart(startDate) : startDate;
+    }
+
+    /**
+     * 報表實際涵蓋的結束日期（從彙總查詢時為 endDate 所在週期的結束日）
+     */
+    public LocalDate coveredEnd() {
+        return granularity != null ? granularity.periodEnd(endDate) : endDate;
+    }
+
+    /**
+     * 轉為 Redis key，fieldName 放在最後以容許其包含分隔符號
+     * @return Redis key
+     */
+    public String toRedisKey() {
+        return KEY_PREFIX + userId + ":" + kind + ":" + startDate + ":" + endDate + ":"
+                + (granularity != null ? granularity.name() : NO_GRANULARITY) + ":" + fieldName;
+    }
+
+    /**
+     * 從 Redis key 解析快取鍵
+     * @param redisKey Redis key
+     * @return 快取鍵
+     * @throws IllegalArgumentException 如果格式不正確
+     */
+    public static ReportCacheKey fromRedisKey(String redisKey) {
+        if (redisKey == null || !redisKey.startsWith(KEY_PREFIX)) {
+            throw new IllegalArgumentException("報表快取鍵格式錯誤: " + redisKey);
+        }
+        String[] parts = redisKey.substring(KEY_PREFIX.length()).split(":", 6);
+        if (parts.length != 6) {
+            throw new IllegalArgumentException("報表快取鍵格式錯誤: " + redisKey);
+        }
+        return new ReportCacheKey(
+                Long.valueOf(parts[0]),
+                ReportKind.valueOf(parts[1]),
+                parts[5],
+                LocalDate.parse(parts[2]),
+                LocalDate.parse(parts[3]),
+                NO_GRANULARITY.equals(parts[4]) ? null : RollupGranularity.valueOf(parts[4]));
+    }
+}
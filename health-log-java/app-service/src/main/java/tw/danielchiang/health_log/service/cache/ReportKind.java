@@ -0,0 +1,14 @@
+package tw.danielchiang.health_log.service.cache;
+
+/**
+ * 報表種類，作為報表快取鍵的一部分
+ */
+public enum ReportKind {
+    NUMBER_REPORT,
+    TREND,
+    TREND_WITH_NULLS,
+    NUMBER_DISTRIBUTION,
+    ENUM_DISTRIBUTION,
+    ENUM_TREND,
+    TEXT_ANALYSIS
+}
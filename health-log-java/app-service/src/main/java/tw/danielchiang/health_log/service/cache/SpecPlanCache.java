@@ -0,0 +1,85 @@
+package tw.danielchiang.health_log.service.cache;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.SpecObj;
+import tw.danielchiang.health_log.model.obj.SpecPlan;
+
+/**
+ * 查詢條件計畫快取
+ * 以查詢條件的正規化形狀（不含數值）為鍵保存已編譯的 SpecPlan，
+ * 相同形狀的查詢只驗證與編譯一次，之後只轉換並綁定數值
+ * EAV 欄位條件依欄位設定快照（FieldSettingRegistry）編譯，快照重建後相關計畫重新編譯
+ */
+@Service
+@RequiredArgsConstructor
+public class SpecPlanCache {
+
+    private final FieldSettingRegistry fieldSettingRegistry;
+
+    @Value("${search.spec-plan-cache.maximum-size:1000}")
+    private long maximumSize;
+
+    private Cache<String, SpecPlan<?>> plans;
+
+    @PostConstruct
+    void init() {
+        plans = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * 取得（必要時編譯）查詢條件計畫並綁定數值
+     * @param entityClass 實體類別
+     * @param specObj 查詢條件，null 表示不限制
+     * @return Specification
+     * @throws IllegalArgumentException 如果欄位或數值不合法
+     */
+    public <T> Specification<T> toSpecification(Class<T> entityClass, SpecObj specObj) {
+        if (specObj == null) {
+            return Specification.allOf();
+        }
+        return getPlan(entityClass, specObj).bind(specObj);
+    }
+
+    /**
+     * 取得（必要時編譯）查詢條件計畫
+     * 編譯失敗的形狀不會被快取；EAV 欄位設定已變更的計畫會重新編譯
+     * @param entityClass 實體類別
+     * @param specObj 查詢條件
+     * @return 查詢計畫
+     * @throws IllegalArgumentException 如果欄位不存在、不可查詢，或運算子不適用於欄位型別
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SpecPlan<T> getPlan(Class<T> entityClass, SpecObj specObj) {
+        Function<String, FieldSetting> fieldSettings = fieldName ->
+                fieldSettingRegistry.findByFieldName(fieldName).orElse(null);
+        String shape = SpecPlan.shapeOf(entityClass, specObj);
+        SpecPlan<T> plan = (SpecPlan<T>) plans.get(shape, key -> SpecPlan.compile(entityClass, specObj, fieldSettings));
+        if (!plan.isCurrent(fieldSettings)) {
+            plan = SpecPlan.compile(entityClass, specObj, fieldSettings);
+            plans.put(shape, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * 快取中的計畫數
+     * @return 計畫數
+     */
+    public long size() {
+        plans.cleanUp();
+        return plans.estimatedSize();
+    }
+}
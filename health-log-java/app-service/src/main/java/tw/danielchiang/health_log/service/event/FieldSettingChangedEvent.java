@@ -0,0 +1,23 @@
+package tw.danielchiang.health_log.service.event;
+
+import java.util.Set;
+
+import lombok.Value;
+
+/**
+ * 欄位設定變更事件
+ * 在 FieldSettingService 新增、更新或刪除欄位設定時發布
+ */
+@Value
+public class FieldSettingChangedEvent {
+
+    /**
+     * 欄位設定 ID
+     */
+    private final Integer settingId;
+
+    /**
+     * 受影響的欄位名稱（更新時包含新舊名稱），空集合表示無法確定
+     */
+    private final Set<String> fieldNames;
+}
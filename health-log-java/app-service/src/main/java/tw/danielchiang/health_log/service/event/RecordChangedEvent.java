@@ -0,0 +1,102 @@
+package tw.danielchiang.health_log.service.event;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import lombok.Value;
+
+/**
+ * 每日記錄變更事件
+ * 在 DailyRecordService 儲存或刪除記錄、以及批次匯入記錄時發布
+ * 單日變更帶有各欄位變更前後的數值，供增量彙總使用；批次匯入只帶日期區間與欄位名稱
+ * 彙總重建時發布不限日期與欄位的事件
+ */
+@Value
+public class RecordChangedEvent {
+
+    /**
+     * 使用者 ID
+     */
+    private final Long userId;
+
+    /**
+     * 受影響的起始日期（含），null 表示不限
+     */
+    private final LocalDate startDate;
+
+    /**
+     * 受影響的結束日期（含），null 表示不限
+     */
+    private final LocalDate endDate;
+
+    /**
+     * 受影響的欄位名稱，空集合表示不限
+     */
+    private final Set<String> fieldNames;
+
+    /**
+     * 各欄位變更前後的數值（只有單日變更才有，為空時表示數值未知）
+     */
+    private final List<FieldValueChange> changes;
+
+    /**
+     * 單日記錄變更（不帶數值）
+     */
+    public RecordChangedEvent(Long userId, LocalDate recordDate, Set<String> fieldNames) {
+        this(userId, recordDate, recordDate, fieldNames);
+    }
+
+    /**
+     * 單日記錄變更，帶有各欄位變更前後的數值
+     */
+    public RecordChangedEvent(Long userId, LocalDate recordDate, Set<String> fieldNames, List<FieldValueChange> changes) {
+        this.userId = userId;
+        this.startDate = recordDate;
+        this.endDate = recordDate;
+        this.fieldNames = fieldNames;
+        this.changes = changes;
+    }
+
+    /**
+     * 日期區間內的記錄變更
+     */
+    public RecordChangedEvent(Long userId, LocalDate startDate, LocalDate endDate, Set<String> fieldNames) {
+        this.userId = userId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.fieldNames = fieldNames;
+        this.changes = List.of();
+    }
+
+    /**
+     * 使用者所有日期、所有欄位的變更（不帶數值）
+     * @param userId 使用者 ID
+     * @return 記錄變更事件
+     */
+    public static RecordChangedEvent allOf(Long userId) {
+        return new RecordChangedEvent(userId, null, null, Set.of());
+    }
+
+    /**
+     * 單一欄位變更前後的數值
+     */
+    @Value
+    public static class FieldValueChange {
+
+        /**
+         * 欄位設定 ID
+         */
+        private final Integer settingId;
+
+        /**
+         * 變更前的數值，新增時為 null
+         */
+        private final String oldValue;
+
+        /**
+         * 變更後的數值，刪除時為 null
+         */
+        private final String newValue;
+    }
+}
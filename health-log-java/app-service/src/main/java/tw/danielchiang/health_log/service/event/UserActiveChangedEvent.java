@@ -0,0 +1,21 @@
+package tw.danielchiang.health_log.service.event;
+
+import lombok.Value;
+
+/**
+ * 使用者啟用狀態變更事件
+ * 在 AuthService 停用或重新啟用使用者時發布，提交後才更新撤銷清單
+ */
+@Value
+public class UserActiveChangedEvent {
+
+    /**
+     * 使用者 ID
+     */
+    private final Long userId;
+
+    /**
+     * 變更後是否啟用
+     */
+    private final boolean active;
+}
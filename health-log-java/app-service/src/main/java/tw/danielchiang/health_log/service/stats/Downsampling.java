@@ -0,0 +1,87 @@
+package tw.danielchiang.health_log.service.stats;
+
+/**
+ * 時間序列降採樣
+ * 以 Largest-Triangle-Three-Buckets（LTTB）從序列中挑選保留視覺形狀的點：
+ * 首尾兩點必定保留，中間的點平均分為 threshold - 2 個桶，每桶挑選與前一個選中點、下一桶平均點構成最大三角形面積的點
+ * 只選取原始點（不產生新數值），單次線性掃描
+ */
+public final class Downsampling {
+
+    /**
+     * LTTB 至少需要的點數（首、尾及一個中間桶）
+     */
+    public static final int MIN_THRESHOLD = 3;
+
+    private Downsampling() {
+    }
+
+    /**
+     * 以 LTTB 挑選要保留的點
+     * @param x 橫軸（須遞增）
+     * @param y 縱軸
+     * @param threshold 最多保留的點數
+     * @return 保留點的索引（遞增）；點數不超過 threshold 時為全部索引
+     * @throws IllegalArgumentException 如果 threshold 小於 MIN_THRESHOLD 或 x、y 長度不同
+     */
+    public static int[] lttb(double[] x, double[] y, int threshold) {
+        if (threshold < MIN_THRESHOLD) {
+            throw new IllegalArgumentException("降採樣點數至少為 " + MIN_THRESHOLD + ": " + threshold);
+        }
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x 與 y 長度不同");
+        }
+        int length = x.length;
+        if (length <= threshold) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        int selectedCount = 0;
+        selected[selectedCount++] = 0;
+
+        // 扣除首尾後每桶的寬度
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+            // 下一桶的平均點（最後一桶以尾點為下一桶）
+            int nextStart = end;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            averageX /= nextCount;
+            averageY /= nextCount;
+
+            double previousX = x[previous];
+            double previousY = y[previous];
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                // 三角形面積的兩倍（只需比較大小）
+                double area = Math.abs((previousX - averageX) * (y[i] - previousY)
+                        - (previousX - x[i]) * (averageY - previousY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            selected[selectedCount++] = chosen;
+            previous = chosen;
+        }
+
+        selected[selectedCount] = length - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,231 @@
+package tw.danielchiang.health_log.service.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 可合併的分位數草圖（固定對數分桶，DDSketch 方式）
+ * 數值依絕對值落入 [gamma^(i-1), gamma^i) 的桶中，gamma = (1 + a) / (1 - a)，
+ * 以桶的代表值估計分位數，相對誤差不超過 a（RELATIVE_ACCURACY）
+ * 桶的邊界固定，因此兩份草圖以各桶次數相加即可合併，移除數值只需將該桶次數減一，結果與重新建立相同
+ * 絕對值小於 MIN_INDEXABLE 的數值計入零桶
+ * 非執行緒安全
+ */
+public final class QuantileSketch {
+
+    /**
+     * 分位數的相對誤差
+     */
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MIN_INDEXABLE = 1e-9;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final NavigableMap<Integer, Long> positive = new TreeMap<>();
+    private final NavigableMap<Integer, Long> negative = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+
+    /**
+     * 加入一個數值
+     * @param value 數值
+     */
+    public void add(double value) {
+        adjust(value, 1);
+    }
+
+    /**
+     * 移除一個先前加入的數值
+     * @param value 數值
+     * @throws IllegalStateException 如果該數值所在的桶為空
+     */
+    public void remove(double value) {
+        adjust(value, -1);
+    }
+
+    /**
+     * 合併另一份草圖（不修改 other）
+     * @param other 另一份草圖
+     * @return this
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        other.positive.forEach((index, bucketCount) -> positive.merge(index, bucketCount, Long::sum));
+        other.negative.forEach((index, bucketCount) -> negative.merge(index, bucketCount, Long::sum));
+        zeroCount += other.zeroCount;
+        count += other.count;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * 估計分位數
+     * @param quantile 分位（0 ~ 1）
+     * @return 估計值，沒有數值時為 NaN
+     */
+    public double quantile(double quantile) {
+        return quantile(buckets(), quantile);
+    }
+
+    /**
+     * 由 buckets() 的結果估計分位數（快取桶列表後不需還原草圖）
+     * @param buckets 依數值升序的桶列表
+     * @param quantile 分位（0 ~ 1）
+     * @return 估計值，沒有數值時為 NaN
+     */
+    public static double quantile(List<Bucket> buckets, double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("分位必須介於 0 與 1 之間: " + quantile);
+        }
+        long total = 0;
+        for (Bucket bucket : buckets) {
+            total += bucket.count();
+        }
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(quantile * (total - 1));
+        long seen = 0;
+        for (Bucket bucket : buckets) {
+            seen += bucket.count();
+            if (seen > rank) {
+                return bucket.value();
+            }
+        }
+        return buckets.get(buckets.size() - 1).value();
+    }
+
+    /**
+     * 依數值由小到大列出各桶（代表值, 次數）
+     * @return 桶列表
+     */
+    public List<Bucket> buckets() {
+        List<Bucket> buckets = new ArrayList<>(negative.size() + positive.size() + 1);
+        negative.descendingMap().forEach((index, bucketCount) -> buckets.add(new Bucket(-valueOf(index), bucketCount)));
+        if (zeroCount > 0) {
+            buckets.add(new Bucket(0.0, zeroCount));
+        }
+        positive.forEach((index, bucketCount) -> buckets.add(new Bucket(valueOf(index), bucketCount)));
+        return buckets;
+    }
+
+    /**
+     * 序列化為位元組（版本、零桶次數、正負桶各自的 (index, count)）
+     * @return 位元組
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + 12 * (positive.size() + negative.size()));
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(FORMAT_VERSION);
+            output.writeLong(zeroCount);
+            writeBuckets(output, positive);
+            writeBuckets(output, negative);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 由位元組還原草圖
+     * @param bytes toBytes 的結果
+     * @return 草圖
+     * @throws IllegalArgumentException 如果格式不正確
+     */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        QuantileSketch sketch = new QuantileSketch();
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = input.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("不支援的草圖格式版本: " + version);
+            }
+            sketch.zeroCount = input.readLong();
+            sketch.count = sketch.zeroCount;
+            sketch.count += readBuckets(input, sketch.positive);
+            sketch.count += readBuckets(input, sketch.negative);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("草圖格式錯誤", e);
+        }
+        return sketch;
+    }
+
+    private void adjust(double value, long delta) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("無效的數值: " + value);
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude < MIN_INDEXABLE) {
+            if (zeroCount + delta < 0) {
+                throw new IllegalStateException("草圖中沒有此數值: " + value);
+            }
+            zeroCount += delta;
+        } else {
+            NavigableMap<Integer, Long> store = value > 0 ? positive : negative;
+            int index = indexOf(magnitude);
+            long updated = store.getOrDefault(index, 0L) + delta;
+            if (updated < 0) {
+                throw new IllegalStateException("草圖中沒有此數值: " + value);
+            }
+            if (updated == 0) {
+                store.remove(index);
+            } else {
+                store.put(index, updated);
+            }
+        }
+        count += delta;
+    }
+
+    private static int indexOf(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+    }
+
+    /**
+     * 桶的代表值：與桶內任一數值的相對誤差不超過 RELATIVE_ACCURACY
+     */
+    private static double valueOf(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    private static void writeBuckets(DataOutputStream output, NavigableMap<Integer, Long> store) throws IOException {
+        output.writeInt(store.size());
+        for (Map.Entry<Integer, Long> bucket : store.entrySet()) {
+            output.writeInt(bucket.getKey());
+            output.writeLong(bucket.getValue());
+        }
+    }
+
+    private static long readBuckets(DataInputStream input, NavigableMap<Integer, Long> store) throws IOException {
+        int size = input.readInt();
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            int index = input.readInt();
+            long bucketCount = input.readLong();
+            store.put(index, bucketCount);
+            total += bucketCount;
+        }
+        return total;
+    }
+
+    /**
+     * 草圖的桶（代表值, 次數）
+     */
+    public record Bucket(double value, long count) {
+    }
+}
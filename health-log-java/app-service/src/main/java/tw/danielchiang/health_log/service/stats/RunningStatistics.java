@@ -0,0 +1,243 @@
+package tw.danielchiang.health_log.service.stats;
+
+/**
+ * 數值統計核心
+ * 以 Welford 方法單次掃描計算 count/sum/mean/min/max/variance，不保存個別數值；
+ * 兩份部分結果可用 Chan 等人的公式合併（分段、分執行緒或彙總週期各自計算後再合併），結果與一次計算相同
+ * 中位數以 quickselect 在 O(n) 期望時間內求得，不需完整排序
+ * 非執行緒安全
+ */
+public final class RunningStatistics {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * 建立空的統計
+     */
+    public RunningStatistics() {
+    }
+
+    /**
+     * 單次掃描陣列建立統計
+     * @param values 數值
+     * @return 統計
+     */
+    public static RunningStatistics of(double[] values) {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.addAll(values, 0, values.length);
+        return statistics;
+    }
+
+    /**
+     * 由彙總的原始動差（count、sum、sum of squares）建立統計，用於與其他部分結果合併
+     * @param count 數值個數
+     * @param sum 總和
+     * @param sumOfSquares 平方和
+     * @param min 最小值
+     * @param max 最大值
+     * @return 統計
+     */
+    public static RunningStatistics ofMoments(long count, double sum, double sumOfSquares, double min, double max) {
+        RunningStatistics statistics = new RunningStatistics();
+        if (count <= 0) {
+            return statistics;
+        }
+        statistics.count = count;
+        statistics.sum = sum;
+        statistics.mean = sum / count;
+        statistics.m2 = Math.max(0.0, sumOfSquares - sum * statistics.mean);
+        statistics.min = min;
+        statistics.max = max;
+        return statistics;
+    }
+
+    /**
+     * 加入一個數值
+     * @param value 數值
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * 加入陣列的一段數值
+     * @param values 數值
+     * @param from 起始索引（含）
+     * @param to 結束索引（不含）
+     */
+    public void addAll(double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            add(values[i]);
+        }
+    }
+
+    /**
+     * 合併另一份統計（不修改 other）
+     * @param other 另一份統計
+     * @return this
+     */
+    public RunningStatistics merge(RunningStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            sum = other.sum;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return 平均值，沒有數值時為 NaN
+     */
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    /**
+     * @return 最小值，沒有數值時為 NaN
+     */
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    /**
+     * @return 最大值，沒有數值時為 NaN
+     */
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * @return 母體變異數，沒有數值時為 NaN
+     */
+    public double getVariance() {
+        return count > 0 ? m2 / count : Double.NaN;
+    }
+
+    /**
+     * @return 樣本變異數，少於兩個數值時為 NaN
+     */
+    public double getSampleVariance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    /**
+     * @return 母體標準差，沒有數值時為 NaN
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * 中位數（偶數個時為中間兩個數值的平均）
+     * 以 quickselect 原地求得，會重新排列 values 前 length 個元素
+     * @param values 數值
+     * @param length 使用的元素個數
+     * @return 中位數，沒有數值時為 NaN
+     */
+    public static double median(double[] values, int length) {
+        if (length <= 0) {
+            return Double.NaN;
+        }
+        int upper = length / 2;
+        double upperValue = select(values, 0, length - 1, upper);
+        if (length % 2 == 1) {
+            return upperValue;
+        }
+        // select 之後 [0, upper) 皆不大於第 upper 個，較小的中間值為其中的最大值
+        double lowerValue = values[0];
+        for (int i = 1; i < upper; i++) {
+            if (values[i] > lowerValue) {
+                lowerValue = values[i];
+            }
+        }
+        return (lowerValue + upperValue) / 2;
+    }
+
+    /**
+     * 求 values[left..right] 中第 k 小（從 0 起算）的數值，並使 k 左側皆不大於、右側皆不小於該值
+     */
+    private static double select(double[] values, int left, int right, int k) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            // 三數取中作為樞紐，避免已排序輸入退化為 O(n^2)
+            if (values[mid] < values[left]) {
+                swap(values, left, mid);
+            }
+            if (values[right] < values[left]) {
+                swap(values, left, right);
+            }
+            if (values[right] < values[mid]) {
+                swap(values, mid, right);
+            }
+            double pivot = values[mid];
+
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+}
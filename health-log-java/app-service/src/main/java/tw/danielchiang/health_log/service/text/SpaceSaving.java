@@ -0,0 +1,191 @@
+package tw.danielchiang.health_log.service.text;
+
+import java.util.Map;
+
+/**
+ * 高頻詞彙估計（Space-Saving 演算法）
+ * 只監看固定數量（capacity）的詞彙，記憶體用量與掃描的文字量及詞彙總數無關：
+ * - 已監看的詞彙次數加一
+ * - 未監看的詞彙取代次數最少的詞彙，沿用其次數加一（被取代的次數記為誤差）
+ * 估計次數不低於實際次數，誤差不超過 total / capacity；實際次數超過 total / capacity 的詞彙必定在監看中
+ * 以字元區段比對詞彙，只有詞彙進入監看時才建立 String
+ * 非執行緒安全
+ */
+public final class SpaceSaving implements TextTokenizer.TokenSink {
+
+    private final int capacity;
+    private final String[] terms;
+    private final int[] hashes;
+    private final long[] counts;
+    private final long[] errors;
+    // 依次數排列的 min-heap（存放計數器索引），heapIndex 為計數器在 heap 中的位置
+    private final int[] heap;
+    private final int[] heapIndex;
+    // 開放定址雜湊表，存放計數器索引 + 1，0 表示空槽
+    private final int[] table;
+    private int size;
+    private long total;
+
+    /**
+     * @param capacity 監看的詞彙數
+     * @throws IllegalArgumentException 如果 capacity 小於 1
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("監看的詞彙數必須大於 0: " + capacity);
+        }
+        this.capacity = capacity;
+        this.terms = new String[capacity];
+        this.hashes = new int[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+        // 負載因子維持在 0.5 以下
+        this.table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    @Override
+    public void accept(char[] chars, int offset, int length) {
+        total++;
+        int hash = Vocabulary.hash(chars, offset, length);
+        int slot = probe(hash, chars, offset, length);
+        if (table[slot] != 0) {
+            int counter = table[slot] - 1;
+            counts[counter]++;
+            siftDown(heapIndex[counter]);
+            return;
+        }
+
+        String term = new String(chars, offset, length);
+        if (size < capacity) {
+            int counter = size++;
+            terms[counter] = term;
+            hashes[counter] = hash;
+            counts[counter] = 1;
+            errors[counter] = 0;
+            table[slot] = counter + 1;
+            heap[counter] = counter;
+            heapIndex[counter] = counter;
+            siftUp(counter);
+            return;
+        }
+
+        // 取代次數最少的詞彙
+        int counter = heap[0];
+        remove(counter);
+        errors[counter] = counts[counter];
+        counts[counter]++;
+        terms[counter] = term;
+        hashes[counter] = hash;
+        table[probe(hash, chars, offset, length)] = counter + 1;
+        siftDown(0);
+    }
+
+    /**
+     * @return 已掃描的詞彙數（含重複）
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * 估計的前 K 名詞彙
+     * @param limit 詞彙數
+     * @return 詞彙 → 估計次數，依次數降序
+     */
+    public Map<String, Long> top(int limit) {
+        TopTerms topTerms = new TopTerms(limit);
+        for (int counter = 0; counter < size; counter++) {
+            topTerms.offer(terms[counter], counts[counter]);
+        }
+        return topTerms.toMap();
+    }
+
+    /**
+     * 估計次數的誤差上限（被取代詞彙的次數）
+     * @param term 詞彙
+     * @return 誤差上限，詞彙未被監看時為 -1
+     */
+    public long error(String term) {
+        char[] chars = term.toCharArray();
+        int slot = probe(Vocabulary.hash(chars, 0, chars.length), chars, 0, chars.length);
+        return table[slot] == 0 ? -1 : errors[table[slot] - 1];
+    }
+
+    private int probe(int hash, char[] chars, int offset, int length) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            int counter = table[slot] - 1;
+            if (hashes[counter] == hash && Vocabulary.matches(terms[counter], chars, offset, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * 從雜湊表移除計數器（向後移位刪除，不留墓碑）
+     */
+    private void remove(int counter) {
+        int mask = table.length - 1;
+        int slot = hashes[counter] & mask;
+        while (table[slot] != counter + 1) {
+            slot = (slot + 1) & mask;
+        }
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            int home = hashes[table[next] - 1] & mask;
+            // home 位於 (slot, next] 之間時不需移動
+            boolean stays = slot <= next ? slot < home && home <= next : slot < home || home <= next;
+            if (!stays) {
+                table[slot] = table[next];
+                slot = next;
+            }
+        }
+        table[slot] = 0;
+    }
+
+    private void siftUp(int position) {
+        int counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[counter]) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        int counter = heap[position];
+        while (true) {
+            int child = position * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[counter] <= counts[heap[child]]) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(counter, position);
+    }
+
+    private void place(int counter, int position) {
+        heap[position] = counter;
+        heapIndex[counter] = position;
+    }
+}
@@ -0,0 +1,164 @@
+package tw.danielchiang.health_log.service.text;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * 文字分析用的分詞器
+ * 單次掃描 code point，不使用正規表示式：
+ * - 拉丁字母與數字組成的詞轉為小寫，長度大於 1 且不是停用詞時輸出
+ * - 中日韓文字（漢字、假名、諺文）以相鄰兩字（bigram）切分，停用字視為分隔，單獨的一個字不輸出
+ * - 其餘字元（空白、標點、符號）為分隔
+ * 詞彙以字元區段交給 TokenSink，或以 Vocabulary 轉為 int id 後交給 IntConsumer；兩者皆不為每個詞彙配置新物件
+ * 非執行緒安全（共用字元緩衝區與詞彙表），每次分析建立一個
+ */
+public final class TextTokenizer {
+
+    /**
+     * 英文停用詞
+     */
+    static final List<String> STOP_WORDS = List.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "is", "it",
+            "of", "on", "or", "so", "the", "to", "was", "we", "with", "my", "me", "am", "i");
+
+    /**
+     * 中文停用字（虛詞、語氣詞），在 bigram 切分時視為分隔
+     */
+    static final String STOP_CHARACTERS = "的了是在和也就都而及與与著着或把被讓让吧嗎吗呢啊喔哦呀啦嗯";
+
+    private static final BitSet STOP_CHARACTER_SET = new BitSet();
+
+    // 類別初始化後只讀取，可跨執行緒共用
+    private static final Vocabulary STOP_WORD_VOCABULARY = new Vocabulary();
+
+    static {
+        STOP_CHARACTERS.codePoints().forEach(STOP_CHARACTER_SET::set);
+        STOP_WORDS.forEach(STOP_WORD_VOCABULARY::intern);
+    }
+
+    private final Vocabulary vocabulary;
+    private char[] buffer = new char[32];
+
+    /**
+     * 建立只輸出字元區段的分詞器（不能使用 IntConsumer 版本的 tokenize）
+     */
+    public TextTokenizer() {
+        this(null);
+    }
+
+    /**
+     * @param vocabulary 詞彙表，IntConsumer 版本的 tokenize 以此轉換 id
+     */
+    public TextTokenizer(Vocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * 分詞並將每個詞彙的 id 交給 sink（依出現順序，重複出現會重複輸出）
+     * @param text 文字
+     * @param sink 詞彙 id 的接收者
+     * @throws IllegalStateException 如果建立時沒有指定詞彙表
+     */
+    public void tokenize(CharSequence text, IntConsumer sink) {
+        if (vocabulary == null) {
+            throw new IllegalStateException("分詞器沒有詞彙表");
+        }
+        tokenize(text, (chars, offset, length) -> sink.accept(vocabulary.intern(chars, offset, length)));
+    }
+
+    /**
+     * 分詞並將每個詞彙的字元區段交給 sink（依出現順序，重複出現會重複輸出）
+     * @param text 文字
+     * @param sink 詞彙的接收者（字元緩衝區只在回呼期間有效）
+     */
+    public void tokenize(CharSequence text, TokenSink sink) {
+        int wordLength = 0;
+        int previousCjk = -1;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                wordLength = flushWord(wordLength, sink);
+                if (STOP_CHARACTER_SET.get(codePoint)) {
+                    previousCjk = -1;
+                } else {
+                    if (previousCjk >= 0) {
+                        int bigramLength = Character.toChars(previousCjk, buffer, 0);
+                        bigramLength += Character.toChars(codePoint, buffer, bigramLength);
+                        sink.accept(buffer, 0, bigramLength);
+                    }
+                    previousCjk = codePoint;
+                }
+            } else if (isLetterOrDigit(codePoint)) {
+                previousCjk = -1;
+                ensureCapacity(wordLength + 2);
+                wordLength += Character.toChars(Character.toLowerCase(codePoint), buffer, wordLength);
+            } else {
+                previousCjk = -1;
+                wordLength = flushWord(wordLength, sink);
+            }
+        }
+        flushWord(wordLength, sink);
+    }
+
+    /**
+     * 輸出目前累積的拉丁詞
+     * @return 0（清空後的長度）
+     */
+    private int flushWord(int wordLength, TokenSink sink) {
+        if (wordLength > 1 && STOP_WORD_VOCABULARY.find(buffer, 0, wordLength) < 0) {
+            sink.accept(buffer, 0, wordLength);
+        }
+        return 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            char[] expanded = new char[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, expanded, 0, buffer.length);
+            buffer = expanded;
+        }
+    }
+
+    private static boolean isLetterOrDigit(int codePoint) {
+        // ASCII 快速路徑
+        if (codePoint < 0x80) {
+            return (codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z')
+                    || (codePoint >= '0' && codePoint <= '9');
+        }
+        return Character.isLetterOrDigit(codePoint);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        if (codePoint < 0x2E80) {
+            return false;
+        }
+        // 常用漢字（CJK Unified Ideographs）快速路徑，其餘才查 Unicode script
+        if (codePoint >= 0x4E00 && codePoint <= 0x9FFF) {
+            return true;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 以字元區段接收詞彙
+     */
+    @FunctionalInterface
+    public interface TokenSink {
+
+        /**
+         * @param chars 字元緩衝區（回呼結束後會被覆寫）
+         * @param offset 起始位置
+         * @param length 長度
+         */
+        void accept(char[] chars, int offset, int length);
+    }
+}
@@ -0,0 +1,66 @@
+package tw.danielchiang.health_log.service.text;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * 依詞彙 id 計數的詞頻表，作為 TextTokenizer 的 sink
+ * 以 long[] 依 id 索引計數，計數時不建立物件
+ * 非執行緒安全
+ */
+public final class TokenFrequencies implements IntConsumer {
+
+    private final Vocabulary vocabulary;
+    private long[] counts;
+
+    public TokenFrequencies(Vocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+        this.counts = new long[Math.max(16, vocabulary.size())];
+    }
+
+    @Override
+    public void accept(int id) {
+        if (id >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+        }
+        counts[id]++;
+    }
+
+    /**
+     * @param id 詞彙 id
+     * @return 出現次數
+     */
+    public long count(int id) {
+        return id < counts.length ? counts[id] : 0L;
+    }
+
+    /**
+     * 將出現過的詞彙加入前 K 名候選
+     * @param topTerms 前 K 名詞彙
+     */
+    public void addTo(TopTerms topTerms) {
+        int limit = Math.min(counts.length, vocabulary.size());
+        for (int id = 0; id < limit; id++) {
+            if (counts[id] > 0) {
+                topTerms.offer(vocabulary.token(id), counts[id]);
+            }
+        }
+    }
+
+    /**
+     * 轉為詞彙 → 出現次數（只包含出現過的詞彙）
+     * @return 詞頻
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> frequencies = new HashMap<>();
+        int limit = Math.min(counts.length, vocabulary.size());
+        for (int id = 0; id < limit; id++) {
+            if (counts[id] > 0) {
+                frequencies.put(vocabulary.token(id), counts[id]);
+            }
+        }
+        return frequencies;
+    }
+}
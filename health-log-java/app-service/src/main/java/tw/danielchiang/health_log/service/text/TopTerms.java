@@ -0,0 +1,71 @@
+package tw.danielchiang.health_log.service.text;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 出現次數最多的前 K 個詞彙
+ * 以大小上限為 K 的 min-heap 保留候選，記憶體用量與詞彙總數無關
+ * 次數相同時依詞彙字典順序，結果與輸入順序無關
+ * 非執行緒安全
+ */
+public final class TopTerms {
+
+    // heap 頂端為目前最先被淘汰的詞彙：次數最少，次數相同時字典順序最後
+    private static final Comparator<TermCount> EVICTION_ORDER = Comparator
+            .comparingLong(TermCount::count)
+            .thenComparing(TermCount::term, Comparator.reverseOrder());
+
+    private final int limit;
+    private final PriorityQueue<TermCount> heap;
+
+    /**
+     * @param limit 保留的詞彙數
+     * @throws IllegalArgumentException 如果 limit 小於 1
+     */
+    public TopTerms(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("詞彙數必須大於 0: " + limit);
+        }
+        this.limit = limit;
+        this.heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, EVICTION_ORDER);
+    }
+
+    /**
+     * 加入候選詞彙（同一詞彙只能加入一次）
+     * @param term 詞彙
+     * @param count 出現次數
+     */
+    public void offer(String term, long count) {
+        if (count <= 0) {
+            return;
+        }
+        TermCount candidate = new TermCount(term, count);
+        if (heap.size() < limit) {
+            heap.add(candidate);
+        } else if (EVICTION_ORDER.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    /**
+     * @return 詞彙 → 出現次數，依次數降序（次數相同時依字典順序）
+     */
+    public Map<String, Long> toMap() {
+        List<TermCount> sorted = new ArrayList<>(heap);
+        sorted.sort(EVICTION_ORDER.reversed());
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (TermCount termCount : sorted) {
+            result.put(termCount.term(), termCount.count());
+        }
+        return result;
+    }
+
+    private record TermCount(String term, long count) {
+    }
+}
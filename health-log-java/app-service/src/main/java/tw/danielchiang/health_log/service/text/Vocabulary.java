@@ -0,0 +1,135 @@
+package tw.danielchiang.health_log.service.text;
+
+import java.util.Arrays;
+
+/**
+ * 詞彙表：將詞彙對應到連續的 int id（從 0 起算）
+ * 以開放定址雜湊表直接比對 char 區段，已存在的詞彙查詢時不建立 String；只有新詞彙才配置一次
+ * 非執行緒安全
+ */
+public final class Vocabulary {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] tokens = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    // 雜湊槽存放 id + 1，0 表示空槽
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /**
+     * 取得詞彙的 id，不存在時新增
+     * @param chars 字元緩衝區
+     * @param offset 起始位置
+     * @param length 長度
+     * @return 詞彙 id
+     */
+    public int intern(char[] chars, int offset, int length) {
+        int hash = hash(chars, offset, length);
+        int slot = probe(hash, chars, offset, length);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+
+        int id = size++;
+        if (id == tokens.length) {
+            tokens = Arrays.copyOf(tokens, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        tokens[id] = new String(chars, offset, length);
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        // 負載因子維持在 0.5 以下
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * 查詢詞彙的 id，不存在時不新增
+     * @param chars 字元緩衝區
+     * @param offset 起始位置
+     * @param length 長度
+     * @return 詞彙 id，不存在時為 -1
+     */
+    public int find(char[] chars, int offset, int length) {
+        int slot = probe(hash(chars, offset, length), chars, offset, length);
+        return slots[slot] - 1;
+    }
+
+    /**
+     * 取得詞彙的 id，不存在時新增
+     * @param token 詞彙
+     * @return 詞彙 id
+     */
+    public int intern(String token) {
+        return intern(token.toCharArray(), 0, token.length());
+    }
+
+    /**
+     * @param id 詞彙 id
+     * @return 詞彙
+     */
+    public String token(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("詞彙 id 不存在: " + id);
+        }
+        return tokens[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 線性探測詞彙所在的雜湊槽
+     * @return 詞彙所在的槽，不存在時為應插入的空槽
+     */
+    private int probe(int hash, char[] chars, int offset, int length) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(tokens[id], chars, offset, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        int[] rehashed = new int[slots.length * 2];
+        int mask = rehashed.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = id + 1;
+        }
+        slots = rehashed;
+    }
+
+    static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        // 打散低位，避免線性探測聚集
+        return hash ^ (hash >>> 16);
+    }
+
+    static boolean matches(String token, char[] chars, int offset, int length) {
+        if (token.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (token.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
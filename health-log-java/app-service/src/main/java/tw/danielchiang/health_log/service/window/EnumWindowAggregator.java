@@ -0,0 +1,55 @@
+package tw.danielchiang.health_log.service.window;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ENUM 欄位的滑動視窗彙總（各選項的次數）
+ */
+public final class EnumWindowAggregator implements WindowAggregator<String> {
+
+    private final Map<String, Long> counts = new HashMap<>();
+    private long count;
+
+    /**
+     * 解析 ENUM 數值
+     * @param valueText 原始文字值
+     * @return 選項，空值返回 null（不列入彙總）
+     */
+    public static String parse(String valueText) {
+        return valueText == null || valueText.isEmpty() ? null : valueText;
+    }
+
+    @Override
+    public void add(String option) {
+        counts.merge(option, 1L, Long::sum);
+        count++;
+    }
+
+    @Override
+    public void remove(String option) {
+        Long current = counts.get(option);
+        if (current == null) {
+            throw new IllegalStateException("選項不在視窗中: " + option);
+        }
+        if (current == 1) {
+            counts.remove(option);
+        } else {
+            counts.put(option, current - 1);
+        }
+        count--;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return 選項 → 次數（唯讀）
+     */
+    public Map<String, Long> getCounts() {
+        return Collections.unmodifiableMap(counts);
+    }
+}
@@ -0,0 +1,127 @@
+package tw.danielchiang.health_log.service.window;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * NUMBER 欄位的滑動視窗彙總
+ * 平均值與變異數以 Welford 方法增量維護（移除時反向計算），總和以 BigDecimal 精確加減；
+ * 另以有序多重集合保存視窗內的數值，最大、最小值為 O(log n)，中位數只走訪視窗內的數值（最多 90 個）
+ */
+public final class NumberWindowAggregator implements WindowAggregator<BigDecimal> {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private final TreeMap<BigDecimal, Integer> values = new TreeMap<>();
+
+    /**
+     * 解析 NUMBER 數值
+     * @param valueText 原始文字值
+     * @return 數值，空值或無法解析時返回 null（不列入彙總）
+     */
+    public static BigDecimal parse(String valueText) {
+        if (valueText == null || valueText.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(valueText.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void add(BigDecimal value) {
+        double x = value.doubleValue();
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        sum = sum.add(value);
+        values.merge(value, 1, Integer::sum);
+    }
+
+    @Override
+    public void remove(BigDecimal value) {
+        Integer occurrences = values.get(value);
+        if (occurrences == null) {
+            throw new IllegalStateException("數值不在視窗中: " + value);
+        }
+        if (occurrences == 1) {
+            values.remove(value);
+        } else {
+            values.put(value, occurrences - 1);
+        }
+        sum = sum.subtract(value);
+
+        if (count == 1) {
+            count = 0;
+            mean = 0.0;
+            m2 = 0.0;
+            return;
+        }
+        double x = value.doubleValue();
+        double previousMean = (count * mean - x) / (count - 1);
+        m2 = Math.max(0.0, m2 - (x - mean) * (x - previousMean));
+        mean = previousMean;
+        count--;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getSum() {
+        return sum;
+    }
+
+    /**
+     * @return 最小值，沒有數值時為 null
+     */
+    public BigDecimal getMin() {
+        return values.isEmpty() ? null : values.firstKey();
+    }
+
+    /**
+     * @return 最大值，沒有數值時為 null
+     */
+    public BigDecimal getMax() {
+        return values.isEmpty() ? null : values.lastKey();
+    }
+
+    /**
+     * @return 母體標準差，沒有數值時為 NaN
+     */
+    public double getStandardDeviation() {
+        return count > 0 ? Math.sqrt(m2 / count) : Double.NaN;
+    }
+
+    /**
+     * 中位數（偶數個時為中間兩個數值的平均）
+     * @return 中位數，沒有數值時為 NaN
+     */
+    public double getMedian() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long upper = count / 2;
+        long seen = 0;
+        double lowerValue = Double.NaN;
+        for (Map.Entry<BigDecimal, Integer> entry : values.entrySet()) {
+            long next = seen + entry.getValue();
+            if (count % 2 == 0 && seen <= upper - 1 && upper - 1 < next) {
+                lowerValue = entry.getKey().doubleValue();
+            }
+            if (upper < next) {
+                double upperValue = entry.getKey().doubleValue();
+                return count % 2 == 1 ? upperValue : (lowerValue + upperValue) / 2;
+            }
+            seen = next;
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,125 @@
+package tw.danielchiang.health_log.service.window;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 單一使用者、單一欄位截至某一天的滑動視窗彙總（最近 7 / 30 / 90 天）
+ * 以 anchor（視窗的最後一天）往前 MAX_DAYS 天的每日數值為槽位，每個視窗各有一份增量彙總：
+ * 數值變更時只更新涵蓋該日的視窗，讀取為 O(1)，不需掃描歷史資料
+ * anchor 固定，日期改變時由呼叫端重新建立
+ * 非執行緒安全
+ * @param <V> 解析後的每日數值
+ * @param <A> 彙總類型
+ */
+public final class RollingWindows<V, A extends WindowAggregator<V>> {
+
+    /**
+     * 支援的視窗天數
+     */
+    public static final List<Integer> WINDOW_DAYS = List.of(7, 30, 90);
+
+    /**
+     * 保留的天數（最大的視窗）
+     */
+    public static final int MAX_DAYS = 90;
+
+    private final LocalDate anchor;
+    private final Function<String, V> parser;
+    private final String[] texts = new String[MAX_DAYS];
+    private final Object[] values = new Object[MAX_DAYS];
+    private final List<A> aggregators;
+
+    /**
+     * @param anchor 視窗的最後一天（通常為今天）
+     * @param parser 原始文字值的解析（返回 null 表示不列入彙總）
+     * @param factory 彙總的建立方式（每個視窗一份）
+     */
+    public RollingWindows(LocalDate anchor, Function<String, V> parser, Supplier<A> factory) {
+        this.anchor = anchor;
+        this.parser = parser;
+        this.aggregators = WINDOW_DAYS.stream().map(days -> factory.get()).toList();
+    }
+
+    public LocalDate getAnchor() {
+        return anchor;
+    }
+
+    /**
+     * 載入一天的數值（建立時使用，該日不可已有數值）
+     * @param recordDate 記錄日期
+     * @param valueText 原始文字值
+     */
+    public void load(LocalDate recordDate, String valueText) {
+        apply(recordDate, null, valueText);
+    }
+
+    /**
+     * 套用一天的數值變更，只更新涵蓋該日的視窗
+     * 不在保留範圍內（早於 MAX_DAYS 天前或晚於 anchor）的日期略過
+     * @param recordDate 記錄日期
+     * @param oldValue 變更前的數值，新增時為 null
+     * @param newValue 變更後的數值，刪除時為 null
+     * @return false 表示變更前的數值與目前保存的不同（漏掉了先前的變更），此時不做任何修改
+     */
+    @SuppressWarnings("unchecked")
+    public boolean apply(LocalDate recordDate, String oldValue, String newValue) {
+        long age = anchor.toEpochDay() - recordDate.toEpochDay();
+        if (age < 0 || age >= MAX_DAYS) {
+            return true;
+        }
+        int slot = (int) age;
+        if (!Objects.equals(texts[slot], normalize(oldValue))) {
+            return false;
+        }
+
+        V previous = (V) values[slot];
+        V current = newValue != null ? parser.apply(newValue) : null;
+        for (int i = 0; i < aggregators.size(); i++) {
+            if (slot >= WINDOW_DAYS.get(i)) {
+                continue;
+            }
+            if (previous != null) {
+                aggregators.get(i).remove(previous);
+            }
+            if (current != null) {
+                aggregators.get(i).add(current);
+            }
+        }
+        texts[slot] = normalize(newValue);
+        values[slot] = current;
+        return true;
+    }
+
+    /**
+     * 取得最近 days 天的彙總
+     * @param days 視窗天數（WINDOW_DAYS 之一）
+     * @return 彙總
+     * @throws IllegalArgumentException 如果不是支援的視窗天數
+     */
+    public A get(int days) {
+        int index = WINDOW_DAYS.indexOf(days);
+        if (index < 0) {
+            throw new IllegalArgumentException("不支援的視窗天數: " + days + "，可用: " + WINDOW_DAYS);
+        }
+        return aggregators.get(index);
+    }
+
+    /**
+     * @param days 視窗天數
+     * @return 視窗的第一天
+     */
+    public LocalDate startDate(int days) {
+        return anchor.minusDays(days - 1L);
+    }
+
+    /**
+     * 空字串與 null 同樣視為沒有數值
+     */
+    private static String normalize(String valueText) {
+        return valueText == null || valueText.isEmpty() ? null : valueText;
+    }
+}
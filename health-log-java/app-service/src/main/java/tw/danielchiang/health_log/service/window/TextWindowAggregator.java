@@ -0,0 +1,105 @@
+package tw.danielchiang.health_log.service.window;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import tw.danielchiang.health_log.service.text.TextTokenizer;
+import tw.danielchiang.health_log.service.text.TokenFrequencies;
+import tw.danielchiang.health_log.service.text.TopTerms;
+import tw.danielchiang.health_log.service.text.Vocabulary;
+
+/**
+ * TEXT 欄位的滑動視窗彙總（詞彙次數與長度統計）
+ * 每天的數值在進入視窗時分詞一次，離開視窗時以相同的詞頻扣除
+ */
+public final class TextWindowAggregator implements WindowAggregator<TextWindowAggregator.DayText> {
+
+    private final Map<String, Long> termCounts = new HashMap<>();
+    private final TreeMap<Integer, Integer> lengths = new TreeMap<>();
+    private long count;
+    private long totalLength;
+
+    /**
+     * 解析 TEXT 數值並分詞
+     * @param valueText 原始文字值
+     * @return 長度與詞頻，空值返回 null（不列入彙總）
+     */
+    public static DayText parse(String valueText) {
+        if (valueText == null || valueText.isEmpty()) {
+            return null;
+        }
+        Vocabulary vocabulary = new Vocabulary();
+        TokenFrequencies frequencies = new TokenFrequencies(vocabulary);
+        new TextTokenizer(vocabulary).tokenize(valueText, frequencies);
+        return new DayText(valueText.length(), frequencies.toMap());
+    }
+
+    @Override
+    public void add(DayText text) {
+        text.terms().forEach((term, termCount) -> termCounts.merge(term, termCount, Long::sum));
+        lengths.merge(text.length(), 1, Integer::sum);
+        count++;
+        totalLength += text.length();
+    }
+
+    @Override
+    public void remove(DayText text) {
+        Integer occurrences = lengths.get(text.length());
+        if (occurrences == null) {
+            throw new IllegalStateException("文字不在視窗中: length=" + text.length());
+        }
+        if (occurrences == 1) {
+            lengths.remove(text.length());
+        } else {
+            lengths.put(text.length(), occurrences - 1);
+        }
+        text.terms().forEach((term, termCount) -> termCounts.computeIfPresent(term,
+                (key, current) -> current > termCount ? current - termCount : null));
+        count--;
+        totalLength -= text.length();
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return 平均長度，沒有數值時為 0
+     */
+    public double getAverageLength() {
+        return count == 0 ? 0.0 : (double) totalLength / count;
+    }
+
+    /**
+     * @return 最大長度，沒有數值時為 0
+     */
+    public int getMaxLength() {
+        return lengths.isEmpty() ? 0 : lengths.lastKey();
+    }
+
+    /**
+     * @return 最小長度，沒有數值時為 0
+     */
+    public int getMinLength() {
+        return lengths.isEmpty() ? 0 : lengths.firstKey();
+    }
+
+    /**
+     * 出現次數最多的詞彙
+     * @param limit 詞彙數
+     * @return 詞彙 → 次數，依次數降序
+     */
+    public Map<String, Long> top(int limit) {
+        TopTerms topTerms = new TopTerms(limit);
+        termCounts.forEach(topTerms::offer);
+        return topTerms.toMap();
+    }
+
+    /**
+     * 單日文字的長度與詞頻
+     */
+    public record DayText(int length, Map<String, Long> terms) {
+    }
+}
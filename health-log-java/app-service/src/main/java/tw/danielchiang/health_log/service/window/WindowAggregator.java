@@ -0,0 +1,27 @@
+package tw.danielchiang.health_log.service.window;
+
+/**
+ * 滑動視窗中單一欄位的增量彙總
+ * 每天最多一個數值；數值進入視窗時 add，離開或被修改時 remove，讀取時不需重新掃描視窗內的數值
+ * 非執行緒安全
+ * @param <V> 解析後的每日數值
+ */
+public interface WindowAggregator<V> {
+
+    /**
+     * 加入一天的數值
+     * @param value 數值
+     */
+    void add(V value);
+
+    /**
+     * 移除先前加入的數值
+     * @param value 數值
+     */
+    void remove(V value);
+
+    /**
+     * @return 視窗內的數值個數
+     */
+    long getCount();
+}
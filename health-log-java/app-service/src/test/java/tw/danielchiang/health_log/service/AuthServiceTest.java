@@ -9,8 +9,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -19,6 +23,7 @@ import tw.danielchiang.health_log.model.dto.reponse.AuthResponseDTO;
 import tw.danielchiang.health_log.model.dto.request.LoginRequestDTO;
 import tw.danielchiang.health_log.model.entity.Role;
 import tw.danielchiang.health_log.model.entity.User;
+import tw.danielchiang.health_log.service.event.UserActiveChangedEvent;
 
 /**
  * AuthService 測試
@@ -39,6 +44,9 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthService authService;
 
@@ -230,5 +238,45 @@ class AuthServiceTest {
                 .isInstanceOf(org.springframework.security.core.userdetails.UsernameNotFoundException.class)
                 .hasMessage("User not found: notfound@example.com");
     }
-}
 
+    @Test
+    void testDeactivateUser_ShouldRevokeIssuedTokens() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userWithPassword));
+
+        // When
+        authService.deactivateUser(1L);
+
+        // Then: 帳號停用，提交後才加入撤銷清單
+        assertThat(userWithPassword.getIsActive()).isFalse();
+        verify(userRepository).save(userWithPassword);
+        verify(eventPublisher).publishEvent(new UserActiveChangedEvent(1L, false));
+    }
+
+    @Test
+    void testActivateUser_ShouldRestoreAfterCommit() {
+        // Given
+        userWithPassword.setIsActive(false);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userWithPassword));
+
+        // When
+        authService.activateUser(1L);
+
+        // Then
+        assertThat(userWithPassword.getIsActive()).isTrue();
+        verify(userRepository).save(userWithPassword);
+        verify(eventPublisher).publishEvent(new UserActiveChangedEvent(1L, true));
+    }
+
+    @Test
+    void testDeactivateUser_WithUserNotFound_ShouldThrowIllegalArgumentException() {
+        // Given
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When/Then
+        assertThatThrownBy(() -> authService.deactivateUser(999L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("使用者不存在");
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
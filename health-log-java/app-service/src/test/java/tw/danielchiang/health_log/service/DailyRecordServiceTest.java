@@ -4,10 +4,12 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -15,6 +17,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
@@ -22,18 +27,24 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import tw.danielchiang.health_log.data.repository.DailyRecordRepository;
-import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
 import tw.danielchiang.health_log.data.repository.RecordDataRepository;
 import tw.danielchiang.health_log.data.repository.UserRepository;
 import tw.danielchiang.health_log.model.dto.reponse.DailyRecordDetailDTO;
+import tw.danielchiang.health_log.model.dto.reponse.RecordImportResultDTO;
 import tw.danielchiang.health_log.model.dto.request.RecordRequestDTO;
 import tw.danielchiang.health_log.model.entity.DailyRecord;
 import tw.danielchiang.health_log.model.entity.FieldSetting;
 import tw.danielchiang.health_log.model.entity.RecordData;
 import tw.danielchiang.health_log.model.entity.Role;
 import tw.danielchiang.health_log.model.entity.User;
+import tw.danielchiang.health_log.model.obj.RecordImportRowObj;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.cache.SpecPlanCache;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent.FieldValueChange;
 
 /**
  * DailyRecordService 測試
@@ -48,11 +59,20 @@ class DailyRecordServiceTest {
     private RecordDataRepository recordDataRepository;
 
     @Mock
-    private FieldSettingRepository fieldSettingRepository;
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @Mock
+    private SpecPlanCache specPlanCache;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RollupService rollupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private DailyRecordService dailyRecordService;
 
@@ -113,7 +133,7 @@ class DailyRecordServiceTest {
         fieldValues.put("體重", "70");
         request.setFieldValues(fieldValues);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testUser));
         when(dailyRecordRepository.findByUserIdAndRecordDate(1L, testDate)).thenReturn(Optional.empty());
         when(dailyRecordRepository.save(any(DailyRecord.class))).thenAnswer(invocation -> {
             DailyRecord record = invocation.getArgument(0);
@@ -121,10 +141,8 @@ class DailyRecordServiceTest {
             record.setCreatedAt(OffsetDateTime.now());
             return record;
         });
-        when(fieldSettingRepository.findByIsActiveTrue()).thenReturn(Arrays.asList(testFieldSetting));
-        when(recordDataRepository.findByDailyRecordRecordId(1L)).thenReturn(new ArrayList<>());
+        when(fieldSettingRegistry.findActiveByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
         when(recordDataRepository.save(any(RecordData.class))).thenReturn(testRecordData);
-        when(dailyRecordRepository.findById(1L)).thenReturn(Optional.of(testDailyRecord));
 
         // When
         DailyRecordDetailDTO result = dailyRecordService.saveRecord(1L, request);
@@ -132,39 +150,104 @@ class DailyRecordServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getRecordDate()).isEqualTo(testDate);
-        verify(userRepository, times(1)).findById(1L);
+        assertThat(result.getFieldValues()).containsEntry("體重", "70");
+        // 回應直接由記憶體中的記錄建立，不重新查詢
+        verify(dailyRecordRepository, never()).findById(any());
+        verify(userRepository, times(1)).findByIdForUpdate(1L);
         verify(dailyRecordRepository, times(1)).findByUserIdAndRecordDate(1L, testDate);
         verify(dailyRecordRepository, times(1)).save(any(DailyRecord.class));
-        verify(fieldSettingRepository, times(1)).findByIsActiveTrue();
-        verify(recordDataRepository, times(1)).save(any(RecordData.class));
+        verify(fieldSettingRegistry, times(1)).findActiveByFieldName("體重");
+        ArgumentCaptor<RecordData> captor = ArgumentCaptor.forClass(RecordData.class);
+        verify(recordDataRepository, times(1)).save(captor.capture());
+        // NUMBER 欄位同時寫入 value_numeric
+        assertThat(captor.getValue().getValueText()).isEqualTo("70");
+        assertThat(captor.getValue().getValueNumeric()).isEqualByComparingTo("70");
+        // 新增的數值同步更新彙總
+        verify(rollupService, times(1)).applyChanges(1L, testDate, List.of(), List.of(captor.getValue()));
+        // 發布記錄變更事件（帶有變更前後的數值），供報表快取失效與增量彙總
+        verify(eventPublisher, times(1)).publishEvent(new RecordChangedEvent(1L, testDate, Set.of("體重"),
+            List.of(new FieldValueChange(1, null, "70"))));
     }
 
     @Test
     void testSaveRecord_UpdateExistingRecord() {
-        // Given
+        // Given: 現有體重 70，改為 75
         RecordRequestDTO request = new RecordRequestDTO();
         request.setRecordDate(testDate);
         Map<String, String> fieldValues = new HashMap<>();
         fieldValues.put("體重", "75");
         request.setFieldValues(fieldValues);
 
-        List<RecordData> existingData = Arrays.asList(testRecordData);
-        testDailyRecord.setRecordDataList(existingData);
+        testDailyRecord.getRecordDataList().add(testRecordData);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testUser));
+        when(dailyRecordRepository.findByUserIdAndRecordDate(1L, testDate)).thenReturn(Optional.of(testDailyRecord));
+        when(fieldSettingRegistry.findActiveByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+
+        // When
+        DailyRecordDetailDTO result = dailyRecordService.saveRecord(1L, request);
+
+        // Then: 原有的 RecordData 直接更新，不刪除重建
+        assertThat(result.getFieldValues()).containsEntry("體重", "75");
+        assertThat(testRecordData.getValueNumeric()).isEqualByComparingTo("75");
+        verify(recordDataRepository, times(1)).save(testRecordData);
+        verify(recordDataRepository, never()).delete(any(RecordData.class));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<RecordData>> oldCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(rollupService).applyChanges(eq(1L), eq(testDate), oldCaptor.capture(), eq(List.of(testRecordData)));
+        assertThat(oldCaptor.getValue()).singleElement()
+            .satisfies(oldData -> assertThat(oldData.getValueText()).isEqualTo("70"));
+        verify(eventPublisher).publishEvent(new RecordChangedEvent(1L, testDate, Set.of("體重"),
+            List.of(new FieldValueChange(1, "70", "75"))));
+    }
+
+    @Test
+    void testSaveRecord_UnchangedValueNotWritten() {
+        // Given: 送出與現有相同的數值
+        RecordRequestDTO request = new RecordRequestDTO();
+        request.setRecordDate(testDate);
+        Map<String, String> fieldValues = new HashMap<>();
+        fieldValues.put("體重", "70");
+        request.setFieldValues(fieldValues);
+
+        testDailyRecord.getRecordDataList().add(testRecordData);
+
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testUser));
+        when(dailyRecordRepository.findByUserIdAndRecordDate(1L, testDate)).thenReturn(Optional.of(testDailyRecord));
+        when(fieldSettingRegistry.findActiveByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+
+        // When
+        DailyRecordDetailDTO result = dailyRecordService.saveRecord(1L, request);
+
+        // Then: 不寫入、不更新彙總、不失效快取
+        assertThat(result.getFieldValues()).containsEntry("體重", "70");
+        verify(recordDataRepository, never()).save(any(RecordData.class));
+        verify(recordDataRepository, never()).delete(any(RecordData.class));
+        verify(rollupService, never()).applyChanges(any(), any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testSaveRecord_RemovedFieldDeleted() {
+        // Given: 請求中沒有體重欄位
+        RecordRequestDTO request = new RecordRequestDTO();
+        request.setRecordDate(testDate);
+        request.setFieldValues(new HashMap<>());
+
+        testDailyRecord.getRecordDataList().add(testRecordData);
+
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testUser));
         when(dailyRecordRepository.findByUserIdAndRecordDate(1L, testDate)).thenReturn(Optional.of(testDailyRecord));
-        when(fieldSettingRepository.findByIsActiveTrue()).thenReturn(Arrays.asList(testFieldSetting));
-        when(recordDataRepository.findByDailyRecordRecordId(1L)).thenReturn(existingData);
-        when(recordDataRepository.save(any(RecordData.class))).thenReturn(testRecordData);
-        when(dailyRecordRepository.findById(1L)).thenReturn(Optional.of(testDailyRecord));
 
         // When
         DailyRecordDetailDTO result = dailyRecordService.saveRecord(1L, request);
 
         // Then
-        assertThat(result).isNotNull();
-        verify(recordDataRepository, times(1)).deleteAll(existingData);
-        verify(recordDataRepository, times(1)).save(any(RecordData.class));
+        assertThat(result.getFieldValues()).isEmpty();
+        verify(recordDataRepository, times(1)).delete(testRecordData);
+        verify(rollupService).applyChanges(1L, testDate, List.of(testRecordData), List.of());
+        verify(eventPublisher).publishEvent(new RecordChangedEvent(1L, testDate, Set.of("體重"),
+            List.of(new FieldValueChange(1, "70", null))));
     }
 
     @Test
@@ -172,14 +255,14 @@ class DailyRecordServiceTest {
         // Given
         RecordRequestDTO request = new RecordRequestDTO();
         request.setRecordDate(testDate);
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> dailyRecordService.saveRecord(999L, request))
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessageContaining("使用者不存在");
 
-        verify(userRepository, times(1)).findById(999L);
+        verify(userRepository, times(1)).findByIdForUpdate(999L);
         verify(dailyRecordRepository, never()).findByUserIdAndRecordDate(any(), any());
     }
 
@@ -199,15 +282,14 @@ class DailyRecordServiceTest {
         fieldValues.put("必填欄位", "");
         request.setFieldValues(fieldValues);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testUser));
         when(dailyRecordRepository.findByUserIdAndRecordDate(1L, testDate)).thenReturn(Optional.empty());
         when(dailyRecordRepository.save(any(DailyRecord.class))).thenAnswer(invocation -> {
             DailyRecord record = invocation.getArgument(0);
             record.setRecordId(1L);
             return record;
         });
-        when(fieldSettingRepository.findByIsActiveTrue()).thenReturn(Arrays.asList(requiredField));
-        when(recordDataRepository.findByDailyRecordRecordId(1L)).thenReturn(new ArrayList<>());
+        when(fieldSettingRegistry.findActiveByFieldName("必填欄位")).thenReturn(Optional.of(requiredField));
 
         // When & Then
         assertThatThrownBy(() -> dailyRecordService.saveRecord(1L, request))
@@ -217,6 +299,46 @@ class DailyRecordServiceTest {
         verify(recordDataRepository, never()).save(any(RecordData.class));
     }
 
+    @Test
+    void testImportRows_MergesIntoExistingAndNewRecords() {
+        // Given: 2024-01-01 已有體重 70；匯入 01-01 體重 70、75（後者覆蓋）與 01-02 體重 71
+        testDailyRecord.getRecordDataList().add(testRecordData);
+        LocalDate nextDate = testDate.plusDays(1);
+        List<RecordImportRowObj> rows = Arrays.asList(
+            new RecordImportRowObj(1, testDate, testFieldSetting, "70"),
+            new RecordImportRowObj(2, testDate, testFieldSetting, "75"),
+            new RecordImportRowObj(3, nextDate, testFieldSetting, "71"));
+
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testUser));
+        when(dailyRecordRepository.findWithDataByUserIdAndRecordDateIn(1L, Set.of(testDate, nextDate)))
+            .thenReturn(List.of(testDailyRecord));
+        when(dailyRecordRepository.save(any(DailyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        RecordImportResultDTO result = dailyRecordService.importRows(1L, rows);
+
+        // Then: 只查詢一次現有記錄，新日期建立一筆記錄
+        assertThat(result.getUnchangedCount()).isEqualTo(1);
+        assertThat(result.getUpdatedCount()).isEqualTo(1);
+        assertThat(result.getInsertedCount()).isEqualTo(1);
+        assertThat(result.getCreatedRecordCount()).isEqualTo(1);
+        assertThat(testRecordData.getValueText()).isEqualTo("75");
+        assertThat(testRecordData.getValueNumeric()).isEqualByComparingTo("75");
+        ArgumentCaptor<RecordData> captor = ArgumentCaptor.forClass(RecordData.class);
+        verify(recordDataRepository, times(1)).save(captor.capture());
+        assertThat(captor.getValue().getDailyRecord().getRecordDate()).isEqualTo(nextDate);
+        // 彙總依日期增量更新：01-01 由 70 改為 75，01-02 新增 71；快取失效由匯入工作在完成後處理
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<RecordData>> oldCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(rollupService).applyChanges(eq(1L), eq(testDate), oldCaptor.capture(),
+            argThat(newData -> newData.size() == 1 && newData.contains(testRecordData)));
+        assertThat(oldCaptor.getValue()).singleElement()
+            .satisfies(old -> assertThat(old.getValueText()).isEqualTo("70"));
+        verify(rollupService).applyChanges(eq(1L), eq(nextDate), argThat(Collection::isEmpty),
+            argThat(newData -> newData.size() == 1 && newData.contains(captor.getValue())));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void testGetRecordByDate_WhenExists() {
         // Given
@@ -288,6 +410,22 @@ class DailyRecordServiceTest {
         verify(dailyRecordRepository, times(1)).delete(testDailyRecord);
     }
 
+    @Test
+    void testDeleteRecord_UpdatesRollups() {
+        // Given
+        testDailyRecord.getRecordDataList().add(testRecordData);
+        when(dailyRecordRepository.findByUserIdAndRecordDate(1L, testDate))
+            .thenReturn(Optional.of(testDailyRecord));
+
+        // When
+        dailyRecordService.deleteRecord(1L, testDate);
+
+        // Then: 刪除的數值從彙總中移除，事件帶有刪除前的數值
+        verify(rollupService, times(1)).applyChanges(1L, testDate, List.of(testRecordData), List.of());
+        verify(eventPublisher).publishEvent(new RecordChangedEvent(1L, testDate, Set.of("體重"),
+            List.of(new FieldValueChange(1, "70", null))));
+    }
+
     @Test
     void testDeleteRecord_WhenNotExists() {
         // Given
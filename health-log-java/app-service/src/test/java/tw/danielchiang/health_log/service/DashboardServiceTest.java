@@ -0,0 +1,190 @@
+package tw.danielchiang.health_log.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.model.dto.reponse.DashboardDTO;
+import tw.danielchiang.health_log.model.dto.reponse.DashboardFieldDTO;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.FieldValueObj;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+
+/**
+ * DashboardService 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private RecordDataRepository recordDataRepository;
+
+    @Mock
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    private final LocalDate startDate = LocalDate.of(2024, 1, 1);
+    private final LocalDate endDate = LocalDate.of(2024, 1, 31);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dashboardService, "timeout", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    void testGetDashboard_SummarizesEveryActiveFieldFromOneQuery() {
+        // Given: NUMBER、ENUM、TEXT 各一個欄位，另有一個沒有數值的欄位
+        FieldSetting weight = fieldSetting(1, "體重", "NUMBER");
+        FieldSetting mood = fieldSetting(2, "心情", "ENUM");
+        FieldSetting note = fieldSetting(3, "備註", "TEXT");
+        FieldSetting sleep = fieldSetting(4, "睡眠", "NUMBER");
+        when(fieldSettingRegistry.getActive()).thenReturn(List.of(weight, mood, note, sleep));
+        when(recordDataRepository.findAllFieldValuesInRange(eq(1L), eq(startDate), eq(endDate), any(Duration.class)))
+            .thenReturn(List.of(
+            new FieldValueObj(1, LocalDate.of(2024, 1, 1), "70", new BigDecimal("70")),
+            new FieldValueObj(2, LocalDate.of(2024, 1, 1), "好", null),
+            new FieldValueObj(3, LocalDate.of(2024, 1, 1), "morning run", null),
+            new FieldValueObj(1, LocalDate.of(2024, 1, 2), "72", new BigDecimal("72")),
+            new FieldValueObj(2, LocalDate.of(2024, 1, 2), "好", null),
+            new FieldValueObj(1, LocalDate.of(2024, 1, 3), "74", new BigDecimal("74"))));
+
+        // When
+        DashboardDTO dashboard = dashboardService.getDashboard(1L, startDate, endDate);
+
+        // Then: 依欄位設定順序回傳，各欄位只有對應類型的摘要
+        assertThat(dashboard.getTimedOutFields()).isEmpty();
+        assertThat(dashboard.getFields()).extracting(DashboardFieldDTO::getFieldName)
+            .containsExactly("體重", "心情", "備註", "睡眠");
+
+        DashboardFieldDTO weightSummary = dashboard.getFields().get(0);
+        assertThat(weightSummary.getNumberStatistics().getCount()).isEqualTo(3L);
+        assertThat(weightSummary.getNumberStatistics().getAverage()).isEqualByComparingTo("72");
+        assertThat(weightSummary.getNumberStatistics().getMedian()).isEqualByComparingTo("72");
+        assertThat(weightSummary.getNumberStatistics().getSum()).isEqualByComparingTo("216");
+        assertThat(weightSummary.getEnumDistribution()).isNull();
+
+        assertThat(dashboard.getFields().get(1).getEnumDistribution().getDistribution()).containsEntry("好", 2L);
+        assertThat(dashboard.getFields().get(2).getTextAnalysis().getTotalCount()).isEqualTo(1L);
+        assertThat(dashboard.getFields().get(3).getNumberStatistics().getCount()).isZero();
+
+        // 查詢逾時為剩餘的期限
+        ArgumentCaptor<Duration> timeoutCaptor = ArgumentCaptor.forClass(Duration.class);
+        verify(recordDataRepository, times(1)).findAllFieldValuesInRange(eq(1L), eq(startDate), eq(endDate),
+            timeoutCaptor.capture());
+        assertThat(timeoutCaptor.getValue()).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testGetDashboard_SlowFieldTimesOutWithoutBlockingOthers() {
+        // Given: 其中一個欄位的計算超過期限
+        ReflectionTestUtils.setField(dashboardService, "timeout", Duration.ofMillis(300));
+        FieldSetting weight = fieldSetting(1, "體重", "NUMBER");
+        FieldSetting slow = mock(FieldSetting.class);
+        when(slow.getSettingId()).thenReturn(2);
+        when(slow.getFieldName()).thenReturn("緩慢欄位");
+        when(slow.getDataType()).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return "NUMBER";
+        });
+        when(fieldSettingRegistry.getActive()).thenReturn(List.of(weight, slow));
+        when(recordDataRepository.findAllFieldValuesInRange(eq(1L), eq(startDate), eq(endDate), any(Duration.class)))
+            .thenReturn(List.of());
+
+        // When
+        long start = System.nanoTime();
+        DashboardDTO dashboard = dashboardService.getDashboard(1L, startDate, endDate);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertThat(dashboard.getFields()).extracting(DashboardFieldDTO::getFieldName).containsExactly("體重");
+        assertThat(dashboard.getTimedOutFields()).containsExactly("緩慢欄位");
+        assertThat(elapsedMillis).isLessThan(5_000);
+    }
+
+    @Test
+    void testGetDashboard_CancelledFieldStopsComputing() throws Exception {
+        // Given: TEXT 欄位的文字量需要數秒分析，期限 200ms；以單一執行緒的執行器觀察取消後的工作
+        ReflectionTestUtils.setField(dashboardService, "timeout", Duration.ofMillis(200));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(dashboardService, "executor", executor);
+        String text = "morning run and evening walk ".repeat(1_000);
+        List<FieldValueObj> values = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            values.add(new FieldValueObj(1, startDate, text, null));
+        }
+        when(fieldSettingRegistry.getActive()).thenReturn(List.of(fieldSetting(1, "備註", "TEXT")));
+        when(recordDataRepository.findAllFieldValuesInRange(eq(1L), eq(startDate), eq(endDate), any(Duration.class)))
+            .thenReturn(values);
+
+        // When
+        DashboardDTO dashboard = dashboardService.getDashboard(1L, startDate, endDate);
+        executor.shutdown();
+
+        // Then: 取消後在下一筆數值前停止，執行緒隨即空閒
+        assertThat(dashboard.getTimedOutFields()).containsExactly("備註");
+        assertThat(executor.awaitTermination(500, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    void testGetDashboard_QueryTimeout() {
+        // Given
+        when(fieldSettingRegistry.getActive()).thenReturn(List.of(fieldSetting(1, "體重", "NUMBER")));
+        when(recordDataRepository.findAllFieldValuesInRange(eq(1L), eq(startDate), eq(endDate), any(Duration.class)))
+            .thenThrow(new QueryTimeoutException("query timed out"));
+
+        // When & Then
+        assertThatThrownBy(() -> dashboardService.getDashboard(1L, startDate, endDate))
+            .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void testGetDashboard_InvalidRange() {
+        // When & Then
+        assertThatThrownBy(() -> dashboardService.getDashboard(1L, endDate, startDate))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(recordDataRepository);
+    }
+
+    private FieldSetting fieldSetting(Integer settingId, String fieldName, String dataType) {
+        FieldSetting fieldSetting = new FieldSetting();
+        fieldSetting.setSettingId(settingId);
+        fieldSetting.setFieldName(fieldName);
+        fieldSetting.setDataType(dataType);
+        fieldSetting.setIsActive(true);
+        return fieldSetting;
+    }
+}
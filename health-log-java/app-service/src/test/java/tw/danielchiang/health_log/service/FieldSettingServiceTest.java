@@ -3,6 +3,7 @@ package tw.danielchiang.health_log.service;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -17,9 +18,12 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
 import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.event.FieldSettingChangedEvent;
 
 /**
  * FieldSettingService 測試
@@ -30,6 +34,12 @@ class FieldSettingServiceTest {
     @Mock
     private FieldSettingRepository fieldSettingRepository;
 
+    @Mock
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private FieldSettingService fieldSettingService;
 
@@ -60,7 +70,7 @@ class FieldSettingServiceTest {
         active2.setIsActive(true);
         
         List<FieldSetting> activeSettings = Arrays.asList(active1, active2);
-        when(fieldSettingRepository.findByIsActiveTrue()).thenReturn(activeSettings);
+        when(fieldSettingRegistry.getActive()).thenReturn(activeSettings);
 
         // When
         List<FieldSetting> result = fieldSettingService.getAllActiveFieldSettings();
@@ -68,14 +78,15 @@ class FieldSettingServiceTest {
         // Then
         assertThat(result).hasSize(2);
         assertThat(result).containsExactlyInAnyOrder(active1, active2);
-        verify(fieldSettingRepository, times(1)).findByIsActiveTrue();
+        verify(fieldSettingRegistry, times(1)).getActive();
+        verify(fieldSettingRepository, never()).findByIsActiveTrueOrderBySettingIdAsc();
     }
 
     @Test
     void testGetAllFieldSettings() {
         // Given
         List<FieldSetting> allSettings = Arrays.asList(testFieldSetting);
-        when(fieldSettingRepository.findAll()).thenReturn(allSettings);
+        when(fieldSettingRegistry.getAll()).thenReturn(allSettings);
 
         // When
         List<FieldSetting> result = fieldSettingService.getAllFieldSettings();
@@ -83,14 +94,14 @@ class FieldSettingServiceTest {
         // Then
         assertThat(result).hasSize(1);
         assertThat(result).containsExactly(testFieldSetting);
-        verify(fieldSettingRepository, times(1)).findAll();
+        verify(fieldSettingRegistry, times(1)).getAll();
     }
 
     @Test
     void testGetFieldSettingById_WhenExists() {
         // Given
         Integer settingId = 1;
-        when(fieldSettingRepository.findById(settingId)).thenReturn(Optional.of(testFieldSetting));
+        when(fieldSettingRegistry.findById(settingId)).thenReturn(Optional.of(testFieldSetting));
 
         // When
         Optional<FieldSetting> result = fieldSettingService.getFieldSettingById(settingId);
@@ -98,28 +109,28 @@ class FieldSettingServiceTest {
         // Then
         assertThat(result).isPresent();
         assertThat(result.get()).isEqualTo(testFieldSetting);
-        verify(fieldSettingRepository, times(1)).findById(settingId);
+        verify(fieldSettingRegistry, times(1)).findById(settingId);
     }
 
     @Test
     void testGetFieldSettingById_WhenNotExists() {
         // Given
         Integer settingId = 999;
-        when(fieldSettingRepository.findById(settingId)).thenReturn(Optional.empty());
+        when(fieldSettingRegistry.findById(settingId)).thenReturn(Optional.empty());
 
         // When
         Optional<FieldSetting> result = fieldSettingService.getFieldSettingById(settingId);
 
         // Then
         assertThat(result).isEmpty();
-        verify(fieldSettingRepository, times(1)).findById(settingId);
+        verify(fieldSettingRegistry, times(1)).findById(settingId);
     }
 
     @Test
     void testGetFieldSettingByFieldName() {
         // Given
         String fieldName = "體重";
-        when(fieldSettingRepository.findByFieldName(fieldName)).thenReturn(Optional.of(testFieldSetting));
+        when(fieldSettingRegistry.findByFieldName(fieldName)).thenReturn(Optional.of(testFieldSetting));
 
         // When
         Optional<FieldSetting> result = fieldSettingService.getFieldSettingByFieldName(fieldName);
@@ -127,7 +138,8 @@ class FieldSettingServiceTest {
         // Then
         assertThat(result).isPresent();
         assertThat(result.get()).isEqualTo(testFieldSetting);
-        verify(fieldSettingRepository, times(1)).findByFieldName(fieldName);
+        verify(fieldSettingRegistry, times(1)).findByFieldName(fieldName);
+        verify(fieldSettingRepository, never()).findByFieldName(fieldName);
     }
 
     @Test
@@ -191,6 +203,9 @@ class FieldSettingServiceTest {
         assertThat(result).isNotNull();
         verify(fieldSettingRepository, times(1)).findById(settingId);
         verify(fieldSettingRepository, times(1)).save(any(FieldSetting.class));
+        // 新舊欄位名稱的報表快取都需要失效
+        verify(eventPublisher, times(1)).publishEvent(
+            new FieldSettingChangedEvent(settingId, Set.of("體重", "體重（更新）")));
     }
 
     @Test
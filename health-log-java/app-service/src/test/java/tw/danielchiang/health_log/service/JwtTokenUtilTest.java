@@ -0,0 +1,81 @@
+package tw.danielchiang.health_log.service;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * JwtTokenUtil 測試
+ */
+class JwtTokenUtilTest {
+
+    private static final String SECRET = "test-secret-key-for-testing-purposes-only-minimum-256-bits";
+
+    private JwtTokenUtil jwtTokenUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtil, "accessTokenExpiration", 900000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "claimsCacheEnabled", true);
+        ReflectionTestUtils.setField(jwtTokenUtil, "claimsCacheMaximumSize", 100L);
+        jwtTokenUtil.init();
+    }
+
+    @Test
+    void testGetAllClaimsFromToken_CachesVerifiedClaims() {
+        // Given
+        String token = jwtTokenUtil.generateAccessToken(1L, "user@example.com", "USER");
+
+        // When
+        Claims first = jwtTokenUtil.getAllClaimsFromToken(token);
+        Claims second = jwtTokenUtil.getAllClaimsFromToken(token);
+
+        // Then: 第二次直接使用快取的 Claims
+        assertThat(second).isSameAs(first);
+        assertThat(jwtTokenUtil.getPrincipalFromClaims(second))
+            .isEqualTo(new JwtPrincipal(1L, "user@example.com", "USER"));
+    }
+
+    @Test
+    void testGetAllClaimsFromToken_TamperedTokenRejectedAfterValidTokenCached() {
+        // Given
+        String token = jwtTokenUtil.generateAccessToken(1L, "user@example.com", "USER");
+        jwtTokenUtil.getAllClaimsFromToken(token);
+        String forged = token.substring(0, token.lastIndexOf('.') + 1) + "invalid-signature";
+
+        // When & Then
+        assertThatThrownBy(() -> jwtTokenUtil.getAllClaimsFromToken(forged))
+            .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void testGetAllClaimsFromToken_ExpiredTokenNotCached() {
+        // Given
+        Date past = new Date(System.currentTimeMillis() - 60000);
+        String expired = Jwts.builder()
+            .subject("user@example.com")
+            .claim("userId", 1L)
+            .issuedAt(new Date(past.getTime() - 60000))
+            .expiration(past)
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+            .compact();
+
+        // When & Then: 每次都拋出過期例外
+        assertThatThrownBy(() -> jwtTokenUtil.getAllClaimsFromToken(expired))
+            .isInstanceOf(ExpiredJwtException.class);
+        assertThatThrownBy(() -> jwtTokenUtil.getAllClaimsFromToken(expired))
+            .isInstanceOf(ExpiredJwtException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package tw.danielchiang.health_log.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.Mockito.when;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.model.obj.RecordExportRowObj;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
+
+/**
+ * RecordExportService 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class RecordExportServiceTest {
+
+    @Mock
+    private RecordDataRepository recordDataRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private RecordExportService recordExportService;
+
+    @Test
+    void testExportRecords_Csv() throws Exception {
+        // Given: 含逗號與引號的值
+        when(recordDataRepository.streamExportRows(1L)).thenReturn(Stream.of(
+            new RecordExportRowObj(LocalDate.of(2024, 1, 1), "體重", "70.50"),
+            new RecordExportRowObj(LocalDate.of(2024, 1, 1), "備註", "跑步 5km, \"輕鬆\"")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long rows = recordExportService.exportRecords(1L, RecordFileFormat.CSV, output);
+
+        // Then: 與匯入相同的格式
+        assertThat(rows).isEqualTo(2);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "date,field,value\n"
+            + "2024-01-01,體重,70.50\n"
+            + "2024-01-01,備註,\"跑步 5km, \"\"輕鬆\"\"\"\n");
+    }
+
+    @Test
+    void testExportRecords_Ndjson() throws Exception {
+        // Given
+        when(recordDataRepository.streamExportRows(1L)).thenReturn(Stream.of(
+            new RecordExportRowObj(LocalDate.of(2024, 1, 1), "體重", "70.50"),
+            new RecordExportRowObj(LocalDate.of(2024, 1, 2), "備註", "第一行\n第二行")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        recordExportService.exportRecords(1L, RecordFileFormat.NDJSON, output);
+
+        // Then: 每行一個 JSON 物件，值內的換行被跳脫
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "{\"date\":\"2024-01-01\",\"field\":\"體重\",\"value\":\"70.50\"}\n"
+            + "{\"date\":\"2024-01-02\",\"field\":\"備註\",\"value\":\"第一行\\n第二行\"}\n");
+    }
+
+    @Test
+    void testExportRecords_ClientDisconnectClosesCursor() {
+        // Given: 輸出串流在寫入時失敗（客戶端中斷連線）
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<RecordExportRowObj> rows = Stream.iterate(LocalDate.of(2000, 1, 1), date -> date.plusDays(1))
+            .map(date -> new RecordExportRowObj(date, "體重", "70"))
+            .onClose(() -> closed.set(true));
+        when(recordDataRepository.streamExportRows(1L)).thenReturn(rows);
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then: 停止讀取並關閉游標
+        assertThatThrownBy(() -> recordExportService.exportRecords(1L, RecordFileFormat.NDJSON, disconnected))
+            .isInstanceOf(IOException.class)
+            .hasMessage("Broken pipe");
+        assertThat(closed).isTrue();
+    }
+}
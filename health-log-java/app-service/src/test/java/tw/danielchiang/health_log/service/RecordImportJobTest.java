@@ -0,0 +1,275 @@
+package tw.danielchiang.health_log.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.data.repository.UserRepository;
+import tw.danielchiang.health_log.model.dto.reponse.RecordImportResultDTO;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.RecordExportRowObj;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
+import tw.danielchiang.health_log.model.obj.RecordImportRowObj;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+
+/**
+ * RecordImportJob 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class RecordImportJobTest {
+
+    @Mock
+    private DailyRecordService dailyRecordService;
+
+    @Mock
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RecordDataRepository recordDataRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private RecordImportJob recordImportJob;
+
+    private FieldSetting weightSetting;
+    private FieldSetting noteSetting;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(recordImportJob, "chunkSize", 2);
+        ReflectionTestUtils.setField(recordImportJob, "maxReportedErrors", 100);
+        ReflectionTestUtils.setField(recordImportJob, "maxRowLength", 1000);
+
+        weightSetting = new FieldSetting();
+        weightSetting.setSettingId(1);
+        weightSetting.setFieldName("體重");
+        weightSetting.setDataType("NUMBER");
+
+        noteSetting = new FieldSetting();
+        noteSetting.setSettingId(2);
+        noteSetting.setFieldName("備註");
+        noteSetting.setDataType("TEXT");
+
+        lenient().when(userRepository.existsById(1L)).thenReturn(true);
+        lenient().when(fieldSettingRegistry.findActiveByFieldName(anyString())).thenReturn(Optional.empty());
+        lenient().when(fieldSettingRegistry.findActiveByFieldName("體重")).thenReturn(Optional.of(weightSetting));
+        lenient().when(fieldSettingRegistry.findActiveByFieldName("備註")).thenReturn(Optional.of(noteSetting));
+    }
+
+    @Test
+    void testImportRecords_CsvWritesValidRowsInChunksAndReportsErrors() throws Exception {
+        // Given: 標題列、含逗號的引號值、三筆錯誤資料列
+        String csv = String.join("\n",
+            "date,field,value",
+            "2024-01-01,體重,70.5",
+            "2024-01-01,備註,\"跑步 5km, \"\"輕鬆\"\"\"",
+            "2024-13-01,體重,70",
+            "2024-01-02,身高,175",
+            "2024-01-02,體重,abc",
+            "",
+            "2024-01-03,體重,71");
+        when(dailyRecordService.importRows(eq(1L), anyList())).thenAnswer(invocation -> inserted(invocation.getArgument(1)));
+
+        // When
+        RecordImportResultDTO result = recordImportJob.importRecords(1L, stream(csv), RecordFileFormat.CSV);
+
+        // Then: 有效的三列分兩批寫入
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RecordImportRowObj>> captor = ArgumentCaptor.forClass(List.class);
+        verify(dailyRecordService, times(2)).importRows(eq(1L), captor.capture());
+        assertThat(captor.getAllValues().get(0)).extracting(RecordImportRowObj::getValueText)
+            .containsExactly("70.5", "跑步 5km, \"輕鬆\"");
+
+        assertThat(result.getTotalRows()).isEqualTo(6);
+        assertThat(result.getInsertedCount()).isEqualTo(3);
+        assertThat(result.getFailedCount()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(error -> error.getLineNumber()).containsExactly(4L, 5L, 6L);
+
+        // 匯入後以匯入的日期範圍失效報表快取（彙總由 importRows 在每批交易中更新）
+        verify(eventPublisher).publishEvent(new RecordChangedEvent(1L,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 3), Set.of("體重", "備註")));
+    }
+
+    @Test
+    void testImportRecords_CsvQuotedValueSpansLines() throws Exception {
+        // Given: 引號內的 LF 與 CRLF 屬於值的一部分，之後的錯誤以實體行號回報
+        String csv = "2024-01-01,備註,\"第一行\n第二行\r\n第三行\"\r\n"
+            + "2024-01-01,體重,70\n"
+            + "2024-01-02,體重,abc\n";
+        when(dailyRecordService.importRows(eq(1L), anyList())).thenAnswer(invocation -> inserted(invocation.getArgument(1)));
+
+        // When
+        RecordImportResultDTO result = recordImportJob.importRecords(1L, stream(csv), RecordFileFormat.CSV);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RecordImportRowObj>> captor = ArgumentCaptor.forClass(List.class);
+        verify(dailyRecordService).importRows(eq(1L), captor.capture());
+        assertThat(captor.getValue()).extracting(RecordImportRowObj::getValueText)
+            .containsExactly("第一行\n第二行\r\n第三行", "70");
+        assertThat(captor.getValue()).extracting(RecordImportRowObj::getLineNumber).containsExactly(1L, 4L);
+        assertThat(result.getTotalRows()).isEqualTo(3);
+        assertThat(result.getErrors()).singleElement()
+            .satisfies(error -> assertThat(error.getLineNumber()).isEqualTo(5L));
+    }
+
+    @Test
+    void testImportRecords_CsvExportRoundTrip() throws Exception {
+        // Given: 匯出含多行備註、逗號與引號的記錄
+        List<RecordExportRowObj> exported = List.of(
+            new RecordExportRowObj(LocalDate.of(2024, 1, 1), "體重", "70.50"),
+            new RecordExportRowObj(LocalDate.of(2024, 1, 1), "備註", "早上跑步 5km\n晚上 \"瑜伽\", 30 分鐘"),
+            new RecordExportRowObj(LocalDate.of(2024, 1, 2), "備註", "\n"));
+        when(recordDataRepository.streamExportRows(1L)).thenReturn(exported.stream());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new RecordExportService(recordDataRepository, objectMapper).exportRecords(1L, RecordFileFormat.CSV, output);
+        when(dailyRecordService.importRows(eq(1L), anyList())).thenAnswer(invocation -> inserted(invocation.getArgument(1)));
+
+        // When
+        RecordImportResultDTO result = recordImportJob.importRecords(1L,
+            new ByteArrayInputStream(output.toByteArray()), RecordFileFormat.CSV);
+
+        // Then: 匯入的資料列與匯出的完全相同
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RecordImportRowObj>> captor = ArgumentCaptor.forClass(List.class);
+        verify(dailyRecordService, times(2)).importRows(eq(1L), captor.capture());
+        List<RecordExportRowObj> imported = captor.getAllValues().stream()
+            .flatMap(List::stream)
+            .map(row -> new RecordExportRowObj(row.getRecordDate(), row.getFieldSetting().getFieldName(), row.getValueText()))
+            .toList();
+        assertThat(imported).containsExactlyElementsOf(exported);
+        assertThat(result.getFailedCount()).isZero();
+    }
+
+    @Test
+    void testImportRecords_CsvUnterminatedQuoteStopsReading() throws Exception {
+        // Given: 第二列的引號未結束，之後的內容超過資料列長度上限
+        String csv = "2024-01-01,體重,70\n"
+            + "2024-01-02,備註,\"未結束\n"
+            + "2024-01-03,體重,71\n".repeat(100);
+        when(dailyRecordService.importRows(eq(1L), anyList())).thenAnswer(invocation -> inserted(invocation.getArgument(1)));
+
+        // When
+        RecordImportResultDTO result = recordImportJob.importRecords(1L, stream(csv), RecordFileFormat.CSV);
+
+        // Then: 已讀取的資料列照常寫入，錯誤指向引號開始的行
+        assertThat(result.getInsertedCount()).isEqualTo(1);
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLineNumber()).isEqualTo(2L);
+            assertThat(error.getMessage()).contains("引號未結束");
+        });
+    }
+
+    @Test
+    void testImportRecords_Ndjson() throws Exception {
+        // Given: 數值可為 JSON 數字或字串
+        String ndjson = "{\"date\":\"2024-01-01\",\"field\":\"體重\",\"value\":70.50}\n"
+            + "{\"date\":\"2024-01-01\",\"field\":\"備註\",\"value\":\"晴\"}\n"
+            + "not json\n";
+        when(dailyRecordService.importRows(eq(1L), anyList())).thenAnswer(invocation -> inserted(invocation.getArgument(1)));
+
+        // When
+        RecordImportResultDTO result = recordImportJob.importRecords(1L, stream(ndjson), RecordFileFormat.NDJSON);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RecordImportRowObj>> captor = ArgumentCaptor.forClass(List.class);
+        verify(dailyRecordService).importRows(eq(1L), captor.capture());
+        assertThat(captor.getValue()).extracting(RecordImportRowObj::getValueText).containsExactly("70.50", "晴");
+        assertThat(result.getInsertedCount()).isEqualTo(2);
+        assertThat(result.getErrors()).singleElement()
+            .satisfies(error -> assertThat(error.getLineNumber()).isEqualTo(3L));
+    }
+
+    @Test
+    void testImportRecords_FailedChunkReportedAndOthersContinue() throws Exception {
+        // Given: 第一批寫入失敗
+        String csv = "2024-01-01,體重,70\n2024-01-02,體重,71\n2024-01-03,體重,72\n";
+        when(dailyRecordService.importRows(eq(1L), anyList()))
+            .thenThrow(new IllegalStateException("duplicate key"))
+            .thenAnswer(invocation -> inserted(invocation.getArgument(1)));
+
+        // When
+        RecordImportResultDTO result = recordImportJob.importRecords(1L, stream(csv), RecordFileFormat.CSV);
+
+        // Then
+        assertThat(result.getFailedCount()).isEqualTo(2);
+        assertThat(result.getInsertedCount()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+            .satisfies(error -> assertThat(error.getMessage()).startsWith("第 1-2 行寫入失敗"));
+        verify(eventPublisher).publishEvent(new RecordChangedEvent(1L,
+            LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 3), Set.of("體重")));
+    }
+
+    @Test
+    void testImportRecords_NothingWrittenSkipsInvalidation() throws Exception {
+        // When
+        RecordImportResultDTO result = recordImportJob.importRecords(1L, stream("2024-01-01,身高,175\n"), RecordFileFormat.CSV);
+
+        // Then
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        verify(dailyRecordService, never()).importRows(any(), anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testImportRecords_WhenUserNotFound() {
+        // Given
+        when(userRepository.existsById(2L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> recordImportJob.importRecords(2L, stream(""), RecordFileFormat.CSV))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("使用者不存在");
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private RecordImportResultDTO inserted(List<RecordImportRowObj> rows) {
+        RecordImportResultDTO result = new RecordImportResultDTO();
+        result.setInsertedCount(rows.size());
+        return result;
+    }
+}
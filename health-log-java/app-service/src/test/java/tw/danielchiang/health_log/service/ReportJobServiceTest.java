@@ -0,0 +1,271 @@
+package tw.danielchiang.health_log.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import tw.danielchiang.health_log.model.dto.reponse.NumberReportDTO;
+import tw.danielchiang.health_log.model.dto.reponse.NumberStatisticsDTO;
+import tw.danielchiang.health_log.model.dto.reponse.ReportJobDTO;
+import tw.danielchiang.health_log.model.dto.request.ReportJobRequestDTO;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
+import tw.danielchiang.health_log.model.obj.ReportJobObj;
+import tw.danielchiang.health_log.model.obj.ReportJobStatus;
+import tw.danielchiang.health_log.model.obj.ReportJobType;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+
+/**
+ * ReportJobService 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class ReportJobServiceTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private RecordExportService recordExportService;
+
+    @Mock
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final Instant now = Instant.parse("2024-04-01T00:00:00Z");
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        reportJobService = new ReportJobService(reportService, recordExportService, fieldSettingRegistry, objectMapper);
+        ReflectionTestUtils.setField(reportJobService, "directory", directory);
+        ReflectionTestUtils.setField(reportJobService, "threads", 1);
+        ReflectionTestUtils.setField(reportJobService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(reportJobService, "perUserLimit", 1);
+        ReflectionTestUtils.setField(reportJobService, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(reportJobService, "cleanupInterval", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(reportJobService, "checkpointPeriods", 10);
+        ReflectionTestUtils.setField(reportJobService, "checkpointInterval", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(reportJobService, "clock", Clock.fixed(now, ZoneOffset.UTC));
+        reportJobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    void testSubmit_CompletesPerPeriodAndCompressesResult() throws Exception {
+        // Given: 1/15 ~ 3/10 依月切分為 3 段（首尾截至請求區間）
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(fieldSetting("體重", "NUMBER")));
+        when(reportService.computeNumberReport(eq(1L), eq("體重"), any(), any())).thenReturn(
+            new NumberReportDTO(List.of(), new NumberStatisticsDTO(null, null, null, null, 0L, null, null)));
+
+        // When
+        ReportJobDTO submitted = reportJobService.submit(1L, new ReportJobRequestDTO(ReportJobType.NUMBER_REPORT, "體重",
+            LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10), RollupGranularity.MONTHLY, null));
+        ReportJobDTO finished = reportJobService.awaitCompletion(1L, submitted.getJobId()).orElseThrow()
+            .get(5, TimeUnit.SECONDS);
+
+        // Then: 每段一行，結果以 gzip 保存，暫存檔已刪除
+        assertThat(submitted.getTotalPeriods()).isEqualTo(3);
+        assertThat(finished.getStatus()).isEqualTo(ReportJobStatus.COMPLETED);
+        assertThat(finished.getCompletedPeriods()).isEqualTo(3);
+        assertThat(finished.getExpiresAt()).isEqualTo(OffsetDateTime.ofInstant(now, ZoneOffset.UTC).plusHours(24));
+        assertThat(finished.getResultFileName()).endsWith(".ndjson.gz");
+        // 直接計算，不經過報表快取
+        verify(reportService).computeNumberReport(1L, "體重", LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 31));
+        verify(reportService).computeNumberReport(1L, "體重", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+        verify(reportService).computeNumberReport(1L, "體重", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10));
+        verifyNoMoreInteractions(reportService);
+
+        Path result = reportJobService.getResult(1L, submitted.getJobId()).orElseThrow();
+        List<String> lines = gunzip(result).lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines.get(1)).get("periodStart").asText()).isEqualTo("2024-02-01");
+        assertThat(objectMapper.readTree(lines.get(1)).get("report").get("statistics").get("count").asLong()).isZero();
+        assertThat(result.resolveSibling(ReportJobService.PART_FILE)).doesNotExist();
+        assertThat(reportJobService.getResult(2L, submitted.getJobId())).isEmpty();
+    }
+
+    @Test
+    void testRecover_ResumesFromCheckpoint() throws Exception {
+        // Given: 3 天的匯出已完成第 1 天，暫存檔在保存點之後還有寫到一半的內容
+        String firstPeriod = "date,field,value\n2024-01-01,體重,70\n";
+        ReportJobObj job = new ReportJobObj();
+        job.setJobId("resumed");
+        job.setUserId(1L);
+        job.setRequest(new ReportJobRequestDTO(ReportJobType.RECORD_EXPORT, null,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 3), RollupGranularity.DAILY, RecordFileFormat.CSV));
+        job.setStatus(ReportJobStatus.RUNNING);
+        job.setTotalPeriods(3);
+        job.setCompletedPeriods(1);
+        job.setCheckpointBytes(firstPeriod.getBytes(StandardCharsets.UTF_8).length);
+        job.setCreatedAt(OffsetDateTime.ofInstant(now, ZoneOffset.UTC));
+        Path jobDirectory = Files.createDirectories(directory.resolve("resumed"));
+        Files.write(jobDirectory.resolve(ReportJobService.JOB_FILE), objectMapper.writeValueAsBytes(job));
+        Files.writeString(jobDirectory.resolve(ReportJobService.PART_FILE), firstPeriod + "2024-01-02,體", StandardCharsets.UTF_8);
+
+        doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(2);
+            LocalDate date = invocation.getArgument(3);
+            output.write((date + ",體重,71\n").getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(recordExportService).exportRecords(eq(1L), eq(RecordFileFormat.CSV), any(), any(), any(), anyBoolean());
+
+        // When: 重新啟動
+        reportJobService.recover();
+        ReportJobDTO finished = reportJobService.awaitCompletion(1L, "resumed").orElseThrow().get(5, TimeUnit.SECONDS);
+
+        // Then: 從第 2 天繼續，捨棄保存點之後的內容
+        assertThat(finished.getStatus()).isEqualTo(ReportJobStatus.COMPLETED);
+        assertThat(finished.getResultFileName()).isEqualTo("report-resumed.csv.gz");
+        verify(recordExportService, never()).exportRecords(eq(1L), eq(RecordFileFormat.CSV), any(),
+            eq(LocalDate.of(2024, 1, 1)), any(), anyBoolean());
+        verify(recordExportService).exportRecords(eq(1L), eq(RecordFileFormat.CSV), any(),
+            eq(LocalDate.of(2024, 1, 2)), eq(LocalDate.of(2024, 1, 2)), eq(false));
+        assertThat(gunzip(reportJobService.getResult(1L, "resumed").orElseThrow())).isEqualTo(
+            firstPeriod + "2024-01-02,體重,71\n2024-01-03,體重,71\n");
+    }
+
+    @Test
+    void testSubmit_SavesProgressEveryCheckpointPeriods() throws Exception {
+        // Given: 5 天的匯出每 2 段保存一次進度，第 4 天寫入失敗
+        ReflectionTestUtils.setField(reportJobService, "checkpointPeriods", 2);
+        doAnswer(invocation -> {
+            LocalDate date = invocation.getArgument(3);
+            if (date.getDayOfMonth() == 4) {
+                throw new IllegalStateException("connection lost");
+            }
+            OutputStream output = invocation.getArgument(2);
+            output.write((date + ",體重,70\n").getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(recordExportService).exportRecords(eq(1L), eq(RecordFileFormat.CSV), any(), any(), any(), anyBoolean());
+
+        // When
+        ReportJobDTO submitted = reportJobService.submit(1L, new ReportJobRequestDTO(ReportJobType.RECORD_EXPORT, null,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5), RollupGranularity.DAILY, RecordFileFormat.CSV));
+        ReportJobDTO finished = reportJobService.awaitCompletion(1L, submitted.getJobId()).orElseThrow()
+            .get(5, TimeUnit.SECONDS);
+
+        // Then: 第 3 天已寫入但未到保存點，保存的進度停在第 2 天
+        assertThat(finished.getStatus()).isEqualTo(ReportJobStatus.FAILED);
+        assertThat(finished.getCompletedPeriods()).isEqualTo(2);
+        ReportJobObj saved = objectMapper.readValue(
+            directory.resolve(submitted.getJobId()).resolve(ReportJobService.JOB_FILE).toFile(), ReportJobObj.class);
+        assertThat(saved.getCompletedPeriods()).isEqualTo(2);
+        assertThat(saved.getCheckpointBytes()).isEqualTo(
+            "2024-01-01,體重,70\n2024-01-02,體重,70\n".getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void testSubmit_PerUserLimit() throws Exception {
+        // Given: 使用者 1 的工作執行中（上限 1）
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        }).when(recordExportService).exportRecords(any(), any(), any(), any(), any(), anyBoolean());
+        ReportJobRequestDTO request = new ReportJobRequestDTO(ReportJobType.RECORD_EXPORT, null,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), null, null);
+        ReportJobDTO first = reportJobService.submit(1L, request);
+
+        // When & Then: 同一使用者被拒絕，其他使用者排入佇列
+        assertThatThrownBy(() -> reportJobService.submit(1L, request))
+            .isInstanceOf(RejectedExecutionException.class);
+        ReportJobDTO other = reportJobService.submit(2L, request);
+        assertThat(other.getStatus()).isEqualTo(ReportJobStatus.QUEUED);
+        assertThat(reportJobService.listJobs(1L)).extracting(ReportJobDTO::getJobId).containsExactly(first.getJobId());
+
+        release.countDown();
+        assertThat(reportJobService.awaitCompletion(2L, other.getJobId()).orElseThrow().get(5, TimeUnit.SECONDS)
+            .getStatus()).isEqualTo(ReportJobStatus.COMPLETED);
+    }
+
+    @Test
+    void testSubmit_InvalidRequest() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("備註")).thenReturn(Optional.of(fieldSetting("備註", "TEXT")));
+
+        // When & Then: 開始日期晚於結束日期、欄位類型不符
+        assertThatThrownBy(() -> reportJobService.submit(1L, new ReportJobRequestDTO(ReportJobType.RECORD_EXPORT, null,
+            LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reportJobService.submit(1L, new ReportJobRequestDTO(ReportJobType.NUMBER_REPORT, "備註",
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), null, null)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("欄位類型不符");
+        assertThat(reportJobService.listJobs(1L)).isEmpty();
+    }
+
+    @Test
+    void testCleanup_DeletesExpiredJobs() throws Exception {
+        // Given: 已完成的工作
+        ReportJobDTO submitted = reportJobService.submit(1L, new ReportJobRequestDTO(ReportJobType.RECORD_EXPORT, null,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), null, null));
+        reportJobService.awaitCompletion(1L, submitted.getJobId()).orElseThrow().get(5, TimeUnit.SECONDS);
+
+        // When: 超過保留期限
+        ReflectionTestUtils.setField(reportJobService, "clock", Clock.fixed(now.plus(Duration.ofHours(25)), ZoneOffset.UTC));
+        reportJobService.cleanup();
+
+        // Then
+        assertThat(reportJobService.getJob(1L, submitted.getJobId())).isEmpty();
+        assertThat(directory.resolve(submitted.getJobId())).doesNotExist();
+    }
+
+    private String gunzip(Path path) throws IOException {
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(path))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private FieldSetting fieldSetting(String fieldName, String dataType) {
+        FieldSetting fieldSetting = new FieldSetting();
+        fieldSetting.setFieldName(fieldName);
+        fieldSetting.setDataType(dataType);
+        return fieldSetting;
+    }
+}
@@ -1,9 +1,14 @@
 package tw.danielchiang.health_log.service;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -13,21 +18,42 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
-import tw.danielchiang.health_log.data.repository.DailyRecordRepository;
-import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
+import tw.danielchiang.health_log.data.repository.EnumRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberSketchRepository;
 import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.DailyOptionCount;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.NumberAggregate;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.OptionCount;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.TextLengthStatistics;
+import tw.danielchiang.health_log.model.dto.reponse.EnumDistributionDTO;
+import tw.danielchiang.health_log.model.dto.reponse.EnumTrendColumnsDTO;
+import tw.danielchiang.health_log.model.dto.reponse.EnumTrendDTO;
+import tw.danielchiang.health_log.model.dto.reponse.HistogramBinDTO;
+import tw.danielchiang.health_log.model.dto.reponse.NumberDistributionDTO;
+import tw.danielchiang.health_log.model.dto.reponse.NumberReportDTO;
+import tw.danielchiang.health_log.model.dto.reponse.TextAnalysisDTO;
 import tw.danielchiang.health_log.model.dto.reponse.TrendDataPointDTO;
-import tw.danielchiang.health_log.model.entity.DailyRecord;
+import tw.danielchiang.health_log.model.entity.EnumRollup;
 import tw.danielchiang.health_log.model.entity.FieldSetting;
-import tw.danielchiang.health_log.model.entity.RecordData;
-import tw.danielchiang.health_log.model.entity.Role;
-import tw.danielchiang.health_log.model.entity.User;
+import tw.danielchiang.health_log.model.entity.NumberRollup;
+import tw.danielchiang.health_log.model.entity.NumberSketch;
+import tw.danielchiang.health_log.model.obj.RecordValueObj;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.cache.ReportCache;
+import tw.danielchiang.health_log.service.stats.QuantileSketch;
 
 /**
  * ReportService 測試
@@ -36,26 +62,39 @@ import tw.danielchiang.health_log.model.entity.User;
 class ReportServiceTest {
 
     @Mock
-    private DailyRecordRepository dailyRecordRepository;
+    private RecordDataRepository recordDataRepository;
 
     @Mock
-    private RecordDataRepository recordDataRepository;
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @Mock
+    private NumberRollupRepository numberRollupRepository;
+
+    @Mock
+    private NumberSketchRepository numberSketchRepository;
 
     @Mock
-    private FieldSettingRepository fieldSettingRepository;
+    private EnumRollupRepository enumRollupRepository;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private TextIndexService textIndexService;
 
     @InjectMocks
     private ReportService reportService;
 
     private FieldSetting testFieldSetting;
-    private DailyRecord testDailyRecord1;
-    private DailyRecord testDailyRecord2;
-    private RecordData testRecordData1;
     private LocalDate startDate;
     private LocalDate endDate;
 
     @BeforeEach
     void setUp() {
+        // 快取直接執行 loader
+        lenient().when(reportCache.get(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+
         startDate = LocalDate.of(2024, 1, 1);
         endDate = LocalDate.of(2024, 1, 31);
 
@@ -66,45 +105,14 @@ class ReportServiceTest {
         testFieldSetting.setDataType("NUMBER");
         testFieldSetting.setUnit("kg");
         testFieldSetting.setIsActive(true);
-
-        // 建立測試使用者
-        User testUser = new User();
-        testUser.setId(1L);
-        Role role = new Role();
-        role.setRoleId(1);
-        role.setRoleName("USER");
-        testUser.setRole(role);
-
-        // 建立測試記錄
-        testDailyRecord1 = new DailyRecord();
-        testDailyRecord1.setRecordId(1L);
-        testDailyRecord1.setUser(testUser);
-        testDailyRecord1.setRecordDate(LocalDate.of(2024, 1, 5));
-
-        testDailyRecord2 = new DailyRecord();
-        testDailyRecord2.setRecordId(2L);
-        testDailyRecord2.setUser(testUser);
-        testDailyRecord2.setRecordDate(LocalDate.of(2024, 1, 10));
-
-        // 建立測試記錄數據
-        testRecordData1 = new RecordData();
-        testRecordData1.setDataId(1L);
-        testRecordData1.setDailyRecord(testDailyRecord1);
-        testRecordData1.setFieldSetting(testFieldSetting);
-        testRecordData1.setValueText("70");
     }
 
     @Test
     void testGetTrendData_Success() {
         // Given
-        List<DailyRecord> allRecords = Arrays.asList(testDailyRecord2, testDailyRecord1);
-        
-        when(fieldSettingRepository.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
-        when(dailyRecordRepository.findByUserIdOrderByRecordDateDesc(1L)).thenReturn(allRecords);
-        when(recordDataRepository.findBySettingIdAndRecordId(1, 1L))
-            .thenReturn(Optional.of(testRecordData1));
-        when(recordDataRepository.findBySettingIdAndRecordId(1, 2L))
-            .thenReturn(Optional.empty());
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(recordDataRepository.findValuesInRange(1L, 1, startDate, endDate))
+            .thenReturn(Arrays.asList(new RecordValueObj(LocalDate.of(2024, 1, 5), "70")));
 
         // When
         List<TrendDataPointDTO> result = reportService.getTrendData(1L, "體重", startDate, endDate);
@@ -114,64 +122,103 @@ class ReportServiceTest {
         assertThat(result.get(0).getDate()).isEqualTo(LocalDate.of(2024, 1, 5));
         assertThat(result.get(0).getValue()).isEqualTo("70");
         
-        verify(fieldSettingRepository, times(1)).findByFieldName("體重");
-        verify(dailyRecordRepository, times(1)).findByUserIdOrderByRecordDateDesc(1L);
+        verify(fieldSettingRegistry, times(1)).findByFieldName("體重");
+        verify(recordDataRepository, times(1)).findValuesInRange(1L, 1, startDate, endDate);
     }
 
     @Test
     void testGetTrendData_WhenFieldSettingNotFound() {
         // Given
-        when(fieldSettingRepository.findByFieldName("不存在的欄位")).thenReturn(Optional.empty());
+        when(fieldSettingRegistry.findByFieldName("不存在的欄位")).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> reportService.getTrendData(1L, "不存在的欄位", startDate, endDate))
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessageContaining("欄位設定不存在");
 
-        verify(fieldSettingRepository, times(1)).findByFieldName("不存在的欄位");
-        verify(dailyRecordRepository, never()).findByUserIdOrderByRecordDateDesc(any());
+        verify(fieldSettingRegistry, times(1)).findByFieldName("不存在的欄位");
+        verify(recordDataRepository, never()).findValuesInRange(any(), any(), any(), any());
     }
 
     @Test
-    void testGetTrendData_FiltersByDateRange() {
-        // Given
-        DailyRecord recordBefore = new DailyRecord();
-        recordBefore.setRecordId(3L);
-        recordBefore.setRecordDate(LocalDate.of(2023, 12, 31));
+    void testGetTrendData_QueryCountIndependentOfRange() {
+        // Given: 兩年的每日資料
+        LocalDate longStart = LocalDate.of(2022, 1, 1);
+        LocalDate longEnd = LocalDate.of(2023, 12, 31);
+        List<RecordValueObj> values = new ArrayList<>();
+        for (LocalDate date = longStart; !date.isAfter(longEnd); date = date.plusDays(1)) {
+            values.add(new RecordValueObj(date, "70"));
+        }
+
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(recordDataRepository.findValuesInRange(1L, 1, longStart, longEnd)).thenReturn(values);
 
-        DailyRecord recordAfter = new DailyRecord();
-        recordAfter.setRecordId(4L);
-        recordAfter.setRecordDate(LocalDate.of(2024, 2, 1));
+        // When
+        List<TrendDataPointDTO> result = reportService.getTrendData(1L, "體重", longStart, longEnd);
 
-        List<DailyRecord> allRecords = Arrays.asList(recordAfter, testDailyRecord2, testDailyRecord1, recordBefore);
+        // Then: 無論區間多長，都只有一次區間查詢
+        assertThat(result).hasSize(730);
+        verify(recordDataRepository, times(1)).findValuesInRange(any(), any(), any(), any());
+        verifyNoMoreInteractions(recordDataRepository);
+    }
 
-        when(fieldSettingRepository.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
-        when(dailyRecordRepository.findByUserIdOrderByRecordDateDesc(1L)).thenReturn(allRecords);
-        when(recordDataRepository.findBySettingIdAndRecordId(1, 1L))
-            .thenReturn(Optional.of(testRecordData1));
-        when(recordDataRepository.findBySettingIdAndRecordId(1, 2L))
-            .thenReturn(Optional.empty());
+    @Test
+    void testGetTrendData_DownsampledToMaxPoints() {
+        // Given: 五年的每日資料，2021-06-15 有一個尖峰
+        LocalDate longStart = LocalDate.of(2020, 1, 1);
+        LocalDate longEnd = LocalDate.of(2024, 12, 31);
+        LocalDate peak = LocalDate.of(2021, 6, 15);
+        List<RecordValueObj> values = new ArrayList<>();
+        for (LocalDate date = longStart; !date.isAfter(longEnd); date = date.plusDays(1)) {
+            values.add(new RecordValueObj(date, date.equals(peak) ? "95" : "70"));
+        }
+
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(recordDataRepository.findValuesInRange(1L, 1, longStart, longEnd)).thenReturn(values);
 
         // When
-        List<TrendDataPointDTO> result = reportService.getTrendData(1L, "體重", startDate, endDate);
+        List<TrendDataPointDTO> result = reportService.getTrendData(1L, "體重", longStart, longEnd, null, 200);
+
+        // Then: 首尾與尖峰保留，點數不超過 maxPoints 且仍按日期升序
+        assertThat(result).hasSize(200);
+        assertThat(result.get(0).getDate()).isEqualTo(longStart);
+        assertThat(result.get(result.size() - 1).getDate()).isEqualTo(longEnd);
+        assertThat(result).extracting(TrendDataPointDTO::getDate).contains(peak).isSorted();
+    }
+
+    @Test
+    void testGetTrendData_MaxPointsAboveSize_ReturnsFullSeries() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(recordDataRepository.findValuesInRange(1L, 1, startDate, endDate))
+            .thenReturn(Arrays.asList(new RecordValueObj(LocalDate.of(2024, 1, 5), "70"),
+                new RecordValueObj(LocalDate.of(2024, 1, 6), "71")));
+
+        // When
+        List<TrendDataPointDTO> result = reportService.getTrendData(1L, "體重", startDate, endDate, null, 10);
 
         // Then
-        // 應該只包含日期範圍內的記錄
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getDate()).isEqualTo(LocalDate.of(2024, 1, 5));
+        assertThat(result).extracting(TrendDataPointDTO::getValue).containsExactly("70", "71");
+    }
+
+    @Test
+    void testGetTrendData_InvalidMaxPoints() {
+        // When & Then
+        assertThatThrownBy(() -> reportService.getTrendData(1L, "體重", startDate, endDate, null, 2))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("maxPoints");
+
+        verifyNoInteractions(recordDataRepository);
     }
 
     @Test
     void testGetTrendDataWithNulls_Success() {
         // Given
-        List<DailyRecord> allRecords = Arrays.asList(testDailyRecord2, testDailyRecord1);
-        
-        when(fieldSettingRepository.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
-        when(dailyRecordRepository.findByUserIdOrderByRecordDateDesc(1L)).thenReturn(allRecords);
-        when(recordDataRepository.findBySettingIdAndRecordId(1, 1L))
-            .thenReturn(Optional.of(testRecordData1));
-        when(recordDataRepository.findBySettingIdAndRecordId(1, 2L))
-            .thenReturn(Optional.empty());
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(recordDataRepository.findValuesInRangeWithNulls(1L, 1, startDate, endDate))
+            .thenReturn(Arrays.asList(
+                new RecordValueObj(LocalDate.of(2024, 1, 5), "70"),
+                new RecordValueObj(LocalDate.of(2024, 1, 10), null)));
 
         // When
         List<TrendDataPointDTO> result = reportService.getTrendDataWithNulls(1L, "體重", startDate, endDate);
@@ -183,22 +230,474 @@ class ReportServiceTest {
         assertThat(result.get(1).getDate()).isEqualTo(LocalDate.of(2024, 1, 10));
         assertThat(result.get(1).getValue()).isEqualTo(""); // 空值
         
-        verify(fieldSettingRepository, times(1)).findByFieldName("體重");
-        verify(dailyRecordRepository, times(1)).findByUserIdOrderByRecordDateDesc(1L);
+        verify(fieldSettingRegistry, times(1)).findByFieldName("體重");
+        verify(recordDataRepository, times(1)).findValuesInRangeWithNulls(1L, 1, startDate, endDate);
     }
 
     @Test
     void testGetTrendDataWithNulls_WhenFieldSettingNotFound() {
         // Given
-        when(fieldSettingRepository.findByFieldName("不存在的欄位")).thenReturn(Optional.empty());
+        when(fieldSettingRegistry.findByFieldName("不存在的欄位")).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> reportService.getTrendDataWithNulls(1L, "不存在的欄位", startDate, endDate))
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessageContaining("欄位設定不存在");
 
-        verify(fieldSettingRepository, times(1)).findByFieldName("不存在的欄位");
-        verify(dailyRecordRepository, never()).findByUserIdOrderByRecordDateDesc(any());
+        verify(fieldSettingRegistry, times(1)).findByFieldName("不存在的欄位");
+        verify(recordDataRepository, never()).findValuesInRangeWithNulls(any(), any(), any(), any());
     }
-}
 
+    @Test
+    void testGetNumberReport_StatisticsFromSqlAggregate() {
+        // Given
+        NumberAggregate aggregate = mock(NumberAggregate.class);
+        when(aggregate.getCount()).thenReturn(2L);
+        when(aggregate.getSum()).thenReturn(new BigDecimal("141"));
+        when(aggregate.getAverage()).thenReturn(new BigDecimal("70.500000"));
+        when(aggregate.getMin()).thenReturn(new BigDecimal("70"));
+        when(aggregate.getMax()).thenReturn(new BigDecimal("71"));
+        when(aggregate.getStandardDeviation()).thenReturn(0.5);
+        when(aggregate.getMedian()).thenReturn(70.5);
+
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(recordDataRepository.findValuesInRange(1L, 1, startDate, endDate)).thenReturn(Arrays.asList(
+                new RecordValueObj(LocalDate.of(2024, 1, 1), "70"),
+                new RecordValueObj(LocalDate.of(2024, 1, 2), "71")));
+        when(recordDataRepository.aggregateNumericValues(1L, 1, startDate, endDate)).thenReturn(aggregate);
+
+        // When
+        NumberReportDTO result = reportService.getNumberReport(1L, "體重", startDate, endDate);
+
+        // Then: 統計值來自 SQL 聚合，平均、標準差、中位數取兩位小數
+        assertThat(result.getTrendData()).hasSize(2);
+        assertThat(result.getStatistics().getCount()).isEqualTo(2L);
+        assertThat(result.getStatistics().getSum()).isEqualByComparingTo("141");
+        assertThat(result.getStatistics().getAverage()).isEqualTo(new BigDecimal("70.50"));
+        assertThat(result.getStatistics().getStandardDeviation()).isEqualTo(new BigDecimal("0.50"));
+        assertThat(result.getStatistics().getMedian()).isEqualTo(new BigDecimal("70.50"));
+        verify(fieldSettingRegistry, times(1)).findByFieldName("體重");
+    }
+
+    @Test
+    void testGetNumberReport_WhenNoNumericValues() {
+        // Given
+        NumberAggregate aggregate = mock(NumberAggregate.class);
+        when(aggregate.getCount()).thenReturn(0L);
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(recordDataRepository.findValuesInRange(1L, 1, startDate, endDate)).thenReturn(new ArrayList<>());
+        when(recordDataRepository.aggregateNumericValues(1L, 1, startDate, endDate)).thenReturn(aggregate);
+
+        // When
+        NumberReportDTO result = reportService.getNumberReport(1L, "體重", startDate, endDate);
+
+        // Then
+        assertThat(result.getStatistics().getCount()).isZero();
+        assertThat(result.getStatistics().getAverage()).isNull();
+    }
+
+    @Test
+    void testGetNumberReport_FromMonthlyRollups() {
+        // Given: 兩個月的彙總，數值為 {70, 72} 與 {74}
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(numberRollupRepository.findByUserIdAndSettingIdAndGranularityAndPeriodStartBetweenOrderByPeriodStartAsc(
+                1L, 1, RollupGranularity.MONTHLY, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)))
+            .thenReturn(Arrays.asList(
+                numberRollup(LocalDate.of(2024, 1, 1), 2L, "142", "10084", "70", "72"),
+                numberRollup(LocalDate.of(2024, 2, 1), 1L, "74", "5476", "74", "74")));
+
+        // When
+        NumberReportDTO result = reportService.getNumberReport(1L, "體重", startDate, LocalDate.of(2024, 2, 15),
+                RollupGranularity.MONTHLY);
+
+        // Then: 趨勢為每月平均，統計由彙總合併而來，不讀取原始數據
+        assertThat(result.getTrendData()).extracting(TrendDataPointDTO::getValue)
+            .containsExactly("71.00", "74.00");
+        assertThat(result.getStatistics().getCount()).isEqualTo(3L);
+        assertThat(result.getStatistics().getSum()).isEqualByComparingTo("216");
+        assertThat(result.getStatistics().getAverage()).isEqualTo(new BigDecimal("72.00"));
+        assertThat(result.getStatistics().getMin()).isEqualByComparingTo("70");
+        assertThat(result.getStatistics().getMax()).isEqualByComparingTo("74");
+        assertThat(result.getStatistics().getStandardDeviation()).isEqualTo(new BigDecimal("1.63"));
+        assertThat(result.getStatistics().getMedian()).isNull();
+        verify(recordDataRepository, never()).findValuesInRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetEnumTrend_FromWeeklyRollups() {
+        // Given
+        FieldSetting moodSetting = new FieldSetting();
+        moodSetting.setSettingId(2);
+        moodSetting.setFieldName("心情");
+        moodSetting.setDataType("ENUM");
+        when(fieldSettingRegistry.findByFieldName("心情")).thenReturn(Optional.of(moodSetting));
+        LocalDate week = LocalDate.of(2024, 1, 1);
+        when(enumRollupRepository.findByUserIdAndSettingIdAndGranularityAndPeriodStartBetweenOrderByPeriodStartAsc(
+                1L, 2, RollupGranularity.WEEKLY, week, LocalDate.of(2024, 1, 29)))
+            .thenReturn(Arrays.asList(
+                new EnumRollup(1L, 1L, 2, RollupGranularity.WEEKLY, week, "好", 3L),
+                new EnumRollup(2L, 1L, 2, RollupGranularity.WEEKLY, week, "差", 1L)));
+
+        // When
+        EnumTrendDTO result = reportService.getEnumTrend(1L, "心情", startDate, endDate, RollupGranularity.WEEKLY);
+
+        // Then
+        assertThat(result.getTrendData().get(week)).containsEntry("好", 3L).containsEntry("差", 1L);
+        assertThat(result.getOptions()).containsExactly("好", "差");
+    }
+
+    @Test
+    void testGetEnumDistribution_Success() {
+        // Given
+        FieldSetting moodSetting = new FieldSetting();
+        moodSetting.setSettingId(2);
+        moodSetting.setFieldName("心情");
+        moodSetting.setDataType("ENUM");
+
+        moodSetting.setOptions("差,普通,好");
+
+        when(fieldSettingRegistry.findByFieldName("心情")).thenReturn(Optional.of(moodSetting));
+        when(recordDataRepository.countOptionsInRange(1L, 2, startDate, endDate))
+            .thenReturn(Arrays.asList(optionCount("好", 2L), optionCount("其他", 1L), optionCount("差", 1L)));
+
+        // When
+        EnumDistributionDTO result = reportService.getEnumDistribution(1L, "心情", startDate, endDate);
+
+        // Then: 依設定的選項順序，未設定的選項排在後面
+        assertThat(result.getTotalCount()).isEqualTo(4L);
+        assertThat(result.getDistribution()).containsExactly(
+            Map.entry("差", 1L), Map.entry("好", 2L), Map.entry("其他", 1L));
+        assertThat(result.getPercentages()).containsEntry("好", 50.0);
+        verify(recordDataRepository, times(1)).countOptionsInRange(1L, 2, startDate, endDate);
+        verify(recordDataRepository, never()).findValuesInRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetEnumTrend_GroupedInDatabaseAndOrderedByOptions() {
+        // Given: 選項以 JSON 設定
+        FieldSetting moodSetting = new FieldSetting();
+        moodSetting.setSettingId(2);
+        moodSetting.setFieldName("心情");
+        moodSetting.setDataType("ENUM");
+        moodSetting.setOptions("[{\"value\": \"差\", \"label\": \"不好\"}, \"好\"]");
+        when(fieldSettingRegistry.findByFieldName("心情")).thenReturn(Optional.of(moodSetting));
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        LocalDate second = LocalDate.of(2024, 1, 2);
+        when(recordDataRepository.countOptionsByDateInRange(1L, 2, startDate, endDate))
+            .thenReturn(Arrays.asList(
+                dailyOptionCount(first, "好", 1L),
+                dailyOptionCount(first, "差", 2L),
+                dailyOptionCount(second, "好", 3L)));
+
+        // When
+        EnumTrendDTO result = reportService.getEnumTrend(1L, "心情", startDate, endDate);
+        EnumTrendColumnsDTO columns = reportService.getEnumTrendColumns(1L, "心情", startDate, endDate, null);
+
+        // Then
+        assertThat(result.getOptions()).containsExactly("差", "好");
+        assertThat(result.getTrendData().keySet()).containsExactly(first, second);
+        assertThat(result.getTrendData().get(first)).containsExactly(Map.entry("差", 2L), Map.entry("好", 1L));
+
+        assertThat(columns.getDates()).containsExactly(first, second);
+        assertThat(columns.getOptions()).containsExactly("差", "好");
+        assertThat(columns.getCounts()).containsExactly(new long[] {2, 0}, new long[] {1, 3});
+    }
+
+    @Test
+    void testGetNumberDistribution_MergesMonthlySketchesAndRawEdges() {
+        // Given: 2024-01-15 ~ 2024-03-10，2 月為完整月份（草圖 1 ~ 100），1 月與 3 月的部分日期讀取原始數據
+        LocalDate rangeStart = LocalDate.of(2024, 1, 15);
+        LocalDate rangeEnd = LocalDate.of(2024, 3, 10);
+        QuantileSketch february = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) {
+            february.add(i);
+        }
+        NumberSketch numberSketch = new NumberSketch(1L, 1L, 1, LocalDate.of(2024, 2, 1), 100L, february.toBytes());
+
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(numberSketchRepository.findByUserIdAndSettingIdAndPeriodStartBetweenOrderByPeriodStartAsc(
+                1L, 1, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 1)))
+            .thenReturn(List.of(numberSketch));
+        when(recordDataRepository.findNumericValuesInRange(1L, 1, rangeStart, LocalDate.of(2024, 1, 31)))
+            .thenReturn(List.of(new BigDecimal("0.5")));
+        when(recordDataRepository.findNumericValuesInRange(1L, 1, LocalDate.of(2024, 3, 1), rangeEnd))
+            .thenReturn(List.of(new BigDecimal("150")));
+
+        // When
+        NumberDistributionDTO result = reportService.getNumberDistribution(1L, "體重", rangeStart, rangeEnd, 4);
+
+        // Then: 分位數相對誤差不超過 1%，直方圖涵蓋所有數值
+        assertThat(result.getCount()).isEqualTo(102);
+        assertThat(result.getPercentiles()).containsOnlyKeys("p5", "p25", "p50", "p75", "p95");
+        assertThat(result.getPercentiles().get("p50").doubleValue()).isBetween(50 * 0.99, 51 * 1.01);
+        assertThat(result.getPercentiles().get("p95").doubleValue()).isBetween(95 * 0.99, 96 * 1.01);
+        assertThat(result.getHistogram()).hasSize(4);
+        assertThat(result.getHistogram().stream().mapToLong(HistogramBinDTO::getCount).sum()).isEqualTo(102);
+        assertThat(result.getHistogram().get(3).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetNumberDistribution_WithinOneMonth_ReadsRawValuesOnly() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+        when(recordDataRepository.findNumericValuesInRange(1L, 1, LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 20)))
+            .thenReturn(List.of(new BigDecimal("70"), new BigDecimal("70")));
+
+        // When
+        NumberDistributionDTO result = reportService.getNumberDistribution(1L, "體重",
+                LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 20), 10);
+
+        // Then: 所有數值相同時只有一個區間
+        assertThat(result.getCount()).isEqualTo(2);
+        assertThat(result.getHistogram()).hasSize(1);
+        verify(numberSketchRepository, never())
+            .findByUserIdAndSettingIdAndPeriodStartBetweenOrderByPeriodStartAsc(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetNumberDistribution_Empty() {
+        // Given: 完整月份，沒有草圖
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+
+        // When
+        NumberDistributionDTO result = reportService.getNumberDistribution(1L, "體重", startDate, endDate, 10);
+
+        // Then
+        assertThat(result.getCount()).isZero();
+        assertThat(result.getPercentiles()).isEmpty();
+        assertThat(result.getHistogram()).isEmpty();
+    }
+
+    @Test
+    void testGetNumberDistribution_InvalidBins() {
+        // When & Then
+        assertThatThrownBy(() -> reportService.getNumberDistribution(1L, "體重", startDate, endDate, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("直方圖區間數");
+    }
+
+    @Test
+    void testGetTextAnalysis_KeywordsFromIndex() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("備註")).thenReturn(Optional.of(textFieldSetting()));
+        when(recordDataRepository.aggregateTextLengthsInRange(1L, 3, startDate, endDate))
+            .thenReturn(textLengthStatistics(2L, 8.5, 13, 4));
+        when(textIndexService.getTopTerms(1L, 3, startDate, endDate, ReportService.MAX_KEYWORDS))
+            .thenReturn(Map.of("頭痛", 2L, "panadol", 1L));
+        when(recordDataRepository.findTextTimeline(1L, 3, startDate, endDate, Limit.unlimited())).thenReturn(Arrays.asList(
+            new RecordValueObj(LocalDate.of(2024, 1, 2), "還是頭痛"),
+            new RecordValueObj(LocalDate.of(2024, 1, 1), "頭痛，吃了 Panadol")));
+
+        // When
+        TextAnalysisDTO result = reportService.getTextAnalysis(1L, "備註", startDate, endDate);
+
+        // Then: 關鍵字來自詞彙索引，長度統計來自 SQL 彙總，時間序列由新到舊且沒有下一頁
+        assertThat(result.getKeywordFrequency()).containsOnly(Map.entry("頭痛", 2L), Map.entry("panadol", 1L));
+        assertThat(result.getTotalCount()).isEqualTo(2L);
+        assertThat(result.getMaxLength()).isEqualTo(13);
+        assertThat(result.getMinLength()).isEqualTo(4);
+        assertThat(result.getAverageLength()).isEqualTo(8.5);
+        assertThat(result.getTimelineData().keySet()).containsExactly("2024-01-02", "2024-01-01");
+        assertThat(result.getTimelineNextBefore()).isNull();
+    }
+
+    @Test
+    void testGetTextAnalysis_Empty() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("備註")).thenReturn(Optional.of(textFieldSetting()));
+        when(recordDataRepository.aggregateTextLengthsInRange(1L, 3, startDate, endDate))
+            .thenReturn(textLengthStatistics(0L, null, null, null));
+        when(textIndexService.getTopTerms(1L, 3, startDate, endDate, ReportService.MAX_KEYWORDS)).thenReturn(Map.of());
+
+        // When
+        TextAnalysisDTO result = reportService.getTextAnalysis(1L, "備註", startDate, endDate, null, false, null, null);
+
+        // Then
+        assertThat(result.getTotalCount()).isZero();
+        assertThat(result.getAverageLength()).isZero();
+        assertThat(result.getMaxLength()).isZero();
+        assertThat(result.getMinLength()).isZero();
+        assertThat(result.getTimelineData()).isEmpty();
+    }
+
+    @Test
+    void testGetTextAnalysis_TopKWithoutTimeline() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("備註")).thenReturn(Optional.of(textFieldSetting()));
+        when(recordDataRepository.aggregateTextLengthsInRange(1L, 3, startDate, endDate))
+            .thenReturn(textLengthStatistics(3L, 4.0, 5, 3));
+        Map<String, Long> topTerms = new LinkedHashMap<>();
+        topTerms.put("睡覺", 9L);
+        topTerms.put("頭痛", 5L);
+        topTerms.put("慢跑", 2L);
+        when(textIndexService.getTopTerms(1L, 3, startDate, endDate, ReportService.MAX_KEYWORDS)).thenReturn(topTerms);
+
+        // When
+        TextAnalysisDTO result = reportService.getTextAnalysis(1L, "備註", startDate, endDate, 2, false, null, null);
+
+        // Then: 保留次數最多的前 2 個，不查詢時間序列
+        assertThat(result.getKeywordFrequency()).containsExactly(Map.entry("睡覺", 9L), Map.entry("頭痛", 5L));
+        assertThat(result.getTimelineData()).isEmpty();
+        verify(recordDataRepository, never()).findTextTimeline(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetTextAnalysis_TimelinePaging() {
+        // Given: 每頁 2 筆，從 1/20 之前開始
+        when(fieldSettingRegistry.findByFieldName("備註")).thenReturn(Optional.of(textFieldSetting()));
+        when(recordDataRepository.aggregateTextLengthsInRange(1L, 3, startDate, endDate))
+            .thenReturn(textLengthStatistics(3L, 4.0, 5, 3));
+        when(textIndexService.getTopTerms(1L, 3, startDate, endDate, ReportService.MAX_KEYWORDS)).thenReturn(Map.of());
+        when(recordDataRepository.findTextTimeline(1L, 3, startDate, LocalDate.of(2024, 1, 19), Limit.of(3)))
+            .thenReturn(Arrays.asList(
+                new RecordValueObj(LocalDate.of(2024, 1, 15), "頭痛"),
+                new RecordValueObj(LocalDate.of(2024, 1, 10), "慢跑"),
+                new RecordValueObj(LocalDate.of(2024, 1, 5), "睡覺")));
+
+        // When
+        TextAnalysisDTO result = reportService.getTextAnalysis(1L, "備註", startDate, endDate,
+            null, true, 2, LocalDate.of(2024, 1, 20));
+
+        // Then: 多查的一筆不回傳，下一頁從本頁最早的日期之前開始
+        assertThat(result.getTimelineData()).containsExactly(
+            Map.entry("2024-01-15", "頭痛"), Map.entry("2024-01-10", "慢跑"));
+        assertThat(result.getTimelineNextBefore()).isEqualTo(LocalDate.of(2024, 1, 10));
+    }
+
+    @Test
+    void testGetTextAnalysis_InvalidParameters() {
+        // When & Then
+        assertThatThrownBy(() -> reportService.getTextAnalysis(1L, "備註", startDate, endDate, 0, true, null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reportService.getTextAnalysis(1L, "備註", startDate, endDate,
+                ReportService.MAX_KEYWORDS + 1, true, null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reportService.getTextAnalysis(1L, "備註", startDate, endDate, null, true, 0, null))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(textIndexService, recordDataRepository);
+    }
+
+    @Test
+    void testToTextAnalysis_SegmentsChineseAndEnglishWithoutTimeline() {
+        // Given
+        List<RecordValueObj> values = Arrays.asList(
+            new RecordValueObj(LocalDate.of(2024, 1, 1), "頭痛，吃了 Panadol"),
+            new RecordValueObj(LocalDate.of(2024, 1, 2), "還是頭痛"));
+
+        // When
+        TextAnalysisDTO result = ReportService.toTextAnalysis(values);
+
+        // Then: 中文以 bigram 計數（停用字「是」「了」為分隔），英文轉小寫
+        assertThat(result.getTotalCount()).isEqualTo(2L);
+        assertThat(result.getKeywordFrequency())
+            .containsEntry("頭痛", 2L)
+            .containsEntry("panadol", 1L)
+            .doesNotContainKeys("還是", "是頭");
+        assertThat(result.getTimelineData()).isEmpty();
+    }
+
+    @Test
+    void testSearchText_Success() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("備註")).thenReturn(Optional.of(textFieldSetting()));
+        when(textIndexService.search(1L, 3, "頭痛", startDate, endDate))
+            .thenReturn(List.of(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 2)));
+
+        // When
+        List<LocalDate> dates = reportService.searchText(1L, "備註", "頭痛", startDate, endDate);
+
+        // Then
+        assertThat(dates).containsExactly(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 2));
+    }
+
+    @Test
+    void testSearchText_NotTextField() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(testFieldSetting));
+
+        // When & Then
+        assertThatThrownBy(() -> reportService.searchText(1L, "體重", "頭痛", startDate, endDate))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(textIndexService);
+    }
+
+    private TextLengthStatistics textLengthStatistics(Long count, Double averageLength, Integer maxLength,
+            Integer minLength) {
+        return new TextLengthStatistics() {
+            @Override
+            public Long getCount() {
+                return count;
+            }
+
+            @Override
+            public Double getAverageLength() {
+                return averageLength;
+            }
+
+            @Override
+            public Integer getMaxLength() {
+                return maxLength;
+            }
+
+            @Override
+            public Integer getMinLength() {
+                return minLength;
+            }
+        };
+    }
+
+    private FieldSetting textFieldSetting() {
+        FieldSetting noteSetting = new FieldSetting();
+        noteSetting.setSettingId(3);
+        noteSetting.setFieldName("備註");
+        noteSetting.setDataType("TEXT");
+        return noteSetting;
+    }
+
+    private NumberRollup numberRollup(LocalDate periodStart, Long count, String sum, String sumOfSquares,
+            String min, String max) {
+        NumberRollup rollup = new NumberRollup();
+        rollup.setPeriodStart(periodStart);
+        rollup.setCount(count);
+        rollup.setSum(new BigDecimal(sum));
+        rollup.setSumOfSquares(new BigDecimal(sumOfSquares));
+        rollup.setMin(new BigDecimal(min));
+        rollup.setMax(new BigDecimal(max));
+        return rollup;
+    }
+
+    private OptionCount optionCount(String optionValue, Long count) {
+        return new OptionCount() {
+            @Override
+            public String getOptionValue() {
+                return optionValue;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+
+    private DailyOptionCount dailyOptionCount(LocalDate recordDate, String optionValue, Long count) {
+        return new DailyOptionCount() {
+            @Override
+            public LocalDate getRecordDate() {
+                return recordDate;
+            }
+
+            @Override
+            public String getOptionValue() {
+                return optionValue;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
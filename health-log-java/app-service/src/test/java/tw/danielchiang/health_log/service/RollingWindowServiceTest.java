@@ -0,0 +1,252 @@
+package tw.danielchiang.health_log.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.model.dto.reponse.RollingWindowDTO;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.RecordValueObj;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.cache.ReportCache;
+import tw.danielchiang.health_log.service.cache.ReportCacheInvalidation;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent.FieldValueChange;
+
+/**
+ * RollingWindowService 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class RollingWindowServiceTest {
+
+    @Mock
+    private RecordDataRepository recordDataRepository;
+
+    @Mock
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @Mock
+    private ReportCache reportCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private RollingWindowService rollingWindowService;
+
+    private final LocalDate today = LocalDate.of(2024, 3, 31);
+    private final LocalDate retentionStart = today.minusDays(89);
+
+    @BeforeEach
+    void setUp() {
+        rollingWindowService = new RollingWindowService(recordDataRepository, fieldSettingRegistry, reportCache, objectMapper);
+        ReflectionTestUtils.setField(rollingWindowService, "maximumSize", 100L);
+        ReflectionTestUtils.setField(rollingWindowService, "ttl", Duration.ofHours(1));
+        setToday(today);
+        rollingWindowService.init();
+    }
+
+    @Test
+    void testGetRollingWindow_LoadsOnceThenAppliesChanges() {
+        // Given: 最近 90 天有 3 筆體重
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(fieldSetting(1, "體重", "NUMBER")));
+        when(recordDataRepository.findValuesInRange(1L, 1, retentionStart, today)).thenReturn(List.of(
+            new RecordValueObj(today.minusDays(40), "68"),
+            new RecordValueObj(today.minusDays(3), "70"),
+            new RecordValueObj(today, "72")));
+        RollingWindowDTO before = rollingWindowService.getRollingWindow(1L, "體重", 7);
+
+        // When: 提交後的變更事件（3 天前 70 → 74，新增昨天 75）
+        rollingWindowService.onRecordChanged(new RecordChangedEvent(1L, today.minusDays(3), Set.of("體重"),
+            List.of(new FieldValueChange(1, "70", "74"))));
+        rollingWindowService.onRecordChanged(new RecordChangedEvent(1L, today.minusDays(1), Set.of("體重"),
+            List.of(new FieldValueChange(1, null, "75"))));
+        RollingWindowDTO week = rollingWindowService.getRollingWindow(1L, "體重", 7);
+        RollingWindowDTO quarter = rollingWindowService.getRollingWindow(1L, "體重", 90);
+
+        // Then: 只在第一次查詢時載入，之後由事件增量更新
+        assertThat(before.getNumberStatistics().getCount()).isEqualTo(2L);
+        assertThat(before.getStartDate()).isEqualTo(LocalDate.of(2024, 3, 25));
+        assertThat(week.getNumberStatistics().getCount()).isEqualTo(3L);
+        assertThat(week.getNumberStatistics().getAverage()).isEqualByComparingTo("73.67");
+        assertThat(week.getNumberStatistics().getMin()).isEqualByComparingTo("72");
+        assertThat(week.getNumberStatistics().getMedian()).isEqualByComparingTo("74.00");
+        assertThat(quarter.getNumberStatistics().getCount()).isEqualTo(4L);
+        assertThat(quarter.getNumberStatistics().getMin()).isEqualByComparingTo("68");
+        verify(recordDataRepository, times(1)).findValuesInRange(1L, 1, retentionStart, today);
+    }
+
+    @Test
+    void testGetRollingWindow_ReloadsWhenDateChanges() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("心情")).thenReturn(Optional.of(fieldSetting(2, "心情", "ENUM")));
+        when(recordDataRepository.findValuesInRange(1L, 2, retentionStart, today))
+            .thenReturn(List.of(new RecordValueObj(today.minusDays(6), "好")));
+        when(recordDataRepository.findValuesInRange(1L, 2, retentionStart.plusDays(1), today.plusDays(1)))
+            .thenReturn(List.of());
+        rollingWindowService.getRollingWindow(1L, "心情", 7);
+
+        // When: 隔天查詢
+        setToday(today.plusDays(1));
+        RollingWindowDTO result = rollingWindowService.getRollingWindow(1L, "心情", 7);
+
+        // Then: 重新載入以新的日期為視窗終點
+        assertThat(result.getEndDate()).isEqualTo(today.plusDays(1));
+        assertThat(result.getEnumDistribution().getTotalCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetRollingWindow_ChangeBeforePutIsNotLost() {
+        // Given: 載入完成、放入快取之前，另一個交易提交了 3 天前的體重
+        when(fieldSettingRegistry.findByFieldName("體重")).thenReturn(Optional.of(fieldSetting(1, "體重", "NUMBER")));
+        when(recordDataRepository.findValuesInRange(1L, 1, retentionStart, today))
+            .thenReturn(List.of())
+            .thenReturn(List.of(new RecordValueObj(today.minusDays(3), "70")));
+        Cache<Object, Object> windows = (Cache<Object, Object>) ReflectionTestUtils.getField(rollingWindowService, "windows");
+        Cache<Object, Object> racingWindows = mock(Cache.class, AdditionalAnswers.delegatesTo(windows));
+        doAnswer(invocation -> {
+            rollingWindowService.onRecordChanged(new RecordChangedEvent(1L, today.minusDays(3), Set.of("體重"),
+                List.of(new FieldValueChange(1, null, "70"))));
+            windows.put(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(racingWindows).put(any(), any());
+        ReflectionTestUtils.setField(rollingWindowService, "windows", racingWindows);
+
+        // When
+        rollingWindowService.getRollingWindow(1L, "體重", 7);
+        RollingWindowDTO result = rollingWindowService.getRollingWindow(1L, "體重", 7);
+
+        // Then: 提交前載入的視窗不保留，下次查詢重新載入而包含該筆變更
+        assertThat(result.getNumberStatistics().getCount()).isEqualTo(1L);
+        verify(recordDataRepository, times(2)).findValuesInRange(1L, 1, retentionStart, today);
+    }
+
+    @Test
+    void testOnRecordChanged_WithoutValuesEvictsUser() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("心情")).thenReturn(Optional.of(fieldSetting(2, "心情", "ENUM")));
+        when(recordDataRepository.findValuesInRange(1L, 2, retentionStart, today))
+            .thenReturn(List.of(new RecordValueObj(today, "好")))
+            .thenReturn(List.of(new RecordValueObj(today, "好"), new RecordValueObj(today.minusDays(1), "差")));
+        rollingWindowService.getRollingWindow(1L, "心情", 7);
+
+        // When: 批次匯入（事件只帶日期區間）
+        rollingWindowService.onRecordChanged(new RecordChangedEvent(1L, today.minusDays(5), today, Set.of("心情")));
+        RollingWindowDTO result = rollingWindowService.getRollingWindow(1L, "心情", 7);
+
+        // Then
+        assertThat(result.getEnumDistribution().getDistribution()).containsOnly(Map.entry("好", 1L), Map.entry("差", 1L));
+        verify(recordDataRepository, times(2)).findValuesInRange(1L, 2, retentionStart, today);
+    }
+
+    @Test
+    void testOnRecordChanged_OutOfSyncEvictsWindow() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("心情")).thenReturn(Optional.of(fieldSetting(2, "心情", "ENUM")));
+        when(recordDataRepository.findValuesInRange(1L, 2, retentionStart, today))
+            .thenReturn(List.of(new RecordValueObj(today, "好")))
+            .thenReturn(List.of(new RecordValueObj(today, "普通")));
+        rollingWindowService.getRollingWindow(1L, "心情", 7);
+
+        // When: 變更前的數值與保存的不同
+        rollingWindowService.onRecordChanged(new RecordChangedEvent(1L, today, Set.of("心情"),
+            List.of(new FieldValueChange(2, "差", "普通"))));
+        RollingWindowDTO result = rollingWindowService.getRollingWindow(1L, "心情", 7);
+
+        // Then: 捨棄後重新載入
+        assertThat(result.getEnumDistribution().getDistribution()).containsExactly(Map.entry("普通", 1L));
+        verify(recordDataRepository, times(2)).findValuesInRange(1L, 2, retentionStart, today);
+    }
+
+    @Test
+    void testGetRollingWindow_TextKeywords() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("備註")).thenReturn(Optional.of(fieldSetting(3, "備註", "TEXT")));
+        when(recordDataRepository.findValuesInRange(1L, 3, retentionStart, today)).thenReturn(List.of(
+            new RecordValueObj(today.minusDays(1), "頭痛"),
+            new RecordValueObj(today, "還是頭痛")));
+
+        // When
+        RollingWindowDTO result = rollingWindowService.getRollingWindow(1L, "備註", 30);
+
+        // Then
+        assertThat(result.getTextAnalysis().getTotalCount()).isEqualTo(2L);
+        assertThat(result.getTextAnalysis().getKeywordFrequency()).containsEntry("頭痛", 2L);
+        assertThat(result.getTextAnalysis().getAverageLength()).isEqualTo(3.0);
+        assertThat(result.getTextAnalysis().getTimelineData()).isEmpty();
+    }
+
+    @Test
+    void testOnMessage_RemoteInvalidationEvictsUser() throws Exception {
+        // Given
+        when(reportCache.getNodeId()).thenReturn("local");
+        when(fieldSettingRegistry.findByFieldName("心情")).thenReturn(Optional.of(fieldSetting(2, "心情", "ENUM")));
+        when(recordDataRepository.findValuesInRange(1L, 2, retentionStart, today)).thenReturn(List.of());
+        rollingWindowService.getRollingWindow(1L, "心情", 7);
+
+        // When: 本節點的通知略過，其他節點的通知捨棄該使用者的視窗
+        rollingWindowService.onMessage(message(new ReportCacheInvalidation("local", 1L, Set.of("心情"), today, today)), null);
+        rollingWindowService.getRollingWindow(1L, "心情", 7);
+        rollingWindowService.onMessage(message(new ReportCacheInvalidation("remote", 1L, Set.of("心情"), today, today)), null);
+        rollingWindowService.getRollingWindow(1L, "心情", 7);
+
+        // Then
+        verify(recordDataRepository, times(2)).findValuesInRange(1L, 2, retentionStart, today);
+    }
+
+    @Test
+    void testGetRollingWindow_InvalidRequest() {
+        // When & Then
+        assertThatThrownBy(() -> rollingWindowService.getRollingWindow(1L, "體重", 14))
+            .isInstanceOf(IllegalArgumentException.class);
+        when(fieldSettingRegistry.findByFieldName("不存在")).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> rollingWindowService.getRollingWindow(1L, "不存在", 7))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(recordDataRepository);
+    }
+
+    private void setToday(LocalDate date) {
+        ReflectionTestUtils.setField(rollingWindowService, "clock",
+            Clock.fixed(date.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneId.of("UTC")));
+    }
+
+    private DefaultMessage message(ReportCacheInvalidation invalidation) throws Exception {
+        return new DefaultMessage(ReportCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            objectMapper.writeValueAsBytes(invalidation));
+    }
+
+    private FieldSetting fieldSetting(Integer settingId, String fieldName, String dataType) {
+        FieldSetting fieldSetting = new FieldSetting();
+        fieldSetting.setSettingId(settingId);
+        fieldSetting.setFieldName(fieldName);
+        fieldSetting.setDataType(dataType);
+        return fieldSetting;
+    }
+}
@@ -0,0 +1,381 @@
+package tw.danielchiang.health_log.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import tw.danielchiang.health_log.data.repository.EnumRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberSketchRepository;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.data.repository.RecordDataRepository.NumberRange;
+import tw.danielchiang.health_log.data.repository.UserRepository;
+import tw.danielchiang.health_log.model.entity.DailyRecord;
+import tw.danielchiang.health_log.model.entity.EnumRollup;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.entity.NumberRollup;
+import tw.danielchiang.health_log.model.entity.NumberSketch;
+import tw.danielchiang.health_log.model.entity.RecordData;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+import tw.danielchiang.health_log.service.stats.QuantileSketch;
+
+/**
+ * RollupService 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class RollupServiceTest {
+
+    @Mock
+    private NumberRollupRepository numberRollupRepository;
+
+    @Mock
+    private NumberSketchRepository numberSketchRepository;
+
+    @Mock
+    private EnumRollupRepository enumRollupRepository;
+
+    @Mock
+    private RecordDataRepository recordDataRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @Mock
+    private TextIndexService textIndexService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RollupService rollupService;
+
+    private FieldSetting numberSetting;
+    private FieldSetting enumSetting;
+    private LocalDate recordDate;
+
+    @BeforeEach
+    void setUp() {
+        // 2024-01-10 為週三，所在週期起始日為 2024-01-08
+        recordDate = LocalDate.of(2024, 1, 10);
+
+        numberSetting = new FieldSetting();
+        numberSetting.setSettingId(1);
+        numberSetting.setFieldName("體重");
+        numberSetting.setDataType("NUMBER");
+
+        enumSetting = new FieldSetting();
+        enumSetting.setSettingId(2);
+        enumSetting.setFieldName("心情");
+        enumSetting.setDataType("ENUM");
+    }
+
+    @Test
+    void testApplyChange_NewNumberValueCreatesRollups() {
+        // Given
+        when(numberRollupRepository.findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(
+                eq(1L), any(RollupGranularity.class), any(LocalDate.class), eq(Set.of(1))))
+            .thenReturn(List.of());
+
+        // When
+        rollupService.applyChange(1L, recordDate, null, recordData(numberSetting, "70.5"));
+
+        // Then: 每日、每週、每月各建立一筆彙總
+        List<NumberRollup> saved = captureSavedNumberRollups(3);
+        assertThat(saved).extracting(NumberRollup::getPeriodStart)
+            .containsExactly(recordDate, LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 1));
+        NumberRollup daily = saved.get(0);
+        assertThat(daily.getCount()).isEqualTo(1L);
+        assertThat(daily.getSum()).isEqualByComparingTo("70.5");
+        assertThat(daily.getSumOfSquares()).isEqualByComparingTo("4970.25");
+        assertThat(daily.getMin()).isEqualByComparingTo("70.5");
+        assertThat(daily.getMax()).isEqualByComparingTo("70.5");
+    }
+
+    @Test
+    void testApplyChanges_QueriesOncePerPeriodForAllFields() {
+        // Given: 同一次儲存新增兩個 NUMBER 欄位
+        FieldSetting heightSetting = new FieldSetting();
+        heightSetting.setSettingId(3);
+        heightSetting.setFieldName("身高");
+        heightSetting.setDataType("NUMBER");
+        when(numberRollupRepository.findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(
+                eq(1L), any(RollupGranularity.class), any(LocalDate.class), eq(Set.of(1, 3))))
+            .thenReturn(List.of());
+
+        // When
+        rollupService.applyChanges(1L, recordDate, List.of(),
+            List.of(recordData(numberSetting, "70"), recordData(heightSetting, "175")));
+
+        // Then: 每個週期只查詢一次，兩個欄位的彙總一起儲存
+        verify(numberRollupRepository, times(3)).findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(
+            eq(1L), any(RollupGranularity.class), any(LocalDate.class), eq(Set.of(1, 3)));
+        assertThat(captureSavedNumberRollups(3)).extracting(NumberRollup::getSettingId)
+            .containsExactly(1, 3, 1, 3, 1, 3);
+    }
+
+    @Test
+    void testApplyChange_RemovingExtremeValueRecomputesRange() {
+        // Given: 月彙總中有 70、72 兩筆，將 72 改為 71
+        NumberRollup monthly = rollup(RollupGranularity.MONTHLY, LocalDate.of(2024, 1, 1), 2L, "142", "10084", "70", "72");
+        when(numberRollupRepository.findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(
+                eq(1L), any(RollupGranularity.class), any(LocalDate.class), eq(Set.of(1))))
+            .thenAnswer(invocation -> RollupGranularity.MONTHLY.equals(invocation.getArgument(1))
+                ? List.of(monthly) : List.of());
+        NumberRange range = mock(NumberRange.class);
+        when(range.getSettingId()).thenReturn(1);
+        when(range.getMin()).thenReturn(new BigDecimal("70"));
+        when(range.getMax()).thenReturn(new BigDecimal("71"));
+        when(recordDataRepository.findNumericRanges(1L, Set.of(1), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+            .thenReturn(List.of(range));
+
+        // When
+        rollupService.applyChange(1L, recordDate, recordData(numberSetting, "72"), recordData(numberSetting, "71"));
+
+        // Then: 移除的是最大值，max 從原始數據重新計算
+        assertThat(monthly.getCount()).isEqualTo(2L);
+        assertThat(monthly.getSum()).isEqualByComparingTo("141");
+        assertThat(monthly.getSumOfSquares()).isEqualByComparingTo("9941");
+        assertThat(monthly.getMin()).isEqualByComparingTo("70");
+        assertThat(monthly.getMax()).isEqualByComparingTo("71");
+        verify(numberRollupRepository).saveAll(List.of(monthly));
+    }
+
+    @Test
+    void testApplyChange_RemovingLastValueDeletesRollup() {
+        // Given
+        NumberRollup daily = rollup(RollupGranularity.DAILY, recordDate, 1L, "70", "4900", "70", "70");
+        daily.setRollupId(10L);
+        when(numberRollupRepository.findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(
+                eq(1L), any(RollupGranularity.class), any(LocalDate.class), eq(Set.of(1))))
+            .thenAnswer(invocation -> RollupGranularity.DAILY.equals(invocation.getArgument(1))
+                ? List.of(daily) : List.of());
+
+        // When
+        rollupService.applyChange(1L, recordDate, recordData(numberSetting, "70"), null);
+
+        // Then
+        verify(numberRollupRepository).deleteAll(List.of(daily));
+        assertThat(captureSavedNumberRollups(3)).isEmpty();
+        verify(recordDataRepository, never()).findNumericRanges(any(), any(), any(), any());
+    }
+
+    @Test
+    void testApplyChange_UnchangedValueSkipsUpdate() {
+        // When
+        rollupService.applyChange(1L, recordDate, recordData(numberSetting, "70"), recordData(numberSetting, "70.0"));
+
+        // Then
+        verify(numberRollupRepository, never()).findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(
+                any(), any(), any(), any());
+    }
+
+    @Test
+    void testApplyChange_UpdatesMonthlySketch() {
+        // Given: 1 月的草圖中有 70、72，將 72 改為 71
+        QuantileSketch existing = new QuantileSketch();
+        existing.add(70);
+        existing.add(72);
+        NumberSketch monthly = new NumberSketch(5L, 1L, 1, LocalDate.of(2024, 1, 1), 2L, existing.toBytes());
+        when(numberSketchRepository.findByUserIdAndPeriodStartAndSettingIdIn(1L, LocalDate.of(2024, 1, 1), Set.of(1)))
+            .thenReturn(List.of(monthly));
+
+        // When
+        rollupService.applyChange(1L, recordDate, recordData(numberSetting, "72"), recordData(numberSetting, "71"));
+
+        // Then
+        QuantileSketch expected = new QuantileSketch();
+        expected.add(70);
+        expected.add(71);
+        assertThat(monthly.getCount()).isEqualTo(2L);
+        assertThat(QuantileSketch.fromBytes(monthly.getSketch()).buckets()).isEqualTo(expected.buckets());
+        verify(numberSketchRepository).saveAll(List.of(monthly));
+    }
+
+    @Test
+    void testApplyChange_RemovingLastValueDeletesSketch() {
+        // Given
+        QuantileSketch existing = new QuantileSketch();
+        existing.add(70);
+        NumberSketch monthly = new NumberSketch(5L, 1L, 1, LocalDate.of(2024, 1, 1), 1L, existing.toBytes());
+        when(numberSketchRepository.findByUserIdAndPeriodStartAndSettingIdIn(1L, LocalDate.of(2024, 1, 1), Set.of(1)))
+            .thenReturn(List.of(monthly));
+
+        // When
+        rollupService.applyChange(1L, recordDate, recordData(numberSetting, "70"), null);
+
+        // Then
+        verify(numberSketchRepository).deleteAll(List.of(monthly));
+        verify(numberSketchRepository).saveAll(List.of());
+    }
+
+    @Test
+    void testApplyChange_EnumOptionMovesCount() {
+        // Given: 原本為「好」（次數 2），改為「普通」
+        EnumRollup good = new EnumRollup(1L, 1L, 2, RollupGranularity.DAILY, recordDate, "好", 2L);
+        when(enumRollupRepository.findByUserIdAndGranularityAndPeriodStartAndSettingIdIn(
+                eq(1L), any(RollupGranularity.class), any(LocalDate.class), eq(Set.of(2))))
+            .thenAnswer(invocation -> RollupGranularity.DAILY.equals(invocation.getArgument(1))
+                ? List.of(good) : List.of());
+
+        // When
+        rollupService.applyChange(1L, recordDate, recordData(enumSetting, "好"), recordData(enumSetting, "普通"));
+
+        // Then
+        assertThat(good.getCount()).isEqualTo(1L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<EnumRollup>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(enumRollupRepository, times(3)).saveAll(captor.capture());
+        List<EnumRollup> saved = new ArrayList<>();
+        captor.getAllValues().forEach(rollups -> rollups.forEach(saved::add));
+        assertThat(saved).hasSize(4);
+        assertThat(saved).filteredOn(rollup -> "普通".equals(rollup.getOptionValue()))
+            .hasSize(3)
+            .allSatisfy(rollup -> assertThat(rollup.getCount()).isEqualTo(1L));
+    }
+
+    @Test
+    void testApplyChanges_TextChangeUpdatesIndex() {
+        // Given: 修改一個 TEXT 欄位、另一個 TEXT 欄位數值不變
+        FieldSetting noteSetting = new FieldSetting();
+        noteSetting.setSettingId(3);
+        noteSetting.setFieldName("備註");
+        noteSetting.setDataType("TEXT");
+        FieldSetting diarySetting = new FieldSetting();
+        diarySetting.setSettingId(4);
+        diarySetting.setFieldName("日記");
+        diarySetting.setDataType("TEXT");
+
+        // When
+        rollupService.applyChanges(1L, recordDate,
+            List.of(recordData(noteSetting, "頭痛"), recordData(diarySetting, "慢跑")),
+            List.of(recordData(noteSetting, "頭痛吃藥"), recordData(diarySetting, "慢跑")));
+
+        // Then: 只有變更的欄位送往詞彙索引，不更新數值彙總
+        verify(textIndexService).applyChanges(1L, recordDate, Map.of(3, "頭痛吃藥"));
+        verifyNoInteractions(numberRollupRepository, enumRollupRepository, numberSketchRepository);
+    }
+
+    @Test
+    void testRebuildForUser() {
+        // Given: 同一週內的兩筆 NUMBER 數值與一筆 ENUM 數值
+        DailyRecord monday = dailyRecord(LocalDate.of(2024, 1, 8));
+        DailyRecord tuesday = dailyRecord(LocalDate.of(2024, 1, 9));
+        List<RecordData> source = Arrays.asList(
+            recordData(monday, numberSetting, "70"),
+            recordData(tuesday, numberSetting, "72"),
+            recordData(tuesday, enumSetting, "好"));
+        when(recordDataRepository.findRollupSourceByUserId(1L)).thenReturn(source);
+
+        // When
+        int rollupCount = rollupService.rebuildForUser(1L);
+
+        // Then: NUMBER 2 日 + 1 週 + 1 月，ENUM 1 日 + 1 週 + 1 月
+        assertThat(rollupCount).isEqualTo(7);
+        verify(numberRollupRepository).deleteByUserId(1L);
+        verify(enumRollupRepository).deleteByUserId(1L);
+        verify(numberSketchRepository).deleteByUserId(1L);
+        verify(textIndexService).rebuildForUser(1L);
+        verify(userRepository).findByIdForUpdate(1L);
+        // 提交後讓該使用者的報表快取與滑動視窗失效
+        verify(eventPublisher).publishEvent(RecordChangedEvent.allOf(1L));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<NumberRollup>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(numberRollupRepository).saveAll(captor.capture());
+        List<NumberRollup> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        NumberRollup weekly = saved.stream()
+            .filter(rollup -> rollup.getGranularity() == RollupGranularity.WEEKLY)
+            .findFirst().orElseThrow();
+        assertThat(weekly.getCount()).isEqualTo(2L);
+        assertThat(weekly.getSum()).isEqualByComparingTo("142");
+        assertThat(weekly.getMin()).isEqualByComparingTo("70");
+        assertThat(weekly.getMax()).isEqualByComparingTo("72");
+
+        // 每月草圖：1 月一份，包含兩筆數值
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<NumberSketch>> sketchCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(numberSketchRepository).saveAll(sketchCaptor.capture());
+        List<NumberSketch> sketches = new ArrayList<>();
+        sketchCaptor.getValue().forEach(sketches::add);
+        assertThat(sketches).singleElement().satisfies(sketch -> {
+            assertThat(sketch.getPeriodStart()).isEqualTo(LocalDate.of(2024, 1, 1));
+            assertThat(sketch.getCount()).isEqualTo(2L);
+        });
+    }
+
+    /**
+     * 取得每個週期 saveAll 的 NUMBER 彙總
+     */
+    private List<NumberRollup> captureSavedNumberRollups(int periods) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<NumberRollup>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(numberRollupRepository, times(periods)).saveAll(captor.capture());
+        List<NumberRollup> saved = new ArrayList<>();
+        captor.getAllValues().forEach(rollups -> rollups.forEach(saved::add));
+        return saved;
+    }
+
+    private RecordData recordData(FieldSetting fieldSetting, String value) {
+        return recordData(dailyRecord(recordDate), fieldSetting, value);
+    }
+
+    private RecordData recordData(DailyRecord dailyRecord, FieldSetting fieldSetting, String value) {
+        RecordData data = new RecordData();
+        data.setDailyRecord(dailyRecord);
+        data.setFieldSetting(fieldSetting);
+        data.setValueText(value);
+        if ("NUMBER".equals(fieldSetting.getDataType())) {
+            data.setValueNumeric(new BigDecimal(value));
+        }
+        return data;
+    }
+
+    private DailyRecord dailyRecord(LocalDate date) {
+        DailyRecord dailyRecord = new DailyRecord();
+        dailyRecord.setRecordDate(date);
+        return dailyRecord;
+    }
+
+    private NumberRollup rollup(RollupGranularity granularity, LocalDate periodStart, Long count,
+            String sum, String sumOfSquares, String min, String max) {
+        NumberRollup rollup = new NumberRollup();
+        rollup.setUserId(1L);
+        rollup.setSettingId(1);
+        rollup.setGranularity(granularity);
+        rollup.setPeriodStart(periodStart);
+        rollup.setCount(count);
+        rollup.setSum(new BigDecimal(sum));
+        rollup.setSumOfSquares(new BigDecimal(sumOfSquares));
+        rollup.setMin(new BigDecimal(min));
+        rollup.setMax(new BigDecimal(max));
+        return rollup;
+    }
+}
@@ -0,0 +1,182 @@
+package tw.danielchiang.health_log.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import tw.danielchiang.health_log.data.repository.RecordDataRepository;
+import tw.danielchiang.health_log.data.repository.TextPostingRepository;
+import tw.danielchiang.health_log.data.repository.TextPostingRepository.TermCount;
+import tw.danielchiang.health_log.model.entity.TextPosting;
+import tw.danielchiang.health_log.model.obj.FieldValueObj;
+
+/**
+ * TextIndexService 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class TextIndexServiceTest {
+
+    @Mock
+    private TextPostingRepository textPostingRepository;
+
+    @Mock
+    private RecordDataRepository recordDataRepository;
+
+    @InjectMocks
+    private TextIndexService textIndexService;
+
+    private final LocalDate recordDate = LocalDate.of(2024, 1, 10);
+
+    @Test
+    void testApplyChanges_WritesOnlyChangedTerms() {
+        // Given: 原本的數值為「頭痛 頭痛 慢跑」
+        TextPosting headache = posting(1L, "頭痛", 2);
+        TextPosting jogging = posting(2L, "慢跑", 1);
+        when(textPostingRepository.findByUserIdAndRecordDateAndSettingIdIn(1L, recordDate, Set.of(3)))
+            .thenReturn(List.of(headache, jogging));
+
+        // When: 改為「頭痛 頭痛 睡覺」
+        textIndexService.applyChanges(1L, recordDate, Map.of(3, "頭痛，頭痛，睡覺"));
+
+        // Then: 頭痛不變，慢跑刪除，睡覺新增
+        assertThat(captureDeleted()).containsExactly(jogging);
+        List<TextPosting> saved = captureSaved();
+        assertThat(saved).hasSize(1);
+        assertThat(saved.get(0).getPostingId()).isNull();
+        assertThat(saved.get(0).getTerm()).isEqualTo("睡覺");
+        assertThat(saved.get(0).getRecordDate()).isEqualTo(recordDate);
+        assertThat(saved.get(0).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testApplyChanges_UpdatesCountAndRemovesDeletedValue() {
+        // Given: 兩個 TEXT 欄位，一個修改、一個刪除
+        TextPosting headache = posting(1L, "頭痛", 1);
+        TextPosting memo = new TextPosting(2L, 1L, 4, "memo", recordDate, 1);
+        when(textPostingRepository.findByUserIdAndRecordDateAndSettingIdIn(1L, recordDate, Set.of(3, 4)))
+            .thenReturn(List.of(headache, memo));
+        Map<Integer, String> texts = new HashMap<>();
+        texts.put(3, "頭痛又頭痛");
+        texts.put(4, null);
+
+        // When
+        textIndexService.applyChanges(1L, recordDate, texts);
+
+        // Then
+        assertThat(captureDeleted()).containsExactly(memo);
+        assertThat(captureSaved()).extracting(TextPosting::getTerm, TextPosting::getCount)
+            .containsExactlyInAnyOrder(
+                tuple("頭痛", 2),
+                tuple("痛又", 1),
+                tuple("又頭", 1));
+    }
+
+    @Test
+    void testRebuildForUser_IndexesEveryTextValue() {
+        // Given
+        when(recordDataRepository.streamTextValuesByUserId(1L)).thenReturn(Stream.of(
+            new FieldValueObj(3, LocalDate.of(2024, 1, 1), "Morning run", null),
+            new FieldValueObj(3, LocalDate.of(2024, 1, 2), "run run", null),
+            new FieldValueObj(3, LocalDate.of(2024, 1, 3), "", null)));
+
+        // When
+        int count = textIndexService.rebuildForUser(1L);
+
+        // Then
+        verify(textPostingRepository).deleteByUserId(1L);
+        List<TextPosting> saved = captureSaved();
+        assertThat(count).isEqualTo(3);
+        assertThat(saved).extracting(TextPosting::getTerm, TextPosting::getRecordDate, TextPosting::getCount)
+            .containsExactlyInAnyOrder(
+                tuple("morning", LocalDate.of(2024, 1, 1), 1),
+                tuple("run", LocalDate.of(2024, 1, 1), 1),
+                tuple("run", LocalDate.of(2024, 1, 2), 2));
+    }
+
+    @Test
+    void testGetTopTerms_KeepsOnlyLimit() {
+        // Given
+        when(textPostingRepository.streamTermCountsInRange(1L, 3, recordDate, recordDate)).thenReturn(Stream.of(
+            termCount("頭痛", 5L), termCount("慢跑", 2L), termCount("睡覺", 9L)));
+
+        // When
+        Map<String, Long> topTerms = textIndexService.getTopTerms(1L, 3, recordDate, recordDate, 2);
+
+        // Then
+        assertThat(topTerms).containsExactly(Map.entry("睡覺", 9L), Map.entry("頭痛", 5L));
+    }
+
+    @Test
+    void testSearch_TokenizesQueryLikeIndex() {
+        // Given
+        List<LocalDate> dates = List.of(recordDate);
+        when(textPostingRepository.findDatesContainingAll(1L, 3, Set.of("頭痛", "痛藥", "advil"), 3,
+                recordDate, recordDate)).thenReturn(dates);
+
+        // When
+        List<LocalDate> result = textIndexService.search(1L, 3, "頭痛藥 Advil", recordDate, recordDate);
+
+        // Then
+        assertThat(result).isEqualTo(dates);
+    }
+
+    @Test
+    void testSearch_NoSearchableTerm() {
+        // When & Then: 單一中文字與停用詞無法切分出詞彙
+        assertThatThrownBy(() -> textIndexService.search(1L, 3, "痛 the", recordDate, recordDate))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(textPostingRepository);
+    }
+
+    private TextPosting posting(Long postingId, String term, int count) {
+        return new TextPosting(postingId, 1L, 3, term, recordDate, count);
+    }
+
+    private TermCount termCount(String term, Long count) {
+        return new TermCount() {
+            @Override
+            public String getTerm() {
+                return term;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TextPosting> captureSaved() {
+        ArgumentCaptor<List<TextPosting>> captor = ArgumentCaptor.forClass(List.class);
+        verify(textPostingRepository).saveAll(captor.capture());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TextPosting> captureDeleted() {
+        ArgumentCaptor<Iterable<TextPosting>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(textPostingRepository).deleteAll(captor.capture());
+        List<TextPosting> deleted = new ArrayList<>();
+        captor.getValue().forEach(deleted::add);
+        return deleted;
+    }
+}
@@ -0,0 +1,133 @@
+package tw.danielchiang.health_log.service;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.danielchiang.health_log.service.event.UserActiveChangedEvent;
+
+/**
+ * UserRevocationService 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class UserRevocationServiceTest {
+
+    private static final long ACCESS_TOKEN_EXPIRATION = 900000L;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @InjectMocks
+    private UserRevocationService userRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userRevocationService, "accessTokenExpiration", ACCESS_TOKEN_EXPIRATION);
+        ReflectionTestUtils.setField(userRevocationService, "syncInterval", Duration.ofSeconds(30));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @Test
+    void testRevoke_StoresInRedisAndBroadcasts() {
+        // Given
+        when(zSetOperations.rangeByScoreWithScores(eq("revoked_users"), anyDouble(), anyDouble()))
+            .thenReturn(Set.of());
+
+        // When
+        userRevocationService.revoke(1L);
+
+        // Then
+        assertThat(userRevocationService.isRevoked(1L)).isTrue();
+        assertThat(userRevocationService.isRevoked(2L)).isFalse();
+        verify(zSetOperations).add(eq("revoked_users"), eq("1"), anyDouble());
+        verify(redisTemplate).convertAndSend(UserRevocationService.CHANGED_CHANNEL, "1");
+    }
+
+    @Test
+    void testIsRevoked_SyncsFromRedisOncePerInterval() {
+        // Given: 其他節點撤銷了使用者 5
+        Set<TypedTuple<String>> entries = Set.of(new DefaultTypedTuple<>("5", (double) System.currentTimeMillis()));
+        when(zSetOperations.rangeByScoreWithScores(eq("revoked_users"), anyDouble(), anyDouble()))
+            .thenReturn(entries);
+
+        // When
+        boolean first = userRevocationService.isRevoked(5L);
+        boolean second = userRevocationService.isRevoked(6L);
+
+        // Then: 同步間隔內只讀取一次 Redis
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        verify(zSetOperations, times(1)).rangeByScoreWithScores(eq("revoked_users"), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testRestore_RemovesRevocation() {
+        // Given
+        when(zSetOperations.rangeByScoreWithScores(eq("revoked_users"), anyDouble(), anyDouble()))
+            .thenReturn(Set.of());
+        userRevocationService.revoke(1L);
+
+        // When
+        userRevocationService.restore(1L);
+
+        // Then
+        assertThat(userRevocationService.isRevoked(1L)).isFalse();
+        verify(zSetOperations).remove("revoked_users", "1");
+    }
+
+    @Test
+    void testOnUserActiveChanged_RevokesAndRestores() {
+        // Given
+        when(zSetOperations.rangeByScoreWithScores(eq("revoked_users"), anyDouble(), anyDouble()))
+            .thenReturn(Set.of());
+
+        // When: 停用提交後撤銷
+        userRevocationService.onUserActiveChanged(new UserActiveChangedEvent(1L, false));
+        boolean revoked = userRevocationService.isRevoked(1L);
+        // 重新啟用提交後取消撤銷
+        userRevocationService.onUserActiveChanged(new UserActiveChangedEvent(1L, true));
+
+        // Then
+        assertThat(revoked).isTrue();
+        assertThat(userRevocationService.isRevoked(1L)).isFalse();
+        verify(zSetOperations).add(eq("revoked_users"), eq("1"), anyDouble());
+        verify(zSetOperations).remove("revoked_users", "1");
+    }
+
+    @Test
+    void testRevoke_RedisFailureKeepsLocalRevocation() {
+        // Given
+        when(zSetOperations.add(anyString(), anyString(), anyDouble()))
+            .thenThrow(new RedisConnectionFailureException("connection refused"));
+        when(zSetOperations.rangeByScoreWithScores(eq("revoked_users"), anyDouble(), anyDouble()))
+            .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        // When
+        userRevocationService.revoke(1L);
+
+        // Then: 本節點仍拒絕該使用者
+        assertThat(userRevocationService.isRevoked(1L)).isTrue();
+    }
+}
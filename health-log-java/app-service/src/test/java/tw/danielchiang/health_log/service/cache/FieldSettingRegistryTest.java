@@ -0,0 +1,164 @@
+package tw.danielchiang.health_log.service.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.service.event.FieldSettingChangedEvent;
+
+/**
+ * FieldSettingRegistry 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class FieldSettingRegistryTest {
+
+    @Mock
+    private FieldSettingRepository fieldSettingRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private FieldSettingRegistry registry;
+    private List<FieldSetting> settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = new ArrayList<>(List.of(
+            fieldSetting(1, "體重", true),
+            fieldSetting(2, "舊欄位", false)));
+        when(fieldSettingRepository.findAllByOrderBySettingIdAsc()).thenAnswer(invocation -> List.copyOf(settings));
+
+        registry = new FieldSettingRegistry(fieldSettingRepository, redisTemplate);
+        ReflectionTestUtils.setField(registry, "broadcastEnabled", true);
+        ReflectionTestUtils.setField(registry, "refreshInterval", Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testLookups_LoadOnce() {
+        // When
+        registry.findByFieldName("體重");
+        registry.findById(2);
+        registry.getActive();
+
+        // Then: 第一次查詢載入快照，之後不再存取資料庫
+        assertThat(registry.findByFieldName("體重")).get().extracting(FieldSetting::getSettingId).isEqualTo(1);
+        assertThat(registry.findById(2)).get().extracting(FieldSetting::getFieldName).isEqualTo("舊欄位");
+        assertThat(registry.findActiveByFieldName("舊欄位")).isEmpty();
+        assertThat(registry.getActive()).extracting(FieldSetting::getFieldName).containsExactly("體重");
+        assertThat(registry.getAll()).hasSize(2);
+        verify(fieldSettingRepository, times(1)).findAllByOrderBySettingIdAsc();
+    }
+
+    @Test
+    void testLookups_ReturnDetachedCopies() {
+        // When
+        FieldSetting cached = registry.findByFieldName("體重").orElseThrow();
+        settings.get(0).setUnit("lb");
+
+        // Then: 修改實體不影響快照
+        assertThat(cached).isNotSameAs(settings.get(0));
+        assertThat(registry.findByFieldName("體重").orElseThrow().getUnit()).isEqualTo("kg");
+    }
+
+    @Test
+    void testOnFieldSettingChanged_RefreshesAndBroadcasts() {
+        // Given
+        registry.getAll();
+        settings.set(0, fieldSetting(1, "體重(公斤)", true));
+
+        // When
+        registry.onFieldSettingChanged(new FieldSettingChangedEvent(1, Set.of("體重", "體重(公斤)")));
+
+        // Then
+        assertThat(registry.findByFieldName("體重")).isEmpty();
+        assertThat(registry.findByFieldName("體重(公斤)")).isPresent();
+        verify(redisTemplate).convertAndSend(eq(FieldSettingRegistry.CHANGED_CHANNEL), anyString());
+    }
+
+    @Test
+    void testOnMessage_IgnoresOwnBroadcast() {
+        // Given
+        registry.getAll();
+        String nodeId = (String) ReflectionTestUtils.getField(registry, "nodeId");
+
+        // When: 收到自己與其他節點的通知各一次
+        registry.onMessage(message(nodeId), null);
+        registry.onMessage(message("other-node"), null);
+
+        // Then: 只有其他節點的通知觸發重建
+        verify(fieldSettingRepository, times(2)).findAllByOrderBySettingIdAsc();
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void testLookups_RefreshAfterInterval() {
+        // Given: 其他節點修改了欄位，但通知遺失
+        registry.getAll();
+        settings.set(0, fieldSetting(1, "體重(公斤)", true));
+        assertThat(registry.findByFieldName("體重(公斤)")).isEmpty();
+
+        // When: 超過重新載入間隔
+        ReflectionTestUtils.setField(registry, "nextRefreshAt", 0L);
+
+        // Then: 下一次查詢重建快照，之後在間隔內不再存取資料庫
+        assertThat(registry.findByFieldName("體重(公斤)")).isPresent();
+        registry.getAll();
+        verify(fieldSettingRepository, times(2)).findAllByOrderBySettingIdAsc();
+    }
+
+    @Test
+    void testLookups_RefreshFailureKeepsSnapshot() {
+        // Given
+        registry.getAll();
+        when(fieldSettingRepository.findAllByOrderBySettingIdAsc())
+            .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        ReflectionTestUtils.setField(registry, "nextRefreshAt", 0L);
+
+        // When
+        List<FieldSetting> all = registry.getAll();
+        registry.getAll();
+
+        // Then: 保留目前的快照，且在間隔內不重試
+        assertThat(all).hasSize(2);
+        verify(fieldSettingRepository, times(2)).findAllByOrderBySettingIdAsc();
+    }
+
+    private Message message(String body) {
+        Message message = mock(Message.class);
+        when(message.getBody()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+
+    private FieldSetting fieldSetting(Integer settingId, String fieldName, boolean active) {
+        FieldSetting fieldSetting = new FieldSetting();
+        fieldSetting.setSettingId(settingId);
+        fieldSetting.setFieldName(fieldName);
+        fieldSetting.setDataType("NUMBER");
+        fieldSetting.setUnit("kg");
+        fieldSetting.setIsRequired(false);
+        fieldSetting.setIsActive(active);
+        return fieldSetting;
+    }
+}
@@ -0,0 +1,327 @@
+package tw.danielchiang.health_log.service.cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tw.danielchiang.health_log.model.dto.reponse.TrendDataPointDTO;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.event.FieldSettingChangedEvent;
+import tw.danielchiang.health_log.service.event.RecordChangedEvent;
+
+/**
+ * ReportCache 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class ReportCacheTest {
+
+    private static final TypeReference<List<TrendDataPointDTO>> TREND_TYPE = new TypeReference<>() {};
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private ObjectMapper objectMapper;
+    private MeterRegistry meterRegistry;
+    private ReportCache reportCache;
+    private AtomicInteger loads;
+
+    private final LocalDate jan1 = LocalDate.of(2024, 1, 1);
+    private final LocalDate jan31 = LocalDate.of(2024, 1, 31);
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        meterRegistry = new SimpleMeterRegistry();
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        loads = new AtomicInteger();
+
+        reportCache = new ReportCache(redisTemplate, objectMapper, meterRegistryProvider);
+        ReflectionTestUtils.setField(reportCache, "enabled", true);
+        ReflectionTestUtils.setField(reportCache, "localMaximumSize", 100L);
+        ReflectionTestUtils.setField(reportCache, "ttl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(reportCache, "redisEnabled", false);
+        ReflectionTestUtils.setField(reportCache, "redisRetryInterval", Duration.ofSeconds(30));
+        reportCache.init();
+    }
+
+    @Test
+    void testGet_LocalHitSkipsLoader() {
+        // Given
+        ReportCacheKey key = trendKey(1L, "體重", jan1, jan31, null);
+
+        // When
+        List<TrendDataPointDTO> first = get(key);
+        List<TrendDataPointDTO> second = get(key);
+
+        // Then: 只計算一次，命中次數反映在 actuator 指標
+        assertThat(second).isEqualTo(first);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "report.local").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testOnRecordChanged_InvalidatesOnlyOverlappingEntries() {
+        // Given
+        ReportCacheKey january = trendKey(1L, "體重", jan1, jan31, null);
+        ReportCacheKey february = trendKey(1L, "體重", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), null);
+        ReportCacheKey otherUser = trendKey(2L, "體重", jan1, jan31, null);
+        ReportCacheKey otherField = trendKey(1L, "心情", jan1, jan31, null);
+        get(january);
+        get(february);
+        get(otherUser);
+        get(otherField);
+
+        // When: 使用者 1 修改 1/15 的體重
+        reportCache.onRecordChanged(new RecordChangedEvent(1L, LocalDate.of(2024, 1, 15), Set.of("體重")));
+        get(january);
+        get(february);
+        get(otherUser);
+        get(otherField);
+
+        // Then: 只有涵蓋該日期的同使用者同欄位報表重新計算
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    @Test
+    void testOnRecordChanged_GranularityCoversWholePeriod() {
+        // Given: 週彙總報表查詢 1/1（週一）到 1/3，實際涵蓋整週到 1/7
+        ReportCacheKey weekly = trendKey(1L, "體重", jan1, LocalDate.of(2024, 1, 3), RollupGranularity.WEEKLY);
+        get(weekly);
+
+        // When
+        reportCache.onRecordChanged(new RecordChangedEvent(1L, LocalDate.of(2024, 1, 5), Set.of("體重")));
+        get(weekly);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testOnRecordChanged_AllOfUserInvalidatesEveryEntryOfUser() {
+        // Given
+        get(trendKey(1L, "體重", jan1, jan31, null));
+        get(trendKey(1L, "心情", LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30), null));
+        get(trendKey(2L, "體重", jan1, jan31, null));
+
+        // When: 使用者 1 的彙總重建
+        reportCache.onRecordChanged(RecordChangedEvent.allOf(1L));
+        get(trendKey(1L, "體重", jan1, jan31, null));
+        get(trendKey(1L, "心情", LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30), null));
+        get(trendKey(2L, "體重", jan1, jan31, null));
+
+        // Then: 使用者 1 的所有報表重新計算
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    @Test
+    void testOnFieldSettingChanged_InvalidatesAllUsers() {
+        // Given
+        get(trendKey(1L, "體重", jan1, jan31, null));
+        get(trendKey(2L, "體重", jan1, jan31, null));
+        get(trendKey(1L, "心情", jan1, jan31, null));
+
+        // When
+        reportCache.onFieldSettingChanged(new FieldSettingChangedEvent(1, Set.of("體重")));
+        get(trendKey(1L, "體重", jan1, jan31, null));
+        get(trendKey(2L, "體重", jan1, jan31, null));
+        get(trendKey(1L, "心情", jan1, jan31, null));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    @Test
+    void testGet_RedisHitSkipsLoader() throws Exception {
+        // Given: 其他節點已寫入 Redis
+        ReflectionTestUtils.setField(reportCache, "redisEnabled", true);
+        ReportCacheKey key = trendKey(1L, "體重", jan1, jan31, null);
+        List<TrendDataPointDTO> cached = List.of(new TrendDataPointDTO(jan1, "70"));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(key.toRedisKey())).thenReturn(objectMapper.writeValueAsString(cached));
+
+        // When
+        List<TrendDataPointDTO> result = get(key);
+
+        // Then
+        assertThat(result).isEqualTo(cached);
+        assertThat(loads.get()).isZero();
+    }
+
+    @Test
+    void testGet_RedisFailureFallsBackToLoader() {
+        // Given
+        ReflectionTestUtils.setField(reportCache, "redisEnabled", true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        // When
+        List<TrendDataPointDTO> first = get(trendKey(1L, "體重", jan1, jan31, null));
+        List<TrendDataPointDTO> second = get(trendKey(2L, "體重", jan1, jan31, null));
+
+        // Then: 回傳計算結果，且在重試間隔內不再呼叫 Redis
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(loads.get()).isEqualTo(2);
+        verify(valueOperations, times(1)).get(anyString());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void testGet_LoaderDoesNotBlockOtherKeys() throws Exception {
+        // Given: 另一個執行緒正在載入 1 月的報表
+        ReportCacheKey january = trendKey(1L, "體重", jan1, jan31, null);
+        ReportCacheKey february = trendKey(1L, "體重", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), null);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<TrendDataPointDTO>> slow = CompletableFuture.supplyAsync(() ->
+                reportCache.get(january, TREND_TYPE, () -> {
+                    loading.countDown();
+                    awaitQuietly(release);
+                    return List.of(new TrendDataPointDTO(jan1, "slow"));
+                }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When: 載入期間查詢其他鍵，並有第二個執行緒查詢同一個鍵
+        List<TrendDataPointDTO> other = get(february);
+        CompletableFuture<List<TrendDataPointDTO>> waiting = CompletableFuture.supplyAsync(() -> get(january));
+        release.countDown();
+
+        // Then: 其他鍵不需等待；同一個鍵只載入一次，第二個執行緒取得相同結果
+        assertThat(other).isNotNull();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).extracting(TrendDataPointDTO::getValue).containsExactly("slow");
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).extracting(TrendDataPointDTO::getValue).containsExactly("slow");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testGet_GenerationChangedDuringLoadIsNotCached() {
+        // Given: 載入前讀到使用者世代 2；寫入時 script 發現世代已變更
+        ReflectionTestUtils.setField(reportCache, "redisEnabled", true);
+        ReportCacheKey key = trendKey(1L, "體重", jan1, jan31, null);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("report_cache_generation:user:1", "report_cache_generation:all")))
+                .thenReturn(Arrays.asList("2", null));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any(), any())).thenReturn(0L);
+
+        // When
+        get(key);
+        get(key);
+
+        // Then: 以載入前的世代比對，且過期的結果也不保留在本機快取
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class),
+                eq(List.of("report_cache_generation:user:1", "report_cache_generation:all", key.toRedisKey(),
+                        "report_cache_index:user:1", "report_cache_index:field:體重")),
+                eq("2"), eq("0"), anyString(), eq("600000"));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testOnRecordChanged_IncrementsGenerationBeforeDeleting() {
+        // Given
+        ReflectionTestUtils.setField(reportCache, "redisEnabled", true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        // When
+        reportCache.onRecordChanged(new RecordChangedEvent(1L, LocalDate.of(2024, 1, 15), Set.of("體重")));
+
+        // Then: 先遞增使用者世代，再查詢要刪除的鍵
+        InOrder order = inOrder(valueOperations, setOperations);
+        order.verify(valueOperations).increment("report_cache_generation:user:1");
+        order.verify(setOperations).members("report_cache_index:user:1");
+    }
+
+    @Test
+    void testOnFieldSettingChanged_IncrementsGlobalGeneration() {
+        // Given
+        ReflectionTestUtils.setField(reportCache, "redisEnabled", true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        // When
+        reportCache.onFieldSettingChanged(new FieldSettingChangedEvent(1, Set.of("體重")));
+
+        // Then
+        verify(valueOperations).increment("report_cache_generation:all");
+    }
+
+    @Test
+    void testRedisKeyRoundTrip() {
+        // Given: 欄位名稱包含分隔符號
+        ReportCacheKey key = new ReportCacheKey(1L, ReportKind.ENUM_TREND, "血壓:收縮", jan1, jan31,
+                RollupGranularity.MONTHLY);
+
+        // When
+        ReportCacheKey parsed = ReportCacheKey.fromRedisKey(key.toRedisKey());
+
+        // Then
+        assertThat(parsed).isEqualTo(key);
+    }
+
+    private List<TrendDataPointDTO> get(ReportCacheKey key) {
+        return reportCache.get(key, TREND_TYPE, () -> {
+            loads.incrementAndGet();
+            return List.of(new TrendDataPointDTO(key.getStartDate(), String.valueOf(loads.get())));
+        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ReportCacheKey trendKey(Long userId, String fieldName, LocalDate startDate, LocalDate endDate,
+            RollupGranularity granularity) {
+        return new ReportCacheKey(userId, ReportKind.TREND, fieldName, startDate, endDate, granularity);
+    }
+}
@@ -0,0 +1,267 @@
+package tw.danielchiang.health_log.service.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.danielchiang.health_log.model.entity.DailyRecord;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.obj.JoinObj;
+import tw.danielchiang.health_log.model.obj.SpecObj;
+import tw.danielchiang.health_log.model.obj.SpecPlan;
+import tw.danielchiang.health_log.model.obj.WhereObj;
+
+/**
+ * SpecPlanCache 測試
+ */
+@ExtendWith(MockitoExtension.class)
+class SpecPlanCacheTest {
+
+    @Mock
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    private SpecPlanCache specPlanCache;
+
+    @BeforeEach
+    void setUp() {
+        specPlanCache = new SpecPlanCache(fieldSettingRegistry);
+        ReflectionTestUtils.setField(specPlanCache, "maximumSize", 100L);
+        specPlanCache.init();
+    }
+
+    @Test
+    void testGetPlan_SameShapeDifferentValues_ReusesPlan() {
+        // Given: 同樣的日期區間條件，數值不同
+        SpecObj january = dateRange("2024-01-01", "2024-01-31");
+        SpecObj february = dateRange("2024-02-01", "2024-02-29");
+
+        // When
+        SpecPlan<DailyRecord> first = specPlanCache.getPlan(DailyRecord.class, january);
+        SpecPlan<DailyRecord> second = specPlanCache.getPlan(DailyRecord.class, february);
+
+        // Then: 只編譯一次
+        assertThat(second).isSameAs(first);
+        assertThat(specPlanCache.size()).isEqualTo(1);
+        assertThat(first.getShape()).doesNotContain("2024");
+    }
+
+    @Test
+    void testGetPlan_DifferentShape_CompilesNewPlan() {
+        // Given
+        SpecObj range = dateRange("2024-01-01", "2024-01-31");
+        SpecObj exact = new SpecObj(true, null, List.of(where("recordDate", WhereObj.Operator.EQ, "2024-01-01", null)));
+
+        // When
+        SpecPlan<DailyRecord> first = specPlanCache.getPlan(DailyRecord.class, range);
+        SpecPlan<DailyRecord> second = specPlanCache.getPlan(DailyRecord.class, exact);
+
+        // Then
+        assertThat(second).isNotSameAs(first);
+        assertThat(specPlanCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testGetPlan_InactiveConditionsIgnoredInShape() {
+        // Given: 未啟用的條件不影響形狀
+        WhereObj inactive = WhereObj.builder().isWhere(false).column("unknown").build();
+        SpecObj withInactive = new SpecObj(true, null, List.of(
+            where("recordDate", WhereObj.Operator.GTE, "2024-01-01", null), inactive));
+        SpecObj without = new SpecObj(true, null, List.of(where("recordDate", WhereObj.Operator.GTE, "2024-03-01", null)));
+
+        // When & Then
+        assertThat(specPlanCache.getPlan(DailyRecord.class, withInactive))
+            .isSameAs(specPlanCache.getPlan(DailyRecord.class, without));
+    }
+
+    @Test
+    void testGetPlan_UnknownColumn_ThrowsAndNotCached() {
+        // Given
+        SpecObj specObj = new SpecObj(true, null, List.of(where("passwordHash", WhereObj.Operator.EQ, "x", null)));
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.getPlan(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("欄位不存在");
+        assertThat(specPlanCache.size()).isZero();
+    }
+
+    @Test
+    void testGetPlan_AssociationColumn_Throws() {
+        // Given: 關聯欄位不可直接作為條件
+        SpecObj specObj = new SpecObj(true, null, List.of(where("user", WhereObj.Operator.EQ, "1", null)));
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.getPlan(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("不可作為查詢條件");
+    }
+
+    @Test
+    void testGetPlan_LikeOnNonTextColumn_Throws() {
+        // Given
+        SpecObj specObj = new SpecObj(true, null, List.of(where("recordDate", WhereObj.Operator.LIKE, "2024%", null)));
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.getPlan(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("LIKE");
+    }
+
+    @Test
+    void testGetPlan_JoinOnBasicColumn_Throws() {
+        // Given
+        SpecObj specObj = new SpecObj(true, List.of(JoinObj.builder().isJoin(true).join("recordDate").build()), null);
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.getPlan(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("不是關聯");
+    }
+
+    @Test
+    void testToSpecification_InvalidValue_Throws() {
+        // Given: 形狀合法但數值無法轉換為日期
+        SpecObj specObj = dateRange("2024-01-01", "not-a-date");
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.toSpecification(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("條件值格式錯誤");
+    }
+
+    @Test
+    void testToSpecification_NullSpecObj_ReturnsUnrestricted() {
+        // When & Then
+        assertThat(specPlanCache.toSpecification(DailyRecord.class, null)).isNotNull();
+        assertThat(specPlanCache.size()).isZero();
+    }
+
+    @Test
+    void testGetPlan_FieldConditions_Compiles() {
+        // Given: 「體重 > 80 且心情 = tired」
+        when(fieldSettingRegistry.findByFieldName("weight")).thenReturn(Optional.of(fieldSetting(1, "weight", "NUMBER")));
+        when(fieldSettingRegistry.findByFieldName("mood")).thenReturn(Optional.of(fieldSetting(2, "mood", "ENUM")));
+        SpecObj specObj = new SpecObj(true, null, List.of(
+            fieldWhere("weight", WhereObj.Operator.GT, "80", null),
+            fieldWhere("mood", WhereObj.Operator.EQ, "tired", WhereObj.Logic.AND)));
+
+        // When
+        SpecPlan<DailyRecord> plan = specPlanCache.getPlan(DailyRecord.class, specObj);
+
+        // Then
+        assertThat(plan.getShape()).contains("F:weight:GT", "F:mood:EQ").doesNotContain("80", "tired");
+        assertThat(specPlanCache.toSpecification(DailyRecord.class, specObj)).isNotNull();
+    }
+
+    @Test
+    void testGetPlan_UnknownField_Throws() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("unknown")).thenReturn(Optional.empty());
+        SpecObj specObj = new SpecObj(true, null, List.of(fieldWhere("unknown", WhereObj.Operator.EQ, "1", null)));
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.getPlan(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("欄位不存在");
+    }
+
+    @Test
+    void testGetPlan_LikeOnNumberField_Throws() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("weight")).thenReturn(Optional.of(fieldSetting(1, "weight", "NUMBER")));
+        SpecObj specObj = new SpecObj(true, null, List.of(fieldWhere("weight", WhereObj.Operator.LIKE, "8%", null)));
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.getPlan(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("LIKE");
+    }
+
+    @Test
+    void testGetPlan_RangeOnTextField_Throws() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("mood")).thenReturn(Optional.of(fieldSetting(2, "mood", "ENUM")));
+        SpecObj specObj = new SpecObj(true, null, List.of(fieldWhere("mood", WhereObj.Operator.GT, "a", null)));
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.getPlan(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("大小比較");
+    }
+
+    @Test
+    void testToSpecification_NonNumericValueForNumberField_Throws() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("weight")).thenReturn(Optional.of(fieldSetting(1, "weight", "NUMBER")));
+        SpecObj specObj = new SpecObj(true, null, List.of(fieldWhere("weight", WhereObj.Operator.GT, "heavy", null)));
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.toSpecification(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("條件值格式錯誤");
+    }
+
+    @Test
+    void testGetPlan_FieldSettingReplaced_Recompiles() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("weight")).thenReturn(Optional.of(fieldSetting(1, "weight", "NUMBER")));
+        SpecObj specObj = new SpecObj(true, null, List.of(fieldWhere("weight", WhereObj.Operator.GT, "80", null)));
+        SpecPlan<DailyRecord> first = specPlanCache.getPlan(DailyRecord.class, specObj);
+
+        // When: 欄位設定快照重建後為新的實例
+        when(fieldSettingRegistry.findByFieldName("weight")).thenReturn(Optional.of(fieldSetting(1, "weight", "NUMBER")));
+        SpecPlan<DailyRecord> second = specPlanCache.getPlan(DailyRecord.class, specObj);
+
+        // Then
+        assertThat(second).isNotSameAs(first);
+        assertThat(specPlanCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetPlan_TooManyFieldConditions_Throws() {
+        // Given
+        when(fieldSettingRegistry.findByFieldName("weight")).thenReturn(Optional.of(fieldSetting(1, "weight", "NUMBER")));
+        List<WhereObj> wheres = new ArrayList<>();
+        for (int i = 0; i <= SpecPlan.MAX_FIELD_CONDITIONS; i++) {
+            wheres.add(fieldWhere("weight", WhereObj.Operator.GT, String.valueOf(i), i == 0 ? null : WhereObj.Logic.AND));
+        }
+        SpecObj specObj = new SpecObj(true, null, wheres);
+
+        // When & Then
+        assertThatThrownBy(() -> specPlanCache.getPlan(DailyRecord.class, specObj))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("最多");
+    }
+
+    private FieldSetting fieldSetting(Integer settingId, String fieldName, String dataType) {
+        FieldSetting fieldSetting = new FieldSetting();
+        fieldSetting.setSettingId(settingId);
+        fieldSetting.setFieldName(fieldName);
+        fieldSetting.setDataType(dataType);
+        return fieldSetting;
+    }
+
+    private WhereObj fieldWhere(String field, WhereObj.Operator operator, String value, WhereObj.Logic logic) {
+        return WhereObj.builder().isWhere(true).field(field).operator(operator).value(value).logic(logic).build();
+    }
+
+    private SpecObj dateRange(String from, String to) {
+        return new SpecObj(true, null, List.of(
+            where("recordDate", WhereObj.Operator.GTE, from, null),
+            where("recordDate", WhereObj.Operator.LTE, to, WhereObj.Logic.AND)));
+    }
+
+    private WhereObj where(String column, WhereObj.Operator operator, String value, WhereObj.Logic logic) {
+        return WhereObj.builder().isWhere(true).column(column).operator(operator).value(value).logic(logic).build();
+    }
+}
@@ -0,0 +1,57 @@
+package tw.danielchiang.health_log.service.stats;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Downsampling 測試
+ */
+class DownsamplingTest {
+
+    @Test
+    void testLttb_KeepsEndpointsAndExtremes() {
+        // Given: 平穩的序列中有一個尖峰與一個低谷
+        double[] x = IntStream.range(0, 1_000).asDoubleStream().toArray();
+        double[] y = new double[x.length];
+        Random random = new Random(3);
+        for (int i = 0; i < y.length; i++) {
+            y[i] = 70 + random.nextDouble();
+        }
+        y[321] = 95;
+        y[654] = 40;
+
+        // When
+        int[] selected = Downsampling.lttb(x, y, 50);
+
+        // Then
+        assertThat(selected).hasSize(50);
+        assertThat(selected[0]).isZero();
+        assertThat(selected[49]).isEqualTo(999);
+        assertThat(selected).contains(321, 654);
+        assertThat(selected).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testLttb_BelowThreshold_ReturnsAllIndexes() {
+        // Given
+        double[] x = {1, 2, 3};
+        double[] y = {5, 6, 7};
+
+        // When & Then
+        assertThat(Downsampling.lttb(x, y, 3)).containsExactly(0, 1, 2);
+        assertThat(Downsampling.lttb(new double[0], new double[0], 10)).isEmpty();
+    }
+
+    @Test
+    void testLttb_InvalidArguments() {
+        // When & Then
+        assertThatThrownBy(() -> Downsampling.lttb(new double[5], new double[5], 2))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Downsampling.lttb(new double[5], new double[4], 3))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
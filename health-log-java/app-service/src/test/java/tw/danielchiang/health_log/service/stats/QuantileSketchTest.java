@@ -0,0 +1,100 @@
+package tw.danielchiang.health_log.service.stats;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import org.junit.jupiter.api.Test;
+
+/**
+ * QuantileSketch 測試
+ */
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.0, 0.05, 0.25, 0.5, 0.75, 0.95, 1.0};
+
+    @Test
+    void testQuantile_WithinRelativeAccuracy() {
+        // Given: 睡眠時數與血壓範圍的數值
+        double[] values = new Random(1).doubles(50_000, 3, 180).toArray();
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        Arrays.sort(values);
+
+        // When & Then
+        for (double quantile : QUANTILES) {
+            double expected = values[(int) Math.floor(quantile * (values.length - 1))];
+            assertThat(sketch.quantile(quantile))
+                .isCloseTo(expected, within(expected * QuantileSketch.RELATIVE_ACCURACY));
+        }
+    }
+
+    @Test
+    void testMerge_EqualsSingleSketch() {
+        // Given: 分成兩個月份各自建立
+        double[] values = new Random(2).doubles(10_000, -20, 120).toArray();
+        QuantileSketch whole = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            whole.add(values[i]);
+            (i < 4_000 ? first : second).add(values[i]);
+        }
+
+        // When
+        QuantileSketch merged = first.merge(second);
+
+        // Then
+        assertThat(merged.getCount()).isEqualTo(whole.getCount());
+        assertThat(merged.buckets()).isEqualTo(whole.buckets());
+    }
+
+    @Test
+    void testRemove_RestoresPreviousState() {
+        // Given
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(70.5);
+        sketch.add(0.0);
+        sketch.add(-3.0);
+        QuantileSketch expected = QuantileSketch.fromBytes(sketch.toBytes());
+
+        // When
+        sketch.add(72.0);
+        sketch.remove(72.0);
+
+        // Then
+        assertThat(sketch.buckets()).isEqualTo(expected.buckets());
+        assertThatThrownBy(() -> sketch.remove(500.0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testSerialization_RoundTrip() {
+        // Given
+        QuantileSketch sketch = new QuantileSketch();
+        new Random(3).doubles(1_000, -50, 50).forEach(sketch::add);
+        sketch.add(0.0);
+
+        // When
+        QuantileSketch restored = QuantileSketch.fromBytes(sketch.toBytes());
+
+        // Then
+        assertThat(restored.getCount()).isEqualTo(sketch.getCount());
+        assertThat(restored.buckets()).isEqualTo(sketch.buckets());
+        assertThat(restored.quantile(0.5)).isEqualTo(sketch.quantile(0.5));
+    }
+
+    @Test
+    void testQuantile_EmptyAndInvalid() {
+        // Given
+        QuantileSketch sketch = new QuantileSketch();
+
+        // When & Then
+        assertThat(sketch.quantile(0.5)).isNaN();
+        assertThatThrownBy(() -> sketch.quantile(1.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sketch.add(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,126 @@
+package tw.danielchiang.health_log.service.stats;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RunningStatistics 測試
+ */
+class RunningStatisticsTest {
+
+    @Test
+    void testOf_ComputesAllStatisticsInOnePass() {
+        // Given
+        double[] values = {2, 4, 4, 4, 5, 5, 7, 9};
+
+        // When
+        RunningStatistics statistics = RunningStatistics.of(values);
+
+        // Then
+        assertThat(statistics.getCount()).isEqualTo(8);
+        assertThat(statistics.getSum()).isEqualTo(40.0);
+        assertThat(statistics.getMean()).isEqualTo(5.0);
+        assertThat(statistics.getMin()).isEqualTo(2.0);
+        assertThat(statistics.getMax()).isEqualTo(9.0);
+        assertThat(statistics.getVariance()).isCloseTo(4.0, within(1e-12));
+        assertThat(statistics.getStandardDeviation()).isCloseTo(2.0, within(1e-12));
+        assertThat(statistics.getSampleVariance()).isCloseTo(32.0 / 7, within(1e-12));
+    }
+
+    @Test
+    void testEmpty_ReturnsNaN() {
+        // When
+        RunningStatistics statistics = new RunningStatistics();
+
+        // Then
+        assertThat(statistics.getCount()).isZero();
+        assertThat(statistics.getMean()).isNaN();
+        assertThat(statistics.getMin()).isNaN();
+        assertThat(statistics.getVariance()).isNaN();
+        assertThat(RunningStatistics.median(new double[0], 0)).isNaN();
+    }
+
+    @Test
+    void testMerge_EqualsSinglePass() {
+        // Given: 分成三段各自計算
+        double[] values = new Random(42).doubles(10_000, 50, 120).toArray();
+        RunningStatistics whole = RunningStatistics.of(values);
+
+        // When
+        RunningStatistics merged = new RunningStatistics();
+        int[] bounds = {0, 1, 3_333, 10_000};
+        for (int i = 0; i < bounds.length - 1; i++) {
+            RunningStatistics part = new RunningStatistics();
+            part.addAll(values, bounds[i], bounds[i + 1]);
+            merged.merge(part);
+        }
+
+        // Then
+        assertThat(merged.getCount()).isEqualTo(whole.getCount());
+        assertThat(merged.getMean()).isCloseTo(whole.getMean(), within(1e-9));
+        assertThat(merged.getVariance()).isCloseTo(whole.getVariance(), within(1e-9));
+        assertThat(merged.getMin()).isEqualTo(whole.getMin());
+        assertThat(merged.getMax()).isEqualTo(whole.getMax());
+    }
+
+    @Test
+    void testOfMoments_MergesRollupPartials() {
+        // Given: 兩個週期的 count/sum/sum of squares：{1, 2, 3} 與 {4, 5}
+        RunningStatistics first = RunningStatistics.ofMoments(3, 6, 14, 1, 3);
+        RunningStatistics second = RunningStatistics.ofMoments(2, 9, 41, 4, 5);
+
+        // When
+        RunningStatistics merged = first.merge(second);
+
+        // Then: 與 {1, 2, 3, 4, 5} 相同
+        assertThat(merged.getCount()).isEqualTo(5);
+        assertThat(merged.getMean()).isCloseTo(3.0, within(1e-12));
+        assertThat(merged.getVariance()).isCloseTo(2.0, within(1e-12));
+        assertThat(merged.getMin()).isEqualTo(1.0);
+        assertThat(merged.getMax()).isEqualTo(5.0);
+    }
+
+    @Test
+    void testVariance_LargeOffsetStaysAccurate() {
+        // Given: 平均值遠大於標準差（平方和公式會相消而失去精度）
+        double[] values = new double[1_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e9 + (i % 2 == 0 ? 0.1 : -0.1);
+        }
+
+        // When & Then
+        assertThat(RunningStatistics.of(values).getStandardDeviation()).isCloseTo(0.1, within(1e-6));
+    }
+
+    @Test
+    void testMedian_MatchesSortedMedian() {
+        // Given: 奇數與偶數個、含重複值與已排序的輸入
+        Random random = new Random(7);
+        double[][] inputs = {
+            random.doubles(1_001).toArray(),
+            random.doubles(1_000).toArray(),
+            random.ints(999, 0, 5).asDoubleStream().toArray(),
+            IntStream.range(0, 10_000).asDoubleStream().toArray(),
+            {3.0},
+            {1.0, 2.0}
+        };
+
+        for (double[] input : inputs) {
+            double[] sorted = input.clone();
+            Arrays.sort(sorted);
+            int n = sorted.length;
+            double expected = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+
+            // When
+            double median = RunningStatistics.median(input.clone(), n);
+
+            // Then
+            assertThat(median).isEqualTo(expected);
+        }
+    }
+}
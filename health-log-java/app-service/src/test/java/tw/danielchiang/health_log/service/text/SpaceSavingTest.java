@@ -0,0 +1,91 @@
+package tw.danielchiang.health_log.service.text;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SpaceSaving 測試
+ */
+class SpaceSavingTest {
+
+    @Test
+    void testTop_ExactWhenDistinctTermsWithinCapacity() {
+        // Given
+        SpaceSaving heavyHitters = new SpaceSaving(4);
+
+        // When
+        offer(heavyHitters, "頭痛", 3);
+        offer(heavyHitters, "慢跑", 1);
+        offer(heavyHitters, "睡覺", 5);
+
+        // Then: 沒有取代發生，次數為精確值
+        assertThat(heavyHitters.total()).isEqualTo(9L);
+        assertThat(heavyHitters.top(2)).containsExactly(Map.entry("睡覺", 5L), Map.entry("頭痛", 3L));
+        assertThat(heavyHitters.error("頭痛")).isZero();
+        assertThat(heavyHitters.error("喝水")).isEqualTo(-1L);
+    }
+
+    @Test
+    void testTop_HeavyHittersSurviveEviction() {
+        // Given: 監看 4 個詞彙，兩個高頻詞（各佔 1/3）夾雜大量只出現一次的詞彙
+        SpaceSaving heavyHitters = new SpaceSaving(4);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            offer(heavyHitters, "頭痛", 1);
+            offer(heavyHitters, "noise" + i, 1);
+            offer(heavyHitters, "睡覺", 1);
+        }
+
+        // Then: 高頻詞仍在監看中，估計次數不低於實際次數，誤差不超過 total / capacity
+        Map<String, Long> top = heavyHitters.top(2);
+        assertThat(top).containsOnlyKeys("頭痛", "睡覺");
+        assertThat(top.get("頭痛")).isGreaterThanOrEqualTo(50L);
+        assertThat(top.get("頭痛") - heavyHitters.error("頭痛")).isLessThanOrEqualTo(50L);
+        assertThat(heavyHitters.error("頭痛")).isLessThanOrEqualTo(heavyHitters.total() / 4);
+    }
+
+    @Test
+    void testAccept_EvictionKeepsLookupConsistent() {
+        // Given: 小容量下反覆取代，並與精確計數比較
+        SpaceSaving heavyHitters = new SpaceSaving(8);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+
+        // When: 偏斜分佈（前幾個詞彙出現機率較高）
+        for (int i = 0; i < 5000; i++) {
+            String term = "t" + (int) Math.abs(random.nextGaussian() * 6);
+            offer(heavyHitters, term, 1);
+            exact.merge(term, 1L, Long::sum);
+        }
+
+        // Then: 每個監看中的詞彙都查得到，且實際次數落在 [估計 - 誤差, 估計] 之間
+        Map<String, Long> top = heavyHitters.top(8);
+        assertThat(top).hasSize(8);
+        top.forEach((term, estimate) -> {
+            long error = heavyHitters.error(term);
+            assertThat(error).isBetween(0L, heavyHitters.total() / 8);
+            assertThat(exact.get(term)).isBetween(estimate - error, estimate);
+        });
+        assertThat(top).containsKey("t0");
+    }
+
+    @Test
+    void testConstructor_InvalidCapacity() {
+        // When & Then
+        assertThatThrownBy(() -> new SpaceSaving(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void offer(SpaceSaving heavyHitters, String term, int times) {
+        char[] chars = term.toCharArray();
+        for (int i = 0; i < times; i++) {
+            heavyHitters.accept(chars, 0, chars.length);
+        }
+    }
+}
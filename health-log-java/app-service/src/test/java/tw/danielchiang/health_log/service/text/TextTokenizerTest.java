@@ -0,0 +1,100 @@
+package tw.danielchiang.health_log.service.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TextTokenizer 測試
+ */
+class TextTokenizerTest {
+
+    private final Vocabulary vocabulary = new Vocabulary();
+    private final TextTokenizer tokenizer = new TextTokenizer(vocabulary);
+
+    @Test
+    void testTokenize_LatinWordsLowercasedAndStopWordsRemoved() {
+        // When
+        List<String> tokens = tokenize("Went for a Morning RUN, then 5km walk!");
+
+        // Then: 停用詞與單一字元被過濾
+        assertThat(tokens).containsExactly("went", "morning", "run", "then", "5km", "walk");
+    }
+
+    @Test
+    void testTokenize_CjkBigramsSplitByStopCharacters() {
+        // When: 「的」為停用字，標點為分隔
+        List<String> tokens = tokenize("今天跑步的心情很好。頭痛");
+
+        // Then
+        assertThat(tokens).containsExactly("今天", "天跑", "跑步", "心情", "情很", "很好", "頭痛");
+    }
+
+    @Test
+    void testTokenize_MixedScriptsAndSingleCharacters() {
+        // When: 中英夾雜，單獨一個中文字不輸出
+        List<String> tokens = tokenize("吃了vitamin D後睡覺");
+
+        // Then
+        assertThat(tokens).containsExactly("vitamin", "後睡", "睡覺");
+    }
+
+    @Test
+    void testTokenize_SupplementaryCharacters() {
+        // Given: 擴充平面的漢字（U+20BB7）
+        String text = new String(Character.toChars(0x20BB7)) + "野家";
+
+        // When
+        List<String> tokens = tokenize(text);
+
+        // Then
+        assertThat(tokens).containsExactly(new String(Character.toChars(0x20BB7)) + "野", "野家");
+    }
+
+    @Test
+    void testTokenize_RepeatedTokensShareIds() {
+        // Given
+        TokenFrequencies frequencies = new TokenFrequencies(vocabulary);
+
+        // When
+        tokenizer.tokenize("頭痛 headache 頭痛", frequencies);
+        tokenizer.tokenize("HEADACHE again", frequencies);
+
+        // Then
+        assertThat(frequencies.toMap())
+            .containsEntry("頭痛", 2L)
+            .containsEntry("headache", 2L)
+            .containsEntry("again", 1L)
+            .hasSize(3);
+    }
+
+    @Test
+    void testTokenize_TokenSinkDoesNotInternStopWords() {
+        // Given
+        List<String> tokens = new ArrayList<>();
+
+        // When: 字元區段版本不需要詞彙表
+        new TextTokenizer().tokenize("The run 跑步", (chars, offset, length) -> tokens.add(new String(chars, offset, length)));
+        tokenizer.tokenize("the and run", id -> { });
+
+        // Then: 停用詞不佔用使用者詞彙表的 id
+        assertThat(tokens).containsExactly("run", "跑步");
+        assertThat(vocabulary.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testTokenize_WithoutVocabularyRejectsIdSink() {
+        // When & Then
+        assertThatThrownBy(() -> new TextTokenizer().tokenize("run", id -> { }))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenizer.tokenize(text, id -> tokens.add(vocabulary.token(id)));
+        return tokens;
+    }
+}
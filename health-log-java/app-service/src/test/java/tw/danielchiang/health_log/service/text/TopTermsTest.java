@@ -0,0 +1,56 @@
+package tw.danielchiang.health_log.service.text;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TopTerms 測試
+ */
+class TopTermsTest {
+
+    @Test
+    void testToMap_KeepsHighestCountsInDescendingOrder() {
+        // Given
+        TopTerms topTerms = new TopTerms(3);
+
+        // When
+        topTerms.offer("頭痛", 5);
+        topTerms.offer("慢跑", 2);
+        topTerms.offer("睡覺", 9);
+        topTerms.offer("喝水", 1);
+        topTerms.offer("咖啡", 7);
+
+        // Then
+        assertThat(topTerms.toMap()).containsExactly(
+            Map.entry("睡覺", 9L), Map.entry("咖啡", 7L), Map.entry("頭痛", 5L));
+    }
+
+    @Test
+    void testToMap_TiesBrokenByTermRegardlessOfInputOrder() {
+        // Given
+        TopTerms forward = new TopTerms(2);
+        TopTerms backward = new TopTerms(2);
+
+        // When
+        for (String term : new String[] {"a1", "b2", "c3", "d4"}) {
+            forward.offer(term, 1);
+        }
+        for (String term : new String[] {"d4", "c3", "b2", "a1"}) {
+            backward.offer(term, 1);
+        }
+
+        // Then
+        assertThat(forward.toMap()).containsExactly(Map.entry("a1", 1L), Map.entry("b2", 1L));
+        assertThat(backward.toMap()).isEqualTo(forward.toMap());
+    }
+
+    @Test
+    void testConstructor_InvalidLimit() {
+        // When & Then
+        assertThatThrownBy(() -> new TopTerms(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package tw.danielchiang.health_log.service.text;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Vocabulary 測試
+ */
+class VocabularyTest {
+
+    @Test
+    void testIntern_SameTokenReturnsSameId() {
+        // Given
+        Vocabulary vocabulary = new Vocabulary();
+        char[] buffer = "xx跑步xx".toCharArray();
+
+        // When
+        int first = vocabulary.intern("跑步");
+        int second = vocabulary.intern(buffer, 2, 2);
+        int other = vocabulary.intern("睡覺");
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isEqualTo(first + 1);
+        assertThat(vocabulary.size()).isEqualTo(2);
+        assertThat(vocabulary.token(first)).isEqualTo("跑步");
+    }
+
+    @Test
+    void testIntern_GrowsBeyondInitialCapacity() {
+        // Given
+        Vocabulary vocabulary = new Vocabulary();
+
+        // When: 超過初始容量，觸發擴充與重新雜湊
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(vocabulary.intern("token" + i)).isEqualTo(i);
+        }
+
+        // Then: 擴充後仍能查到原本的 id
+        assertThat(vocabulary.size()).isEqualTo(10_000);
+        for (int i = 0; i < 10_000; i += 97) {
+            assertThat(vocabulary.intern("token" + i)).isEqualTo(i);
+            assertThat(vocabulary.token(i)).isEqualTo("token" + i);
+        }
+    }
+
+    @Test
+    void testToken_UnknownId() {
+        // When & Then
+        assertThatThrownBy(() -> new Vocabulary().token(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package tw.danielchiang.health_log.service.window;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import org.junit.jupiter.api.Test;
+
+import tw.danielchiang.health_log.service.stats.RunningStatistics;
+
+/**
+ * NumberWindowAggregator 測試
+ */
+class NumberWindowAggregatorTest {
+
+    @Test
+    void testRemove_MatchesRecomputationOfRemainingValues() {
+        // Given
+        NumberWindowAggregator aggregator = new NumberWindowAggregator();
+        for (String value : new String[] {"70.5", "71", "69.8", "72.3", "70"}) {
+            aggregator.add(new BigDecimal(value));
+        }
+
+        // When: 移除最大值與其中一個數值
+        aggregator.remove(new BigDecimal("72.3"));
+        aggregator.remove(new BigDecimal("70.5"));
+
+        // Then: 與只用剩下數值重新計算的結果相同
+        RunningStatistics expected = RunningStatistics.of(new double[] {71, 69.8, 70});
+        assertThat(aggregator.getCount()).isEqualTo(3L);
+        assertThat(aggregator.getSum()).isEqualByComparingTo("210.8");
+        assertThat(aggregator.getStandardDeviation()).isCloseTo(expected.getStandardDeviation(), offset(1e-9));
+        assertThat(aggregator.getMin()).isEqualByComparingTo("69.8");
+        assertThat(aggregator.getMax()).isEqualByComparingTo("71");
+        assertThat(aggregator.getMedian()).isEqualTo(70.0);
+    }
+
+    @Test
+    void testGetMedian_EvenCountWithDuplicates() {
+        // Given
+        NumberWindowAggregator aggregator = new NumberWindowAggregator();
+
+        // When
+        aggregator.add(new BigDecimal("1"));
+        aggregator.add(new BigDecimal("3"));
+        aggregator.add(new BigDecimal("3"));
+        aggregator.add(new BigDecimal("8"));
+
+        // Then
+        assertThat(aggregator.getMedian()).isEqualTo(3.0);
+        aggregator.remove(new BigDecimal("3"));
+        assertThat(aggregator.getMedian()).isEqualTo(3.0);
+        aggregator.remove(new BigDecimal("8"));
+        assertThat(aggregator.getMedian()).isEqualTo(2.0);
+    }
+
+    @Test
+    void testRemove_LastValueResetsStatistics() {
+        // Given
+        NumberWindowAggregator aggregator = new NumberWindowAggregator();
+        aggregator.add(new BigDecimal("70"));
+
+        // When
+        aggregator.remove(new BigDecimal("70"));
+
+        // Then
+        assertThat(aggregator.getCount()).isZero();
+        assertThat(aggregator.getMin()).isNull();
+        assertThat(aggregator.getMedian()).isNaN();
+        assertThat(aggregator.getStandardDeviation()).isNaN();
+        assertThatThrownBy(() -> aggregator.remove(new BigDecimal("70")))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testParse_BlankOrInvalidIgnored() {
+        // When & Then
+        assertThat(NumberWindowAggregator.parse(" 70.5 ")).isEqualByComparingTo("70.5");
+        assertThat(NumberWindowAggregator.parse("")).isNull();
+        assertThat(NumberWindowAggregator.parse("abc")).isNull();
+    }
+}
@@ -0,0 +1,102 @@
+package tw.danielchiang.health_log.service.window;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RollingWindows 測試
+ */
+class RollingWindowsTest {
+
+    private final LocalDate today = LocalDate.of(2024, 3, 31);
+
+    @Test
+    void testApply_OnlyWindowsCoveringDateUpdated() {
+        // Given: 今天、10 天前、60 天前各一筆
+        RollingWindows<String, EnumWindowAggregator> windows =
+            new RollingWindows<>(today, EnumWindowAggregator::parse, EnumWindowAggregator::new);
+        windows.load(today, "好");
+        windows.load(today.minusDays(10), "差");
+        windows.load(today.minusDays(60), "好");
+
+        // Then: 各視窗只包含涵蓋的日期
+        assertThat(windows.get(7).getCounts()).containsExactly(Map.entry("好", 1L));
+        assertThat(windows.get(30).getCounts()).containsOnly(Map.entry("好", 1L), Map.entry("差", 1L));
+        assertThat(windows.get(90).getCounts()).containsOnly(Map.entry("好", 2L), Map.entry("差", 1L));
+        assertThat(windows.startDate(30)).isEqualTo(LocalDate.of(2024, 3, 2));
+
+        // When: 10 天前改為「好」
+        boolean applied = windows.apply(today.minusDays(10), "差", "好");
+
+        // Then
+        assertThat(applied).isTrue();
+        assertThat(windows.get(7).getCounts()).containsExactly(Map.entry("好", 1L));
+        assertThat(windows.get(30).getCounts()).containsExactly(Map.entry("好", 2L));
+        assertThat(windows.get(90).getCounts()).containsExactly(Map.entry("好", 3L));
+    }
+
+    @Test
+    void testApply_OutOfSyncOldValueRejected() {
+        // Given
+        RollingWindows<String, EnumWindowAggregator> windows =
+            new RollingWindows<>(today, EnumWindowAggregator::parse, EnumWindowAggregator::new);
+        windows.load(today, "好");
+
+        // When: 變更前的數值與保存的不同
+        boolean applied = windows.apply(today, "差", "普通");
+
+        // Then: 不做任何修改
+        assertThat(applied).isFalse();
+        assertThat(windows.get(7).getCounts()).containsExactly(Map.entry("好", 1L));
+    }
+
+    @Test
+    void testApply_DatesOutsideRetentionIgnored() {
+        // Given
+        RollingWindows<String, EnumWindowAggregator> windows =
+            new RollingWindows<>(today, EnumWindowAggregator::parse, EnumWindowAggregator::new);
+
+        // When: 90 天前與明天
+        boolean old = windows.apply(today.minusDays(RollingWindows.MAX_DAYS), null, "好");
+        boolean future = windows.apply(today.plusDays(1), null, "好");
+
+        // Then
+        assertThat(old).isTrue();
+        assertThat(future).isTrue();
+        assertThat(windows.get(90).getCount()).isZero();
+    }
+
+    @Test
+    void testApply_TextTermsAddedAndRemoved() {
+        // Given
+        RollingWindows<TextWindowAggregator.DayText, TextWindowAggregator> windows =
+            new RollingWindows<>(today, TextWindowAggregator::parse, TextWindowAggregator::new);
+        windows.load(today, "頭痛 headache");
+        windows.load(today.minusDays(1), "頭痛");
+
+        // When: 昨天的文字刪除
+        windows.apply(today.minusDays(1), "頭痛", null);
+
+        // Then
+        TextWindowAggregator text = windows.get(7);
+        assertThat(text.getCount()).isEqualTo(1L);
+        assertThat(text.top(10)).containsOnly(Map.entry("頭痛", 1L), Map.entry("headache", 1L));
+        assertThat(text.getMaxLength()).isEqualTo(11);
+        assertThat(text.getMinLength()).isEqualTo(11);
+    }
+
+    @Test
+    void testGet_UnsupportedDays() {
+        // Given
+        RollingWindows<String, EnumWindowAggregator> windows =
+            new RollingWindows<>(today, EnumWindowAggregator::parse, EnumWindowAggregator::new);
+
+        // When & Then
+        assertThatThrownBy(() -> windows.get(14))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
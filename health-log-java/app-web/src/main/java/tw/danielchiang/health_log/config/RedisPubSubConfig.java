@@ -0,0 +1,38 @@
+package tw.danielchiang.health_log.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import tw.danielchiang.health_log.service.RollingWindowService;
+import tw.danielchiang.health_log.service.UserRevocationService;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+import tw.danielchiang.health_log.service.cache.ReportCache;
+
+/**
+ * Redis pub/sub 配置類
+ * 訂閱跨節點的快取失效、欄位設定變更與使用者撤銷通知
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.redis.pubsub.enabled", havingValue = "true", matchIfMissing = true)
+public class RedisPubSubConfig {
+
+    /**
+     * Redis 訊息監聽容器
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+            ReportCache reportCache, FieldSettingRegistry fieldSettingRegistry,
+            UserRevocationService userRevocationService, RollingWindowService rollingWindowService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(reportCache, new ChannelTopic(ReportCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(rollingWindowService, new ChannelTopic(ReportCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(fieldSettingRegistry, new ChannelTopic(FieldSettingRegistry.CHANGED_CHANNEL));
+        container.addMessageListener(userRevocationService, new ChannelTopic(UserRevocationService.CHANGED_CHANNEL));
+        return container;
+    }
+}
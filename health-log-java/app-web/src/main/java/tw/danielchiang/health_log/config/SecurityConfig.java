@@ -50,8 +50,10 @@ public class SecurityConfig {
                     "/api/auth/login", "/api/auth/refresh", "/api/auth/logout", "/api/auth/register", 
                     "/api/auth/verify-email").permitAll()
                 .requestMatchers("/api/settings/fields").permitAll() // 公開端點，用於動態表單渲染
+                .requestMatchers("/actuator/health").permitAll()
                 // Admin 專用端點
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // 其他端點需要認證
                 .anyRequest().authenticated()
             )
@@ -1,19 +1,26 @@
 package tw.danielchiang.health_log.web.controller;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -21,11 +28,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import tw.danielchiang.health_log.model.domain.PageableData;
 import tw.danielchiang.health_log.model.dto.reponse.DailyRecordDetailDTO;
+import tw.danielchiang.health_log.model.dto.reponse.RecordImportResultDTO;
 import tw.danielchiang.health_log.model.dto.reponse.ResponseDTO;
 import tw.danielchiang.health_log.model.dto.request.RecordRequestDTO;
 import tw.danielchiang.health_log.model.dto.request.SearchRequestDTO;
 import tw.danielchiang.health_log.model.entity.DailyRecord;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
 import tw.danielchiang.health_log.service.DailyRecordService;
+import tw.danielchiang.health_log.service.RecordExportService;
+import tw.danielchiang.health_log.service.RecordImportJob;
 import tw.danielchiang.health_log.web.util.SecurityUtil;
 
 /**
@@ -38,7 +49,12 @@ import tw.danielchiang.health_log.web.util.SecurityUtil;
 @Slf4j
 public class DailyRecordController {
 
+    private static final MediaType IMPORT_CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType EXPORT_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final DailyRecordService dailyRecordService;
+    private final RecordImportJob recordImportJob;
+    private final RecordExportService recordExportService;
     private final SecurityUtil securityUtil;
 
     /**
@@ -58,6 +74,11 @@ public class DailyRecordController {
         }
     }
 
+    /**
+     * 分頁查詢當前用戶的記錄
+     * POST /api/records/search
+     * pageObj.isKeyset 為 true 時使用 keyset 分頁，以回應的 nextCursor 作為下一頁的 pageObj.cursor
+     */
     @PostMapping("/search")
     public ResponseEntity<ResponseDTO<DailyRecordDetailDTO>> getRecordsByUserId(
             @Valid @RequestBody SearchRequestDTO<DailyRecord> request,
@@ -65,14 +86,19 @@ public class DailyRecordController {
         ResponseDTO<DailyRecordDetailDTO> responseDTO = new ResponseDTO<>();
         try {
             Long userId = securityUtil.getCurrentUserId(httpRequest);
-            Page<DailyRecordDetailDTO> records = dailyRecordService.getRecordsByUserId(userId, request);
-            responseDTO.setData(PageableData.of(records));
+            PageableData<DailyRecordDetailDTO> records = dailyRecordService.getRecordsByUserId(userId, request);
+            responseDTO.setData(records);
             return ResponseEntity.ok().body(responseDTO);
         } catch (IllegalStateException e) {
             log.warn("Failed to get records: {}", e.getMessage());
             responseDTO.setStatus(HttpStatus.UNAUTHORIZED.value());
             responseDTO.setMessage(HttpStatus.UNAUTHORIZED.name());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(responseDTO);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid search request: {}", e.getMessage());
+            responseDTO.setStatus(HttpStatus.BAD_REQUEST.value());
+            responseDTO.setMessage(HttpStatus.BAD_REQUEST.name());
+            return ResponseEntity.badRequest().body(responseDTO);
         }
     }
 
@@ -116,6 +142,61 @@ public class DailyRecordController {
         }
     }
 
+    /**
+     * 批次匯入歷史記錄（CSV 或 NDJSON，每筆資料列為某日某欄位的數值；CSV 引號內的值可換行）
+     * POST /api/records/import
+     * Content-Type: text/csv 或 application/x-ndjson
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<RecordImportResultDTO> importRecords(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest httpRequest) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(httpRequest);
+            RecordFileFormat format = IMPORT_CSV.isCompatibleWith(contentType)
+                    ? RecordFileFormat.CSV : RecordFileFormat.NDJSON;
+            RecordImportResultDTO result = recordImportJob.importRecords(userId, httpRequest.getInputStream(), format);
+            return ResponseEntity.ok(result);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to import records: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("Invalid import request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 匯出當前用戶的所有記錄（串流輸出，格式與匯入相同）
+     * GET /api/records/export?format=ndjson|csv
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRecords(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request) {
+        RecordFileFormat fileFormat;
+        try {
+            fileFormat = RecordFileFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid export format: {}", format);
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            StreamingResponseBody body = output -> recordExportService.exportRecords(userId, fileFormat, output);
+            return ResponseEntity.ok()
+                    .contentType(fileFormat == RecordFileFormat.CSV
+                            ? new MediaType(IMPORT_CSV, StandardCharsets.UTF_8) : EXPORT_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename("records." + fileFormat.name().toLowerCase()).build().toString())
+                    .body(body);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to export records: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
     /**
      * 刪除指定日期的記錄
      * DELETE /api/records/{date}
@@ -3,6 +3,7 @@ package tw.danielchiang.health_log.web.controller;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,12 +15,19 @@ import org.springframework.web.bind.annotation.RestController;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.model.dto.reponse.DashboardDTO;
 import tw.danielchiang.health_log.model.dto.reponse.EnumDistributionDTO;
+import tw.danielchiang.health_log.model.dto.reponse.EnumTrendColumnsDTO;
 import tw.danielchiang.health_log.model.dto.reponse.EnumTrendDTO;
+import tw.danielchiang.health_log.model.dto.reponse.NumberDistributionDTO;
 import tw.danielchiang.health_log.model.dto.reponse.NumberReportDTO;
+import tw.danielchiang.health_log.model.dto.reponse.RollingWindowDTO;
 import tw.danielchiang.health_log.model.dto.reponse.TextAnalysisDTO;
 import tw.danielchiang.health_log.model.dto.reponse.TrendDataPointDTO;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.DashboardService;
 import tw.danielchiang.health_log.service.ReportService;
+import tw.danielchiang.health_log.service.RollingWindowService;
 import tw.danielchiang.health_log.web.util.SecurityUtil;
 
 /**
@@ -34,23 +42,77 @@ import tw.danielchiang.health_log.web.util.SecurityUtil;
 public class ReportController {
 
     private final ReportService reportService;
+    private final DashboardService dashboardService;
+    private final RollingWindowService rollingWindowService;
     private final SecurityUtil securityUtil;
 
+    // ==================== 儀表板 ====================
+
+    /**
+     * 獲取所有啟用欄位的摘要（一次請求取代逐欄位呼叫）
+     * GET /api/reports/dashboard?startDate={startDate}&endDate={endDate}
+     * 超過期限未完成的欄位列於 timedOutFields；區間查詢本身超過期限時回傳 503
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardDTO> getDashboard(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            DashboardDTO dashboard = dashboardService.getDashboard(userId, startDate, endDate);
+            return ResponseEntity.ok(dashboard);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to get dashboard: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid dashboard request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (QueryTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * 獲取欄位最近 N 天（含今天）的摘要
+     * GET /api/reports/rolling?fieldName={fieldName}&days={days}
+     * days 為 7、30 或 90，由增量維護的滑動視窗彙總回傳
+     */
+    @GetMapping("/rolling")
+    public ResponseEntity<RollingWindowDTO> getRollingWindow(
+            @RequestParam String fieldName,
+            @RequestParam(defaultValue = "7") int days,
+            HttpServletRequest request) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            RollingWindowDTO rollingWindow = rollingWindowService.getRollingWindow(userId, fieldName, days);
+            return ResponseEntity.ok(rollingWindow);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to get rolling window: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid rolling window request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ==================== NUMBER 類型報表 ====================
 
     /**
      * 獲取 NUMBER 類型欄位的完整報表（包含趨勢和統計）
-     * GET /api/reports/number?fieldName={fieldName}&startDate={startDate}&endDate={endDate}
+     * GET /api/reports/number?fieldName={fieldName}&startDate={startDate}&endDate={endDate}&granularity={granularity}
+     * 指定 granularity（DAILY/WEEKLY/MONTHLY）時從彙總表查詢
      */
     @GetMapping("/number")
     public ResponseEntity<NumberReportDTO> getNumberReport(
             @RequestParam String fieldName,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) RollupGranularity granularity,
             HttpServletRequest request) {
         try {
             Long userId = securityUtil.getCurrentUserId(request);
-            NumberReportDTO report = reportService.getNumberReport(userId, fieldName, startDate, endDate);
+            NumberReportDTO report = reportService.getNumberReport(userId, fieldName, startDate, endDate, granularity);
             return ResponseEntity.ok(report);
         } catch (IllegalStateException e) {
             log.warn("Failed to get number report: {}", e.getMessage());
@@ -61,9 +123,36 @@ public class ReportController {
         }
     }
 
+    /**
+     * 獲取 NUMBER 類型欄位的分佈（p5/p25/p50/p75/p95 與直方圖）
+     * GET /api/reports/number/distribution?fieldName={fieldName}&startDate={startDate}&endDate={endDate}&bins={bins}
+     * 由每月分位數草圖合併估計，相對誤差不超過 1%
+     */
+    @GetMapping("/number/distribution")
+    public ResponseEntity<NumberDistributionDTO> getNumberDistribution(
+            @RequestParam String fieldName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false, defaultValue = "10") int bins,
+            HttpServletRequest request) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            NumberDistributionDTO distribution = reportService.getNumberDistribution(userId, fieldName, startDate, endDate, bins);
+            return ResponseEntity.ok(distribution);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to get number distribution: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid number distribution request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * 獲取趨勢數據（NUMBER 類型，向後兼容）
-     * GET /api/reports/trend?fieldName={fieldName}&startDate={startDate}&endDate={endDate}
+     * GET /api/reports/trend?fieldName={fieldName}&startDate={startDate}&endDate={endDate}&granularity={granularity}&maxPoints={maxPoints}
+     * 指定 granularity 時回傳每個週期的平均值（忽略 includeNulls）
+     * 指定 maxPoints 時以 LTTB 降採樣至最多 maxPoints 個點（includeNulls 時忽略）
      */
     @GetMapping("/trend")
     public ResponseEntity<List<TrendDataPointDTO>> getTrendData(
@@ -71,15 +160,19 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false, defaultValue = "false") boolean includeNulls,
+            @RequestParam(required = false) RollupGranularity granularity,
+            @RequestParam(required = false) Integer maxPoints,
             HttpServletRequest request) {
         try {
             Long userId = securityUtil.getCurrentUserId(request);
             
             List<TrendDataPointDTO> trendData;
-            if (includeNulls) {
+            if (granularity == null && includeNulls) {
                 trendData = reportService.getTrendDataWithNulls(userId, fieldName, startDate, endDate);
-            } else {
+            } else if (granularity == null && maxPoints == null) {
                 trendData = reportService.getTrendData(userId, fieldName, startDate, endDate);
+            } else {
+                trendData = reportService.getTrendData(userId, fieldName, startDate, endDate, granularity, maxPoints);
             }
             
             return ResponseEntity.ok(trendData);
@@ -96,17 +189,18 @@ public class ReportController {
 
     /**
      * 獲取 ENUM 類型欄位的分佈統計
-     * GET /api/reports/enum/distribution?fieldName={fieldName}&startDate={startDate}&endDate={endDate}
+     * GET /api/reports/enum/distribution?fieldName={fieldName}&startDate={startDate}&endDate={endDate}&granularity={granularity}
      */
     @GetMapping("/enum/distribution")
     public ResponseEntity<EnumDistributionDTO> getEnumDistribution(
             @RequestParam String fieldName,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) RollupGranularity granularity,
             HttpServletRequest request) {
         try {
             Long userId = securityUtil.getCurrentUserId(request);
-            EnumDistributionDTO distribution = reportService.getEnumDistribution(userId, fieldName, startDate, endDate);
+            EnumDistributionDTO distribution = reportService.getEnumDistribution(userId, fieldName, startDate, endDate, granularity);
             return ResponseEntity.ok(distribution);
         } catch (IllegalStateException e) {
             log.warn("Failed to get enum distribution: {}", e.getMessage());
@@ -119,17 +213,18 @@ public class ReportController {
 
     /**
      * 獲取 ENUM 類型欄位的時間序列趨勢
-     * GET /api/reports/enum/trend?fieldName={fieldName}&startDate={startDate}&endDate={endDate}
+     * GET /api/reports/enum/trend?fieldName={fieldName}&startDate={startDate}&endDate={endDate}&granularity={granularity}
      */
     @GetMapping("/enum/trend")
     public ResponseEntity<EnumTrendDTO> getEnumTrend(
             @RequestParam String fieldName,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) RollupGranularity granularity,
             HttpServletRequest request) {
         try {
             Long userId = securityUtil.getCurrentUserId(request);
-            EnumTrendDTO trend = reportService.getEnumTrend(userId, fieldName, startDate, endDate);
+            EnumTrendDTO trend = reportService.getEnumTrend(userId, fieldName, startDate, endDate, granularity);
             return ResponseEntity.ok(trend);
         } catch (IllegalStateException e) {
             log.warn("Failed to get enum trend: {}", e.getMessage());
@@ -140,21 +235,54 @@ public class ReportController {
         }
     }
 
+    /**
+     * 獲取 ENUM 類型欄位的時間序列趨勢（欄式格式）
+     * GET /api/reports/enum/trend/columns?fieldName={fieldName}&startDate={startDate}&endDate={endDate}&granularity={granularity}
+     * 回傳日期陣列與每個選項一個次數向量，取代巢狀的日期 -> 選項 -> 次數
+     */
+    @GetMapping("/enum/trend/columns")
+    public ResponseEntity<EnumTrendColumnsDTO> getEnumTrendColumns(
+            @RequestParam String fieldName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) RollupGranularity granularity,
+            HttpServletRequest request) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            EnumTrendColumnsDTO trend = reportService.getEnumTrendColumns(userId, fieldName, startDate, endDate, granularity);
+            return ResponseEntity.ok(trend);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to get enum trend columns: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid enum trend columns request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ==================== TEXT 類型報表 ====================
 
     /**
      * 獲取 TEXT 類型欄位的文字分析報表
-     * GET /api/reports/text/analysis?fieldName={fieldName}&startDate={startDate}&endDate={endDate}
+     * GET /api/reports/text/analysis?fieldName={fieldName}&startDate={startDate}&endDate={endDate}&topK={topK}
+     *     &includeTimeline={includeTimeline}&timelineLimit={timelineLimit}&timelineBefore={timelineBefore}
+     * topK 為回傳的關鍵字數（依次數降序），省略時為上限 100
+     * 時間序列由新到舊，指定 timelineLimit 時分頁，下一頁以回傳的 timelineNextBefore 作為 timelineBefore
      */
     @GetMapping("/text/analysis")
     public ResponseEntity<TextAnalysisDTO> getTextAnalysis(
             @RequestParam String fieldName,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer topK,
+            @RequestParam(defaultValue = "true") boolean includeTimeline,
+            @RequestParam(required = false) Integer timelineLimit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate timelineBefore,
             HttpServletRequest request) {
         try {
             Long userId = securityUtil.getCurrentUserId(request);
-            TextAnalysisDTO analysis = reportService.getTextAnalysis(userId, fieldName, startDate, endDate);
+            TextAnalysisDTO analysis = reportService.getTextAnalysis(userId, fieldName, startDate, endDate,
+                    topK, includeTimeline, timelineLimit, timelineBefore);
             return ResponseEntity.ok(analysis);
         } catch (IllegalStateException e) {
             log.warn("Failed to get text analysis: {}", e.getMessage());
@@ -164,5 +292,29 @@ public class ReportController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
 
+    /**
+     * 搜尋 TEXT 類型欄位中提及關鍵字的日期
+     * GET /api/reports/text/search?fieldName={fieldName}&query={query}&startDate={startDate}&endDate={endDate}
+     * 回傳日期（降序）；中文以相鄰兩字比對，關鍵字至少需要兩個字
+     */
+    @GetMapping("/text/search")
+    public ResponseEntity<List<LocalDate>> searchText(
+            @RequestParam String fieldName,
+            @RequestParam String query,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            List<LocalDate> dates = reportService.searchText(userId, fieldName, query, startDate, endDate);
+            return ResponseEntity.ok(dates);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to search text: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid text search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
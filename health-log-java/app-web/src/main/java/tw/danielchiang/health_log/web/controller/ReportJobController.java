@@ -0,0 +1,176 @@
+package tw.danielchiang.health_log.web.controller;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.model.dto.reponse.ReportJobDTO;
+import tw.danielchiang.health_log.model.dto.request.ReportJobRequestDTO;
+import tw.danielchiang.health_log.model.obj.ReportJobStatus;
+import tw.danielchiang.health_log.service.ReportJobService;
+import tw.danielchiang.health_log.web.util.SecurityUtil;
+
+/**
+ * 非同步報表工作控制器
+ * 長日期區間的報表與匯出：提交後取得工作 ID，查詢進度或等待完成，完成後下載 gzip 壓縮的結果
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    private static final int MAX_WAIT_SECONDS = 25;
+
+    private final ReportJobService reportJobService;
+    private final SecurityUtil securityUtil;
+
+    /**
+     * 提交報表工作
+     * POST /api/reports/jobs
+     * 使用者未完成的工作數已達上限或佇列已滿時回傳 429
+     */
+    @PostMapping
+    public ResponseEntity<ReportJobDTO> submitJob(
+            @Valid @RequestBody ReportJobRequestDTO request,
+            HttpServletRequest httpRequest) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(httpRequest);
+            ReportJobDTO job = reportJobService.submit(userId, request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to submit report job: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid report job request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            log.warn("Report job rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        } catch (IOException e) {
+            log.error("Failed to save report job: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 獲取當前用戶的所有工作
+     * GET /api/reports/jobs
+     */
+    @GetMapping
+    public ResponseEntity<List<ReportJobDTO>> listJobs(HttpServletRequest request) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            return ResponseEntity.ok(reportJobService.listJobs(userId));
+        } catch (IllegalStateException e) {
+            log.warn("Failed to list report jobs: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    /**
+     * 獲取工作狀態與進度
+     * GET /api/reports/jobs/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ReportJobDTO> getJob(@PathVariable String jobId, HttpServletRequest request) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            return reportJobService.getJob(userId, jobId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            log.warn("Failed to get report job: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    /**
+     * 等待工作結束（long polling，不佔用請求執行緒）
+     * GET /api/reports/jobs/{jobId}/completion?timeoutSeconds={timeoutSeconds}
+     * 期限內結束時回傳 200，否則回傳 202 與目前進度，客戶端再次呼叫繼續等待
+     */
+    @GetMapping("/{jobId}/completion")
+    public CompletableFuture<ResponseEntity<ReportJobDTO>> awaitCompletion(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "20") int timeoutSeconds,
+            HttpServletRequest request) {
+        if (timeoutSeconds < 0 || timeoutSeconds > MAX_WAIT_SECONDS) {
+            log.warn("Invalid completion timeout: {}", timeoutSeconds);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        Long userId;
+        Optional<CompletableFuture<ReportJobDTO>> completion;
+        try {
+            userId = securityUtil.getCurrentUserId(request);
+            completion = reportJobService.awaitCompletion(userId, jobId);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to await report job: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        if (completion.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        return completion.get()
+                .thenApply(ResponseEntity::ok)
+                .completeOnTimeout(null, timeoutSeconds, TimeUnit.SECONDS)
+                .thenApply(response -> response != null ? response : reportJobService.getJob(userId, jobId)
+                        .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job))
+                        .orElse(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * 下載已完成工作的結果（gzip 壓縮）
+     * GET /api/reports/jobs/{jobId}/result
+     * 工作尚未完成或失敗時回傳 409
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<Resource> getResult(@PathVariable String jobId, HttpServletRequest request) {
+        try {
+            Long userId = securityUtil.getCurrentUserId(request);
+            Optional<ReportJobDTO> job = reportJobService.getJob(userId, jobId);
+            if (job.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (job.get().getStatus() != ReportJobStatus.COMPLETED) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            Optional<Path> result = reportJobService.getResult(userId, jobId);
+            if (result.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(GZIP)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(job.get().getResultFileName()).build().toString())
+                    .body(new FileSystemResource(result.get()));
+        } catch (IllegalStateException e) {
+            log.warn("Failed to get report job result: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+}
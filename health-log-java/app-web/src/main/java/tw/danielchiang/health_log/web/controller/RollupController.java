@@ -0,0 +1,38 @@
+package tw.danielchiang.health_log.web.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.model.dto.reponse.RollupRebuildResultDTO;
+import tw.danielchiang.health_log.service.RollupRebuildJob;
+
+/**
+ * 彙總管理控制器
+ * 處理彙總重建請求（僅 Admin）
+ */
+@RestController
+@RequestMapping("/api/admin/rollups")
+@RequiredArgsConstructor
+@Slf4j
+public class RollupController {
+
+    private final RollupRebuildJob rollupRebuildJob;
+
+    /**
+     * 重建彙總，未指定 userId 時重建所有使用者
+     * POST /api/admin/rollups/rebuild?userId={userId}
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<RollupRebuildResultDTO> rebuild(@RequestParam(required = false) Long userId) {
+        RollupRebuildResultDTO result = userId != null
+                ? rollupRebuildJob.rebuildForUser(userId)
+                : rollupRebuildJob.rebuildAll();
+        log.info("Rollup rebuild requested: userId={}, result={}", userId, result);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,54 @@
+package tw.danielchiang.health_log.web.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.service.AuthService;
+
+/**
+ * 使用者管理控制器
+ * 處理使用者停用與重新啟用（僅 Admin）
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@Slf4j
+public class UserAdminController {
+
+    private final AuthService authService;
+
+    /**
+     * 停用使用者，已核發的 Access Token 立即失效
+     * POST /api/admin/users/{userId}/deactivate
+     */
+    @PostMapping("/{userId}/deactivate")
+    public ResponseEntity<Void> deactivate(@PathVariable Long userId) {
+        try {
+            authService.deactivateUser(userId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to deactivate user: userId={}, error={}", userId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 重新啟用使用者
+     * POST /api/admin/users/{userId}/activate
+     */
+    @PostMapping("/{userId}/activate")
+    public ResponseEntity<Void> activate(@PathVariable Long userId) {
+        try {
+            authService.activateUser(userId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to activate user: userId={}, error={}", userId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package tw.danielchiang.health_log.web.filter;
 
 import java.io.IOException;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -10,6 +13,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,11 +21,14 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import tw.danielchiang.health_log.service.JwtPrincipal;
 import tw.danielchiang.health_log.service.JwtTokenUtil;
+import tw.danielchiang.health_log.service.UserRevocationService;
 
 /**
  * JWT 請求過濾器
  * 攔截所有請求，驗證 JWT Token 並設置 Spring Security 上下文
+ * 預設直接以 Token Claims（userId、email、role）建立認證，不查詢資料庫
  */
 @Component
 @RequiredArgsConstructor
@@ -31,8 +38,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
+    /**
+     * 已驗證的 Claims 存放在請求屬性中，同一請求內不再重複解析 Token
+     */
+    public static final String CLAIMS_ATTRIBUTE = JwtRequestFilter.class.getName() + ".claims";
+
     private final JwtTokenUtil jwtTokenUtil;
     private final UserDetailsService userDetailsService;
+    private final UserRevocationService userRevocationService;
+
+    @Value("${jwt.claims-authentication.enabled:true}")
+    private boolean claimsAuthentication;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -40,14 +56,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String requestTokenHeader = request.getHeader(AUTHORIZATION_HEADER);
 
-        String username = null;
+        Claims claims = null;
         String jwtToken = null;
 
         // 從 Header 中提取 Token
         if (requestTokenHeader != null && requestTokenHeader.startsWith(BEARER_PREFIX)) {
             jwtToken = requestTokenHeader.substring(BEARER_PREFIX.length());
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwtToken);
+                claims = jwtTokenUtil.getAllClaimsFromToken(jwtToken);
+                request.setAttribute(CLAIMS_ATTRIBUTE, claims);
             } catch (ExpiredJwtException e) {
                 log.warn("JWT Token expired, error: {}", e.getMessage());
             } catch (Exception e) {
@@ -56,23 +73,55 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
 
         // 驗證 Token 並設置認證
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            // 驗證 Token 有效性
-            if (jwtTokenUtil.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken = 
-                    new UsernamePasswordAuthenticationToken(
-                        userDetails, 
-                        null, 
-                        userDetails.getAuthorities()
-                    );
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtPrincipal principal = claimsAuthentication ? jwtTokenUtil.getPrincipalFromClaims(claims) : null;
+            if (principal != null) {
+                authenticateFromClaims(request, principal);
+            } else {
+                authenticateFromDatabase(request, claims);
             }
         }
 
         chain.doFilter(request, response);
     }
-}
 
+    /**
+     * 直接以 Token Claims 建立認證，請求過程不查詢資料庫
+     * 簽章與過期時間已在解析時驗證；停用的使用者由撤銷清單拒絕
+     */
+    private void authenticateFromClaims(HttpServletRequest request, JwtPrincipal principal) {
+        if (userRevocationService.isRevoked(principal.getUserId())) {
+            log.warn("Rejected token of revoked user: userId={}", principal.getUserId());
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authenticationToken =
+            new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole()))
+            );
+        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+    }
+
+    /**
+     * 從資料庫載入使用者後建立認證（未啟用 Claims 認證或 Token 缺少必要 Claims 時）
+     */
+    private void authenticateFromDatabase(HttpServletRequest request, Claims claims) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+
+        // 驗證 Token 有效性
+        if (jwtTokenUtil.validateToken(claims, userDetails)) {
+            UsernamePasswordAuthenticationToken authenticationToken = 
+                new UsernamePasswordAuthenticationToken(
+                    userDetails, 
+                    null, 
+                    userDetails.getAuthorities()
+                );
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        }
+    }
+}
@@ -5,9 +5,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import tw.danielchiang.health_log.service.JwtPrincipal;
 import tw.danielchiang.health_log.service.JwtTokenUtil;
+import tw.danielchiang.health_log.web.filter.JwtRequestFilter;
 
 /**
  * 安全工具類
@@ -29,6 +32,20 @@ public class SecurityUtil {
      * @throws IllegalStateException 如果無法獲取用戶 ID
      */
     public Long getCurrentUserId(HttpServletRequest request) {
+        // 以 Token Claims 認證時，使用者 ID 已在 principal 中，不需再次解析 Token
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return principal.getUserId();
+        }
+
+        // 過濾器已解析過的 Claims
+        if (request.getAttribute(JwtRequestFilter.CLAIMS_ATTRIBUTE) instanceof Claims claims) {
+            Long userId = jwtTokenUtil.getUserIdFromClaims(claims);
+            if (userId != null) {
+                return userId;
+            }
+        }
+
         String token = extractToken(request);
         if (token != null) {
             Long userId = jwtTokenUtil.getUserIdFromToken(token);
@@ -59,9 +59,67 @@ CREATE TABLE IF NOT EXISTS record_data (
     record_id BIGINT NOT NULL REFERENCES daily_records(record_id) ON DELETE CASCADE,
     setting_id INT NOT NULL REFERENCES field_settings(setting_id),
     value_text TEXT NOT NULL,
+    value_numeric NUMERIC, -- NUMBER 類型欄位的數值，供 SQL 聚合使用
     UNIQUE(record_id, setting_id)
 );
 
+-- F. NUMBER 欄位彙總表（每日 / 每週 / 每月）
+CREATE TABLE IF NOT EXISTS number_rollups (
+    rollup_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    setting_id INT NOT NULL REFERENCES field_settings(setting_id),
+    granularity VARCHAR(10) NOT NULL, -- DAILY, WEEKLY, MONTHLY
+    period_start DATE NOT NULL,
+    value_count BIGINT NOT NULL,
+    value_sum NUMERIC NOT NULL,
+    value_sum_squares NUMERIC NOT NULL,
+    value_min NUMERIC,
+    value_max NUMERIC,
+    CONSTRAINT uk_number_rollup_period UNIQUE(user_id, setting_id, granularity, period_start)
+);
+
+-- G. ENUM 欄位彙總表（每日 / 每週 / 每月，各選項次數）
+CREATE TABLE IF NOT EXISTS enum_rollups (
+    rollup_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    setting_id INT NOT NULL REFERENCES field_settings(setting_id),
+    granularity VARCHAR(10) NOT NULL, -- DAILY, WEEKLY, MONTHLY
+    period_start DATE NOT NULL,
+    option_value TEXT NOT NULL,
+    option_count BIGINT NOT NULL,
+    CONSTRAINT uk_enum_rollup_period_option UNIQUE(user_id, setting_id, granularity, period_start, option_value)
+);
+
+-- H. NUMBER 欄位分位數草圖表（每月，序列化的固定對數分桶次數）
+CREATE TABLE IF NOT EXISTS number_sketches (
+    sketch_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    setting_id INT NOT NULL REFERENCES field_settings(setting_id),
+    period_start DATE NOT NULL, -- 月份第一天
+    value_count BIGINT NOT NULL,
+    sketch BYTEA NOT NULL,
+    CONSTRAINT uk_number_sketch_period UNIQUE(user_id, setting_id, period_start)
+);
+
+-- I. TEXT 欄位詞彙索引表（詞彙 → 出現日期，每日一列）
+CREATE TABLE IF NOT EXISTS text_postings (
+    posting_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    setting_id INT NOT NULL REFERENCES field_settings(setting_id),
+    term VARCHAR(64) NOT NULL,
+    record_date DATE NOT NULL,
+    term_count INT NOT NULL,
+    CONSTRAINT uk_text_posting_term_date UNIQUE(user_id, setting_id, term, record_date)
+);
+
+-- 寫入量大的資料表以 pooled sequence 配號（每次取號保留 50 個 ID），搭配 JDBC 批次寫入
+ALTER SEQUENCE daily_records_record_id_seq INCREMENT BY 50;
+ALTER SEQUENCE record_data_data_id_seq INCREMENT BY 50;
+ALTER SEQUENCE number_rollups_rollup_id_seq INCREMENT BY 50;
+ALTER SEQUENCE enum_rollups_rollup_id_seq INCREMENT BY 50;
+ALTER SEQUENCE number_sketches_sketch_id_seq INCREMENT BY 50;
+ALTER SEQUENCE text_postings_posting_id_seq INCREMENT BY 50;
+
 -- ============================================
 -- 4. 效能優化索引
 -- ============================================
@@ -73,6 +131,10 @@ CREATE TABLE IF NOT EXISTS record_data (
 CREATE INDEX IF NOT EXISTS idx_record_data_setting_record 
 ON record_data(setting_id, record_id);
 
+-- 關鍵字頻率優化索引：依日期區間掃描詞彙索引
+CREATE INDEX IF NOT EXISTS idx_text_postings_date
+ON text_postings(user_id, setting_id, record_date);
+
 -- ============================================
 -- 5. 初始資料
 -- ============================================
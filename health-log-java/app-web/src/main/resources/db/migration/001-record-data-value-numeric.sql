@@ -0,0 +1,16 @@
+-- ============================================
+-- 001. record_data 新增 value_numeric 欄位
+-- PostgreSQL
+-- ============================================
+
+-- NUMBER 類型欄位的數值，供 SQL 聚合使用
+ALTER TABLE record_data ADD COLUMN IF NOT EXISTS value_numeric NUMERIC;
+
+-- 回填既有的 NUMBER 欄位數值（無法解析的值保持 NULL）
+UPDATE record_data rd
+SET value_numeric = CAST(TRIM(rd.value_text) AS NUMERIC)
+FROM field_settings fs
+WHERE fs.setting_id = rd.setting_id
+  AND fs.data_type = 'NUMBER'
+  AND rd.value_numeric IS NULL
+  AND TRIM(rd.value_text) ~ '^[+-]?([0-9]+(\.[0-9]*)?|\.[0-9]+)([eE][+-]?[0-9]+)?$';
@@ -0,0 +1,32 @@
+-- ============================================
+-- 002. 新增 NUMBER / ENUM 欄位彙總表
+-- PostgreSQL
+-- 建立後呼叫 POST /api/admin/rollups/rebuild 以既有資料重建彙總
+-- ============================================
+
+-- NUMBER 欄位彙總表（每日 / 每週 / 每月）
+CREATE TABLE IF NOT EXISTS number_rollups (
+    rollup_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    setting_id INT NOT NULL REFERENCES field_settings(setting_id),
+    granularity VARCHAR(10) NOT NULL, -- DAILY, WEEKLY, MONTHLY
+    period_start DATE NOT NULL,
+    value_count BIGINT NOT NULL,
+    value_sum NUMERIC NOT NULL,
+    value_sum_squares NUMERIC NOT NULL,
+    value_min NUMERIC,
+    value_max NUMERIC,
+    CONSTRAINT uk_number_rollup_period UNIQUE(user_id, setting_id, granularity, period_start)
+);
+
+-- ENUM 欄位彙總表（每日 / 每週 / 每月，各選項次數）
+CREATE TABLE IF NOT EXISTS enum_rollups (
+    rollup_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    setting_id INT NOT NULL REFERENCES field_settings(setting_id),
+    granularity VARCHAR(10) NOT NULL, -- DAILY, WEEKLY, MONTHLY
+    period_start DATE NOT NULL,
+    option_value TEXT NOT NULL,
+    option_count BIGINT NOT NULL,
+    CONSTRAINT uk_enum_rollup_period_option UNIQUE(user_id, setting_id, granularity, period_start, option_value)
+);
@@ -0,0 +1,11 @@
+-- ============================================
+-- 003. 寫入量大的資料表改以 pooled sequence 配號
+-- PostgreSQL
+-- Hibernate 每次取號保留 50 個 ID（須與實體的 allocationSize 一致），新增可批次送出
+-- 使用 pooled 演算法，直接以欄位預設值 nextval 寫入的資料不會與應用程式配出的 ID 重複
+-- ============================================
+
+ALTER SEQUENCE daily_records_record_id_seq INCREMENT BY 50;
+ALTER SEQUENCE record_data_data_id_seq INCREMENT BY 50;
+ALTER SEQUENCE number_rollups_rollup_id_seq INCREMENT BY 50;
+ALTER SEQUENCE enum_rollups_rollup_id_seq INCREMENT BY 50;
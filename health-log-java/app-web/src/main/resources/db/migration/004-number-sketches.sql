@@ -0,0 +1,19 @@
+-- ============================================
+-- 004. 新增 NUMBER 欄位分位數草圖表
+-- PostgreSQL
+-- 建立後呼叫 POST /api/admin/rollups/rebuild 以既有資料重建草圖
+-- ============================================
+
+-- NUMBER 欄位分位數草圖（每月，序列化的固定對數分桶次數）
+CREATE TABLE IF NOT EXISTS number_sketches (
+    sketch_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    setting_id INT NOT NULL REFERENCES field_settings(setting_id),
+    period_start DATE NOT NULL, -- 月份第一天
+    value_count BIGINT NOT NULL,
+    sketch BYTEA NOT NULL,
+    CONSTRAINT uk_number_sketch_period UNIQUE(user_id, setting_id, period_start)
+);
+
+-- Hibernate 每次取號保留 50 個 ID（須與實體的 allocationSize 一致）
+ALTER SEQUENCE number_sketches_sketch_id_seq INCREMENT BY 50;
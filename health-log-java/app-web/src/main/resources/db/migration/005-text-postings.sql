@@ -0,0 +1,22 @@
+-- ============================================
+-- 005. 新增 TEXT 欄位詞彙索引表
+-- PostgreSQL
+-- 建立後呼叫 POST /api/admin/rollups/rebuild 以既有資料重建索引
+-- ============================================
+
+-- TEXT 欄位詞彙索引（詞彙 → 出現日期，每日一列）
+CREATE TABLE IF NOT EXISTS text_postings (
+    posting_id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    setting_id INT NOT NULL REFERENCES field_settings(setting_id),
+    term VARCHAR(64) NOT NULL,
+    record_date DATE NOT NULL,
+    term_count INT NOT NULL,
+    CONSTRAINT uk_text_posting_term_date UNIQUE(user_id, setting_id, term, record_date)
+);
+
+-- 關鍵字頻率：依日期區間掃描（唯一約束的索引負責依詞彙查詢日期）
+CREATE INDEX IF NOT EXISTS idx_text_postings_date ON text_postings(user_id, setting_id, record_date);
+
+-- Hibernate 每次取號保留 50 個 ID（須與實體的 allocationSize 一致）
+ALTER SEQUENCE text_postings_posting_id_seq INCREMENT BY 50;
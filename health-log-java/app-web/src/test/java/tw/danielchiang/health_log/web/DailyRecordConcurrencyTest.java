@@ -0,0 +1,166 @@
+package tw.danielchiang.health_log.web;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import tw.danielchiang.health_log.data.repository.NumberRollupRepository;
+import tw.danielchiang.health_log.data.repository.NumberSketchRepository;
+import tw.danielchiang.health_log.model.dto.request.RecordRequestDTO;
+import tw.danielchiang.health_log.model.entity.NumberRollup;
+import tw.danielchiang.health_log.model.entity.NumberSketch;
+import tw.danielchiang.health_log.model.obj.RollupGranularity;
+import tw.danielchiang.health_log.service.DailyRecordService;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+
+/**
+ * 同一使用者並行寫入時的彙總一致性
+ * 多個執行緒同時寫入同一週、同一月的不同日期，彙總與分位數草圖不可遺失增量或違反唯一鍵
+ */
+// 使用獨立的內存資料庫：其他測試 context 以 create-drop 重建共用資料庫時，序列會與此 context 已預取的 ID 區段重疊
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:concurrency")
+@ActiveProfiles("test")
+@Import(RecordTestFixture.class)
+class DailyRecordConcurrencyTest {
+
+    private static final String FIELD_NAME = "concurrent-weight";
+
+    // 2024-03-04 為週一，同一週 7 天皆在 3 月內
+    private static final LocalDate WEEK_START = LocalDate.of(2024, 3, 4);
+    private static final LocalDate MONTH_START = LocalDate.of(2024, 3, 1);
+    private static final int THREADS = 7;
+
+    @Autowired
+    private DailyRecordService dailyRecordService;
+
+    @Autowired
+    private NumberRollupRepository numberRollupRepository;
+
+    @Autowired
+    private NumberSketchRepository numberSketchRepository;
+
+    @Autowired
+    private FieldSettingRegistry fieldSettingRegistry;
+
+    @Autowired
+    private RecordTestFixture fixture;
+
+    private Long userId;
+    private Integer settingId;
+
+    @BeforeEach
+    void setUp() {
+        userId = fixture.createUser("concurrency");
+        fixture.ensureFields("NUMBER", List.of(FIELD_NAME));
+        settingId = fieldSettingRegistry.findActiveByFieldName(FIELD_NAME).orElseThrow().getSettingId();
+    }
+
+    @Test
+    void testSaveRecord_ParallelSavesKeepRollupsConsistent() throws Exception {
+        // When: 每個執行緒寫入同一週的不同日期，數值為 1..7
+        runInParallel(day -> dailyRecordService.saveRecord(userId, request(WEEK_START.plusDays(day), day + 1)));
+
+        // Then: 每週 / 每月彙總各一筆，包含所有數值
+        assertRollup(RollupGranularity.WEEKLY, WEEK_START, THREADS, 28);
+        assertRollup(RollupGranularity.MONTHLY, MONTH_START, THREADS, 28);
+        assertThat(findSketches()).singleElement()
+            .satisfies(sketch -> assertThat(sketch.getCount()).isEqualTo((long) THREADS));
+    }
+
+    @Test
+    void testSaveRecord_ParallelUpdatesKeepRollupsConsistent() throws Exception {
+        // Given: 先依序寫入數值 1..7
+        for (int day = 0; day < THREADS; day++) {
+            dailyRecordService.saveRecord(userId, request(WEEK_START.plusDays(day), day + 1));
+        }
+
+        // When: 並行將每天的數值加 10
+        runInParallel(day -> dailyRecordService.saveRecord(userId, request(WEEK_START.plusDays(day), day + 11)));
+
+        // Then
+        assertRollup(RollupGranularity.WEEKLY, WEEK_START, THREADS, 98);
+        assertThat(findSketches()).singleElement()
+            .satisfies(sketch -> assertThat(sketch.getCount()).isEqualTo((long) THREADS));
+    }
+
+    @Test
+    void testDeleteRecord_ParallelDeletesEmptySketch() throws Exception {
+        // Given: 並行寫入數值 1..7
+        runInParallel(day -> dailyRecordService.saveRecord(userId, request(WEEK_START.plusDays(day), day + 1)));
+
+        // When: 並行刪除所有記錄
+        runInParallel(day -> dailyRecordService.deleteRecord(userId, WEEK_START.plusDays(day)));
+
+        // Then: 每個數值都從草圖移除，草圖與彙總都不再存在
+        assertThat(findSketches()).isEmpty();
+        assertThat(numberRollupRepository
+            .findByUserIdAndSettingIdAndGranularityAndPeriodStartBetweenOrderByPeriodStartAsc(
+                userId, settingId, RollupGranularity.MONTHLY, MONTH_START, MONTH_START)).isEmpty();
+    }
+
+    /**
+     * 以 THREADS 個執行緒同時執行，任一執行緒失敗時拋出其例外
+     */
+    private void runInParallel(DayAction action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int day = 0; day < THREADS; day++) {
+                int index = day;
+                futures.add(executor.submit(() -> {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    action.run(index);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertRollup(RollupGranularity granularity, LocalDate periodStart, long count, int sum) {
+        List<NumberRollup> rollups = numberRollupRepository
+            .findByUserIdAndSettingIdAndGranularityAndPeriodStartBetweenOrderByPeriodStartAsc(
+                userId, settingId, granularity, periodStart, periodStart);
+        assertThat(rollups).singleElement().satisfies(rollup -> {
+            assertThat(rollup.getCount()).isEqualTo(count);
+            assertThat(rollup.getSum()).isEqualByComparingTo(BigDecimal.valueOf(sum));
+        });
+    }
+
+    private List<NumberSketch> findSketches() {
+        return numberSketchRepository.findByUserIdAndSettingIdAndPeriodStartBetweenOrderByPeriodStartAsc(
+            userId, settingId, MONTH_START, MONTH_START);
+    }
+
+    private RecordRequestDTO request(LocalDate recordDate, int value) {
+        RecordRequestDTO request = new RecordRequestDTO();
+        request.setRecordDate(recordDate);
+        request.setFieldValues(Map.of(FIELD_NAME, String.valueOf(value)));
+        return request;
+    }
+
+    @FunctionalInterface
+    private interface DayAction {
+        void run(int day);
+    }
+}
@@ -0,0 +1,206 @@
+package tw.danielchiang.health_log.web;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import tw.danielchiang.health_log.model.domain.PageableData;
+import tw.danielchiang.health_log.model.dto.reponse.DailyRecordDetailDTO;
+import tw.danielchiang.health_log.model.dto.request.RecordRequestDTO;
+import tw.danielchiang.health_log.model.dto.request.SearchRequestDTO;
+import tw.danielchiang.health_log.model.entity.DailyRecord;
+import tw.danielchiang.health_log.model.obj.OrderObj;
+import tw.danielchiang.health_log.model.obj.PageObj;
+import tw.danielchiang.health_log.model.obj.SpecObj;
+import tw.danielchiang.health_log.model.obj.WhereObj;
+import tw.danielchiang.health_log.service.DailyRecordService;
+
+/**
+ * getRecordsByUserId 每頁送出的 JDBC 敘述數
+ * 以 Hibernate Statistics 確認一頁記錄及其所有數值以固定數量的查詢載入，不隨頁面筆數增加
+ */
+// 使用獨立的內存資料庫：其他測試 context 以 create-drop 重建共用資料庫時，序列會與此 context 已預取的 ID 區段重疊
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.datasource.url=jdbc:h2:mem:statements"
+})
+@ActiveProfiles("test")
+@Import(RecordTestFixture.class)
+class DailyRecordSearchStatementsTest {
+
+    private static final int RECORD_COUNT = 120;
+    private static final int PAGE_SIZE = 100;
+    private static final int FIELD_COUNT = 5;
+
+    @Autowired
+    private DailyRecordService dailyRecordService;
+
+    @Autowired
+    private RecordTestFixture fixture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        userId = fixture.createUser("search");
+        fixture.ensureFields("NUMBER", IntStream.range(0, FIELD_COUNT).mapToObj(this::fieldName).toList());
+
+        LocalDate startDate = LocalDate.of(2023, 1, 1);
+        for (int day = 0; day < RECORD_COUNT; day++) {
+            dailyRecordService.saveRecord(userId, request(startDate.plusDays(day)));
+        }
+    }
+
+    @Test
+    void testGetRecordsByUserId_StatementsPerPage() {
+        // Given: 第一頁 100 筆記錄，每筆 5 個欄位
+        PageObj pageObj = PageObj.builder()
+            .isPaged(true)
+            .page(0)
+            .size(PAGE_SIZE)
+            .isSorted(true)
+            .orders(List.of(OrderObj.builder().field("recordDate").order("DESC").build()))
+            .build();
+        SearchRequestDTO<DailyRecord> request = new SearchRequestDTO<>(null, pageObj);
+
+        // When
+        statistics.clear();
+        PageableData<DailyRecordDetailDTO> page = dailyRecordService.getRecordsByUserId(userId, request);
+        long statements = statistics.getPrepareStatementCount();
+
+        // Then: 分頁、計數、載入整頁數值各一次，欄位名稱不查詢資料庫
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getTotalElements()).isEqualTo(RECORD_COUNT);
+        assertThat(page.getContent()).allSatisfy(record ->
+            assertThat(record.getFieldValues()).containsOnlyKeys(fieldName(0), fieldName(1), fieldName(2),
+                fieldName(3), fieldName(4)));
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void testGetRecordsByUserId_KeysetPagesThroughAllRecords() {
+        // Given: 每頁 50 筆，以 nextCursor 接續
+        List<LocalDate> dates = new ArrayList<>();
+        List<Long> statementsPerPage = new ArrayList<>();
+        String cursor = null;
+
+        // When
+        do {
+            PageObj pageObj = PageObj.builder()
+                .isPaged(true)
+                .size(50)
+                .isKeyset(true)
+                .cursor(cursor)
+                .build();
+            statistics.clear();
+            PageableData<DailyRecordDetailDTO> page = dailyRecordService.getRecordsByUserId(userId,
+                new SearchRequestDTO<>(null, pageObj));
+            statementsPerPage.add(statistics.getPrepareStatementCount());
+
+            page.getContent().forEach(record -> dates.add(record.getRecordDate()));
+            assertThat(page.getTotalElements()).isNull();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then: 依日期降序取得全部記錄且不重複；每頁只有分頁與載入數值兩次查詢，不查詢總筆數
+        assertThat(dates).hasSize(RECORD_COUNT).doesNotHaveDuplicates();
+        assertThat(dates).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(statementsPerPage).hasSize(3).allSatisfy(statements -> assertThat(statements).isLessThanOrEqualTo(2));
+    }
+
+    @Test
+    void testGetRecordsByUserId_FilteredByDateRange() {
+        // Given: 2023 年 1 月的日期區間
+        SpecObj specObj = new SpecObj(true, null, List.of(
+            where("recordDate", WhereObj.Operator.GTE, "2023-01-01", null),
+            where("recordDate", WhereObj.Operator.LTE, "2023-01-31", WhereObj.Logic.AND)));
+        PageObj pageObj = PageObj.builder().isPaged(true).page(0).size(PAGE_SIZE).build();
+
+        // When
+        PageableData<DailyRecordDetailDTO> page = dailyRecordService.getRecordsByUserId(userId,
+            new SearchRequestDTO<>(specObj, pageObj));
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(31);
+        assertThat(page.getContent()).allSatisfy(record ->
+            assertThat(record.getRecordDate()).isBetween(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31)));
+    }
+
+    @Test
+    void testGetRecordsByUserId_OrConditionsOnlyMatchListedDates() {
+        // Given: 第一個條件不與恆真條件合併，OR 只比對列出的日期
+        SpecObj specObj = new SpecObj(true, null, List.of(
+            where("recordDate", WhereObj.Operator.EQ, "2023-01-05", null),
+            where("recordDate", WhereObj.Operator.EQ, "2023-02-10", WhereObj.Logic.OR)));
+        PageObj pageObj = PageObj.builder().isPaged(true).page(0).size(PAGE_SIZE).build();
+
+        // When
+        PageableData<DailyRecordDetailDTO> page = dailyRecordService.getRecordsByUserId(userId,
+            new SearchRequestDTO<>(specObj, pageObj));
+
+        // Then
+        assertThat(page.getContent()).extracting(DailyRecordDetailDTO::getRecordDate)
+            .containsExactlyInAnyOrder(LocalDate.of(2023, 1, 5), LocalDate.of(2023, 2, 10));
+    }
+
+    @Test
+    void testGetRecordsByUserId_FilteredByFieldValues() {
+        // Given: search-field-0 > 25 且 search-field-1 = 30.0（NUMBER 欄位以數值比較，30.0 等於 30）
+        SpecObj specObj = new SpecObj(true, null, List.of(
+            WhereObj.builder().isWhere(true).field(fieldName(0)).operator(WhereObj.Operator.GT).value("25").build(),
+            WhereObj.builder().isWhere(true).field(fieldName(1)).operator(WhereObj.Operator.EQ).value("30.0")
+                .logic(WhereObj.Logic.AND).build()));
+        PageObj pageObj = PageObj.builder().isPaged(true).page(0).size(PAGE_SIZE).build();
+
+        // When
+        statistics.clear();
+        PageableData<DailyRecordDetailDTO> page = dailyRecordService.getRecordsByUserId(userId,
+            new SearchRequestDTO<>(specObj, pageObj));
+        long statements = statistics.getPrepareStatementCount();
+
+        // Then: 每月 29 日（2 月沒有），欄位條件以子查詢完成，不增加查詢次數
+        assertThat(page.getContent()).extracting(DailyRecordDetailDTO::getRecordDate)
+            .containsExactlyInAnyOrder(LocalDate.of(2023, 1, 29), LocalDate.of(2023, 3, 29), LocalDate.of(2023, 4, 29));
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    private WhereObj where(String column, WhereObj.Operator operator, String value, WhereObj.Logic logic) {
+        return WhereObj.builder().isWhere(true).column(column).operator(operator).value(value).logic(logic).build();
+    }
+
+    private RecordRequestDTO request(LocalDate recordDate) {
+        Map<String, String> fieldValues = new LinkedHashMap<>();
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            fieldValues.put(fieldName(i), String.valueOf(recordDate.getDayOfMonth() + i));
+        }
+        RecordRequestDTO request = new RecordRequestDTO();
+        request.setRecordDate(recordDate);
+        request.setFieldValues(fieldValues);
+        return request;
+    }
+
+    private String fieldName(int index) {
+        return "search-field-" + index;
+    }
+}
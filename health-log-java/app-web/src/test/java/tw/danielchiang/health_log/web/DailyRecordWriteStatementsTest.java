@@ -0,0 +1,102 @@
+package tw.danielchiang.health_log.web;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import tw.danielchiang.health_log.model.dto.request.RecordRequestDTO;
+import tw.danielchiang.health_log.service.DailyRecordService;
+
+/**
+ * saveRecord 每次呼叫送出的 JDBC 敘述數
+ * 以 Hibernate Statistics 計算 10 / 50 / 200 個 NUMBER 欄位新增與全部更新時的 prepared statement 數（批次寫入計為一次）
+ */
+// 使用獨立的內存資料庫：其他測試 context 以 create-drop 重建共用資料庫時，序列會與此 context 已預取的 ID 區段重疊
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.datasource.url=jdbc:h2:mem:statements"
+})
+@ActiveProfiles("test")
+@Import(RecordTestFixture.class)
+class DailyRecordWriteStatementsTest {
+
+    private static final int[] FIELD_COUNTS = {10, 50, 200};
+
+    // 批次大小 50：200 個欄位新增約 32 個敘述、更新約 18 個；逐筆寫入時會超過欄位數
+    private static final long MAX_STATEMENTS_PER_SAVE = 35;
+
+    @Autowired
+    private DailyRecordService dailyRecordService;
+
+    @Autowired
+    private RecordTestFixture fixture;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        userId = fixture.createUser("statements");
+        fixture.ensureFields("NUMBER",
+            IntStream.range(0, FIELD_COUNTS[FIELD_COUNTS.length - 1]).mapToObj(this::fieldName).toList());
+    }
+
+    @Test
+    void testSaveRecord_StatementsPerCall() {
+        // When: 每組先新增所有欄位，再更新所有欄位
+        long[] inserted = new long[FIELD_COUNTS.length];
+        long[] updated = new long[FIELD_COUNTS.length];
+        for (int i = 0; i < FIELD_COUNTS.length; i++) {
+            int fieldCount = FIELD_COUNTS[i];
+            // 每組使用不同月份，避免共用週 / 月彙總
+            LocalDate recordDate = LocalDate.of(2024, i + 1, 15);
+
+            inserted[i] = countStatements(() -> dailyRecordService.saveRecord(userId, request(recordDate, fieldCount, 1)));
+            updated[i] = countStatements(() -> dailyRecordService.saveRecord(userId, request(recordDate, fieldCount, 2)));
+        }
+
+        // Then: 寫入以批次送出，敘述數不隨欄位數增加
+        for (int i = 0; i < FIELD_COUNTS.length; i++) {
+            assertThat(inserted[i]).as("insert, fields=%d", FIELD_COUNTS[i]).isLessThanOrEqualTo(MAX_STATEMENTS_PER_SAVE);
+            assertThat(updated[i]).as("update, fields=%d", FIELD_COUNTS[i]).isLessThanOrEqualTo(MAX_STATEMENTS_PER_SAVE);
+        }
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private RecordRequestDTO request(LocalDate recordDate, int fieldCount, int value) {
+        Map<String, String> fieldValues = new LinkedHashMap<>();
+        for (int i = 0; i < fieldCount; i++) {
+            fieldValues.put(fieldName(i), String.valueOf(value + i));
+        }
+        RecordRequestDTO request = new RecordRequestDTO();
+        request.setRecordDate(recordDate);
+        request.setFieldValues(fieldValues);
+        return request;
+    }
+
+    private String fieldName(int index) {
+        return "field-" + index;
+    }
+}
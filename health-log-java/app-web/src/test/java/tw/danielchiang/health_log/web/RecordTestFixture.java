@@ -0,0 +1,63 @@
+package tw.danielchiang.health_log.web;
+
+import java.util.List;
+
+import org.springframework.boot.test.context.TestComponent;
+
+import lombok.RequiredArgsConstructor;
+import tw.danielchiang.health_log.data.repository.FieldSettingRepository;
+import tw.danielchiang.health_log.data.repository.RoleRepository;
+import tw.danielchiang.health_log.data.repository.UserRepository;
+import tw.danielchiang.health_log.model.entity.FieldSetting;
+import tw.danielchiang.health_log.model.entity.Role;
+import tw.danielchiang.health_log.model.entity.User;
+import tw.danielchiang.health_log.service.cache.FieldSettingRegistry;
+
+/**
+ * 整合測試共用的使用者與欄位設定資料（以 @Import 載入）
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class RecordTestFixture {
+
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final FieldSettingRepository fieldSettingRepository;
+    private final FieldSettingRegistry fieldSettingRegistry;
+
+    /**
+     * 建立 USER 角色的使用者（每次呼叫使用不同的 email）
+     * @param emailPrefix email 前綴
+     * @return 使用者 ID
+     */
+    public Long createUser(String emailPrefix) {
+        Role role = roleRepository.findByRoleName("USER").orElseGet(() -> {
+            Role newRole = new Role();
+            newRole.setRoleName("USER");
+            return roleRepository.save(newRole);
+        });
+        User user = new User();
+        user.setEmail(emailPrefix + "-" + System.nanoTime() + "@example.com");
+        user.setPasswordHash("hash");
+        user.setRole(role);
+        return userRepository.save(user).getId();
+    }
+
+    /**
+     * 建立尚不存在的啟用欄位，並重新載入欄位設定快照
+     * @param dataType 欄位類型
+     * @param fieldNames 欄位名稱
+     */
+    public void ensureFields(String dataType, List<String> fieldNames) {
+        for (String fieldName : fieldNames) {
+            if (fieldSettingRepository.findByFieldName(fieldName).isEmpty()) {
+                FieldSetting fieldSetting = new FieldSetting();
+                fieldSetting.setFieldName(fieldName);
+                fieldSetting.setDataType(dataType);
+                fieldSetting.setIsActive(true);
+                fieldSettingRepository.save(fieldSetting);
+            }
+        }
+        fieldSettingRegistry.refresh();
+    }
+}
@@ -7,11 +7,18 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.Arrays;
@@ -26,16 +33,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import tw.danielchiang.health_log.model.domain.PageableData;
 import tw.danielchiang.health_log.model.dto.reponse.DailyRecordDetailDTO;
+import tw.danielchiang.health_log.model.dto.reponse.RecordImportResultDTO;
 import tw.danielchiang.health_log.model.dto.request.RecordRequestDTO;
+import tw.danielchiang.health_log.model.obj.RecordFileFormat;
 import tw.danielchiang.health_log.service.DailyRecordService;
+import tw.danielchiang.health_log.service.RecordExportService;
+import tw.danielchiang.health_log.service.RecordImportJob;
 import tw.danielchiang.health_log.web.util.SecurityUtil;
 
 /**
@@ -52,6 +67,12 @@ class DailyRecordControllerTest {
     @MockBean
     private DailyRecordService dailyRecordService;
 
+    @MockBean
+    private RecordImportJob recordImportJob;
+
+    @MockBean
+    private RecordExportService recordExportService;
+
     @MockBean
     private SecurityUtil securityUtil;
 
@@ -112,6 +133,38 @@ class DailyRecordControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser
+    void testSearchRecords_Keyset() throws Exception {
+        PageableData<DailyRecordDetailDTO> page = PageableData.of(
+                new SliceImpl<>(List.of(recordDetail), PageRequest.of(0, 1), true), "next-cursor");
+        when(dailyRecordService.getRecordsByUserId(eq(testUserId), any())).thenReturn(page);
+
+        mockMvc.perform(post("/api/records/search")
+                .with(csrf())
+                .header("Authorization", "Bearer test-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"pageObj\":{\"isPaged\":true,\"size\":1,\"isKeyset\":true,\"cursor\":\"prev-cursor\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].recordDate").value("2024-01-15"))
+                .andExpect(jsonPath("$.data.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.data.totalElements").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchRecords_InvalidCursor() throws Exception {
+        when(dailyRecordService.getRecordsByUserId(eq(testUserId), any()))
+                .thenThrow(new IllegalArgumentException("無效的分頁游標"));
+
+        mockMvc.perform(post("/api/records/search")
+                .with(csrf())
+                .header("Authorization", "Bearer test-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"pageObj\":{\"isPaged\":true,\"size\":1,\"isKeyset\":true,\"cursor\":\"bad\"}}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void testGetRecordByDate_Success() throws Exception {
@@ -167,6 +220,95 @@ class DailyRecordControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser
+    void testImportRecords_Csv() throws Exception {
+        RecordImportResultDTO result = new RecordImportResultDTO();
+        result.setTotalRows(2L);
+        result.setInsertedCount(2L);
+        when(recordImportJob.importRecords(eq(testUserId), any(InputStream.class), eq(RecordFileFormat.CSV)))
+                .thenReturn(result);
+
+        mockMvc.perform(post("/api/records/import")
+                .with(csrf())
+                .header("Authorization", "Bearer test-token")
+                .contentType("text/csv")
+                .content("date,field,value\n2024-01-15,體重,70.5\n2024-01-16,體重,70.8\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(2))
+                .andExpect(jsonPath("$.insertedCount").value(2));
+    }
+
+    @Test
+    @WithMockUser
+    void testImportRecords_UnsupportedContentType() throws Exception {
+        mockMvc.perform(post("/api/records/import")
+                .with(csrf())
+                .header("Authorization", "Bearer test-token")
+                .contentType(MediaType.APPLICATION_XML)
+                .content("<records/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @WithMockUser
+    void testExportRecords_Csv() throws Exception {
+        when(recordExportService.exportRecords(eq(testUserId), eq(RecordFileFormat.CSV), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream output = invocation.getArgument(2);
+                    output.write("date,field,value\n2024-01-15,體重,70.5\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/records/export")
+                .param("format", "csv")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // 等待串流在非同步執行緒寫完，再進行 dispatch
+        result.getAsyncResult();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"records.csv\""))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().bytes("date,field,value\n2024-01-15,體重,70.5\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @WithMockUser
+    void testExportRecords_NdjsonByDefault() throws Exception {
+        String ndjson = "{\"date\":\"2024-01-15\",\"field\":\"體重\",\"value\":\"70.5\"}\n";
+        when(recordExportService.exportRecords(eq(testUserId), eq(RecordFileFormat.NDJSON), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream output = invocation.getArgument(2);
+                    output.write(ndjson.getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        // 未指定 format 時預設為 NDJSON
+        MvcResult result = mockMvc.perform(get("/api/records/export")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"records.ndjson\""))
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().bytes(ndjson.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @WithMockUser
+    void testExportRecords_InvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/records/export")
+                .param("format", "xml")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void testDeleteRecord_Success() throws Exception {
@@ -2,15 +2,19 @@ package tw.danielchiang.health_log.web.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,12 +22,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import tw.danielchiang.health_log.model.dto.reponse.DashboardDTO;
+import tw.danielchiang.health_log.model.dto.reponse.DashboardFieldDTO;
+import tw.danielchiang.health_log.model.dto.reponse.EnumTrendColumnsDTO;
+import tw.danielchiang.health_log.model.dto.reponse.HistogramBinDTO;
+import tw.danielchiang.health_log.model.dto.reponse.NumberDistributionDTO;
+import tw.danielchiang.health_log.model.dto.reponse.NumberStatisticsDTO;
+import tw.danielchiang.health_log.model.dto.reponse.RollingWindowDTO;
+import tw.danielchiang.health_log.model.dto.reponse.TextAnalysisDTO;
 import tw.danielchiang.health_log.model.dto.reponse.TrendDataPointDTO;
+import tw.danielchiang.health_log.service.DashboardService;
 import tw.danielchiang.health_log.service.ReportService;
+import tw.danielchiang.health_log.service.RollingWindowService;
 import tw.danielchiang.health_log.web.util.SecurityUtil;
 
 /**
@@ -40,6 +55,12 @@ class ReportControllerTest {
     @MockBean
     private ReportService reportService;
 
+    @MockBean
+    private DashboardService dashboardService;
+
+    @MockBean
+    private RollingWindowService rollingWindowService;
+
     @MockBean
     private SecurityUtil securityUtil;
 
@@ -58,6 +79,102 @@ class ReportControllerTest {
         }
     }
 
+    @Test
+    @WithMockUser
+    void testGetDashboard_Success() throws Exception {
+        DashboardFieldDTO weight = new DashboardFieldDTO(fieldName, "NUMBER",
+                new NumberStatisticsDTO(new BigDecimal("70.50"), null, null, null, 2L, null, null), null, null);
+        when(dashboardService.getDashboard(eq(testUserId), eq(startDate), eq(endDate)))
+                .thenReturn(new DashboardDTO(startDate, endDate, List.of(weight), List.of("睡眠")));
+
+        mockMvc.perform(get("/api/reports/dashboard")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fields[0].fieldName").value(fieldName))
+                .andExpect(jsonPath("$.fields[0].numberStatistics.count").value(2))
+                .andExpect(jsonPath("$.timedOutFields[0]").value("睡眠"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetDashboard_InvalidRange() throws Exception {
+        when(dashboardService.getDashboard(eq(testUserId), eq(endDate), eq(startDate)))
+                .thenThrow(new IllegalArgumentException("開始日期不可晚於結束日期"));
+
+        mockMvc.perform(get("/api/reports/dashboard")
+                .param("startDate", "2024-01-31")
+                .param("endDate", "2024-01-01")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetDashboard_QueryTimeout() throws Exception {
+        when(dashboardService.getDashboard(eq(testUserId), eq(startDate), eq(endDate)))
+                .thenThrow(new QueryTimeoutException("query timed out"));
+
+        mockMvc.perform(get("/api/reports/dashboard")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetRollingWindow_Success() throws Exception {
+        RollingWindowDTO rollingWindow = new RollingWindowDTO(fieldName, "NUMBER", 30,
+                LocalDate.of(2024, 1, 2), endDate,
+                new NumberStatisticsDTO(new BigDecimal("70.50"), null, null, null, 2L, null, null), null, null);
+        when(rollingWindowService.getRollingWindow(testUserId, fieldName, 30)).thenReturn(rollingWindow);
+
+        mockMvc.perform(get("/api/reports/rolling")
+                .param("fieldName", fieldName)
+                .param("days", "30")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days").value(30))
+                .andExpect(jsonPath("$.startDate").value("2024-01-02"))
+                .andExpect(jsonPath("$.numberStatistics.count").value(2));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetRollingWindow_UnsupportedDays() throws Exception {
+        when(rollingWindowService.getRollingWindow(testUserId, fieldName, 14))
+                .thenThrow(new IllegalArgumentException("不支援的視窗天數: 14"));
+
+        mockMvc.perform(get("/api/reports/rolling")
+                .param("fieldName", fieldName)
+                .param("days", "14")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEnumTrendColumns_Success() throws Exception {
+        EnumTrendColumnsDTO columns = new EnumTrendColumnsDTO(
+                List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2)),
+                List.of("差", "好"),
+                List.of(new long[] {2, 0}, new long[] {1, 3}));
+        when(reportService.getEnumTrendColumns(eq(testUserId), eq("心情"), eq(startDate), eq(endDate), isNull()))
+                .thenReturn(columns);
+
+        mockMvc.perform(get("/api/reports/enum/trend/columns")
+                .param("fieldName", "心情")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dates[1]").value("2024-01-02"))
+                .andExpect(jsonPath("$.options[0]").value("差"))
+                .andExpect(jsonPath("$.counts[1][1]").value(3));
+    }
+
     @Test
     @WithMockUser
     void testGetTrendData_Success() throws Exception {
@@ -102,6 +219,41 @@ class ReportControllerTest {
                 .andExpect(jsonPath("$[1].value").isEmpty());
     }
 
+    @Test
+    @WithMockUser
+    void testGetNumberDistribution_Success() throws Exception {
+        NumberDistributionDTO distribution = new NumberDistributionDTO(2L,
+                Map.of("p50", new BigDecimal("70.50")),
+                List.of(new HistogramBinDTO(new BigDecimal("70.00"), new BigDecimal("71.00"), 2L)));
+        when(reportService.getNumberDistribution(eq(testUserId), eq(fieldName), eq(startDate), eq(endDate), eq(10)))
+                .thenReturn(distribution);
+
+        mockMvc.perform(get("/api/reports/number/distribution")
+                .param("fieldName", fieldName)
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.percentiles.p50").value(70.5))
+                .andExpect(jsonPath("$.histogram[0].count").value(2));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetNumberDistribution_InvalidBins() throws Exception {
+        when(reportService.getNumberDistribution(eq(testUserId), eq(fieldName), eq(startDate), eq(endDate), eq(0)))
+                .thenThrow(new IllegalArgumentException("直方圖區間數必須介於 1 與 100 之間: 0"));
+
+        mockMvc.perform(get("/api/reports/number/distribution")
+                .param("fieldName", fieldName)
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .param("bins", "0")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void testGetTrendData_Unauthorized() throws Exception {
@@ -131,6 +283,26 @@ class ReportControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser
+    void testGetTrendData_WithMaxPoints() throws Exception {
+        TrendDataPointDTO point1 = new TrendDataPointDTO(LocalDate.of(2024, 1, 1), "70.5");
+        TrendDataPointDTO point2 = new TrendDataPointDTO(LocalDate.of(2024, 1, 31), "71.0");
+
+        when(reportService.getTrendData(eq(testUserId), eq(fieldName), eq(startDate), eq(endDate), isNull(), eq(100)))
+                .thenReturn(Arrays.asList(point1, point2));
+
+        mockMvc.perform(get("/api/reports/trend")
+                .param("fieldName", fieldName)
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .param("maxPoints", "100")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].date").value("2024-01-31"));
+    }
+
     @Test
     @WithMockUser
     void testGetTrendData_DefaultIncludeNulls() throws Exception {
@@ -149,5 +321,74 @@ class ReportControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].value").value("70.5"));
     }
-}
+    @Test
+    @WithMockUser
+    void testSearchText_Success() throws Exception {
+        when(reportService.searchText(eq(testUserId), eq("備註"), eq("頭痛"), eq(startDate), eq(endDate)))
+                .thenReturn(List.of(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 1, 3)));
+
+        mockMvc.perform(get("/api/reports/text/search")
+                .param("fieldName", "備註")
+                .param("query", "頭痛")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0]").value("2024-01-20"));
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchText_NoSearchableTerm() throws Exception {
+        when(reportService.searchText(eq(testUserId), eq("備註"), eq("痛"), eq(startDate), eq(endDate)))
+                .thenThrow(new IllegalArgumentException("No searchable term"));
+
+        mockMvc.perform(get("/api/reports/text/search")
+                .param("fieldName", "備註")
+                .param("query", "痛")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetTextAnalysis_WithTopK() throws Exception {
+        TextAnalysisDTO analysis = new TextAnalysisDTO(Map.of("頭痛", 3L), 3L, 4.0, 5, 3, Map.of(), null);
+        when(reportService.getTextAnalysis(eq(testUserId), eq("備註"), eq(startDate), eq(endDate), eq(1), eq(true), isNull(), isNull()))
+                .thenReturn(analysis);
 
+        mockMvc.perform(get("/api/reports/text/analysis")
+                .param("fieldName", "備註")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .param("topK", "1")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keywordFrequency.頭痛").value(3));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetTextAnalysis_TimelinePage() throws Exception {
+        Map<String, String> timeline = new LinkedHashMap<>();
+        timeline.put("2024-01-20", "頭痛");
+        TextAnalysisDTO analysis = new TextAnalysisDTO(Map.of(), 3L, 4.0, 5, 3, timeline, LocalDate.of(2024, 1, 20));
+        when(reportService.getTextAnalysis(eq(testUserId), eq("備註"), eq(startDate), eq(endDate), isNull(), eq(true),
+                eq(1), eq(LocalDate.of(2024, 1, 25))))
+                .thenReturn(analysis);
+
+        mockMvc.perform(get("/api/reports/text/analysis")
+                .param("fieldName", "備註")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31")
+                .param("timelineLimit", "1")
+                .param("timelineBefore", "2024-01-25")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.timelineData['2024-01-20']").value("頭痛"))
+                .andExpect(jsonPath("$.timelineNextBefore").value("2024-01-20"));
+    }
+}
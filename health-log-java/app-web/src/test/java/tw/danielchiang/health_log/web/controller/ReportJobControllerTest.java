@@ -0,0 +1,190 @@
+package tw.danielchiang.health_log.web.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import tw.danielchiang.health_log.model.dto.reponse.ReportJobDTO;
+import tw.danielchiang.health_log.model.obj.ReportJobStatus;
+import tw.danielchiang.health_log.model.obj.ReportJobType;
+import tw.danielchiang.health_log.service.ReportJobService;
+import tw.danielchiang.health_log.web.util.SecurityUtil;
+
+/**
+ * ReportJobController 測試類
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReportJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private SecurityUtil securityUtil;
+
+    @TempDir
+    private Path directory;
+
+    private Long testUserId = 1L;
+
+    private static final String REQUEST_BODY = """
+            {"type":"NUMBER_REPORT","fieldName":"體重","startDate":"2020-01-01","endDate":"2024-12-31"}
+            """;
+
+    @BeforeEach
+    void setUp() {
+        // Mock SecurityUtil 返回測試用戶 ID
+        try {
+            when(securityUtil.getCurrentUserId(any())).thenReturn(testUserId);
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void testSubmitJob_Accepted() throws Exception {
+        when(reportJobService.submit(eq(testUserId), any())).thenReturn(job(ReportJobStatus.QUEUED, 0));
+
+        mockMvc.perform(post("/api/reports/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(REQUEST_BODY)
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.totalPeriods").value(60));
+    }
+
+    @Test
+    @WithMockUser
+    void testSubmitJob_TooManyJobs() throws Exception {
+        when(reportJobService.submit(eq(testUserId), any()))
+                .thenThrow(new RejectedExecutionException("未完成的報表工作已達上限: 2"));
+
+        mockMvc.perform(post("/api/reports/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(REQUEST_BODY)
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @WithMockUser
+    void testSubmitJob_MissingType() throws Exception {
+        mockMvc.perform(post("/api/reports/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"startDate\":\"2020-01-01\",\"endDate\":\"2024-12-31\"}")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetJob_NotFound() throws Exception {
+        when(reportJobService.getJob(testUserId, "unknown")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/reports/jobs/unknown")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void testAwaitCompletion_Completed() throws Exception {
+        when(reportJobService.awaitCompletion(testUserId, "job-1"))
+                .thenReturn(Optional.of(CompletableFuture.completedFuture(job(ReportJobStatus.COMPLETED, 60))));
+
+        MvcResult result = mockMvc.perform(get("/api/reports/jobs/job-1/completion")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    @WithMockUser
+    void testAwaitCompletion_TimeoutReturnsProgress() throws Exception {
+        when(reportJobService.awaitCompletion(testUserId, "job-1")).thenReturn(Optional.of(new CompletableFuture<>()));
+        when(reportJobService.getJob(testUserId, "job-1")).thenReturn(Optional.of(job(ReportJobStatus.RUNNING, 12)));
+
+        MvcResult result = mockMvc.perform(get("/api/reports/jobs/job-1/completion")
+                .param("timeoutSeconds", "0")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.completedPeriods").value(12));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetResult_NotCompleted() throws Exception {
+        when(reportJobService.getJob(testUserId, "job-1")).thenReturn(Optional.of(job(ReportJobStatus.RUNNING, 12)));
+
+        mockMvc.perform(get("/api/reports/jobs/job-1/result")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetResult_Download() throws Exception {
+        Path result = Files.write(directory.resolve("result.gz"), new byte[] {31, -117});
+        when(reportJobService.getJob(testUserId, "job-1")).thenReturn(Optional.of(job(ReportJobStatus.COMPLETED, 60)));
+        when(reportJobService.getResult(testUserId, "job-1")).thenReturn(Optional.of(result));
+
+        mockMvc.perform(get("/api/reports/jobs/job-1/result")
+                .header("Authorization", "Bearer test-token"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"report-job-1.ndjson.gz\""));
+    }
+
+    private ReportJobDTO job(ReportJobStatus status, int completedPeriods) {
+        ReportJobDTO job = new ReportJobDTO();
+        job.setJobId("job-1");
+        job.setType(ReportJobType.NUMBER_REPORT);
+        job.setStatus(status);
+        job.setCompletedPeriods(completedPeriods);
+        job.setTotalPeriods(60);
+        job.setResultFileName("report-job-1.ndjson.gz");
+        return job;
+    }
+}